@@ -0,0 +1,64 @@
+// src/loadtest/java/com/pheonix/zyrenauth/loadtest/LatencyRecorder.java
+package com.pheonix.zyrenauth.loadtest;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Collects raw latency samples (nanoseconds) for one stage and reports throughput and
+ * percentiles. Samples are kept exactly; a run of a few hundred thousand operations is a
+ * few MB. Thread-safe.
+ */
+final class LatencyRecorder {
+
+    private final String stage;
+    private long[] samples = new long[1024];
+    private int count;
+
+    LatencyRecorder(String stage) {
+        this.stage = stage;
+    }
+
+    synchronized void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+    }
+
+    synchronized String report(double elapsedSeconds) {
+        if (count == 0) {
+            return String.format(Locale.ROOT, "%-10s %8d ops", stage, 0);
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return String.format(Locale.ROOT, "%-10s %8d ops %9.1f/s   p50 %8.3f ms   p99 %8.3f ms   p999 %8.3f ms   max %8.3f ms",
+                stage, count, count / elapsedSeconds,
+                millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.99)),
+                millis(percentile(sorted, 0.999)), millis(sorted[count - 1]));
+    }
+
+    synchronized long percentileNanos(double quantile) {
+        if (count == 0) return 0;
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return percentile(sorted, quantile);
+    }
+
+    synchronized int overThreshold(long nanos) {
+        int over = 0;
+        for (int i = 0; i < count; i++) {
+            if (samples[i] > nanos) over++;
+        }
+        return over;
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,284 @@
+// src/loadtest/java/com/pheonix/zyrenauth/loadtest/LoadTest.java
+package com.pheonix.zyrenauth.loadtest;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.pheonix.zyrenauth.ZyrenAuthPlugin;
+import com.pheonix.zyrenauth.util.ZyrenAuthConfig;
+import org.bukkit.Location;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Drives the whole plugin under MockBukkit with simulated players: pre-login on a separate
+ * thread pool (as Paper does), join, /register on the first cycle and /login on later ones,
+ * move spam while frozen and after login, then quit. Everything goes through the real
+ * listener and command executors; accounts live in file storage, which stands in for the
+ * database. Ticks are paced in real time at 20 TPS so async auth work (BCrypt on virtual
+ * threads) overlaps the ticks the way it would on a live server.
+ * <p>
+ * Reports throughput and p50/p99/p999 latency per stage plus main-thread time per tick.
+ * Run with {@code ./gradlew loadTest -PloadTestArgs="players=2000 rate=100"}.
+ */
+public final class LoadTest {
+
+    private static final long TICK_NANOS = 50_000_000L;
+    private static final long AUTH_GIVE_UP_NANOS = 30_000_000_000L;
+
+    private enum State { PRE_LOGIN, JOINED, AUTHING, MOVING, DONE }
+
+    private static final class VirtualPlayer {
+        final int index;
+        final String name;
+        final UUID uuid;
+        final InetAddress address;
+        final String password;
+        State state = State.DONE;
+        PlayerMock player;
+        int cyclesLeft;
+        int movesLeft;
+        boolean registered;
+        long commandSentAt;
+
+        VirtualPlayer(int index, int cycles) throws IOException {
+            this.index = index;
+            this.name = "lt" + index;
+            this.uuid = UUID.nameUUIDFromBytes(("OfflinePlayer:" + name).getBytes(StandardCharsets.UTF_8));
+            this.address = InetAddress.getByAddress(new byte[]{10, (byte) (index >>> 16), (byte) (index >>> 8), (byte) index});
+            this.password = "Load-test-" + index;
+            this.cyclesLeft = cycles;
+        }
+    }
+
+    private final Map<String, String> options;
+    private final int players;
+    private final double joinsPerSecond;
+    private final int moves;
+    private final int cycles;
+    private final int bcryptStrength;
+    private final int maxSeconds;
+
+    private final LatencyRecorder preLogin = new LatencyRecorder("pre-login");
+    private final LatencyRecorder join = new LatencyRecorder("join");
+    private final LatencyRecorder register = new LatencyRecorder("register");
+    private final LatencyRecorder login = new LatencyRecorder("login");
+    private final LatencyRecorder frozenMove = new LatencyRecorder("move-wait");
+    private final LatencyRecorder move = new LatencyRecorder("move");
+    private final LatencyRecorder quit = new LatencyRecorder("quit");
+    private final LatencyRecorder tick = new LatencyRecorder("tick");
+    private int refused;
+    private int kicked;
+    private int stalled;
+
+    private LoadTest(Map<String, String> options) {
+        this.options = options;
+        this.players = intOption("players", 1000);
+        this.joinsPerSecond = Double.parseDouble(options.getOrDefault("rate", "50"));
+        this.moves = intOption("moves", 40);
+        this.cycles = intOption("cycles", 2);
+        this.bcryptStrength = intOption("bcrypt", 10);
+        this.maxSeconds = intOption("maxSeconds", 600);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        new LoadTest(options).run();
+    }
+
+    private void run() throws Exception {
+        ServerMock server = MockBukkit.mock();
+        ExecutorService preLoginPool = Executors.newFixedThreadPool(intOption("preLoginThreads", 4));
+        try {
+            ZyrenAuthPlugin plugin = MockBukkit.load(ZyrenAuthPlugin.class);
+            configure(server, plugin);
+            simulate(server, plugin, preLoginPool);
+        } finally {
+            preLoginPool.shutdownNow();
+            MockBukkit.unmock();
+        }
+    }
+
+    // Rewrites config.json for the run and applies it with /za reload: no MySQL (file storage
+    // stands in for the database), no bot protection or timeouts to interfere with the script
+    private void configure(ServerMock server, ZyrenAuthPlugin plugin) throws IOException, InterruptedException {
+        File configFile = new File(plugin.getDataFolder(), "config.json");
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        JsonObject config;
+        try (FileReader reader = new FileReader(configFile)) {
+            config = gson.fromJson(reader, JsonObject.class);
+        }
+        config.addProperty("mysqlEnabled", false);
+        config.addProperty("bcryptStrength", bcryptStrength);
+        config.addProperty("antiBotEnabled", false);
+        config.addProperty("authTimeoutSeconds", 0);
+        config.addProperty("returnChunkPrefetchRadius", -1);
+        config.addProperty("breachedPasswordCheckEnabled", false);
+        try (FileWriter writer = new FileWriter(configFile)) {
+            gson.toJson(config, writer);
+        }
+        plugin.reload(server.getConsoleSender());
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!isApplied(plugin.getZyrenConfig())) {
+            if (System.nanoTime() > deadline) throw new IllegalStateException("Load test config was not applied");
+            server.getScheduler().performOneTick();
+            Thread.sleep(10);
+        }
+    }
+
+    private boolean isApplied(ZyrenAuthConfig config) {
+        return config.getBcryptStrength() == bcryptStrength && !config.isAntiBotEnabled();
+    }
+
+    private void simulate(ServerMock server, ZyrenAuthPlugin plugin, ExecutorService preLoginPool) throws Exception {
+        Deque<VirtualPlayer> waiting = new ArrayDeque<>();
+        for (int i = 0; i < players; i++) {
+            waiting.add(new VirtualPlayer(i, cycles));
+        }
+        Queue<VirtualPlayer> admitted = new ConcurrentLinkedQueue<>();
+        List<VirtualPlayer> online = new ArrayList<>();
+        double joinBudget = 0;
+        int inFlight = 0;
+        long started = System.nanoTime();
+        long deadline = started + maxSeconds * 1_000_000_000L;
+
+        while ((!waiting.isEmpty() || inFlight > 0 || !online.isEmpty()) && System.nanoTime() < deadline) {
+            long tickStart = System.nanoTime();
+
+            // Connection attempts at the target rate; pre-login runs off the main thread
+            joinBudget += joinsPerSecond / 20.0;
+            while (joinBudget >= 1 && !waiting.isEmpty()) {
+                joinBudget--;
+                VirtualPlayer vp = waiting.poll();
+                vp.state = State.PRE_LOGIN;
+                inFlight++;
+                preLoginPool.execute(() -> {
+                    AsyncPlayerPreLoginEvent event = new AsyncPlayerPreLoginEvent(vp.name, vp.address, vp.uuid);
+                    long t = System.nanoTime();
+                    server.getPluginManager().callEvent(event);
+                    preLogin.record(System.nanoTime() - t);
+                    if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) vp.state = State.DONE;
+                    admitted.add(vp);
+                });
+            }
+
+            VirtualPlayer ready;
+            while ((ready = admitted.poll()) != null) {
+                inFlight--;
+                if (ready.state == State.DONE) {
+                    refused++;
+                    continue;
+                }
+                ready.player = new PlayerMock(server, ready.name, ready.uuid);
+                long t = System.nanoTime();
+                server.addPlayer(ready.player);
+                join.record(System.nanoTime() - t);
+                ready.state = State.JOINED;
+                online.add(ready);
+            }
+
+            Iterator<VirtualPlayer> it = online.iterator();
+            while (it.hasNext()) {
+                VirtualPlayer vp = it.next();
+                if (!vp.player.isOnline()) {
+                    kicked++;
+                    vp.state = State.DONE;
+                    it.remove();
+                    continue;
+                }
+                switch (vp.state) {
+                    case JOINED -> {
+                        vp.commandSentAt = System.nanoTime();
+                        vp.player.performCommand(vp.registered ? "login " + vp.password
+                                : "register " + vp.password + " " + vp.password);
+                        vp.state = State.AUTHING;
+                    }
+                    case AUTHING -> {
+                        if (plugin.getAuthManager().getAuthenticatedPlayers().contains(vp.uuid)) {
+                            (vp.registered ? login : register).record(System.nanoTime() - vp.commandSentAt);
+                            vp.registered = true;
+                            vp.movesLeft = moves;
+                            vp.state = State.MOVING;
+                        } else if (System.nanoTime() - vp.commandSentAt > AUTH_GIVE_UP_NANOS) {
+                            stalled++;
+                            disconnect(vp, waiting);
+                            it.remove();
+                        } else {
+                            // Spam while frozen: every move is rubber-banded back to the auth spot
+                            moveOnce(vp, frozenMove);
+                        }
+                    }
+                    case MOVING -> {
+                        moveOnce(vp, move);
+                        if (--vp.movesLeft <= 0) {
+                            disconnect(vp, waiting);
+                            it.remove();
+                        }
+                    }
+                    default -> { }
+                }
+            }
+
+            server.getScheduler().performOneTick();
+            long used = System.nanoTime() - tickStart;
+            tick.record(used);
+            if (used < TICK_NANOS) {
+                Thread.sleep((TICK_NANOS - used) / 1_000_000, (int) ((TICK_NANOS - used) % 1_000_000));
+            }
+        }
+
+        report((System.nanoTime() - started) / 1_000_000_000.0, waiting.size() + online.size() + inFlight);
+    }
+
+    private void moveOnce(VirtualPlayer vp, LatencyRecorder recorder) {
+        Location to = vp.player.getLocation().clone().add((vp.index & 1) == 0 ? 0.2 : -0.2, 0, 0.2);
+        long t = System.nanoTime();
+        vp.player.simulatePlayerMove(to);
+        recorder.record(System.nanoTime() - t);
+    }
+
+    private void disconnect(VirtualPlayer vp, Deque<VirtualPlayer> waiting) {
+        long t = System.nanoTime();
+        vp.player.disconnect();
+        quit.record(System.nanoTime() - t);
+        vp.state = State.DONE;
+        if (--vp.cyclesLeft > 0) waiting.add(vp);
+    }
+
+    private void report(double elapsedSeconds, int unfinished) {
+        System.out.println();
+        System.out.printf(Locale.ROOT, "ZyrenAuth load test: %d players x %d cycles at %.1f joins/s, %d moves, bcrypt %d, %.1fs%n",
+                players, cycles, joinsPerSecond, moves, bcryptStrength, elapsedSeconds);
+        for (LatencyRecorder recorder : List.of(preLogin, join, register, login, frozenMove, move, quit)) {
+            System.out.println("  " + recorder.report(elapsedSeconds));
+        }
+        System.out.println("  " + tick.report(elapsedSeconds));
+        System.out.printf(Locale.ROOT, "  main thread: %d ticks over 50 ms; p99 tick uses %.0f%% of the budget%n",
+                tick.overThreshold(TICK_NANOS), 100.0 * tick.percentileNanos(0.99) / TICK_NANOS);
+        System.out.printf(Locale.ROOT, "  refused at pre-login: %d, kicked: %d, auth stalled: %d, unfinished: %d%n",
+                refused, kicked, stalled, unfinished);
+        if (!options.isEmpty()) System.out.println("  options: " + options);
+    }
+
+    private int intOption(String name, int fallback) {
+        String value = options.get(name);
+        return value != null ? Integer.parseInt(value) : fallback;
+    }
+}
@@ -2,28 +2,59 @@ package com.pheonix.zyrenauth;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 import com.pheonix.zyrenauth.command.*;
 import com.pheonix.zyrenauth.listener.PlayerRestrictionListener;
+import com.pheonix.zyrenauth.manager.AuthChangeFeed;
 import com.pheonix.zyrenauth.manager.AuthManager;
+import com.pheonix.zyrenauth.manager.AuthTimeouts;
 import com.pheonix.zyrenauth.manager.DatabaseManager;
+import com.pheonix.zyrenauth.manager.EmbeddedDatabaseManager;
+import com.pheonix.zyrenauth.manager.FreezeState;
+import com.pheonix.zyrenauth.manager.IpBanList;
+import com.pheonix.zyrenauth.manager.LimboManager;
+import com.pheonix.zyrenauth.manager.ReturnChunkPrefetcher;
+import com.pheonix.zyrenauth.manager.SecurityLogArchiver;
+import com.pheonix.zyrenauth.manager.TrafficMonitor;
+import com.pheonix.zyrenauth.manager.WriteSpool;
 import com.pheonix.zyrenauth.util.EmailSender;
+import com.pheonix.zyrenauth.util.Messages;
 import com.pheonix.zyrenauth.util.ZyrenAuthConfig;
 import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class ZyrenAuthPlugin extends JavaPlugin {
 
     private static ZyrenAuthPlugin instance;
 
-    private ZyrenAuthConfig configObject;
-    private DatabaseManager databaseManager;
-    private EmailSender emailSender;
+    // Swapped as a whole by /za reload; readers always see either the old or the new snapshot
+    private volatile ZyrenAuthConfig configObject;
+    private volatile DatabaseManager databaseManager;
+    private volatile EmailSender emailSender;
+    // Outlives database managers swapped in by /za reload; null without MySQL
+    private WriteSpool writeSpool;
     private AuthManager authManager;
+    private Messages messages;
+    private LimboManager limboManager;
+    private ReturnChunkPrefetcher chunkPrefetcher;
+    private FreezeState freezeState;
+    private AuthTimeouts authTimeouts;
+    private IpBanList ipBanList;
+    private TrafficMonitor trafficMonitor;
+
+    private final List<BukkitTask> backgroundTasks = new ArrayList<>();
+    private AuthChangeFeed changeFeed;
+    private final AtomicBoolean reloading = new AtomicBoolean(false);
 
     public static ZyrenAuthPlugin getInstance() {
         return instance;
@@ -41,6 +72,10 @@ public class ZyrenAuthPlugin extends JavaPlugin {
         return authManager;
     }
 
+    public Messages getMessages() {
+        return messages;
+    }
+
     @Override
     public void onEnable() {
         instance = this;
@@ -48,31 +83,70 @@ public class ZyrenAuthPlugin extends JavaPlugin {
 
         this.configObject = loadJsonConfig();
 
-        // MySQL optional
+        // Falls back to the bundled English texts if the message files cannot be read
+        this.messages = new Messages(this);
+        try {
+            messages.apply(messages.load(configObject));
+        } catch (IOException e) {
+            getLogger().severe("[ZyrenAuth] Failed to read message files. Using built-in messages. Error: " + e.getMessage());
+        }
+
+        // MySQL or the embedded SQLite database optional
         if (configObject.isMysqlEnabled()) {
             this.databaseManager = new DatabaseManager(configObject);
             if (!databaseManager.isConnected()) {
                 getLogger().severe("[ZyrenAuth] MySQL is enabled but connection failed. Running in non-persistent (memory-only) mode.");
                 databaseManager = null; // Force file storage if DB fails
+            } else {
+                // Leases left behind if this server crashed
+                databaseManager.releaseAllSessions();
+                // Writes from an earlier outage are replayed in the background
+                this.writeSpool = new WriteSpool(new File(getDataFolder(), WriteSpool.FILE));
+                try {
+                    writeSpool.load();
+                    databaseManager.attachSpool(writeSpool);
+                } catch (IOException e) {
+                    getLogger().severe("[ZyrenAuth] Could not open " + WriteSpool.FILE + ". Writes during a database outage will be lost. Error: " + e.getMessage());
+                    writeSpool.close();
+                    writeSpool = null;
+                }
+            }
+        } else if (configObject.isSqliteEnabled()) {
+            this.databaseManager = new EmbeddedDatabaseManager(configObject, new File(getDataFolder(), EmbeddedDatabaseManager.FILE));
+            if (!databaseManager.isConnected()) {
+                getLogger().severe("[ZyrenAuth] SQLite is enabled but " + EmbeddedDatabaseManager.FILE + " could not be opened. Falling back to file storage.");
+                databaseManager = null;
+            } else {
+                databaseManager.releaseAllSessions();
             }
         } else {
             getLogger().warning("[ZyrenAuth] MySQL is disabled in config. No data will be stored persistently.");
             databaseManager = null;
         }
 
-        // Email optional (only available with MySQL)
+        // Email optional (only available with a database)
         if (configObject.isEmailFeaturesEnabled() && databaseManager != null) {
             this.emailSender = new EmailSender(configObject);
         } else {
-            getLogger().warning("[ZyrenAuth] Email features are disabled or MySQL is not active. Email commands will be unavailable.");
+            getLogger().warning("[ZyrenAuth] Email features are disabled or no database is active. Email commands will be unavailable.");
             emailSender = null;
         }
 
-        this.authManager = new AuthManager(databaseManager, emailSender, configObject);
+        this.limboManager = new LimboManager(this, configObject);
+        this.chunkPrefetcher = new ReturnChunkPrefetcher(this, configObject);
+        this.freezeState = new FreezeState(this, configObject);
+        this.authTimeouts = new AuthTimeouts(this, configObject, messages);
+        this.ipBanList = new IpBanList(this);
+        ipBanList.load();
+        this.trafficMonitor = new TrafficMonitor(this, configObject);
+        this.authManager = new AuthManager(databaseManager, emailSender, configObject, messages,
+                limboManager, chunkPrefetcher, freezeState, authTimeouts, ipBanList, trafficMonitor);
 
-        Bukkit.getPluginManager().registerEvents(new PlayerRestrictionListener(authManager), this);
+        Bukkit.getPluginManager().registerEvents(new PlayerRestrictionListener(authManager, messages), this);
         registerCommands();
 
+        startBackgroundTasks(-1);
+
         // Re-check DB connection after all managers are set up, in case of late init issues
         if (databaseManager != null && !databaseManager.isConnected()) {
             getLogger().severe("[ZyrenAuth] Database not connected after initial setup, trying to reconnect...");
@@ -89,41 +163,214 @@ public class ZyrenAuthPlugin extends JavaPlugin {
         getLogger().info("[ZyrenAuth] Enabled successfully.");
     }
 
+    // Heartbeat, change feed and log retention. Restarted by /za reload so they pick up the new
+    // config and database manager; the change feed continues from lastSeenChangeId if >= 0.
+    private void startBackgroundTasks(long lastSeenChangeId) {
+        ZyrenAuthConfig config = configObject;
+        DatabaseManager db = databaseManager;
+        if (db == null) return;
+
+        // Keep this backend's session leases alive in one batched UPDATE per interval
+        long heartbeat = Math.max(1, config.getSessionHeartbeatSeconds()) * 20L;
+        backgroundTasks.add(Bukkit.getScheduler().runTaskTimerAsynchronously(this,
+                () -> databaseManager.renewSessionLeases(authManager.getAuthenticatedPlayers()), heartbeat, heartbeat));
+
+        // Pick up password/email/IP changes made by other servers sharing this database
+        changeFeed = lastSeenChangeId >= 0 ? new AuthChangeFeed(db, config, lastSeenChangeId) : new AuthChangeFeed(db, config);
+        changeFeed.addListener(authManager::onAuthChange);
+        long poll = Math.max(1, config.getChangeFeedPollTicks());
+        backgroundTasks.add(Bukkit.getScheduler().runTaskTimerAsynchronously(this, changeFeed, poll, poll));
+
+        // Security log retention runs off the main thread on its own connection
+        if (config.getSecurityLogRetentionDays() > 0) {
+            long period = Math.max(1, config.getSecurityLogRetentionCheckMinutes()) * 60L * 20L;
+            backgroundTasks.add(Bukkit.getScheduler().runTaskTimerAsynchronously(this,
+                    new SecurityLogArchiver(db, config, getDataFolder()), 20L * 60L, period));
+        }
+    }
+
+    private void stopBackgroundTasks() {
+        for (BukkitTask task : backgroundTasks) {
+            task.cancel();
+        }
+        backgroundTasks.clear();
+    }
+
+    /**
+     * Re-reads config.json and the message files without a restart. The new database connection and mail session
+     * are built off the main thread; only the final swap runs on it. Calls already running on
+     * the old connection finish before it is closed. Logged-in players and their session
+     * leases are untouched. Returns false if a reload is already in progress.
+     */
+    public boolean reload(CommandSender sender) {
+        if (!reloading.compareAndSet(false, true)) return false;
+        Bukkit.getScheduler().runTaskAsynchronously(this, () -> {
+            boolean handedOff = false;
+            try {
+                handedOff = prepareReload(sender);
+            } finally {
+                if (!handedOff) reloading.set(false);
+            }
+        });
+        return true;
+    }
+
+    // Returns true if the swap was scheduled on the main thread (which then clears the flag)
+    private boolean prepareReload(CommandSender sender) {
+        ZyrenAuthConfig running = configObject;
+        ZyrenAuthConfig loaded;
+        try {
+            loaded = readJsonConfig(new File(getDataFolder(), "config.json"));
+        } catch (IOException | JsonParseException e) {
+            getLogger().severe("[ZyrenAuth] Reload failed, config.json could not be read: " + e.getMessage());
+            notify(sender, "admin.reload.config-unreadable");
+            return false;
+        }
+        List<String> restartOnly = loaded.restartOnlyChanges(running);
+        ZyrenAuthConfig next = loaded.withRestartOnlySettingsFrom(running);
+
+        Messages.Catalog catalog;
+        try {
+            catalog = messages.load(next);
+        } catch (IOException e) {
+            getLogger().severe("[ZyrenAuth] Reload failed, message files could not be read: " + e.getMessage());
+            notify(sender, "admin.reload.messages-unreadable", "error", e.getMessage());
+            return false;
+        }
+
+        DatabaseManager oldDb = databaseManager;
+        DatabaseManager newDb = oldDb;
+        if (oldDb != null && !oldDb.isEmbedded() && !next.sameDatabaseConnection(running)) {
+            newDb = new DatabaseManager(next);
+            if (!newDb.isConnected()) {
+                notify(sender, "admin.reload.mysql-failed");
+                return false;
+            }
+        }
+
+        EmailSender oldEmail = emailSender;
+        EmailSender newEmail;
+        if (!next.isEmailFeaturesEnabled() || newDb == null) {
+            newEmail = null;
+        } else if (oldEmail != null && next.sameSmtpSession(running)) {
+            newEmail = oldEmail;
+        } else {
+            newEmail = new EmailSender(next);
+        }
+
+        DatabaseManager swapDb = newDb;
+        Bukkit.getScheduler().runTask(this, () -> {
+            try {
+                applyReload(next, catalog, oldDb, swapDb, newEmail);
+                notify(sender, "admin.reload.done");
+                if (swapDb != oldDb) notify(sender, "admin.reload.new-mysql");
+                if (newEmail != oldEmail) notify(sender, "admin.reload.new-mail");
+                if (!restartOnly.isEmpty()) {
+                    notify(sender, "admin.reload.restart-required", "settings", String.join(", ", restartOnly));
+                }
+            } finally {
+                reloading.set(false);
+            }
+        });
+        return true;
+    }
+
+    private void applyReload(ZyrenAuthConfig next, Messages.Catalog catalog, DatabaseManager oldDb, DatabaseManager newDb, EmailSender newEmail) {
+        long lastSeenChangeId = changeFeed != null ? changeFeed.getLastSeenId() : -1;
+        stopBackgroundTasks();
+
+        configObject = next;
+        messages.apply(catalog);
+        limboManager.applyReload(next);
+        chunkPrefetcher.applyReload(next);
+        freezeState.applyReload(next);
+        authTimeouts.applyReload(next);
+        trafficMonitor.applyReload(next);
+        if (newDb != null && newDb == oldDb) {
+            newDb.applyConfig(next);
+        } else if (newDb != null && writeSpool != null) {
+            newDb.attachSpool(writeSpool);
+        }
+        databaseManager = newDb;
+        emailSender = newEmail;
+        authManager.applyReload(next, newDb, newEmail);
+
+        startBackgroundTasks(lastSeenChangeId);
+
+        if (oldDb != null && oldDb != newDb) {
+            Bukkit.getScheduler().runTaskAsynchronously(this, () -> oldDb.drainAndClose(10));
+        }
+        getLogger().info("[ZyrenAuth] Configuration reloaded.");
+    }
+
+    private void notify(CommandSender sender, String key, Object... placeholders) {
+        if (Bukkit.isPrimaryThread()) {
+            messages.send(sender, key, placeholders);
+        } else {
+            Bukkit.getScheduler().runTask(this, () -> messages.send(sender, key, placeholders));
+        }
+    }
+
     @Override
     public void onDisable() {
         getLogger().info("[ZyrenAuth] Server stopping, closing database connections.");
+        stopBackgroundTasks();
+        if (authManager != null) {
+            authManager.shutdown();
+        }
+        if (chunkPrefetcher != null) {
+            chunkPrefetcher.shutdown();
+        }
+        if (authTimeouts != null) {
+            authTimeouts.shutdown();
+        }
+        if (trafficMonitor != null) {
+            trafficMonitor.shutdown();
+        }
         if (databaseManager != null) {
+            databaseManager.releaseAllSessions();
             databaseManager.closeConnection();
         }
+        if (writeSpool != null) {
+            writeSpool.close();
+        }
         getLogger().info("[ZyrenAuth] Cleaned up resources.");
     }
 
     private void registerCommands() {
         if (getCommand("register") != null) {
-            getCommand("register").setExecutor(new RegisterCommand(authManager));
+            getCommand("register").setExecutor(new RegisterCommand(authManager, messages));
         }
         if (getCommand("login") != null) {
-            getCommand("login").setExecutor(new LoginCommand(authManager));
+            getCommand("login").setExecutor(new LoginCommand(authManager, messages));
         }
         if (getCommand("addemail") != null) {
-            getCommand("addemail").setExecutor(new AddEmailCommand(authManager));
+            getCommand("addemail").setExecutor(new AddEmailCommand(authManager, messages));
         }
         if (getCommand("emailconfirm") != null) {
-            getCommand("emailconfirm").setExecutor(new EmailConfirmCommand(authManager));
+            getCommand("emailconfirm").setExecutor(new EmailConfirmCommand(authManager, messages));
         }
         if (getCommand("resetpassword") != null) {
-            getCommand("resetpassword").setExecutor(new ResetPasswordCommand(authManager));
+            getCommand("resetpassword").setExecutor(new ResetPasswordCommand(authManager, messages));
         }
         if (getCommand("resetconfirm") != null) {
-            getCommand("resetconfirm").setExecutor(new ResetConfirmCommand(authManager));
+            getCommand("resetconfirm").setExecutor(new ResetConfirmCommand(authManager, messages));
         }
         if (getCommand("za") != null) {
-            ZyrenAuthAdminCommand zaCommand = new ZyrenAuthAdminCommand(this, authManager);
+            ZyrenAuthAdminCommand zaCommand = new ZyrenAuthAdminCommand(this, authManager, messages);
             getCommand("za").setExecutor(zaCommand);
             getCommand("za").setTabCompleter(zaCommand); // Register tab completer
         }
     }
 
+    private ZyrenAuthConfig readJsonConfig(File configFile) throws IOException {
+        try (FileReader reader = new FileReader(configFile)) {
+            ZyrenAuthConfig loaded = new Gson().fromJson(reader, ZyrenAuthConfig.class);
+            if (loaded == null) throw new IOException("config.json is empty");
+            return loaded;
+        }
+    }
+
     private ZyrenAuthConfig loadJsonConfig() {
         File folder = getDataFolder();
         if (!folder.exists()) {
@@ -135,8 +382,8 @@ public class ZyrenAuthPlugin extends JavaPlugin {
         ZyrenAuthConfig loadedConfig = new ZyrenAuthConfig();
 
         if (configFile.exists()) {
-            try (FileReader reader = new FileReader(configFile)) {
-                loadedConfig = gson.fromJson(reader, ZyrenAuthConfig.class);
+            try {
+                loadedConfig = readJsonConfig(configFile);
                 getLogger().info("[ZyrenAuth] Configuration loaded from: " + configFile.getAbsolutePath());
                 // Re-save to ensure any new default fields are added to the file
                 try (FileWriter writer = new FileWriter(configFile)) {
@@ -2,7 +2,7 @@
 package com.pheonix.zyrenauth.command;
 
 import com.pheonix.zyrenauth.manager.AuthManager;
-import org.bukkit.ChatColor;
+import com.pheonix.zyrenauth.util.Messages;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -11,25 +11,27 @@ import org.bukkit.entity.Player;
 public class AddEmailCommand implements CommandExecutor {
 
     private final AuthManager authManager;
+    private final Messages messages;
 
-    public AddEmailCommand(AuthManager authManager) {
+    public AddEmailCommand(AuthManager authManager, Messages messages) {
         this.authManager = authManager;
+        this.messages = messages;
     }
 
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
         if (!(sender instanceof Player player)) {
-            sender.sendMessage(ChatColor.RED + "Only players can use this command.");
+            messages.send(sender, "command.players-only");
             return true;
         }
 
         if (args.length < 1) { // Changed to < 1 as email can contain spaces (greedyString)
-            player.sendMessage(ChatColor.YELLOW + "Usage: /addemail <email>");
+            messages.send(player, "command.usage.addemail");
             return true;
         }
 
         String email = String.join(" ", args); // Reconstruct email for greedyString
-        authManager.handleEmailAddition(player, email);
+        authManager.runForPlayer(player, "addemail", () -> authManager.handleEmailAddition(player, email));
         return true;
     }
 }
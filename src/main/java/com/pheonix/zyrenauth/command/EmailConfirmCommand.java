@@ -2,7 +2,7 @@
 package com.pheonix.zyrenauth.command;
 
 import com.pheonix.zyrenauth.manager.AuthManager;
-import org.bukkit.ChatColor;
+import com.pheonix.zyrenauth.util.Messages;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -11,25 +11,27 @@ import org.bukkit.entity.Player;
 public class EmailConfirmCommand implements CommandExecutor {
 
     private final AuthManager authManager;
+    private final Messages messages;
 
-    public EmailConfirmCommand(AuthManager authManager) {
+    public EmailConfirmCommand(AuthManager authManager, Messages messages) {
         this.authManager = authManager;
+        this.messages = messages;
     }
 
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
         if (!(sender instanceof Player player)) {
-            sender.sendMessage(ChatColor.RED + "Only players can use this command.");
+            messages.send(sender, "command.players-only");
             return true;
         }
 
         if (args.length != 1) {
-            player.sendMessage(ChatColor.YELLOW + "Usage: /emailconfirm <token>");
+            messages.send(player, "command.usage.emailconfirm");
             return true;
         }
 
         String token = args[0];
-        authManager.confirmEmail(player, token);
+        authManager.runForPlayer(player, "emailconfirm", () -> authManager.confirmEmail(player, token));
         return true;
     }
 }
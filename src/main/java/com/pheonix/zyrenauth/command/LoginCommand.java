@@ -2,7 +2,7 @@
 package com.pheonix.zyrenauth.command;
 
 import com.pheonix.zyrenauth.manager.AuthManager;
-import org.bukkit.ChatColor;
+import com.pheonix.zyrenauth.util.Messages;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -11,25 +11,27 @@ import org.bukkit.entity.Player;
 public class LoginCommand implements CommandExecutor {
 
     private final AuthManager authManager;
+    private final Messages messages;
 
-    public LoginCommand(AuthManager authManager) {
+    public LoginCommand(AuthManager authManager, Messages messages) {
         this.authManager = authManager;
+        this.messages = messages;
     }
 
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
         if (!(sender instanceof Player player)) {
-            sender.sendMessage(ChatColor.RED + "Only players can use this command.");
+            messages.send(sender, "command.players-only");
             return true;
         }
 
         if (args.length != 1) {
-            player.sendMessage(ChatColor.YELLOW + "Usage: /login <password>");
+            messages.send(player, "command.usage.login");
             return true;
         }
 
         String password = args[0];
-        authManager.loginPlayer(player, password);
+        authManager.runForPlayer(player, "login", () -> authManager.loginPlayer(player, password));
         return true;
     }
 }
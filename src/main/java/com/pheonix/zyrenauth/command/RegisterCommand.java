@@ -2,7 +2,7 @@
 package com.pheonix.zyrenauth.command;
 
 import com.pheonix.zyrenauth.manager.AuthManager;
-import org.bukkit.ChatColor;
+import com.pheonix.zyrenauth.util.Messages;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -11,20 +11,22 @@ import org.bukkit.entity.Player;
 public class RegisterCommand implements CommandExecutor {
 
     private final AuthManager authManager;
+    private final Messages messages;
 
-    public RegisterCommand(AuthManager authManager) {
+    public RegisterCommand(AuthManager authManager, Messages messages) {
         this.authManager = authManager;
+        this.messages = messages;
     }
 
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
         if (!(sender instanceof Player player)) {
-            sender.sendMessage(ChatColor.RED + "Only players can use this command.");
+            messages.send(sender, "command.players-only");
             return true;
         }
 
         if (args.length != 2) {
-            player.sendMessage(ChatColor.YELLOW + "Usage: /register <password> <confirm_password>");
+            messages.send(player, "command.usage.register");
             return true;
         }
 
@@ -32,11 +34,11 @@ public class RegisterCommand implements CommandExecutor {
         String confirmPassword = args[1];
 
         if (!password.equals(confirmPassword)) {
-            player.sendMessage(ChatColor.RED + "Passwords do not match!");
+            messages.send(player, "register.mismatch");
             return true;
         }
 
-        authManager.registerPlayer(player, password);
+        authManager.runForPlayer(player, "register", () -> authManager.registerPlayer(player, password));
         return true;
     }
 }
@@ -1,7 +1,7 @@
 package com.pheonix.zyrenauth.command;
 
 import com.pheonix.zyrenauth.manager.AuthManager;
-import org.bukkit.ChatColor;
+import com.pheonix.zyrenauth.util.Messages;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -10,20 +10,22 @@ import org.bukkit.entity.Player;
 public class ResetConfirmCommand implements CommandExecutor {
 
     private final AuthManager authManager;
+    private final Messages messages;
 
-    public ResetConfirmCommand(AuthManager authManager) {
+    public ResetConfirmCommand(AuthManager authManager, Messages messages) {
         this.authManager = authManager;
+        this.messages = messages;
     }
 
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
         if (!(sender instanceof Player player)) {
-            sender.sendMessage(ChatColor.RED + "Only players can use this command.");
+            messages.send(sender, "command.players-only");
             return true;
         }
 
         if (args.length != 3) {
-            player.sendMessage(ChatColor.YELLOW + "Usage: /resetconfirm <token> <new_password> <confirm_new_password>");
+            messages.send(player, "command.usage.resetconfirm");
             return true;
         }
 
@@ -32,11 +34,11 @@ public class ResetConfirmCommand implements CommandExecutor {
         String confirmNewPassword = args[2];
 
         if (!newPassword.equals(confirmNewPassword)) {
-            player.sendMessage(ChatColor.RED + "New passwords do not match!");
+            messages.send(player, "reset.mismatch");
             return true;
         }
 
-        authManager.confirmPasswordReset(player, token, newPassword);
+        authManager.runForPlayer(player, "resetconfirm", () -> authManager.confirmPasswordReset(player, token, newPassword));
         return true;
     }
 }
@@ -2,7 +2,7 @@
 package com.pheonix.zyrenauth.command;
 
 import com.pheonix.zyrenauth.manager.AuthManager;
-import org.bukkit.ChatColor;
+import com.pheonix.zyrenauth.util.Messages;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -11,24 +11,26 @@ import org.bukkit.entity.Player;
 public class ResetPasswordCommand implements CommandExecutor {
 
     private final AuthManager authManager;
+    private final Messages messages;
 
-    public ResetPasswordCommand(AuthManager authManager) {
+    public ResetPasswordCommand(AuthManager authManager, Messages messages) {
         this.authManager = authManager;
+        this.messages = messages;
     }
 
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
         if (!(sender instanceof Player player)) {
-            sender.sendMessage(ChatColor.RED + "Only players can use this command.");
+            messages.send(sender, "command.players-only");
             return true;
         }
 
         if (args.length != 0) {
-            player.sendMessage(ChatColor.YELLOW + "Usage: /resetpassword");
+            messages.send(player, "command.usage.resetpassword");
             return true;
         }
 
-        authManager.handlePasswordReset(player);
+        authManager.runForPlayer(player, "resetpassword", () -> authManager.handlePasswordReset(player));
         return true;
     }
 }
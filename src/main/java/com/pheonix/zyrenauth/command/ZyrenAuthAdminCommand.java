@@ -1,27 +1,58 @@
 package com.pheonix.zyrenauth.command;
 
 import com.pheonix.zyrenauth.ZyrenAuthPlugin;
+import com.pheonix.zyrenauth.manager.AccountSnapshot;
+import com.pheonix.zyrenauth.manager.AltAccountGraph;
 import com.pheonix.zyrenauth.manager.AuthManager;
 import com.pheonix.zyrenauth.manager.DatabaseManager;
+import com.pheonix.zyrenauth.manager.IpBanList;
+import com.pheonix.zyrenauth.manager.QueryProfiler;
+import com.pheonix.zyrenauth.manager.SecurityLogBrowser;
+import com.pheonix.zyrenauth.manager.SecurityLogEntry;
+import com.pheonix.zyrenauth.manager.StorageMigrator;
+import com.pheonix.zyrenauth.manager.WriteSpool;
+import com.pheonix.zyrenauth.util.BreachedPasswordFilter;
+import com.pheonix.zyrenauth.util.Messages;
 import com.pheonix.zyrenauth.util.ZyrenAuthConfig;
-import org.bukkit.ChatColor;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 
+import java.io.File;
+import java.io.IOException;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class ZyrenAuthAdminCommand implements CommandExecutor, TabCompleter {
 
+    private static final DateTimeFormatter LOG_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final List<String> ADMIN_SUBCOMMANDS = Arrays.asList("status", "reload", "migrate", "export", "import", "breachfilter", "ban-range", "logs", "alts", "slowlog");
+
     private final ZyrenAuthPlugin plugin;
     private final AuthManager authManager;
+    private final Messages messages;
+    private final StorageMigrator migrator;
+    private final AccountSnapshot snapshot;
+    private final AtomicBoolean buildingBreachFilter = new AtomicBoolean(false);
+    private final AtomicBoolean importingBanRanges = new AtomicBoolean(false);
+    private final SecurityLogBrowser logBrowser = new SecurityLogBrowser();
 
-    public ZyrenAuthAdminCommand(ZyrenAuthPlugin plugin, AuthManager authManager) {
+    public ZyrenAuthAdminCommand(ZyrenAuthPlugin plugin, AuthManager authManager, Messages messages) {
         this.plugin = plugin;
         this.authManager = authManager;
+        this.messages = messages;
+        this.migrator = new StorageMigrator(plugin);
+        this.snapshot = new AccountSnapshot(plugin);
     }
 
     @Override
@@ -35,9 +66,9 @@ public class ZyrenAuthAdminCommand implements CommandExecutor, TabCompleter {
 
         String sub = args[0].toLowerCase();
 
-        // /za status and /za reload require admin
-        if ((sub.equals("status") || sub.equals("reload")) && !sender.hasPermission("zyrenauth.admin")) {
-            sender.sendMessage(ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "You do not have permission to use that subcommand.");
+        // Every subcommand except /za help requires admin
+        if (ADMIN_SUBCOMMANDS.contains(sub) && !sender.hasPermission("zyrenauth.admin")) {
+            messages.send(sender, "admin.no-permission");
             return true;
         }
 
@@ -48,6 +79,34 @@ public class ZyrenAuthAdminCommand implements CommandExecutor, TabCompleter {
             case "reload":
                 handleReload(sender);
                 break;
+            case "migrate":
+                handleMigrate(sender, args);
+                break;
+            case "breachfilter":
+                handleBreachFilter(sender, args);
+                break;
+            case "ban-range":
+                handleBanRange(sender, args);
+                break;
+            case "logs":
+                handleLogs(sender, args);
+                break;
+            case "alts":
+                handleAlts(sender, args);
+                break;
+            case "slowlog":
+                handleSlowlog(sender);
+                break;
+            case "export":
+                reportStartError(sender, snapshot.startExport(sender));
+                break;
+            case "import":
+                if (args.length < 2) {
+                    messages.send(sender, "admin.usage.import");
+                } else {
+                    reportStartError(sender, snapshot.startImport(sender, args[1]));
+                }
+                break;
             default:
                 sendHelp(sender);
                 break;
@@ -56,21 +115,7 @@ public class ZyrenAuthAdminCommand implements CommandExecutor, TabCompleter {
     }
 
     private void sendHelp(CommandSender sender) {
-        sender.sendMessage(ChatColor.DARK_AQUA + "╔═══════════════════════════════╗");
-        sender.sendMessage(ChatColor.DARK_AQUA + "║ " + ChatColor.AQUA + ChatColor.BOLD + "ZyrenAuth Commands" + ChatColor.DARK_AQUA + "              ║");
-        sender.sendMessage(ChatColor.DARK_AQUA + "╠═══════════════════════════════╣");
-        sender.sendMessage(ChatColor.DARK_AQUA + "║ " + ChatColor.GRAY + "Player Commands:" + ChatColor.DARK_AQUA + "               ║");
-        sender.sendMessage(ChatColor.DARK_AQUA + "║ " + ChatColor.YELLOW + "/register <password> <confirm>" + ChatColor.DARK_GRAY + " - Create account" + ChatColor.DARK_AQUA + " ║");
-        sender.sendMessage(ChatColor.DARK_AQUA + "║ " + ChatColor.YELLOW + "/login <password>" + ChatColor.DARK_GRAY + " - Log in to account" + ChatColor.DARK_AQUA + "   ║");
-        sender.sendMessage(ChatColor.DARK_AQUA + "║ " + ChatColor.YELLOW + "/addemail <email>" + ChatColor.DARK_GRAY + " - Link email (DB only)" + ChatColor.DARK_AQUA + "  ║");
-        sender.sendMessage(ChatColor.DARK_AQUA + "║ " + ChatColor.YELLOW + "/emailconfirm <token>" + ChatColor.DARK_GRAY + " - Confirm email" + ChatColor.DARK_AQUA + "  ║");
-        sender.sendMessage(ChatColor.DARK_AQUA + "║ " + ChatColor.YELLOW + "/resetpassword" + ChatColor.DARK_GRAY + " - Request password reset" + ChatColor.DARK_AQUA + " ║");
-        sender.sendMessage(ChatColor.DARK_AQUA + "║ " + ChatColor.YELLOW + "/resetconfirm <token> <new_pass> <confirm>" + ChatColor.DARK_GRAY + " - Reset pass" + ChatColor.DARK_AQUA + " ║");
-        sender.sendMessage(ChatColor.DARK_AQUA + "╠═══════════════════════════════╣");
-        sender.sendMessage(ChatColor.DARK_AQUA + "║ " + ChatColor.GRAY + "Admin Commands:" + ChatColor.DARK_AQUA + "                ║");
-        sender.sendMessage(ChatColor.DARK_AQUA + "║ " + ChatColor.YELLOW + "/za status" + ChatColor.DARK_GRAY + " - View plugin status " + ChatColor.RED + "(op)" + ChatColor.DARK_AQUA + "  ║");
-        sender.sendMessage(ChatColor.DARK_AQUA + "║ " + ChatColor.YELLOW + "/za reload" + ChatColor.DARK_GRAY + " - Reload config " + ChatColor.RED + "(op)" + ChatColor.DARK_AQUA + "     ║");
-        sender.sendMessage(ChatColor.DARK_AQUA + "╚═══════════════════════════════╝");
+        messages.send(sender, "admin.help");
     }
 
     private void handleStatus(CommandSender sender) {
@@ -80,33 +125,277 @@ public class ZyrenAuthAdminCommand implements CommandExecutor, TabCompleter {
         boolean dbEnabled = cfg.isMysqlEnabled();
         boolean dbConnected = db != null && db.isConnected();
         boolean emailEnabled = cfg.isEmailFeaturesEnabled();
+        WriteSpool spool = db != null ? db.getWriteSpool() : null;
 
         // Decide storage label
-        String storage;
-        if (dbEnabled && dbConnected) {
-            storage = ChatColor.GREEN + "MySQL";
+        Component storage;
+        if (db != null && db.isEmbedded()) {
+            storage = messages.get(sender, "admin.status.storage-sqlite");
+        } else if (dbEnabled && dbConnected) {
+            storage = messages.get(sender, "admin.status.storage-mysql");
         } else if (dbEnabled) {
-            storage = ChatColor.YELLOW + "MySQL (configured, not connected)";
+            storage = messages.get(sender, "admin.status.storage-mysql-disconnected");
         } else {
-            storage = ChatColor.AQUA + "File (accounts.json)";
+            storage = messages.get(sender, "admin.status.storage-file");
         }
 
-        sender.sendMessage(ChatColor.AQUA + "╔═══════════════════════════════╗");
-        sender.sendMessage(ChatColor.AQUA + "║ " + ChatColor.GOLD + ChatColor.BOLD + "ZyrenAuth Status" + ChatColor.DARK_AQUA + "              ║");
-        sender.sendMessage(ChatColor.AQUA + "╠═══════════════════════════════╣");
-        sender.sendMessage(ChatColor.AQUA + "║ " + ChatColor.GRAY + "Version: " + ChatColor.WHITE + plugin.getDescription().getVersion() + ChatColor.DARK_AQUA + "         ║");
-        sender.sendMessage(ChatColor.AQUA + "║ " + ChatColor.GRAY + "Storage: " + storage + ChatColor.DARK_AQUA + " ║");
-        sender.sendMessage(ChatColor.AQUA + "║ " + ChatColor.GRAY + "MySQL Enabled: " + ChatColor.WHITE + dbEnabled + ChatColor.DARK_AQUA + "         ║");
-        sender.sendMessage(ChatColor.AQUA + "║ " + ChatColor.GRAY + "MySQL Connected: " + ChatColor.WHITE + dbConnected + ChatColor.DARK_AQUA + "       ║");
-        sender.sendMessage(ChatColor.AQUA + "║ " + ChatColor.GRAY + "Email Features: " + ChatColor.WHITE + emailEnabled + ChatColor.DARK_AQUA + "        ║");
-        sender.sendMessage(ChatColor.AQUA + "╚═══════════════════════════════╝");
+        messages.send(sender, "admin.status", "version", plugin.getDescription().getVersion(), "storage", storage,
+                "mysql_enabled", dbEnabled, "mysql_connected", dbConnected, "email_enabled", emailEnabled,
+                "db_circuit", db != null ? db.getCircuitState().name() : "-",
+                "db_circuit_opened", db != null ? db.getCircuitOpenedTotal() : 0,
+                "spool_pending", spool != null ? spool.getPendingCount() : 0,
+                "spool_size", spool != null ? String.format(Locale.ROOT, "%.1f", spool.getSizeBytes() / 1024.0) : "0",
+                "spool_lag", spool != null ? spool.getLagMillis() / 1000 : 0,
+                "waiting", authManager.getFreezeState().getWaitingCount(),
+                "wait_chunks", String.format(Locale.ROOT, "%.1f", authManager.getFreezeState().getAverageChunksPerWait()),
+                "timeouts", authManager.getAuthTimeouts().getTimedOutCount(),
+                "ban_ranges", authManager.getIpBanList().size(),
+                "ban_blocked", authManager.getIpBanList().getBlockedCount(),
+                "strict", authManager.getTrafficMonitor().isStrict(),
+                "joins_second", authManager.getTrafficMonitor().getJoinsPerSecond(),
+                "joins_minute", authManager.getTrafficMonitor().getJoinsPerMinute(),
+                "ips_minute", authManager.getTrafficMonitor().getIpsPerMinute());
     }
 
     private void handleReload(CommandSender sender) {
-        // Implement a proper reload method in ZyrenAuthPlugin if needed,
-        // which would re-initialize managers. For now, inform the admin.
-        sender.sendMessage(ChatColor.YELLOW + "§l⚠ " + ChatColor.GOLD +
-                "ZyrenAuth config is file-based. For now, please restart the server to fully apply changes.");
+        if (plugin.reload(sender)) {
+            messages.send(sender, "admin.reload.started");
+        } else {
+            messages.send(sender, "admin.reload.busy");
+        }
+    }
+
+    private void handleMigrate(CommandSender sender, String[] args) {
+        StorageMigrator.Backend from = args.length >= 3 ? StorageMigrator.Backend.parse(args[1]) : null;
+        StorageMigrator.Backend to = args.length >= 3 ? StorageMigrator.Backend.parse(args[2]) : null;
+        if (from == null || to == null) {
+            messages.send(sender, "admin.usage.migrate");
+            return;
+        }
+        reportStartError(sender, migrator.start(sender, from, to));
+    }
+
+    // Builds breached-passwords.bloom from a plain-text list in the plugin folder, off the main thread
+    private void handleBreachFilter(CommandSender sender, String[] args) {
+        if (args.length < 2) {
+            messages.send(sender, "admin.usage.breachfilter");
+            return;
+        }
+        File source = new File(plugin.getDataFolder(), args[1]);
+        if (args[1].contains("/") || args[1].contains("\\") || !source.isFile()) {
+            messages.send(sender, "admin.breachfilter.not-found", "file", args[1]);
+            return;
+        }
+        if (!buildingBreachFilter.compareAndSet(false, true)) {
+            messages.send(sender, "admin.breachfilter.busy");
+            return;
+        }
+        messages.send(sender, "admin.breachfilter.building", "file", source.getName());
+        double rate = plugin.getZyrenConfig().getBreachedPasswordFalsePositiveRate();
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            Component result;
+            try {
+                long started = System.currentTimeMillis();
+                long entries = BreachedPasswordFilter.build(source,
+                        new File(plugin.getDataFolder(), AuthManager.BREACHED_FILTER_FILE), rate);
+                authManager.reloadBreachedFilter();
+                result = messages.get(sender, plugin.getZyrenConfig().isBreachedPasswordCheckEnabled()
+                                ? "admin.breachfilter.built" : "admin.breachfilter.built-disabled",
+                        "entries", entries, "seconds", (System.currentTimeMillis() - started) / 1000);
+            } catch (IOException e) {
+                plugin.getLogger().severe("Building the breached-password filter failed: " + e.getMessage());
+                result = messages.get(sender, "admin.breachfilter.failed", "error", e.getMessage());
+            } finally {
+                buildingBreachFilter.set(false);
+            }
+            Component message = result;
+            Bukkit.getScheduler().runTask(plugin, () -> sender.sendMessage(message));
+        });
+    }
+
+    // Answered from memory on the main thread; no database access
+    private void handleAlts(CommandSender sender, String[] args) {
+        if (args.length < 2) {
+            messages.send(sender, "admin.usage.alts");
+            return;
+        }
+        AltAccountGraph graph = authManager.getAltGraph();
+        if (!graph.isLoaded()) {
+            messages.send(sender, "admin.alts.loading");
+        }
+        UUID uuid = graph.findAccount(args[1]);
+        if (uuid == null) {
+            messages.send(sender, "admin.alts.unknown", "player", args[1]);
+            return;
+        }
+        List<AltAccountGraph.Account> alts = graph.getAlts(uuid);
+        if (alts.isEmpty()) {
+            messages.send(sender, "admin.alts.none", "player", args[1]);
+            return;
+        }
+        List<String> names = new ArrayList<>(alts.size());
+        for (AltAccountGraph.Account alt : alts) {
+            names.add(alt.username() != null ? alt.username() : alt.uuid().toString());
+        }
+        Collections.sort(names, String.CASE_INSENSITIVE_ORDER);
+        messages.send(sender, "admin.alts.list", "player", args[1], "count", names.size(),
+                "accounts", String.join(", ", names));
+    }
+
+    // Answered from the in-memory counters; slow-queries.log has each execution with its plan
+    private void handleSlowlog(CommandSender sender) {
+        DatabaseManager db = plugin.getDatabaseManager();
+        QueryProfiler profiler = db != null ? db.getQueryProfiler() : null;
+        if (profiler == null) {
+            messages.send(sender, "admin.slowlog.requires-mysql");
+            return;
+        }
+        int threshold = plugin.getZyrenConfig().getSlowQueryThresholdMillis();
+        if (threshold <= 0) {
+            messages.send(sender, "admin.slowlog.disabled");
+            return;
+        }
+        List<QueryProfiler.Offender> offenders = profiler.getTopOffenders(10);
+        if (offenders.isEmpty()) {
+            messages.send(sender, "admin.slowlog.empty", "threshold", threshold);
+            return;
+        }
+        messages.send(sender, "admin.slowlog.header", "threshold", threshold, "file", QueryProfiler.LOG_FILE);
+        for (QueryProfiler.Offender offender : offenders) {
+            String sql = offender.sql().length() > 100 ? offender.sql().substring(0, 97) + "..." : offender.sql();
+            messages.send(sender, "admin.slowlog.entry", "slow", offender.slow(), "executions", offender.executions(),
+                    "average", String.format(Locale.ROOT, "%.0f", offender.averageMillis()), "max", offender.maxMillis(),
+                    "sql", sql);
+        }
+    }
+
+    // /za logs <player|ip|type> [page]. Event types may contain spaces, so everything up to an
+    // optional trailing page number is the search.
+    private void handleLogs(CommandSender sender, String[] args) {
+        if (args.length < 2) {
+            messages.send(sender, "admin.usage.logs");
+            return;
+        }
+        int end = args.length;
+        int page = 1;
+        if (args.length > 2 && args[args.length - 1].matches("\\d{1,6}")) {
+            page = Math.max(1, Integer.parseInt(args[args.length - 1]));
+            end--;
+        }
+        String search = String.join(" ", Arrays.copyOfRange(args, 1, end));
+        DatabaseManager db = plugin.getDatabaseManager();
+        if (db == null || !db.isConnected()) {
+            messages.send(sender, "admin.logs.requires-mysql");
+            return;
+        }
+        int requestedPage = page;
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            SecurityLogBrowser.Page result = logBrowser.getPage(db, sender.getName(), search, requestedPage);
+            Bukkit.getScheduler().runTask(plugin, () -> renderLogs(sender, search, requestedPage, result));
+        });
+    }
+
+    private void renderLogs(CommandSender sender, String search, int page, SecurityLogBrowser.Page result) {
+        if (result == null) {
+            messages.send(sender, "admin.logs.failed");
+            return;
+        }
+        if (result.entries().isEmpty()) {
+            messages.send(sender, "admin.logs.empty", "query", search, "page", page);
+            return;
+        }
+        messages.send(sender, "admin.logs.header", "query", search,
+                "filter", result.query().filter().name().toLowerCase(Locale.ROOT), "page", page);
+        for (SecurityLogEntry entry : result.entries()) {
+            String player = entry.username() != null ? entry.username()
+                    : entry.playerUuid() != null ? entry.playerUuid().toString() : "-";
+            String details = entry.details() == null ? "" : entry.details().length() > 80
+                    ? entry.details().substring(0, 77) + "..." : entry.details();
+            messages.send(sender, "admin.logs.entry",
+                    "time", entry.timestamp() != null ? LOG_TIME.format(entry.timestamp().toLocalDateTime()) : "-",
+                    "type", entry.eventType(), "player", player,
+                    "ip", entry.ipAddress() != null ? entry.ipAddress() : "-", "details", details);
+        }
+        if (result.hasNext()) {
+            messages.send(sender, "admin.logs.more", "query", search, "next", page + 1);
+        }
+    }
+
+    // Changes apply to the next connection at once; banned-ranges.txt is rewritten off the main thread
+    private void handleBanRange(CommandSender sender, String[] args) {
+        if (args.length < 3) {
+            messages.send(sender, "admin.usage.ban-range");
+            return;
+        }
+        IpBanList banList = authManager.getIpBanList();
+        String action = args[1].toLowerCase();
+        if (action.equals("import")) {
+            importBanRanges(sender, banList, args[2]);
+            return;
+        }
+        if (!action.equals("add") && !action.equals("remove")) {
+            messages.send(sender, "admin.usage.ban-range");
+            return;
+        }
+        IpBanList.Range range = IpBanList.Range.parse(args[2]);
+        if (range == null) {
+            messages.send(sender, "admin.ban-range.invalid", "range", args[2]);
+            return;
+        }
+        boolean adding = action.equals("add");
+        if (adding ? !banList.add(range) : !banList.remove(range)) {
+            messages.send(sender, adding ? "admin.ban-range.already-banned" : "admin.ban-range.not-banned", "range", range);
+            return;
+        }
+        messages.send(sender, adding ? "admin.ban-range.added" : "admin.ban-range.removed",
+                "range", range, "total", banList.size());
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> saveBanRanges(sender, banList));
+    }
+
+    // Bulk import of a range list from the plugin folder, off the main thread
+    private void importBanRanges(CommandSender sender, IpBanList banList, String fileName) {
+        File source = new File(plugin.getDataFolder(), fileName);
+        if (fileName.contains("/") || fileName.contains("\\") || !source.isFile()) {
+            messages.send(sender, "admin.ban-range.not-found", "file", fileName);
+            return;
+        }
+        if (!importingBanRanges.compareAndSet(false, true)) {
+            messages.send(sender, "admin.ban-range.busy");
+            return;
+        }
+        messages.send(sender, "admin.ban-range.importing", "file", source.getName());
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            Component result;
+            try {
+                IpBanList.ImportResult imported = banList.importFile(source);
+                banList.save();
+                result = messages.get(sender, "admin.ban-range.imported", "added", imported.added(),
+                        "invalid", imported.invalid(), "total", banList.size());
+            } catch (IOException e) {
+                plugin.getLogger().severe("[ZyrenAuth] Importing banned IP ranges failed: " + e.getMessage());
+                result = messages.get(sender, "admin.ban-range.failed", "error", e.getMessage());
+            } finally {
+                importingBanRanges.set(false);
+            }
+            Component message = result;
+            Bukkit.getScheduler().runTask(plugin, () -> sender.sendMessage(message));
+        });
+    }
+
+    private void saveBanRanges(CommandSender sender, IpBanList banList) {
+        try {
+            banList.save();
+        } catch (IOException e) {
+            plugin.getLogger().severe("[ZyrenAuth] Could not save " + IpBanList.FILE + ": " + e.getMessage());
+            Component message = messages.get(sender, "admin.ban-range.failed", "error", e.getMessage());
+            Bukkit.getScheduler().runTask(plugin, () -> sender.sendMessage(message));
+        }
+    }
+
+    private void reportStartError(CommandSender sender, String error) {
+        if (error != null) {
+            messages.send(sender, "admin.error", "message", error);
+        }
     }
 
     @Override
@@ -118,6 +407,40 @@ public class ZyrenAuthAdminCommand implements CommandExecutor, TabCompleter {
             if (sender.hasPermission("zyrenauth.admin")) {
                 if ("status".startsWith(partial)) completions.add("status");
                 if ("reload".startsWith(partial)) completions.add("reload");
+                if ("migrate".startsWith(partial)) completions.add("migrate");
+                if ("export".startsWith(partial)) completions.add("export");
+                if ("import".startsWith(partial)) completions.add("import");
+                if ("breachfilter".startsWith(partial)) completions.add("breachfilter");
+                if ("ban-range".startsWith(partial)) completions.add("ban-range");
+                if ("logs".startsWith(partial)) completions.add("logs");
+                if ("alts".startsWith(partial)) completions.add("alts");
+                if ("slowlog".startsWith(partial)) completions.add("slowlog");
+            }
+            return completions;
+        }
+        if (args[0].equalsIgnoreCase("ban-range") && args.length == 2 && sender.hasPermission("zyrenauth.admin")) {
+            List<String> completions = new ArrayList<>();
+            for (String option : Arrays.asList("add", "remove", "import")) {
+                if (option.startsWith(args[1].toLowerCase())) completions.add(option);
+            }
+            return completions;
+        }
+        if (args[0].equalsIgnoreCase("migrate") && (args.length == 2 || args.length == 3)
+                && sender.hasPermission("zyrenauth.admin")) {
+            List<String> options = args.length == 2 ? Arrays.asList("file", "mysql", "authme") : Arrays.asList("file", "mysql");
+            List<String> completions = new ArrayList<>();
+            for (String option : options) {
+                if (option.startsWith(args[args.length - 1].toLowerCase())) completions.add(option);
+            }
+            return completions;
+        }
+        if (args[0].equalsIgnoreCase("import") && args.length == 2 && sender.hasPermission("zyrenauth.admin")) {
+            List<String> completions = new ArrayList<>();
+            String[] files = snapshot.getBackupFolder().list((dir, name) -> name.endsWith(".ndjson.gz"));
+            if (files != null) {
+                for (String file : files) {
+                    if (file.startsWith(args[1])) completions.add(file);
+                }
             }
             return completions;
         }
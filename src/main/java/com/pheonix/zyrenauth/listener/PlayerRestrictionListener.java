@@ -1,7 +1,9 @@
 package com.pheonix.zyrenauth.listener;
 
 import com.pheonix.zyrenauth.manager.AuthManager;
-import org.bukkit.ChatColor;
+import com.pheonix.zyrenauth.util.Messages;
+import io.papermc.paper.event.packet.PlayerChunkLoadEvent;
+import net.kyori.adventure.text.Component;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -9,6 +11,7 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityTargetLivingEntityEvent;
 import org.bukkit.event.player.*;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryOpenEvent;
@@ -20,13 +23,24 @@ import java.util.UUID;
 public class PlayerRestrictionListener implements Listener {
 
     private final AuthManager authManager;
+    private final Messages messages;
 
-    public PlayerRestrictionListener(AuthManager authManager) {
+    public PlayerRestrictionListener(AuthManager authManager, Messages messages) {
         this.authManager = authManager;
+        this.messages = messages;
     }
 
     // --- Join / Quit -> map Fabric join/leave handling ---
 
+    @EventHandler
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) return;
+        Component kickMessage = authManager.handlePreLogin(event.getUniqueId(), event.getAddress());
+        if (kickMessage != null) {
+            event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_OTHER, kickMessage);
+        }
+    }
+
     @EventHandler
     public void onJoin(PlayerJoinEvent event) {
         Player player = event.getPlayer();
@@ -45,11 +59,13 @@ public class PlayerRestrictionListener implements Listener {
     public void onMove(PlayerMoveEvent event) {
         Player player = event.getPlayer();
         if (isFrozen(player)) {
-            if (!event.getFrom().toVector().equals(event.getTo().toVector())) {
+            Location from = event.getFrom();
+            Location to = event.getTo();
+            // Head rotation alone is fine; compare coordinates without allocating vectors
+            if (from.getX() != to.getX() || from.getY() != to.getY() || from.getZ() != to.getZ()) {
                 sendAuthReminder(player);
-                // Teleport them back to the fixed auth location (0,0,0)
-                Location authLocation = new Location(player.getWorld(), 0.5, 64, 0.5);
-                event.setTo(authLocation);
+                // Back to the auth location; a copy, since other plugins may modify the event's target
+                event.setTo(authManager.getAuthLocation(player).clone());
             }
         }
     }
@@ -154,6 +170,22 @@ public class PlayerRestrictionListener implements Listener {
         }
     }
 
+    // --- Mobs ignore waiting players ---
+
+    @EventHandler
+    public void onTarget(EntityTargetLivingEntityEvent event) {
+        if (event.getTarget() instanceof Player player && isFrozen(player)) {
+            event.setCancelled(true);
+        }
+    }
+
+    // --- Chunks sent while waiting, for /za status ---
+
+    @EventHandler
+    public void onChunkSent(PlayerChunkLoadEvent event) {
+        authManager.getFreezeState().onChunkSent(event.getPlayer());
+    }
+
     // --- Chat restriction (like ServerMessageEvents.CHAT_MESSAGE) ---
 
     @EventHandler
@@ -174,8 +206,7 @@ public class PlayerRestrictionListener implements Listener {
 
     private void sendAuthReminder(Player player) {
         if (isFrozen(player)) {
-            player.sendMessage(ChatColor.DARK_AQUA + "§l⚠ " + ChatColor.AQUA + "Please log in or register to interact with the world.");
-            player.sendMessage(ChatColor.GRAY + "Use " + ChatColor.YELLOW + "/login <password>" + ChatColor.GRAY + " or " + ChatColor.YELLOW + "/register <password> <confirm_password>");
+            messages.send(player, "auth.reminder");
         }
     }
 }
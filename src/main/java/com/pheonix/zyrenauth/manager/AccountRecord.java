@@ -0,0 +1,11 @@
+// src/main/java/com/pheonix/zyrenauth/manager/AccountRecord.java
+package com.pheonix.zyrenauth.manager;
+
+import java.util.UUID;
+
+// The portable part of an account, as moved between storage backends. passwordHash may be in
+// any format PasswordHashes recognizes; it is rehashed to BCrypt on the next successful login.
+// emailConfirmations is kept so confirmation tokens spent before a move stay spent after it.
+public record AccountRecord(UUID uuid, String username, String passwordHash, String email, String lastLoginIp,
+                            int emailConfirmations) {
+}
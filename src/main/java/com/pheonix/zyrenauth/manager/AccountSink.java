@@ -0,0 +1,18 @@
+// src/main/java/com/pheonix/zyrenauth/manager/AccountSink.java
+package com.pheonix.zyrenauth.manager;
+
+import java.util.List;
+
+// Writes batches of accounts into a backend. Each sink instance is used by a single thread.
+interface AccountSink extends AutoCloseable {
+
+    // Returns how many accounts were actually written (existing accounts may be skipped)
+    int write(List<AccountRecord> batch) throws Exception;
+
+    // Called once after every batch was written successfully
+    default void finish() throws Exception {
+    }
+
+    @Override
+    void close() throws Exception;
+}
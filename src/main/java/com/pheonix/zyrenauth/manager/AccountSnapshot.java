@@ -0,0 +1,423 @@
+// src/main/java/com/pheonix/zyrenauth/manager/AccountSnapshot.java
+package com.pheonix.zyrenauth.manager;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.pheonix.zyrenauth.ZyrenAuthPlugin;
+import com.pheonix.zyrenauth.util.ZyrenAuthConfig;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * /za export and /za import. A snapshot is a gzip-compressed NDJSON file under
+ * plugins/ZyrenAuth/backups: a header line, then one line per player, followed by their
+ * ip_restrictions. Email and reset tokens are signed rather than stored, so a snapshot has
+ * none; the player rows carry the email confirmation count the tokens are bound to. Both
+ * directions run on a background thread and are throttled to snapshotRowsPerSecond so they
+ * never compete with logins.
+ */
+public class AccountSnapshot {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int FETCH_SIZE = 500;
+
+    private final ZyrenAuthPlugin plugin;
+    private final File backupFolder;
+    private final Gson gson = new Gson();
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public AccountSnapshot(ZyrenAuthPlugin plugin) {
+        this.plugin = plugin;
+        this.backupFolder = new File(plugin.getDataFolder(), "backups");
+    }
+
+    public File getBackupFolder() {
+        return backupFolder;
+    }
+
+    // Returns an error message for the sender, or null if the export was started
+    public String startExport(CommandSender sender) {
+        if (!running.compareAndSet(false, true)) return "An export or import is already running.";
+        startThread("ZyrenAuth-export", () -> export(sender));
+        return null;
+    }
+
+    // Returns an error message for the sender, or null if the import was started
+    public String startImport(CommandSender sender, String fileName) {
+        File file = new File(backupFolder, fileName);
+        if (fileName.contains("/") || fileName.contains("\\") || !file.isFile()) {
+            return "Snapshot " + fileName + " was not found in " + backupFolder.getName() + "/.";
+        }
+        if (!running.compareAndSet(false, true)) return "An export or import is already running.";
+        startThread("ZyrenAuth-import", () -> importSnapshot(sender, file));
+        return null;
+    }
+
+    private void startThread(String name, Runnable body) {
+        Thread thread = new Thread(() -> {
+            try {
+                body.run();
+            } finally {
+                running.set(false);
+            }
+        }, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // ------------------------------------------------------------------------
+    // Export
+    // ------------------------------------------------------------------------
+
+    private void export(CommandSender sender) {
+        DatabaseManager db = plugin.getDatabaseManager();
+        if (!backupFolder.exists()) {
+            backupFolder.mkdirs();
+        }
+        File target = new File(backupFolder, "zyrenauth-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".ndjson.gz");
+        File partFile = new File(backupFolder, target.getName() + ".part");
+        Throttle throttle = new Throttle(plugin.getZyrenConfig().getSnapshotRowsPerSecond());
+        long started = System.currentTimeMillis();
+
+        notify(sender, ChatColor.GREEN + "§l✔ " + ChatColor.GRAY + "Exporting accounts to " + ChatColor.WHITE + target.getName() + ChatColor.GRAY + "...");
+        long rows;
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(new FileOutputStream(partFile)), StandardCharsets.UTF_8))) {
+            writeHeader(writer, db);
+            rows = db != null ? exportDatabase(db, writer, throttle.rowsPerSecond) : exportFileAccounts(writer, throttle);
+        } catch (SQLException | IOException e) {
+            partFile.delete();
+            plugin.getLogger().severe("Account export failed: " + e.getMessage());
+            notify(sender, ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "Export failed: " + e.getMessage());
+            return;
+        }
+        if (!partFile.renameTo(target)) {
+            notify(sender, ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "Export failed: could not move " + partFile.getName() + " into place.");
+            return;
+        }
+
+        long seconds = Math.max(1, (System.currentTimeMillis() - started) / 1000);
+        plugin.getLogger().info("Exported " + rows + " rows to " + target.getName() + " in " + seconds + "s.");
+        notify(sender, ChatColor.GREEN + "§l✔ " + ChatColor.GRAY + "Export finished: " + ChatColor.WHITE + rows +
+                ChatColor.GRAY + " rows written to " + ChatColor.WHITE + target.getName() + ChatColor.GRAY + " in " + seconds + "s.");
+    }
+
+    void writeHeader(Writer writer, DatabaseManager db) throws IOException {
+        JsonObject header = new JsonObject();
+        header.addProperty("type", "header");
+        header.addProperty("format", FORMAT_VERSION);
+        header.addProperty("createdAt", new Date().toInstant().toString());
+        header.addProperty("storage", db == null ? "file" : db.isEmbedded() ? "sqlite" : "mysql");
+        writeLine(writer, header);
+    }
+
+    // All tables are read inside one consistent-snapshot transaction, so the export is a single
+    // point in time without locking anything. On MySQL each table streams through a
+    // server-side cursor; on SQLite a deferred read transaction keeps one WAL snapshot from
+    // its first read on without holding up the writer.
+    long exportDatabase(DatabaseManager db, Writer writer, int rowsPerSecond) throws SQLException, IOException {
+        Throttle throttle = new Throttle(rowsPerSecond);
+        long rows = 0;
+        try (Connection conn = db.openBackgroundConnection()) {
+            if (db.isEmbedded()) {
+                try (Statement statement = conn.createStatement()) {
+                    statement.execute("BEGIN");
+                }
+            } else {
+                conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+                conn.setAutoCommit(false);
+                try (Statement statement = conn.createStatement()) {
+                    statement.execute("START TRANSACTION WITH CONSISTENT SNAPSHOT");
+                }
+            }
+
+            try (PreparedStatement ps = cursor(conn, "SELECT uuid, username, password_hash, email, last_login_ip, registered_at, email_confirmations FROM players");
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    JsonObject row = new JsonObject();
+                    row.addProperty("type", "player");
+                    row.addProperty("uuid", db.readUuid(rs, "uuid").toString());
+                    row.addProperty("username", rs.getString("username"));
+                    row.addProperty("passwordHash", rs.getString("password_hash"));
+                    row.addProperty("email", rs.getString("email"));
+                    row.addProperty("lastLoginIp", db.readIp(rs, "last_login_ip"));
+                    Timestamp registeredAt = rs.getTimestamp("registered_at");
+                    row.addProperty("registeredAt", registeredAt != null ? registeredAt.toInstant().toString() : null);
+                    row.addProperty("emailConfirmations", rs.getInt("email_confirmations"));
+                    writeLine(writer, row);
+                    throttle.tick();
+                    rows++;
+                }
+            }
+
+            try (PreparedStatement ps = cursor(conn, "SELECT player_uuid, ip_address, is_trusted FROM ip_restrictions");
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    JsonObject row = new JsonObject();
+                    row.addProperty("type", "ip_restriction");
+                    row.addProperty("playerUuid", db.readUuid(rs, "player_uuid").toString());
+                    row.addProperty("ip", db.readIp(rs, "ip_address"));
+                    row.addProperty("trusted", rs.getBoolean("is_trusted"));
+                    writeLine(writer, row);
+                    throttle.tick();
+                    rows++;
+                }
+            }
+
+            if (db.isEmbedded()) {
+                try (Statement statement = conn.createStatement()) {
+                    statement.execute("COMMIT");
+                }
+            } else {
+                conn.commit();
+            }
+        }
+        return rows;
+    }
+
+    private static PreparedStatement cursor(Connection conn, String sql) throws SQLException {
+        PreparedStatement ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        ps.setFetchSize(FETCH_SIZE);
+        return ps;
+    }
+
+    // File mode has no IP restrictions, only accounts
+    private long exportFileAccounts(Writer writer, Throttle throttle) throws IOException {
+        long rows = 0;
+        for (AccountRecord account : plugin.getAuthManager().snapshotFileAccounts()) {
+            JsonObject row = new JsonObject();
+            row.addProperty("type", "player");
+            row.addProperty("uuid", account.uuid().toString());
+            row.addProperty("username", account.username());
+            row.addProperty("passwordHash", account.passwordHash());
+            row.addProperty("email", account.email());
+            row.addProperty("lastLoginIp", account.lastLoginIp());
+            writeLine(writer, row);
+            throttle.tick();
+            rows++;
+        }
+        return rows;
+    }
+
+    private void writeLine(Writer writer, JsonObject row) throws IOException {
+        writer.write(gson.toJson(row));
+        writer.write('\n');
+    }
+
+    // ------------------------------------------------------------------------
+    // Import
+    // ------------------------------------------------------------------------
+
+    // Two passes over the file: accounts first through parallel writers, then the rows that
+    // reference them. Existing accounts and rows are kept, so importing twice is harmless.
+    private void importSnapshot(CommandSender sender, File file) {
+        DatabaseManager db = plugin.getDatabaseManager();
+        ZyrenAuthConfig config = plugin.getZyrenConfig();
+        int batchSize = Math.max(50, config.getMigrationBatchSize());
+        int writers = db != null ? db.backgroundWriters(Math.max(1, config.getMigrationWriterThreads())) : 1;
+        if (db != null) batchSize = db.backgroundBatchSize(batchSize);
+        long started = System.currentTimeMillis();
+
+        notify(sender, ChatColor.GREEN + "§l✔ " + ChatColor.GRAY + "Importing " + ChatColor.WHITE + file.getName() + ChatColor.GRAY + "...");
+
+        BatchWriterPool writerPool = new BatchWriterPool("ZyrenAuth-import-writer", writers,
+                () -> db != null ? new StorageMigrator.MySqlAccountSink(db) : new FileMergeSink(plugin.getAuthManager()),
+                (seq, position) -> {});
+        long read = importAccounts(writerPool, file, batchSize, config.getSnapshotRowsPerSecond());
+
+        if (writerPool.failure() != null) {
+            plugin.getLogger().severe("Account import from " + file.getName() + " failed: " + writerPool.failure().getMessage());
+            notify(sender, ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "Import failed: " + writerPool.failure().getMessage());
+            return;
+        }
+
+        long related = 0;
+        if (db != null) {
+            try {
+                related = importRelatedRows(db, file, batchSize, config.getSnapshotRowsPerSecond());
+            } catch (Exception e) {
+                plugin.getLogger().severe("Importing IP restrictions from " + file.getName() + " failed: " + e.getMessage());
+                notify(sender, ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "Accounts were imported, but IP restrictions failed: " + e.getMessage());
+                return;
+            }
+        }
+
+        long seconds = Math.max(1, (System.currentTimeMillis() - started) / 1000);
+        plugin.getLogger().info("Imported " + file.getName() + ": " + writerPool.written() + " of " + read +
+                " accounts added, " + related + " related rows, in " + seconds + "s.");
+        notify(sender, ChatColor.GREEN + "§l✔ " + ChatColor.GRAY + "Import finished: " + ChatColor.WHITE + writerPool.written() +
+                ChatColor.GRAY + " of " + read + " accounts added" + (db != null ? ", " + related + " IP restrictions" : "") +
+                " in " + seconds + "s. Existing accounts were left unchanged.");
+    }
+
+    // First pass: hands the accounts to the writer pool in batches and waits for it to finish.
+    // Returns the number of accounts read; a failure is left in writerPool.failure().
+    long importAccounts(BatchWriterPool writerPool, File file, int batchSize, int rowsPerSecond) {
+        long read = 0;
+        try (BufferedReader reader = openSnapshot(file)) {
+            Throttle throttle = new Throttle(rowsPerSecond);
+            List<AccountRecord> accounts = new ArrayList<>(batchSize);
+            String line;
+            while (writerPool.failure() == null && (line = reader.readLine()) != null) {
+                JsonObject row = parseLine(line);
+                if (row == null || !"player".equals(text(row, "type"))) continue;
+                accounts.add(new AccountRecord(UUID.fromString(text(row, "uuid")), text(row, "username"),
+                        text(row, "passwordHash"), text(row, "email"), text(row, "lastLoginIp"),
+                        row.has("emailConfirmations") ? row.get("emailConfirmations").getAsInt() : 0));
+                read++;
+                throttle.tick();
+                if (accounts.size() >= batchSize) {
+                    writerPool.submit(accounts, null);
+                    accounts = new ArrayList<>(batchSize);
+                }
+            }
+            if (!accounts.isEmpty() && writerPool.failure() == null) {
+                writerPool.submit(accounts, null);
+            }
+        } catch (Exception e) {
+            writerPool.fail(e);
+        } finally {
+            writerPool.finish();
+        }
+        return read;
+    }
+
+    // INSERT IGNORE also skips rows whose player is missing instead of failing the batch. Token
+    // rows in snapshots written by older versions are skipped; those tokens are no longer stored.
+    long importRelatedRows(DatabaseManager db, File file, int batchSize, int rowsPerSecond) throws Exception {
+        long imported = 0;
+        Throttle throttle = new Throttle(rowsPerSecond);
+        try (BufferedReader reader = openSnapshot(file);
+             Connection conn = db.openBackgroundConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ipInsert = conn.prepareStatement(
+                         db.insertIgnore() + " INTO ip_restrictions (player_uuid, ip_address, is_trusted) VALUES (?, ?, ?)")) {
+                int pending = 0;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    JsonObject row = parseLine(line);
+                    if (row == null) continue;
+                    if (row == null || !"ip_restriction".equals(text(row, "type"))) continue;
+                    if (!db.isStorableIp(text(row, "ip"))) {
+                        ZyrenAuthPlugin.getInstance().getLogger().warning("Skipping IP restriction of player " +
+                                text(row, "playerUuid") + ": '" + text(row, "ip") + "' is not an IP address.");
+                        continue;
+                    }
+                    db.bindUuid(ipInsert, 1, UUID.fromString(text(row, "playerUuid")));
+                    db.bindIp(ipInsert, 2, text(row, "ip"));
+                    ipInsert.setBoolean(3, row.get("trusted").getAsBoolean());
+                    ipInsert.addBatch();
+                    throttle.tick();
+                    if (++pending >= batchSize) {
+                        imported += flush(conn, ipInsert);
+                        pending = 0;
+                    }
+                }
+                imported += flush(conn, ipInsert);
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        return imported;
+    }
+
+    private static long flush(Connection conn, PreparedStatement ps) throws SQLException {
+        long inserted = 0;
+        for (int count : ps.executeBatch()) {
+            if (count > 0) inserted += count;
+        }
+        conn.commit();
+        return inserted;
+    }
+
+    private BufferedReader openSnapshot(File file) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new FileInputStream(file)), StandardCharsets.UTF_8));
+        JsonObject header = parseLine(reader.readLine());
+        if (header == null || !"header".equals(text(header, "type")) || header.get("format").getAsInt() != FORMAT_VERSION) {
+            reader.close();
+            throw new IOException(file.getName() + " is not a ZyrenAuth snapshot (format " + FORMAT_VERSION + ")");
+        }
+        return reader;
+    }
+
+    private static JsonObject parseLine(String line) {
+        if (line == null || line.isBlank()) return null;
+        JsonElement element = JsonParser.parseString(line);
+        return element.isJsonObject() ? element.getAsJsonObject() : null;
+    }
+
+    private static String text(JsonObject row, String field) {
+        JsonElement value = row.get(field);
+        return value == null || value.isJsonNull() ? null : value.getAsString();
+    }
+
+    // Adds imported accounts to the in-memory file storage and saves accounts.json once at the end
+    private static final class FileMergeSink implements AccountSink {
+        private final AuthManager authManager;
+
+        FileMergeSink(AuthManager authManager) {
+            this.authManager = authManager;
+        }
+
+        @Override
+        public int write(List<AccountRecord> batch) {
+            return authManager.importFileAccounts(batch);
+        }
+
+        @Override
+        public void finish() {
+            authManager.flushFileAccounts();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    // Caps rows per second by sleeping between small groups of rows (0 = unlimited)
+    private static final class Throttle {
+        private static final int CHECK_EVERY = 100;
+        final int rowsPerSecond;
+        private final long startNanos = System.nanoTime();
+        private long rows;
+
+        Throttle(int rowsPerSecond) {
+            this.rowsPerSecond = rowsPerSecond;
+        }
+
+        void tick() {
+            if (rowsPerSecond <= 0 || ++rows % CHECK_EVERY != 0) return;
+            long expectedMillis = rows * 1000L / rowsPerSecond;
+            long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000L;
+            if (expectedMillis > elapsedMillis) {
+                try {
+                    Thread.sleep(expectedMillis - elapsedMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    // CommandSender is not thread-safe; deliver progress on the main thread
+    private void notify(CommandSender sender, String message) {
+        Bukkit.getScheduler().runTask(plugin, () -> sender.sendMessage(message));
+    }
+}
@@ -0,0 +1,16 @@
+// src/main/java/com/pheonix/zyrenauth/manager/AccountSource.java
+package com.pheonix.zyrenauth.manager;
+
+// Streams accounts out of a backend in a stable order, one at a time
+interface AccountSource extends AutoCloseable {
+
+    // Next account, or null once the source is exhausted
+    AccountRecord next() throws Exception;
+
+    // Opaque position just after the last account returned; passing it back when the
+    // source is reopened resumes from there
+    String position();
+
+    @Override
+    void close() throws Exception;
+}
@@ -0,0 +1,152 @@
+// src/main/java/com/pheonix/zyrenauth/manager/AltAccountGraph.java
+package com.pheonix.zyrenauth.manager;
+
+import java.util.*;
+
+/**
+ * In-memory account <-> IP graph. Accounts and IPs are nodes of one union-find structure,
+ * and every (account, IP) link unions the two, so accounts in the same set are connected
+ * through shared addresses, possibly over several hops. Each set is also threaded into a
+ * circular list (merged in O(1) on union), so listing a cluster only visits its members.
+ * <p>
+ * Links are only ever added. An IP an account no longer uses keeps it in its cluster until
+ * the graph is rebuilt on the next start. All methods are synchronized.
+ */
+public class AltAccountGraph {
+
+    public record Account(UUID uuid, String username) {}
+
+    private final Map<UUID, Integer> accountIds = new HashMap<>();
+    private final Map<String, Integer> ipIds = new HashMap<>();
+    private final Map<String, UUID> accountsByName = new HashMap<>();
+    private final Set<Long> links = new HashSet<>();
+    // Per node; accounts[node] is null for IP nodes
+    private Account[] accounts = new Account[1024];
+    private int[] parent = new int[1024];
+    private int[] rank = new int[1024];
+    private int[] next = new int[1024];
+    // Accounts linked to each IP node
+    private int[] accountsPerIp = new int[1024];
+    private int nodes;
+    private volatile boolean loaded;
+
+    public synchronized void link(UUID uuid, String username, String ip) {
+        if (uuid == null || ip == null || isPlaceholderIp(ip)) return;
+        int account = accountNode(uuid, username);
+        int address = ipNode(ip);
+        if (!links.add(((long) account << 32) | address)) return;
+        accountsPerIp[address]++;
+        union(account, address);
+    }
+
+    // Other accounts in the same cluster, or an empty list if the account is unknown
+    public synchronized List<Account> getAlts(UUID uuid) {
+        Integer start = accountIds.get(uuid);
+        if (start == null) return List.of();
+        List<Account> alts = new ArrayList<>();
+        for (int node = next[start]; node != start; node = next[node]) {
+            if (accounts[node] != null) alts.add(accounts[node]);
+        }
+        return alts;
+    }
+
+    public synchronized UUID findAccount(String username) {
+        return accountsByName.get(username.toLowerCase(Locale.ROOT));
+    }
+
+    // Number of accounts that have used this IP
+    public synchronized int getAccountCount(String ip) {
+        Integer node = ipIds.get(ip);
+        return node != null ? accountsPerIp[node] : 0;
+    }
+
+    public synchronized int getAccountTotal() {
+        return accountIds.size();
+    }
+
+    public synchronized int getIpTotal() {
+        return ipIds.size();
+    }
+
+    // False until the initial load has finished; limits are not enforced before that
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public void markLoaded() {
+        loaded = true;
+    }
+
+    // Unknown and loopback addresses (e.g. behind a proxy without IP forwarding) say nothing
+    // about who owns an account and would merge everyone into one cluster
+    private static boolean isPlaceholderIp(String ip) {
+        return ip.isEmpty() || ip.equals("0.0.0.0") || ip.startsWith("127.") || ip.equals("::1")
+                || ip.equals("0:0:0:0:0:0:0:1");
+    }
+
+    private int accountNode(UUID uuid, String username) {
+        Integer id = accountIds.get(uuid);
+        if (id != null) {
+            String previous = accounts[id].username();
+            if (username != null && !username.equals(previous)) {
+                if (previous != null) accountsByName.remove(previous.toLowerCase(Locale.ROOT), uuid);
+                accounts[id] = new Account(uuid, username);
+                accountsByName.put(username.toLowerCase(Locale.ROOT), uuid);
+            }
+            return id;
+        }
+        int node = newNode();
+        accounts[node] = new Account(uuid, username);
+        accountIds.put(uuid, node);
+        if (username != null) accountsByName.put(username.toLowerCase(Locale.ROOT), uuid);
+        return node;
+    }
+
+    private int ipNode(String ip) {
+        Integer id = ipIds.get(ip);
+        if (id != null) return id;
+        int node = newNode();
+        ipIds.put(ip, node);
+        return node;
+    }
+
+    private int newNode() {
+        if (nodes == parent.length) {
+            int capacity = nodes * 2;
+            accounts = Arrays.copyOf(accounts, capacity);
+            parent = Arrays.copyOf(parent, capacity);
+            rank = Arrays.copyOf(rank, capacity);
+            next = Arrays.copyOf(next, capacity);
+            accountsPerIp = Arrays.copyOf(accountsPerIp, capacity);
+        }
+        int node = nodes++;
+        parent[node] = node;
+        next[node] = node;
+        return node;
+    }
+
+    private int find(int node) {
+        while (parent[node] != node) {
+            parent[node] = parent[parent[node]]; // Path halving
+            node = parent[node];
+        }
+        return node;
+    }
+
+    private void union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) return;
+        if (rank[rootA] < rank[rootB]) {
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        }
+        parent[rootB] = rootA;
+        if (rank[rootA] == rank[rootB]) rank[rootA]++;
+        // Splicing two circular lists at any member of each joins them into one
+        int swap = next[a];
+        next[a] = next[b];
+        next[b] = swap;
+    }
+}
@@ -0,0 +1,8 @@
+// src/main/java/com/pheonix/zyrenauth/manager/AuthChange.java
+package com.pheonix.zyrenauth.manager;
+
+import java.util.UUID;
+
+// One row of the auth_changes feed. type is null if the row was written by a newer plugin version.
+public record AuthChange(long id, UUID playerUuid, AuthChangeType type, String serverId) {
+}
@@ -0,0 +1,118 @@
+// src/main/java/com/pheonix/zyrenauth/manager/AuthChangeFeed.java
+package com.pheonix.zyrenauth.manager;
+
+import com.pheonix.zyrenauth.util.ZyrenAuthConfig;
+
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Polls the auth_changes table for rows written by other backends and tells the
+ * registered listeners which players to invalidate. Each poll is a primary-key range query
+ * starting after the last id this server has seen.
+ * <p>
+ * AUTO_INCREMENT ids are handed out when a row is inserted, not when it commits, so under
+ * concurrent writers id 12 can become visible before id 11. An id skipped over like that is
+ * kept as a gap, and the range is re-read from the oldest open gap until the row shows up
+ * or GAP_TIMEOUT_MILLIS has passed (a rolled-back insert leaves a gap that never fills).
+ * Rows already delivered are skipped on the re-read.
+ */
+public class AuthChangeFeed implements Runnable {
+
+    private static final int BATCH_SIZE = 500;
+    // Rows only need to live long enough for every backend to have polled them
+    private static final int RETENTION_SECONDS = 3600;
+    private static final int PRUNE_EVERY_POLLS = 600;
+    // Far longer than any write transaction may run (statements time out after seconds)
+    private static final long GAP_TIMEOUT_MILLIS = 60_000;
+    // A bigger jump is not a race (e.g. auto_increment_increment); it is not tracked
+    private static final int MAX_GAPS = 10_000;
+
+    private final DatabaseManager databaseManager;
+    private final ZyrenAuthConfig config;
+    private final List<AuthChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile long lastSeenId;
+    // Skipped id -> when it was first skipped (epoch millis). Only touched by poll().
+    private final TreeMap<Long, Long> gaps = new TreeMap<>();
+    private volatile long resumeId;
+    private int pollsSincePrune;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public AuthChangeFeed(DatabaseManager databaseManager, ZyrenAuthConfig config) {
+        // Start at the current head; anything older is already reflected in the database
+        this(databaseManager, config, databaseManager.getLatestAuthChangeId());
+    }
+
+    // Continues after a feed that is being replaced (e.g. by /za reload) so no change is skipped
+    public AuthChangeFeed(DatabaseManager databaseManager, ZyrenAuthConfig config, long lastSeenId) {
+        this.databaseManager = databaseManager;
+        this.config = config;
+        this.lastSeenId = lastSeenId;
+        this.resumeId = lastSeenId;
+    }
+
+    public void addListener(AuthChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    // Where a replacement feed should continue: before the oldest id that may still commit.
+    // Changes between there and the newest id are delivered again, which only re-invalidates.
+    public long getLastSeenId() {
+        return resumeId;
+    }
+
+    @Override
+    public void run() {
+        // The async timer does not wait for a slow poll to finish before firing again
+        if (!running.compareAndSet(false, true)) return;
+        try {
+            poll();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void poll() {
+        long now = System.currentTimeMillis();
+        gaps.values().removeIf(skippedAt -> now - skippedAt > GAP_TIMEOUT_MILLIS);
+        long cursor = gaps.isEmpty() ? lastSeenId : gaps.firstKey() - 1;
+        List<AuthChange> changes;
+        do {
+            changes = databaseManager.getAuthChangesSince(cursor, BATCH_SIZE);
+            if (changes == null) break;
+            for (AuthChange change : changes) {
+                long id = change.id();
+                cursor = id;
+                if (id <= lastSeenId) {
+                    // Re-read below the head: only a filled gap is new
+                    if (gaps.remove(id) == null) continue;
+                } else {
+                    if (id - lastSeenId - 1 <= MAX_GAPS) {
+                        for (long skipped = lastSeenId + 1; skipped < id; skipped++) {
+                            gaps.put(skipped, now);
+                        }
+                    }
+                    lastSeenId = id;
+                }
+                deliver(change);
+            }
+        } while (changes.size() == BATCH_SIZE);
+        resumeId = gaps.isEmpty() ? lastSeenId : gaps.firstKey() - 1;
+        if (changes == null) return;
+
+        if (++pollsSincePrune >= PRUNE_EVERY_POLLS) {
+            pollsSincePrune = 0;
+            databaseManager.pruneAuthChanges(RETENTION_SECONDS);
+        }
+    }
+
+    private void deliver(AuthChange change) {
+        // Our own writes were applied locally when they happened
+        if (change.type() == null || change.playerUuid() == null || config.getServerId().equals(change.serverId())) return;
+        for (AuthChangeListener listener : listeners) {
+            listener.onAuthChange(change.playerUuid(), change.type());
+        }
+    }
+}
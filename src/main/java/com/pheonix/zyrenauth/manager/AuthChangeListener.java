@@ -0,0 +1,9 @@
+// src/main/java/com/pheonix/zyrenauth/manager/AuthChangeListener.java
+package com.pheonix.zyrenauth.manager;
+
+import java.util.UUID;
+
+// Notified (off the main thread) when another server changed data for a player
+public interface AuthChangeListener {
+    void onAuthChange(UUID playerUuid, AuthChangeType type);
+}
@@ -0,0 +1,10 @@
+// src/main/java/com/pheonix/zyrenauth/manager/AuthChangeType.java
+package com.pheonix.zyrenauth.manager;
+
+// Kinds of account changes published through the auth_changes feed
+public enum AuthChangeType {
+    PASSWORD,
+    EMAIL,
+    IP_TRUSTED,
+    IP_BANNED
+}
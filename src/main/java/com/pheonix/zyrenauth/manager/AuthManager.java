@@ -4,10 +4,15 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
 import com.pheonix.zyrenauth.ZyrenAuthPlugin;
+import com.pheonix.zyrenauth.util.BreachedPasswordFilter;
 import com.pheonix.zyrenauth.util.EmailSender;
+import com.pheonix.zyrenauth.util.Messages;
+import com.pheonix.zyrenauth.util.PasswordHashes;
+import com.pheonix.zyrenauth.util.PasswordPolicy;
+import com.pheonix.zyrenauth.util.SignedTokens;
 import com.pheonix.zyrenauth.util.ZyrenAuthConfig;
+import net.kyori.adventure.text.Component;
 import org.bukkit.Bukkit;
-import org.bukkit.ChatColor;
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.entity.Player;
@@ -16,18 +21,31 @@ import org.mindrot.jbcrypt.BCrypt;
 import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
+import java.io.IOException;
 import java.lang.reflect.Type;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 public class AuthManager {
 
-    // May be null if mysqlEnabled=false or connection failed
-    private final DatabaseManager databaseManager;
+    // May be null if mysqlEnabled=false or connection failed. Volatile: /za reload swaps these
+    // while auth tasks are running; a task that already read the old instance finishes on it.
+    private volatile DatabaseManager databaseManager;
     // May be null if emailFeaturesEnabled=false
-    private final EmailSender emailSender;
-    private final ZyrenAuthConfig config;
+    private volatile EmailSender emailSender;
+    private volatile ZyrenAuthConfig config;
+    private final Messages messages;
+    private final LimboManager limboManager;
+    private final ReturnChunkPrefetcher chunkPrefetcher;
+    private final FreezeState freezeState;
+    private final AuthTimeouts authTimeouts;
+    private final IpBanList ipBanList;
+    private final TrafficMonitor trafficMonitor;
+    private final AltAccountGraph altGraph = new AltAccountGraph();
 
     private final ConcurrentHashMap<UUID, Boolean> awaitingLogin = new ConcurrentHashMap<>(); // true = login, false = register
     private final ConcurrentHashMap<UUID, Integer> failedLoginAttempts = new ConcurrentHashMap<>();
@@ -36,6 +54,28 @@ public class AuthManager {
     private final ConcurrentHashMap<UUID, String> playerCurrentIp = new ConcurrentHashMap<>();
 
     private final Set<UUID> frozenPlayers = Collections.synchronizedSet(new HashSet<>());
+    // The Player object of each online player's current session. Auth tasks can finish after
+    // their player left and rejoined; they only apply their result if their session is still
+    // this one. Sessions start and end, and tasks authenticate, under the map's lock.
+    private final Map<UUID, Player> sessions = new HashMap<>();
+    // Players that completed /login or /register; read by the async session heartbeat
+    private final Set<UUID> authenticatedPlayers = ConcurrentHashMap.newKeySet();
+    // Password hashes of players seen this session (DB mode). Entries are dropped when
+    // another server changes the password, see onAuthChange.
+    private final ConcurrentHashMap<UUID, String> credentialCache = new ConcurrentHashMap<>();
+    // Hashes of players who logged in recently, kept for degradedLoginCacheMinutes after they
+    // leave so they can still log in while the database is unreachable
+    private final ConcurrentHashMap<UUID, RecentCredential> recentCredentials = new ConcurrentHashMap<>();
+
+    private record RecentCredential(String hash, long expiresAt) {}
+
+    // Whether the account exists, looked up in pre-login for the join that follows, so the
+    // join does no database work on the main thread. Entries older than PRE_LOGIN_TTL_MILLIS
+    // belong to logins that never reached the join.
+    private final ConcurrentHashMap<UUID, PreLoginCheck> preLoginChecks = new ConcurrentHashMap<>();
+    private static final long PRE_LOGIN_TTL_MILLIS = 60_000;
+
+    private record PreLoginCheck(boolean registered, long checkedAt) {}
 
     // ---------- Simple file-based storage when MySQL is disabled ----------
     private final boolean usingFileStorage;
@@ -56,21 +96,34 @@ public class AuthManager {
 
     private final Map<UUID, FileAccount> fileAccounts = new ConcurrentHashMap<>();
     private final Map<String, UUID> fileEmailIndex = new ConcurrentHashMap<>();
-
-    // For file-based storage, these tokens are in-memory only (not persistent across restarts)
-    private final Map<UUID, String> fileEmailTokens = new ConcurrentHashMap<>();
-    private final Map<UUID, Long> fileEmailTokenExpiry = new ConcurrentHashMap<>();
-    private final Map<UUID, String> fileResetTokens = new ConcurrentHashMap<>();
-    private final Map<UUID, Long> fileResetTokenExpiry = new ConcurrentHashMap<>();
     // ----------------------------------------------------------------------
 
     // Login staging: teleport to auth location and restore after login
     private final Map<UUID, Location> preLoginLocations = new ConcurrentHashMap<>();
 
-    public AuthManager(DatabaseManager databaseManager, EmailSender emailSender, ZyrenAuthConfig config) {
+    public static final String BREACHED_FILTER_FILE = "breached-passwords.bloom";
+    // Rebuilt whenever the config or the breached-password filter changes
+    private volatile PasswordPolicy passwordPolicy;
+    private volatile BreachedPasswordFilter breachedFilter;
+    // Signs email confirmation and password reset tokens; null if no key could be loaded
+    private volatile SignedTokens signedTokens;
+
+    // Auth commands run here, serially per player, on virtual threads
+    private final PlayerTaskQueue taskQueue = new PlayerTaskQueue();
+
+    public AuthManager(DatabaseManager databaseManager, EmailSender emailSender, ZyrenAuthConfig config, Messages messages,
+                       LimboManager limboManager, ReturnChunkPrefetcher chunkPrefetcher, FreezeState freezeState,
+                       AuthTimeouts authTimeouts, IpBanList ipBanList, TrafficMonitor trafficMonitor) {
         this.databaseManager = databaseManager;
         this.emailSender = emailSender;
         this.config = config;
+        this.messages = messages;
+        this.limboManager = limboManager;
+        this.chunkPrefetcher = chunkPrefetcher;
+        this.freezeState = freezeState;
+        this.authTimeouts = authTimeouts;
+        this.ipBanList = ipBanList;
+        this.trafficMonitor = trafficMonitor;
 
         this.usingFileStorage = (databaseManager == null);
         if (usingFileStorage) {
@@ -82,6 +135,10 @@ public class AuthManager {
             this.accountsFile = null; // No file storage if MySQL is active
         }
 
+        reloadBreachedFilter();
+        reloadTokenKey();
+        loadAltGraph();
+
         ZyrenAuthPlugin.getInstance().getLogger().info("[ZyrenAuth] AuthManager initialized.");
     }
 
@@ -116,19 +173,86 @@ public class AuthManager {
         }
     }
 
-    private void saveFileAccounts() {
-        if (accountsFile == null) return; // Only save if using file storage
-        try (FileWriter writer = new FileWriter(accountsFile)) {
-            Map<String, FileAccount> raw = new LinkedHashMap<>();
+    // File accounts are already in memory; MySQL is streamed on a background thread and
+    // the per-IP limit is not enforced until that has finished
+    private void loadAltGraph() {
+        if (usingFileStorage) {
             for (Map.Entry<UUID, FileAccount> e : fileAccounts.entrySet()) {
-                raw.put(e.getKey().toString(), e.getValue());
+                altGraph.link(e.getKey(), e.getValue().username, e.getValue().lastLoginIp);
             }
-            gson.toJson(raw, writer);
+            altGraph.markLoaded();
+            return;
+        }
+        ZyrenAuthPlugin plugin = ZyrenAuthPlugin.getInstance();
+        Thread loader = new Thread(() -> {
+            long started = System.currentTimeMillis();
+            try {
+                databaseManager.streamAccountIps(altGraph::link);
+                altGraph.markLoaded();
+                plugin.getLogger().info("[ZyrenAuth] Loaded alt-account graph: " + altGraph.getAccountTotal() + " accounts, " +
+                        altGraph.getIpTotal() + " IPs in " + (System.currentTimeMillis() - started) + "ms.");
+            } catch (Exception e) {
+                plugin.getLogger().severe("[ZyrenAuth] Could not load the alt-account graph: " + e.getMessage());
+            }
+        }, "ZyrenAuth-alt-graph");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    // Synchronized: auth tasks for different players can save concurrently. Written to a
+    // temporary file and renamed over accounts.json, so readers never see a partial file.
+    private synchronized void saveFileAccounts() {
+        if (accountsFile == null) return; // Only save if using file storage
+        File tmp = new File(accountsFile.getParentFile(), accountsFile.getName() + ".tmp");
+        try {
+            try (FileWriter writer = new FileWriter(tmp)) {
+                Map<String, FileAccount> raw = new LinkedHashMap<>();
+                for (Map.Entry<UUID, FileAccount> e : fileAccounts.entrySet()) {
+                    raw.put(e.getKey().toString(), e.getValue());
+                }
+                gson.toJson(raw, writer);
+            }
+            Files.move(tmp.toPath(), accountsFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
         } catch (Exception e) {
             ZyrenAuthPlugin.getInstance().getLogger().severe("[ZyrenAuth] Failed to save accounts.json: " + e.getMessage());
         }
     }
 
+    // Point-in-time copy for /za export. Taken under the same lock as saveFileAccounts, so it
+    // never sees a half-written save, and the export then runs from the copy without blocking saves.
+    public synchronized List<AccountRecord> snapshotFileAccounts() {
+        List<AccountRecord> snapshot = new ArrayList<>(fileAccounts.size());
+        for (Map.Entry<UUID, FileAccount> e : fileAccounts.entrySet()) {
+            FileAccount acc = e.getValue();
+            snapshot.add(new AccountRecord(e.getKey(), acc.username, acc.passwordHash, acc.email, acc.lastLoginIp, 0));
+        }
+        return snapshot;
+    }
+
+    // Adds accounts that do not exist yet; call flushFileAccounts() once afterwards
+    public int importFileAccounts(List<AccountRecord> accounts) {
+        int added = 0;
+        for (AccountRecord account : accounts) {
+            if (account.username() == null || account.passwordHash() == null) continue;
+            FileAccount acc = new FileAccount();
+            acc.username = account.username();
+            acc.passwordHash = account.passwordHash();
+            acc.email = account.email();
+            acc.lastLoginIp = account.lastLoginIp();
+            if (fileAccounts.putIfAbsent(account.uuid(), acc) == null) {
+                if (acc.email != null && !acc.email.isEmpty()) {
+                    fileEmailIndex.putIfAbsent(acc.email.toLowerCase(Locale.ROOT), account.uuid());
+                }
+                added++;
+            }
+        }
+        return added;
+    }
+
+    public void flushFileAccounts() {
+        saveFileAccounts();
+    }
+
     // ------------------------------------------------------------------------
     // Join / Leave
     // ------------------------------------------------------------------------
@@ -138,68 +262,74 @@ public class AuthManager {
         String name = player.getName();
         String ip = player.getAddress() != null ? player.getAddress().getAddress().getHostAddress() : "0.0.0.0";
 
+        synchronized (sessions) {
+            sessions.put(uuid, player);
+            // Left over if the previous session's cleanup is still queued behind its last task
+            authenticatedPlayers.remove(uuid);
+        }
+
         playerCurrentIp.put(uuid, ip);
 
-        // When using MySQL, keep full security features
+        // When using MySQL, keep full security features.
+        // IP restrictions and anti-account sharing are checked earlier, off the main thread,
+        // in handlePreLogin.
         if (!usingFileStorage && databaseManager != null) {
-            if (config.isAntiAccountSharingEnabled() && databaseManager.isAccountLoggedIn(uuid)) {
-                player.sendMessage(ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "This account is already logged in from another location.");
-                player.kickPlayer("Account already in use.");
-                databaseManager.logSecurityEvent(uuid, ip, "Anti-Account Sharing", "Attempted login while account already active.");
-                return;
-            }
-
-            if (config.isIpDeviceLockingEnabled() && databaseManager.isIpRestricted(uuid, ip)) {
-                player.sendMessage(ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "Your IP/device is not allowed to access this account.");
-                player.kickPlayer("IP/Device Restricted.");
-                databaseManager.logSecurityEvent(uuid, ip, "IP/Device Restriction", "Attempted login from restricted IP.");
+            if (isAccountLocked(uuid) || isIpLocked(ip)) {
+                messages.send(player, "join.locked-out");
+                kickPlayer(player, "kick.locked-out");
+                databaseManager.logSecurityEvent(uuid, ip, "Brute-Force Lockout Active", "Player attempted login while locked out.");
                 return;
             }
+        }
 
-            if (isAccountLocked(uuid) || isIpLocked(ip)) {
-                player.sendMessage(ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "Too many failed attempts. Please try again later.");
-                player.kickPlayer("Temporarily locked out.");
-                databaseManager.logSecurityEvent(uuid, ip, "Brute-Force Lockout Active", "Player attempted login while locked out.");
+        PreLoginCheck preLogin = preLoginChecks.remove(uuid);
+        boolean registered;
+        if (usingFileStorage || databaseManager == null) {
+            registered = usingFileStorage && fileAccounts.containsKey(uuid);
+        } else if (preLogin != null && preLogin.checkedAt() > System.currentTimeMillis() - PRE_LOGIN_TTL_MILLIS) {
+            registered = preLogin.registered();
+        } else {
+            // Only if pre-login did not run for this join (e.g. the plugin was enabled mid-login)
+            Boolean found = databaseManager.checkPlayerRegistered(uuid);
+            if (found == null && degradedCredential(uuid) == null) {
+                kickPlayer(player, "kick.database-unavailable");
                 return;
             }
+            registered = found == null || found;
         }
 
         // Freeze until auth
-        freezePlayer(uuid);
-
-        boolean registered = usingFileStorage ? fileAccounts.containsKey(uuid)
-                : (databaseManager != null && databaseManager.isPlayerRegistered(uuid));
+        freezePlayer(player);
 
         // Store current location or spawn if new, then teleport to auth point
+        Location joinLoc = player.getLocation();
+        if (limboManager.isLimboWorld(joinLoc.getWorld())) {
+            joinLoc = limboManager.getFallbackLocation(player); // Saved while in limbo (e.g. a crash)
+        }
         if (registered) {
             Location lastLoc = getPlayerLastLocation(uuid);
             if (lastLoc != null) {
                 preLoginLocations.put(uuid, lastLoc);
             } else {
-                preLoginLocations.put(uuid, player.getLocation()); // Fallback if no last location data
+                preLoginLocations.put(uuid, joinLoc); // Fallback if no last location data
             }
         } else {
-            preLoginLocations.put(uuid, player.getLocation()); // Store current location, will be new spawn
+            preLoginLocations.put(uuid, joinLoc); // Store current location, will be new spawn
         }
+        // Load the way back while they type their password
+        chunkPrefetcher.prefetch(uuid, preLoginLocations.get(uuid));
 
-        // Teleport to a safe, isolated spot (0,0,0 of current world)
+        // Teleport to the auth location (limbo world or configured spot)
         // This hides their true location until login and prevents revealing coords
-        Location authLocation = new Location(player.getWorld(), 0.5, 64, 0.5); // Center of block, safe Y
-        player.teleport(authLocation);
+        player.teleport(limboManager.getAuthLocation(player));
         player.setFlying(true); // Prevent falling during auth
         player.setAllowFlight(true);
 
         if (registered) {
-            player.sendMessage(ChatColor.DARK_AQUA + "╔═══════════════════════════════╗");
-            player.sendMessage(ChatColor.DARK_AQUA + "║ " + ChatColor.AQUA + "Welcome Back, " + ChatColor.GOLD + name + ChatColor.AQUA + "!" + ChatColor.DARK_AQUA + "           ║");
-            player.sendMessage(ChatColor.DARK_AQUA + "║ " + ChatColor.WHITE + "Please log in using: " + ChatColor.YELLOW + "/login <password>" + ChatColor.DARK_AQUA + "  ║");
-            player.sendMessage(ChatColor.DARK_AQUA + "╚═══════════════════════════════╝");
+            messages.send(player, "join.welcome-back", "player", name);
             awaitingLogin.put(uuid, true);
         } else {
-            player.sendMessage(ChatColor.DARK_AQUA + "╔═══════════════════════════════╗");
-            player.sendMessage(ChatColor.DARK_AQUA + "║ " + ChatColor.AQUA + "Welcome, " + ChatColor.GOLD + name + ChatColor.AQUA + "!" + ChatColor.DARK_AQUA + "                ║");
-            player.sendMessage(ChatColor.DARK_AQUA + "║ " + ChatColor.WHITE + "Create your account with: " + ChatColor.YELLOW + "/register <password> <confirm>" + ChatColor.DARK_AQUA + " ║");
-            player.sendMessage(ChatColor.DARK_AQUA + "╚═══════════════════════════════╝");
+            messages.send(player, "join.welcome", "player", name);
             awaitingLogin.put(uuid, false);
         }
 
@@ -208,11 +338,151 @@ public class AuthManager {
                         ". Awaiting " + (awaitingLogin.get(uuid) ? "login" : "registration") + ". Player frozen and teleported to auth spot.");
     }
 
+    // Runs on the async pre-login thread. Returns a kick message in the default language
+    // (the client locale is not known yet), or null to allow the join.
+    public Component handlePreLogin(UUID uuid, InetAddress address) {
+        // Banned ranges first: costs no database work, so it holds up under a bot wave
+        if (ipBanList.match(address) != null) {
+            return messages.getDefault("kick.ip-banned");
+        }
+        trafficMonitor.recordJoin(address);
+        int delay = trafficMonitor.getNewIpDelay(address);
+        if (delay > 0) {
+            return messages.getDefault("kick.strict-mode-retry", "seconds", delay);
+        }
+        String ip = address.getHostAddress();
+        if (usingFileStorage || databaseManager == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        preLoginChecks.values().removeIf(check -> check.checkedAt() <= now - PRE_LOGIN_TTL_MILLIS);
+        Boolean registered = databaseManager.isConnected() ? databaseManager.checkPlayerRegistered(uuid) : null;
+        if (registered == null) {
+            // Degraded mode: only players who can log in from a cached credential get in, and
+            // the credential proves the account exists
+            if (degradedCredential(uuid) == null) return messages.getDefault("kick.database-unavailable");
+            preLoginChecks.put(uuid, new PreLoginCheck(true, now));
+            return null;
+        }
+        if (registered && config.isIpDeviceLockingEnabled() && databaseManager.isIpRestricted(uuid, ip)) {
+            databaseManager.logSecurityEvent(uuid, ip, "IP/Device Restriction", "Attempted login from restricted IP.");
+            return messages.getDefault("kick.ip-restricted");
+        }
+        if (registered && config.isAntiAccountSharingEnabled() && databaseManager.isAccountLoggedIn(uuid)) {
+            databaseManager.logSecurityEvent(uuid, ip, "Anti-Account Sharing", "Attempted login while account already active.");
+            return messages.getDefault("kick.account-in-use");
+        }
+        preLoginChecks.put(uuid, new PreLoginCheck(registered, now));
+        return null;
+    }
+
+    // ------------------------------------------------------------------------
+    // Task execution
+    // ------------------------------------------------------------------------
+
+    // Queues an auth command for the player. A second copy of the same command sent in the
+    // same session while the first is still queued or running is rejected rather than run
+    // twice. Commands still queued when their session ends are dropped.
+    public void runForPlayer(Player player, String commandKey, Runnable task) {
+        Runnable forSession = () -> {
+            if (isCurrentSession(player)) task.run();
+        };
+        if (!taskQueue.submit(player.getUniqueId(), player, commandKey, forSession)) {
+            messages.send(player, "auth.still-processing", "command", commandKey);
+        }
+    }
+
+    private boolean isCurrentSession(Player player) {
+        synchronized (sessions) {
+            return sessions.get(player.getUniqueId()) == player;
+        }
+    }
+
+    // Marks the player authenticated if their session is still the one the task ran for.
+    // False if they left in the meantime; the caller then drops its result.
+    private boolean markAuthenticated(Player player) {
+        UUID uuid = player.getUniqueId();
+        synchronized (sessions) {
+            if (sessions.get(uuid) != player) return false;
+            awaitingLogin.remove(uuid);
+            authenticatedPlayers.add(uuid);
+            return true;
+        }
+    }
+
+    // Teleports and kicks must happen on the main thread; auth tasks run on virtual threads
+    private void runOnMainThread(Runnable action) {
+        ZyrenAuthPlugin plugin = ZyrenAuthPlugin.getInstance();
+        if (Bukkit.isPrimaryThread()) {
+            action.run();
+        } else if (plugin.isEnabled()) {
+            Bukkit.getScheduler().runTask(plugin, action);
+        }
+    }
+
+    private void kickPlayer(Player player, String reasonKey) {
+        Component reason = messages.get(player, reasonKey);
+        runOnMainThread(() -> {
+            if (player.isOnline()) player.kick(reason);
+        });
+    }
+
+    public void shutdown() {
+        taskQueue.shutdown(5);
+    }
+
+    // Called by /za reload on the main thread. Storage mode never changes here (that needs a
+    // restart), so a non-null database manager is only ever replaced by another non-null one.
+    public void applyReload(ZyrenAuthConfig config, DatabaseManager databaseManager, EmailSender emailSender) {
+        boolean newTokenSecret = !Objects.equals(config.getTokenSecret(), this.config.getTokenSecret());
+        this.config = config;
+        if (newTokenSecret) {
+            // Tokens already sent out stop working
+            reloadTokenKey();
+        }
+        if (config.isBreachedPasswordCheckEnabled() == (breachedFilter != null)) {
+            passwordPolicy = new PasswordPolicy(config, breachedFilter);
+        } else {
+            reloadBreachedFilter();
+        }
+        if (!usingFileStorage && databaseManager != null) {
+            this.databaseManager = databaseManager;
+        }
+        this.emailSender = emailSender;
+    }
+
+    // Called from PlayerQuitEvent. Cleanup goes through the player's task queue so it runs
+    // after any /login still in flight, and the logout write stays off the main thread.
     public void handlePlayerLeave(Player player) {
+        // Leaving before login: move the player back so the server saves their real position
+        // instead of the auth spot. Only if that chunk is still loaded, quitting must not load chunks.
+        Location back = preLoginLocations.get(player.getUniqueId());
+        if (isPlayerFrozen(player.getUniqueId()) && back != null && back.isWorldLoaded()
+                && back.getWorld().isChunkLoaded(back.getBlockX() >> 4, back.getBlockZ() >> 4)) {
+            player.teleport(back);
+        }
+        chunkPrefetcher.release(player.getUniqueId());
+        freezeState.forget(player);
+        authTimeouts.cancel(player.getUniqueId());
+        synchronized (sessions) {
+            sessions.remove(player.getUniqueId(), player);
+        }
+        taskQueue.submit(player.getUniqueId(), player, null, () -> cleanupAfterLeave(player));
+    }
+
+    private void cleanupAfterLeave(Player player) {
         UUID uuid = player.getUniqueId();
+        boolean wasAuthenticated;
+        synchronized (sessions) {
+            if (sessions.containsKey(uuid)) {
+                return; // Already rejoined; the new session owns this state now
+            }
+            wasAuthenticated = authenticatedPlayers.remove(uuid);
+        }
+        rememberCredential(uuid, credentialCache.remove(uuid), wasAuthenticated);
         awaitingLogin.remove(uuid);
         playerCurrentIp.remove(uuid);
-        unfreezePlayer(uuid); // Ensure player is unfrozen
+        frozenPlayers.remove(uuid); // Ensure player is unfrozen
         preLoginLocations.remove(uuid); // Remove pre-login location
 
         if (!usingFileStorage && databaseManager != null) {
@@ -245,20 +515,40 @@ public class AuthManager {
         String ip = playerCurrentIp.getOrDefault(uuid, "0.0.0.0");
 
         if (databaseManager == null) {
-            player.sendMessage(ChatColor.GOLD + "§l⚠ " + ChatColor.GRAY +
-                    "Authentication is running without a database. Registration is not persistent.");
+            messages.send(player, "auth.register-not-persistent");
         }
 
-        boolean alreadyRegistered = usingFileStorage ? fileAccounts.containsKey(uuid)
-                : (databaseManager != null && databaseManager.isPlayerRegistered(uuid));
+        // Cheapest check first: no database round trip or hashing for a password we would reject
+        PasswordPolicy.Result policyResult = passwordPolicy.check(password);
+        if (policyResult != PasswordPolicy.Result.OK) {
+            player.sendMessage(passwordPolicy.describe(policyResult, messages, player));
+            return false;
+        }
+
+        Boolean alreadyRegistered = usingFileStorage ? (Boolean) fileAccounts.containsKey(uuid)
+                : (databaseManager != null ? databaseManager.checkPlayerRegistered(uuid) : Boolean.FALSE);
 
+        if (alreadyRegistered == null) {
+            messages.send(player, "auth.database-unavailable");
+            return false;
+        }
         if (alreadyRegistered) {
-            player.sendMessage(ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "You are already registered. Use " + ChatColor.YELLOW + "/login" + ChatColor.DARK_RED + " instead.");
+            messages.send(player, "register.already-registered");
             return false;
         }
 
-        if (!isValidPassword(password)) {
-            player.sendMessage(ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + config.getPasswordRequirementsMessage());
+        String refusal = trafficMonitor.checkRegistration();
+        if (refusal != null) {
+            messages.send(player, refusal);
+            return false;
+        }
+
+        int maxAccounts = config.getMaxAccountsPerIp();
+        if (maxAccounts > 0 && altGraph.isLoaded() && altGraph.getAccountCount(ip) >= maxAccounts) {
+            messages.send(player, "register.too-many-accounts", "max", maxAccounts);
+            if (databaseManager != null) {
+                databaseManager.logSecurityEvent(uuid, ip, "Registration Blocked", "Account limit per IP reached.");
+            }
             return false;
         }
 
@@ -272,33 +562,37 @@ public class AuthManager {
             acc.email = null;
             acc.lastLoginIp = ip;
             acc.loggedIn = true;
-            // For new players, their "last location" is where they joined before auth teleport
-            Location initialLoc = preLoginLocations.getOrDefault(uuid, player.getWorld().getSpawnLocation());
-            acc.lastX = initialLoc.getX();
-            acc.lastY = initialLoc.getY();
-            acc.lastZ = initialLoc.getZ();
-            acc.lastYaw = initialLoc.getYaw();
-            acc.lastPitch = initialLoc.getPitch();
-            acc.lastWorld = initialLoc.getWorld().getName();
+            // For new players, their "last location" is where they joined before auth teleport.
+            // Recorded on the main thread at join (already the fallback if they joined in limbo);
+            // world lookups are not safe here. Without one, restorePlayerLocation uses the fallback.
+            Location initialLoc = preLoginLocations.get(uuid);
+            if (initialLoc != null) {
+                acc.lastX = initialLoc.getX();
+                acc.lastY = initialLoc.getY();
+                acc.lastZ = initialLoc.getZ();
+                acc.lastYaw = initialLoc.getYaw();
+                acc.lastPitch = initialLoc.getPitch();
+                acc.lastWorld = initialLoc.getWorld().getName();
+            }
 
             fileAccounts.put(uuid, acc);
             saveFileAccounts();
             success = true;
         } else {
-            success = databaseManager.createPlayerAccount(uuid, name, hashedPassword, ip);
+            // Account, session lease and trusted IP in one transaction
+            success = databaseManager.registerAndLogin(uuid, name, hashedPassword, ip);
+            if (success) credentialCache.put(uuid, hashedPassword);
         }
 
         if (success) {
-            player.sendMessage(ChatColor.DARK_AQUA + "╔═══════════════════════════════╗");
-            player.sendMessage(ChatColor.DARK_AQUA + "║ " + ChatColor.GREEN + "§l✔ Registration Successful!" + ChatColor.DARK_AQUA + "      ║");
-            player.sendMessage(ChatColor.DARK_AQUA + "║ " + ChatColor.WHITE + "Welcome, " + ChatColor.GOLD + name + ChatColor.WHITE + "! You're now logged in." + ChatColor.DARK_AQUA + "  ║");
-            player.sendMessage(ChatColor.DARK_AQUA + "╚═══════════════════════════════╝");
-            awaitingLogin.remove(uuid);
+            trafficMonitor.recordRegistration();
+            altGraph.link(uuid, name, ip);
+            // The account exists either way; a player who left meanwhile logs in next time
+            if (!markAuthenticated(player)) return false;
+            messages.send(player, "register.success", "player", name);
+            trafficMonitor.recordAuthenticated(ip);
 
-            if (!usingFileStorage && databaseManager != null) {
-                databaseManager.markAccountLoggedIn(uuid);
-                databaseManager.addTrustedIp(uuid, ip);
-            } else {
+            if (usingFileStorage) {
                 FileAccount acc = fileAccounts.get(uuid);
                 if (acc != null) {
                     acc.loggedIn = true;
@@ -307,13 +601,12 @@ public class AuthManager {
                 }
             }
 
-            unfreezePlayer(uuid);
-            restorePlayerLocation(player); // Restore location after successful registration
+            restorePlayerLocation(player); // Restore location after successful registration, then unfreeze
             ZyrenAuthPlugin.getInstance().getLogger().info(
                     "Player " + name + " (" + uuid + ") registered successfully and returned to their location.");
             return true;
         } else {
-            player.sendMessage(ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "Registration failed due to a server error. Please try again.");
+            messages.send(player, "register.failed");
             if (!usingFileStorage && databaseManager != null) {
                 databaseManager.logSecurityEvent(uuid, ip, "Registration Failed", "Database error during registration.");
             }
@@ -327,15 +620,20 @@ public class AuthManager {
         String ip = playerCurrentIp.getOrDefault(uuid, "0.0.0.0");
 
         if (databaseManager == null) {
-            player.sendMessage(ChatColor.GOLD + "§l⚠ " + ChatColor.GRAY +
-                    "Authentication is running without a database. Login is not persistent.");
+            messages.send(player, "auth.login-not-persistent");
         }
 
-        boolean registered = usingFileStorage ? fileAccounts.containsKey(uuid)
-                : (databaseManager != null && databaseManager.isPlayerRegistered(uuid));
+        Boolean registered = usingFileStorage ? (Boolean) fileAccounts.containsKey(uuid)
+                : (databaseManager != null ? databaseManager.checkPlayerRegistered(uuid) : Boolean.FALSE);
+        // Database unreachable: check the password against the cached credential instead
+        boolean degraded = registered == null;
+        if (degraded && degradedCredential(uuid) == null) {
+            messages.send(player, "auth.database-unavailable");
+            return false;
+        }
 
-        if (!registered) {
-            player.sendMessage(ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "You are not registered yet. Use " + ChatColor.YELLOW + "/register" + ChatColor.DARK_RED + " first.");
+        if (!degraded && !registered) {
+            messages.send(player, "login.not-registered");
             return false;
         }
 
@@ -343,12 +641,18 @@ public class AuthManager {
         if (usingFileStorage) {
             FileAccount acc = fileAccounts.get(uuid);
             storedHash = (acc != null) ? acc.passwordHash : null;
+        } else if (degraded) {
+            storedHash = degradedCredential(uuid);
         } else {
-            storedHash = databaseManager.getPlayerHashedPassword(uuid);
+            storedHash = credentialCache.get(uuid);
+            if (storedHash == null) {
+                storedHash = databaseManager.getPlayerHashedPassword(uuid);
+                if (storedHash != null) credentialCache.put(uuid, storedHash);
+            }
         }
 
         if (storedHash == null) {
-            player.sendMessage(ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "Could not load your password. Please contact an administrator.");
+            messages.send(player, "login.hash-unavailable");
             if (!usingFileStorage && databaseManager != null) {
                 databaseManager.logSecurityEvent(uuid, ip, "Login Failed (DB)", "Could not retrieve hashed password.");
             }
@@ -356,11 +660,31 @@ public class AuthManager {
         }
 
         if (verifyPassword(password, storedHash)) {
-            player.sendMessage(ChatColor.DARK_AQUA + "╔═══════════════════════════════╗");
-            player.sendMessage(ChatColor.DARK_AQUA + "║ " + ChatColor.GREEN + "§l✔ Login Successful!" + ChatColor.DARK_AQUA + "           ║");
-            player.sendMessage(ChatColor.DARK_AQUA + "║ " + ChatColor.WHITE + "Welcome back, " + ChatColor.GOLD + name + ChatColor.WHITE + "! Enjoy your stay." + ChatColor.DARK_AQUA + " ║");
-            player.sendMessage(ChatColor.DARK_AQUA + "╚═══════════════════════════════╝");
-            awaitingLogin.remove(uuid);
+            // Imported hashes are replaced by a native BCrypt hash now that we know the password
+            String upgradedHash = PasswordHashes.needsRehash(storedHash) ? hashPassword(password) : null;
+
+            // Session lease, login IP and upgraded hash in one transaction; another backend may
+            // have claimed the lease since pre-login. Without a database there is no lease to take.
+            // A database error is logged by the storage and does not cost the player the login.
+            if (!usingFileStorage && databaseManager != null && !degraded
+                    && databaseManager.recordSuccessfulLogin(uuid, ip, upgradedHash, config.isAntiAccountSharingEnabled()) == LoginRecordResult.LEASE_HELD) {
+                messages.send(player, "login.already-logged-in");
+                databaseManager.logSecurityEvent(uuid, ip, "Anti-Account Sharing", "Session lease held by another server at login.");
+                kickPlayer(player, "kick.account-in-use");
+                return false;
+            }
+
+            // Left (and maybe rejoined) while the password was checked: not this session's login
+            if (!markAuthenticated(player)) return false;
+            messages.send(player, "login.success", "player", name);
+            if (degraded) {
+                credentialCache.put(uuid, storedHash);
+                messages.send(player, "login.degraded");
+                ZyrenAuthPlugin.getInstance().getLogger().warning("[ZyrenAuth] Player " + name + " (" + uuid +
+                        ") logged in with a cached credential while the database is unreachable.");
+            }
+            trafficMonitor.recordAuthenticated(ip);
+            altGraph.link(uuid, name, ip);
             failedLoginAttempts.remove(uuid);
 
             if (usingFileStorage) {
@@ -368,20 +692,26 @@ public class AuthManager {
                 if (acc != null) {
                     acc.loggedIn = true;
                     acc.lastLoginIp = ip;
+                    if (upgradedHash != null) acc.passwordHash = upgradedHash;
                     saveFileAccounts();
                 }
             } else if (databaseManager != null) {
-                databaseManager.markAccountLoggedIn(uuid);
-                databaseManager.updatePlayerLastLoginIp(uuid, ip);
+                // Degraded logins skipped the transaction above; these writes are spooled
+                if (degraded) {
+                    databaseManager.updatePlayerLastLoginIp(uuid, ip);
+                    if (upgradedHash != null) databaseManager.updatePlayerPassword(uuid, upgradedHash);
+                }
+                // Either hash checks the same password, so the cache may run ahead of a lost write
+                if (upgradedHash != null) credentialCache.put(uuid, upgradedHash);
             }
 
-            unfreezePlayer(uuid);
-            restorePlayerLocation(player); // Restore location after successful login
+            restorePlayerLocation(player); // Restore location after successful login, then unfreeze
             ZyrenAuthPlugin.getInstance().getLogger().info(
                     "Player " + name + " (" + uuid + ") logged in successfully and returned to their location.");
             return true;
         } else {
-            player.sendMessage(ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "The password you entered is not correct.");
+            messages.send(player, "login.wrong-password");
+            trafficMonitor.recordFailedLogin();
             // Only enforce brute-force protection when using DB
             if (!usingFileStorage) {
                 incrementFailedLoginAttempt(player);
@@ -393,21 +723,69 @@ public class AuthManager {
         }
     }
 
+    // Hash to check a login against while the database cannot answer, or null. The current
+    // session's cache comes first, then a credential kept from a recent session.
+    private String degradedCredential(UUID uuid) {
+        String hash = credentialCache.get(uuid);
+        if (hash != null) return hash;
+        RecentCredential recent = recentCredentials.get(uuid);
+        if (recent == null) return null;
+        if (recent.expiresAt() < System.currentTimeMillis()) {
+            recentCredentials.remove(uuid, recent);
+            return null;
+        }
+        return recent.hash();
+    }
+
+    // Keeps the hash of a player who logged in successfully this session, and drops expired ones
+    private void rememberCredential(UUID uuid, String hash, boolean authenticated) {
+        long now = System.currentTimeMillis();
+        int minutes = config.getDegradedLoginCacheMinutes();
+        if (authenticated && hash != null && minutes > 0) {
+            recentCredentials.put(uuid, new RecentCredential(hash, now + minutes * 60_000L));
+        }
+        recentCredentials.values().removeIf(credential -> credential.expiresAt() < now);
+    }
+
     // ------------------------------------------------------------------------
     // Password policy + hashing
     // ------------------------------------------------------------------------
 
-    public boolean isValidPassword(String password) {
-        return password != null && password.length() >= 3;
+    public PasswordPolicy.Result checkPassword(String password) {
+        return passwordPolicy.check(password);
+    }
+
+    public PasswordPolicy getPasswordPolicy() {
+        return passwordPolicy;
+    }
+
+    // Maps breached-passwords.bloom (if present and enabled) and recompiles the policy around it
+    public void reloadBreachedFilter() {
+        BreachedPasswordFilter filter = null;
+        if (config.isBreachedPasswordCheckEnabled()) {
+            File file = new File(ZyrenAuthPlugin.getInstance().getDataFolder(), BREACHED_FILTER_FILE);
+            try {
+                filter = BreachedPasswordFilter.load(file);
+                if (filter != null) {
+                    ZyrenAuthPlugin.getInstance().getLogger().info("[ZyrenAuth] Loaded breached-password filter with " +
+                            filter.getEntries() + " entries (" + (filter.getSizeBytes() >> 20) + " MiB).");
+                }
+            } catch (IOException e) {
+                ZyrenAuthPlugin.getInstance().getLogger().severe("[ZyrenAuth] Could not load " + BREACHED_FILTER_FILE + ": " + e.getMessage());
+            }
+        }
+        breachedFilter = filter;
+        passwordPolicy = new PasswordPolicy(config, filter);
     }
 
     private String hashPassword(String password) {
         return BCrypt.hashpw(password, BCrypt.gensalt(config.getBcryptStrength()));
     }
 
+    // Also accepts hashes imported by /za migrate (see PasswordHashes)
     private boolean verifyPassword(String plainPassword, String hashedPassword) {
         try {
-            return BCrypt.checkpw(plainPassword, hashedPassword);
+            return PasswordHashes.verify(plainPassword, hashedPassword);
         } catch (IllegalArgumentException e) {
             ZyrenAuthPlugin.getInstance().getLogger().severe("[ZyrenAuth] Invalid BCrypt hash: " + e.getMessage());
             return false;
@@ -435,11 +813,10 @@ public class AuthManager {
             ipLockoutTimestamps.put(ip, unlockTime);
             databaseManager.logSecurityEvent(uuid, ip, "Brute-force lockout",
                     "Account locked for " + config.getLockoutDurationSeconds() + " seconds.");
-            player.sendMessage(ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "Too many failed attempts. You are temporarily locked out.");
-            player.kickPlayer("Too many failed login attempts.");
+            messages.send(player, "login.locked-out");
+            kickPlayer(player, "kick.too-many-attempts");
         } else {
-            player.sendMessage(ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "Failed login attempts: " +
-                    ChatColor.WHITE + attempts + ChatColor.GRAY + "/" + config.getMaxLoginAttempts());
+            messages.send(player, "login.attempts", "attempts", attempts, "max", config.getMaxLoginAttempts());
         }
     }
 
@@ -469,11 +846,11 @@ public class AuthManager {
 
     public boolean handleEmailAddition(Player player, String email) {
         if (emailSender == null) {
-            player.sendMessage(ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "Email features are disabled on this server.");
+            messages.send(player, "email.disabled");
             return false;
         }
         if (usingFileStorage || databaseManager == null) {
-            player.sendMessage(ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "Email features require MySQL to be enabled and connected.");
+            messages.send(player, "email.requires-mysql");
             return false;
         }
 
@@ -481,18 +858,22 @@ public class AuthManager {
         String ip = playerCurrentIp.getOrDefault(uuid, "0.0.0.0");
 
         if (!isValidEmail(email)) {
-            player.sendMessage(ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "That doesn't look like a valid email address.");
+            messages.send(player, "email.invalid");
             return false;
         }
         if (databaseManager.isEmailRegistered(email)) {
-            player.sendMessage(ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "This email is already linked to another account.");
+            messages.send(player, "email.in-use");
             return false;
         }
 
-        String token = generateSecureToken();
+        // Bound to the current email and confirmation count, so the token is spent once used
+        SignedTokens tokens = signedTokens;
         long expiryTime = System.currentTimeMillis() + config.getEmailConfirmationExpiryMinutes() * 60L * 1000L;
+        int confirmations = databaseManager.getEmailConfirmations(uuid);
 
-        if (databaseManager.storeEmailConfirmationToken(uuid, email, token, expiryTime)) {
+        if (tokens != null && confirmations >= 0) {
+            String token = tokens.issue(SignedTokens.Purpose.EMAIL_CONFIRMATION, uuid,
+                    emailBinding(databaseManager.getPlayerEmail(uuid), confirmations), email, expiryTime);
             String message =
                     "Hello " + player.getName() + ",\n\n" +
                             "You requested to link this email to your ZyrenAuth account.\n" +
@@ -504,46 +885,53 @@ public class AuthManager {
 
             boolean sent = emailSender.sendEmail(email, "ZyrenAuth Email Confirmation", message);
             if (sent) {
-                player.sendMessage(ChatColor.GREEN + "§l✔ " + ChatColor.AQUA + "A confirmation email has been sent to " +
-                        ChatColor.GOLD + email + ChatColor.AQUA + ". Please check your inbox.");
+                messages.send(player, "email.sent", "email", email);
                 databaseManager.logSecurityEvent(uuid, ip, "Email Addition", "Confirmation email sent to " + email);
                 return true;
             } else {
-                player.sendMessage(ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "Could not send the confirmation email. Please try again later.");
+                messages.send(player, "email.send-failed");
                 databaseManager.logSecurityEvent(uuid, ip, "Email Addition Failed",
                         "Failed to send confirmation email to " + email);
                 return false;
             }
         }
 
-        player.sendMessage(ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "Could not store the confirmation token. Please try again.");
+        messages.send(player, "email.token-store-failed");
         return false;
     }
 
+    private static String emailBinding(String currentEmail, int confirmations) {
+        return Objects.toString(currentEmail, "") + "\n" + confirmations;
+    }
+
     public boolean confirmEmail(Player player, String token) {
         if (usingFileStorage || databaseManager == null) {
-            player.sendMessage(ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "Email confirmation is not available without MySQL.");
+            messages.send(player, "email.confirm-unavailable");
             return false;
         }
 
         UUID uuid = player.getUniqueId();
         String ip = playerCurrentIp.getOrDefault(uuid, "0.0.0.0");
-        String storedEmail = databaseManager.getEmailByConfirmationToken(uuid, token);
+        SignedTokens tokens = signedTokens;
+        String currentEmail = databaseManager.getPlayerEmail(uuid);
+        int confirmations = databaseManager.getEmailConfirmations(uuid);
+        SignedTokens.Token verified = tokens == null || confirmations < 0 ? null : tokens.verify(token,
+                SignedTokens.Purpose.EMAIL_CONFIRMATION, uuid, emailBinding(currentEmail, confirmations));
+        String storedEmail = verified != null ? verified.email() : null;
 
         if (storedEmail != null) {
-            if (databaseManager.setPlayerEmail(uuid, storedEmail)) {
-                databaseManager.deleteEmailConfirmationToken(token);
-                player.sendMessage(ChatColor.GREEN + "§l✔ " + ChatColor.AQUA + "Your email " +
-                        ChatColor.GOLD + storedEmail + ChatColor.AQUA + " has been confirmed.");
+            // Only if the email and count are still the ones the token was checked against
+            if (databaseManager.confirmEmailAtomically(uuid, currentEmail, confirmations, storedEmail)) {
+                messages.send(player, "email.confirmed", "email", storedEmail);
                 databaseManager.logSecurityEvent(uuid, ip, "Email Confirmed", "Email " + storedEmail + " confirmed.");
                 return true;
             } else {
-                player.sendMessage(ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "Could not save your email. Please contact an administrator.");
+                messages.send(player, "email.save-failed");
                 databaseManager.logSecurityEvent(uuid, ip, "Email Confirmation Failed",
                         "Failed to set email in DB after token validation.");
             }
         } else {
-            player.sendMessage(ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "This confirmation token is invalid or has expired.");
+            messages.send(player, "email.token-invalid");
             databaseManager.logSecurityEvent(uuid, ip, "Email Confirmation Failed",
                     "Invalid or expired token provided.");
         }
@@ -556,11 +944,11 @@ public class AuthManager {
 
     public boolean handlePasswordReset(Player player) {
         if (emailSender == null) {
-            player.sendMessage(ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "Password reset via email is not available on this server.");
+            messages.send(player, "reset.disabled");
             return false;
         }
         if (usingFileStorage || databaseManager == null) {
-            player.sendMessage(ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "Password reset features require MySQL to be enabled and connected.");
+            messages.send(player, "reset.requires-mysql");
             return false;
         }
 
@@ -570,15 +958,17 @@ public class AuthManager {
         String email = databaseManager.getPlayerEmail(uuid);
 
         if (email == null || email.isEmpty()) {
-            player.sendMessage(ChatColor.RED + "§l✖ " + ChatColor.DARK_RED +
-                    "Your account does not have an email linked. Add one first with " + ChatColor.YELLOW + "/addemail <email>" + ChatColor.DARK_RED + ".");
+            messages.send(player, "reset.no-email");
             return false;
         }
 
-        String token = generateSecureToken();
+        // Bound to the current password hash, so the token is spent once the password changes
+        SignedTokens tokens = signedTokens;
+        String currentHash = currentPasswordHash(uuid);
         long expiryTime = System.currentTimeMillis() + config.getPasswordResetExpiryMinutes() * 60L * 1000L;
 
-        if (databaseManager.storePasswordResetToken(uuid, token, expiryTime)) {
+        if (tokens != null && currentHash != null) {
+            String token = tokens.issue(SignedTokens.Purpose.PASSWORD_RESET, uuid, currentHash, null, expiryTime);
             String message =
                     "Hello " + name + ",\n\n" +
                             "You requested a password reset for your ZyrenAuth account.\n" +
@@ -590,53 +980,56 @@ public class AuthManager {
 
             boolean sent = emailSender.sendEmail(email, "ZyrenAuth Password Reset", message);
             if (sent) {
-                player.sendMessage(ChatColor.GREEN + "§l✔ " + ChatColor.AQUA + "A password reset token has been sent to " +
-                        ChatColor.GOLD + email + ChatColor.AQUA + ".");
+                messages.send(player, "reset.sent", "email", email);
                 databaseManager.logSecurityEvent(uuid, ip, "Password Reset Request", "Reset email sent to " + email);
                 return true;
             } else {
-                player.sendMessage(ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "Could not send the password reset email. Please try again later.");
+                messages.send(player, "reset.send-failed");
                 databaseManager.logSecurityEvent(uuid, ip, "Password Reset Failed",
                         "Failed to send reset email to " + email);
                 return false;
             }
         }
 
-        player.sendMessage(ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "Could not store the reset token. Please try again.");
+        messages.send(player, "reset.token-store-failed");
         return false;
     }
 
     public boolean confirmPasswordReset(Player player, String token, String newPassword) {
         if (usingFileStorage || databaseManager == null) {
-            player.sendMessage(ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "Password reset via token is only available when MySQL is enabled.");
+            messages.send(player, "reset.unavailable");
             return false;
         }
 
         UUID uuid = player.getUniqueId();
         String ip = playerCurrentIp.getOrDefault(uuid, "0.0.0.0");
 
-        if (!isValidPassword(newPassword)) {
-            player.sendMessage(ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + config.getPasswordRequirementsMessage());
+        PasswordPolicy.Result policyResult = passwordPolicy.check(newPassword);
+        if (policyResult != PasswordPolicy.Result.OK) {
+            player.sendMessage(passwordPolicy.describe(policyResult, messages, player));
             return false;
         }
 
-        String storedToken = databaseManager.getPasswordResetToken(uuid);
-        long expiryTime = databaseManager.getPasswordResetTokenExpiry(uuid);
+        SignedTokens tokens = signedTokens;
+        String currentHash = currentPasswordHash(uuid);
+        SignedTokens.Token verified = tokens == null || currentHash == null ? null
+                : tokens.verify(token, SignedTokens.Purpose.PASSWORD_RESET, uuid, currentHash);
 
-        if (storedToken != null && storedToken.equals(token) && System.currentTimeMillis() < expiryTime) {
+        if (verified != null) {
             String hashed = hashPassword(newPassword);
-            if (databaseManager.updatePlayerPassword(uuid, hashed)) {
-                databaseManager.deletePasswordResetToken(uuid);
-                player.sendMessage(ChatColor.GREEN + "§l✔ " + ChatColor.AQUA + "Your password has been updated successfully.");
+            // Only if the hash is still the one the token was checked against
+            if (databaseManager.resetPasswordAtomically(uuid, currentHash, hashed)) {
+                credentialCache.put(uuid, hashed);
+                messages.send(player, "reset.success");
                 databaseManager.logSecurityEvent(uuid, ip, "Password Reset Confirmed", "Password updated successfully.");
                 return true;
             } else {
-                player.sendMessage(ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "Could not update your password. Please contact an administrator.");
+                messages.send(player, "reset.update-failed");
                 databaseManager.logSecurityEvent(uuid, ip, "Password Reset Failed",
                         "Database error updating password.");
             }
         } else {
-            player.sendMessage(ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "This password reset token is invalid or has expired.");
+            messages.send(player, "reset.token-invalid");
             databaseManager.logSecurityEvent(uuid, ip, "Password Reset Failed",
                     "Invalid or expired token provided for reset.");
         }
@@ -647,13 +1040,19 @@ public class AuthManager {
     // Freeze helpers
     // ------------------------------------------------------------------------
 
-    public void freezePlayer(UUID uuid) {
-        frozenPlayers.add(uuid);
-        // PlayerRestrictionListener will handle teleporting to 0,0,0 and keeping them there
+    // Main thread only, like FreezeState
+    public void freezePlayer(Player player) {
+        frozenPlayers.add(player.getUniqueId());
+        freezeState.enter(player);
+        authTimeouts.start(player);
+        // PlayerRestrictionListener will handle keeping them at the auth location
     }
 
-    public void unfreezePlayer(UUID uuid) {
-        frozenPlayers.remove(uuid);
+    // Main thread only. Restores the player's full state in one go.
+    public void unfreezePlayer(Player player) {
+        frozenPlayers.remove(player.getUniqueId());
+        freezeState.leave(player);
+        authTimeouts.cancel(player.getUniqueId());
         // PlayerRestrictionListener will handle allowing movement again
     }
 
@@ -661,6 +1060,42 @@ public class AuthManager {
         return frozenPlayers.contains(uuid);
     }
 
+    public FreezeState getFreezeState() {
+        return freezeState;
+    }
+
+    public AuthTimeouts getAuthTimeouts() {
+        return authTimeouts;
+    }
+
+    public IpBanList getIpBanList() {
+        return ipBanList;
+    }
+
+    public TrafficMonitor getTrafficMonitor() {
+        return trafficMonitor;
+    }
+
+    public AltAccountGraph getAltGraph() {
+        return altGraph;
+    }
+
+    public Location getAuthLocation(Player player) {
+        return limboManager.getAuthLocation(player);
+    }
+
+    // Called by AuthChangeFeed when another server changed this player's data
+    public void onAuthChange(UUID uuid, AuthChangeType type) {
+        if (type == AuthChangeType.PASSWORD) {
+            credentialCache.remove(uuid);
+            recentCredentials.remove(uuid);
+        }
+    }
+
+    public Set<UUID> getAuthenticatedPlayers() {
+        return Collections.unmodifiableSet(authenticatedPlayers);
+    }
+
     // ------------------------------------------------------------------------
     // Location Management
     // ------------------------------------------------------------------------
@@ -683,10 +1118,26 @@ public class AuthManager {
         UUID uuid = player.getUniqueId();
         Location restoredLocation = preLoginLocations.remove(uuid); // Get and remove stored location
 
+        // teleportAsync never blocks the tick; the destination chunks are normally already
+        // loaded and held by the prefetch started on join, whose tickets are dropped once there
+        runOnMainThread(() -> {
+            if (!player.isOnline()) {
+                chunkPrefetcher.release(uuid);
+                return;
+            }
+            // If no specific location was stored (e.g., first join, or error), teleport to world spawn
+            Location destination = restoredLocation != null ? restoredLocation : limboManager.getFallbackLocation(player);
+            // Unfrozen only on arrival, so full view distance is sent at the destination, not the auth spot
+            player.teleportAsync(destination).whenComplete((moved, error) -> runOnMainThread(() -> {
+                chunkPrefetcher.release(uuid);
+                if (!player.isOnline()) return;
+                unfreezePlayer(player);
+                player.setAllowFlight(false); // Disable flight after teleport
+                player.setFlying(false);
+            }));
+        });
+
         if (restoredLocation != null) {
-            player.teleport(restoredLocation);
-            player.setAllowFlight(false); // Disable flight after teleport
-            player.setFlying(false);
             if (usingFileStorage) { // Also update file storage if applicable
                 FileAccount acc = fileAccounts.get(uuid);
                 if (acc != null) {
@@ -699,11 +1150,6 @@ public class AuthManager {
                     saveFileAccounts();
                 }
             }
-        } else {
-            // If no specific location was stored (e.g., first join, or error), teleport to world spawn
-            player.teleport(player.getWorld().getSpawnLocation());
-            player.setAllowFlight(false);
-            player.setFlying(false);
         }
     }
 
@@ -711,8 +1157,20 @@ public class AuthManager {
     // Utils
     // ------------------------------------------------------------------------
 
-    private String generateSecureToken() {
-        return UUID.randomUUID().toString().replace("-", "").substring(0, 16);
+    private void reloadTokenKey() {
+        try {
+            signedTokens = SignedTokens.load(ZyrenAuthPlugin.getInstance().getDataFolder(), config.getTokenSecret());
+        } catch (IOException e) {
+            signedTokens = null;
+            ZyrenAuthPlugin.getInstance().getLogger().severe("[ZyrenAuth] Could not load the token key (" + SignedTokens.KEY_FILE +
+                    "). Email confirmation and password reset are unavailable. Error: " + e.getMessage());
+        }
+    }
+
+    // Cached for players who tried /login this session, otherwise read from the database
+    private String currentPasswordHash(UUID uuid) {
+        String hash = credentialCache.get(uuid);
+        return hash != null ? hash : databaseManager.getPlayerHashedPassword(uuid);
     }
 
     private boolean isValidEmail(String email) {
@@ -0,0 +1,99 @@
+// src/main/java/com/pheonix/zyrenauth/manager/AuthTimeouts.java
+package com.pheonix.zyrenauth.manager;
+
+import com.pheonix.zyrenauth.util.Messages;
+import com.pheonix.zyrenauth.util.ZyrenAuthConfig;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Kicks players who neither log in nor register within authTimeoutSeconds. Every player
+ * shares one timeout, so entries enter the queue in deadline order: a single once-a-second
+ * task only ever looks at the head, and expired players are kicked in batches of at most
+ * authTimeoutKickBatchSize per run. Logins and quits just drop the player from the active
+ * map; their stale queue entry is skipped when it reaches the head. Main thread only.
+ */
+public class AuthTimeouts {
+
+    private record Entry(UUID uuid, long joinedAt) {}
+
+    private static final long CHECK_TICKS = 20;
+
+    private final Messages messages;
+    private volatile ZyrenAuthConfig config;
+    private final ArrayDeque<Entry> queue = new ArrayDeque<>();
+    // Join time of each player still waiting; a queue entry is live only if it matches
+    private final Map<UUID, Long> active = new HashMap<>();
+    private long timedOut;
+    private final BukkitTask task;
+
+    public AuthTimeouts(Plugin plugin, ZyrenAuthConfig config, Messages messages) {
+        this.config = config;
+        this.messages = messages;
+        this.task = Bukkit.getScheduler().runTaskTimer(plugin, this::kickExpired, CHECK_TICKS, CHECK_TICKS);
+    }
+
+    // Deadlines are computed from the join time at check time, so a changed timeout
+    // applies to players already waiting and the queue stays in order
+    public void applyReload(ZyrenAuthConfig config) {
+        this.config = config;
+    }
+
+    public void start(Player player) {
+        if (config.getAuthTimeoutSeconds() <= 0) return;
+        long now = System.currentTimeMillis();
+        active.put(player.getUniqueId(), now);
+        queue.addLast(new Entry(player.getUniqueId(), now));
+    }
+
+    public void cancel(UUID uuid) {
+        active.remove(uuid);
+    }
+
+    public long getTimedOutCount() {
+        return timedOut;
+    }
+
+    public void shutdown() {
+        task.cancel();
+        queue.clear();
+        active.clear();
+    }
+
+    private void kickExpired() {
+        ZyrenAuthConfig cfg = config;
+        long timeoutMillis = cfg.getAuthTimeoutSeconds() * 1000L;
+        if (timeoutMillis <= 0) {
+            queue.clear(); // Turned off by /za reload
+            active.clear();
+            return;
+        }
+        long now = System.currentTimeMillis();
+        int budget = Math.max(1, cfg.getAuthTimeoutKickBatchSize());
+        while (!queue.isEmpty()) {
+            Entry head = queue.peekFirst();
+            Long joinedAt = active.get(head.uuid());
+            if (joinedAt == null || joinedAt != head.joinedAt()) {
+                queue.pollFirst(); // Logged in, left, or rejoined since
+                continue;
+            }
+            if (head.joinedAt() + timeoutMillis > now || budget == 0) {
+                return;
+            }
+            queue.pollFirst();
+            active.remove(head.uuid());
+            Player player = Bukkit.getPlayer(head.uuid());
+            if (player == null) continue;
+            budget--;
+            timedOut++;
+            player.kick(messages.get(player, "kick.auth-timeout", "seconds", cfg.getAuthTimeoutSeconds()));
+        }
+    }
+}
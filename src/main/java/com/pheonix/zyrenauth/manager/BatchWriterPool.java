@@ -0,0 +1,112 @@
+// src/main/java/com/pheonix/zyrenauth/manager/BatchWriterPool.java
+package com.pheonix.zyrenauth.manager;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Fixed set of writer threads, each with its own AccountSink, fed from a bounded queue.
+ * A single producer submits batches; submit() blocks while all writers are busy, so
+ * memory use stays at a few batches no matter how large the source is.
+ */
+final class BatchWriterPool {
+
+    interface SinkFactory {
+        AccountSink open() throws Exception;
+    }
+
+    // Called on the writer thread after a batch was written
+    interface Completion {
+        void onWritten(long seq, String endPosition) throws Exception;
+    }
+
+    private record Batch(long seq, List<AccountRecord> accounts, String endPosition) {}
+
+    private static final Batch END = new Batch(-1, List.of(), null);
+
+    private final int writers;
+    private final BlockingQueue<Batch> queue;
+    private final ExecutorService pool;
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+    private final AtomicLong written = new AtomicLong();
+    private long nextSeq = 0;
+
+    BatchWriterPool(String threadName, int writers, SinkFactory sinkFactory, Completion completion) {
+        this.writers = writers;
+        this.queue = new ArrayBlockingQueue<>(writers * 2);
+        this.pool = Executors.newFixedThreadPool(writers,
+                Thread.ofPlatform().name(threadName + "-", 0).daemon(true).factory());
+        for (int i = 0; i < writers; i++) {
+            pool.execute(() -> runWriter(sinkFactory, completion));
+        }
+    }
+
+    void submit(List<AccountRecord> accounts, String endPosition) throws InterruptedException {
+        queue.put(new Batch(nextSeq++, accounts, endPosition));
+    }
+
+    // First error raised by any writer, or null
+    Exception failure() {
+        return failure.get();
+    }
+
+    void fail(Exception e) {
+        failure.compareAndSet(null, e);
+    }
+
+    long written() {
+        return written.get();
+    }
+
+    // Waits for every submitted batch; sinks are finished only if nothing failed
+    void finish() {
+        try {
+            for (int i = 0; i < writers; i++) {
+                queue.put(END);
+            }
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+            fail(e);
+        }
+    }
+
+    private void runWriter(SinkFactory sinkFactory, Completion completion) {
+        AccountSink sink = null;
+        try {
+            sink = sinkFactory.open();
+        } catch (Exception e) {
+            fail(e);
+        }
+        try {
+            while (true) {
+                Batch batch = queue.take();
+                if (batch == END) break;
+                // After a failure keep draining so the producer never blocks on a full queue
+                if (sink == null || failure.get() != null) continue;
+                try {
+                    written.addAndGet(sink.write(batch.accounts()));
+                    completion.onWritten(batch.seq(), batch.endPosition());
+                } catch (Exception e) {
+                    fail(e);
+                }
+            }
+            if (sink != null && failure.get() == null) {
+                sink.finish();
+            }
+        } catch (Exception e) {
+            fail(e);
+        } finally {
+            if (sink != null) {
+                try {
+                    sink.close();
+                } catch (Exception ignored) {
+                }
+            }
+        }
+    }
+}
@@ -2,20 +2,114 @@
 package com.pheonix.zyrenauth.manager;
 
 import com.pheonix.zyrenauth.ZyrenAuthPlugin;
+import com.pheonix.zyrenauth.util.CircuitBreaker;
+import com.pheonix.zyrenauth.util.UuidCodec;
 import com.pheonix.zyrenauth.util.ZyrenAuthConfig;
 
+import java.io.File;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
 
-public class DatabaseManager {
+public class DatabaseManager implements IAuthStorage {
 
-    private Connection connection;
-    private final ZyrenAuthConfig config;
+    private static final int SESSION_RENEW_CHUNK = 500;
+    // Tables holding only short-lived state; the compact migration recreates them empty
+    private static final String[] TRANSIENT_TABLES = {"sessions", "auth_changes"};
+    // Copied by the compact migration, players first so the others' foreign keys resolve
+    private static final String[] MIGRATED_TABLES = {"players", "ip_restrictions", "security_logs"};
+    // Stored tokens from before they were signed; dropped on startup
+    private static final String[] RETIRED_TABLES = {"email_confirmation_tokens", "password_reset_tokens"};
+    private static final String MIGRATION_LOCK = "zyrenauth_compact_migration";
+    private static final int MIGRATION_LOCK_TIMEOUT_SECONDS = 600;
+    private static final int MAX_REPORTED_IPS = 20;
+    // Only the composite flows' connection allows several statements per request (see
+    // runAtomically); the shared connection never does
+    private static final String SHARED_CONNECTION_PARAMS = "autoReconnect=true";
+    private static final String BATCH_CONNECTION_PARAMS = "allowMultiQueries=true";
+    // Takes a free lease, or renews/takes over one that is ours or has expired. Together they
+    // bind player, server, lease seconds, then server, lease seconds, player, server.
+    private static final String LEASE_INSERT_SQL =
+            "INSERT IGNORE INTO sessions (player_uuid, server_id, lease_expires) VALUES (?, ?, UNIX_TIMESTAMP() + ?)";
+    private static final String LEASE_TAKEOVER_SQL = "UPDATE sessions SET server_id = ?, lease_expires = UNIX_TIMESTAMP() + ? " +
+            "WHERE player_uuid = ? AND (server_id = ? OR lease_expires < UNIX_TIMESTAMP())";
+    private static final String AUTH_CHANGE_SQL =
+            "INSERT INTO auth_changes (player_uuid, change_type, server_id, created_at) VALUES (?, ?, ?, UNIX_TIMESTAMP())";
+    // The same, but only if the statement before it matched a row
+    private static final String AUTH_CHANGE_IF_UPDATED_SQL = "INSERT INTO auth_changes (player_uuid, change_type, server_id, created_at) " +
+            "SELECT ?, ?, ?, UNIX_TIMESTAMP() FROM DUAL WHERE ROW_COUNT() > 0";
+
+    // Volatile: the reconnect thread replaces it while the circuit is open
+    private volatile Connection connection;
+    // Replaced by /za reload when only non-connection settings (lease times, batch sizes) change
+    volatile ZyrenAuthConfig config;
+    // A single permit: there is one shared connection, and a JDBC connection runs one
+    // statement at a time. Callers on virtual threads wait here instead of blocking inside
+    // the driver's synchronized sections, which would pin their carrier threads. Fair, so
+    // heartbeats cannot starve player requests.
+    private final Semaphore connectionPermits = new Semaphore(1, true);
+    // Second connection, used only by the composite auth flows. Opened on first use and
+    // reopened after it drops; guarded by batchPermit.
+    private Connection batchConnection;
+    private final Semaphore batchPermit = new Semaphore(1, true);
+    // Store UUIDs as BINARY(16) and IPs as VARBINARY(16) instead of their text forms.
+    // Falls back to false if the migration from the VARCHAR(36) layout fails.
+    boolean compactIds;
+    // Set once a reload has swapped in a new DatabaseManager; late callers fail fast
+    private volatile boolean retired;
+    // Opens after repeated connection failures or timeouts. While open, every call returns
+    // its "not connected" result at once instead of blocking the caller (often the main
+    // thread) on a dead server, and a background thread reconnects with exponential backoff.
+    private final CircuitBreaker breaker;
+    private ScheduledExecutorService reconnector;
+    private volatile boolean shutDown;
+    // Takes session, last-IP, password and security log writes while the database is down;
+    // shared with the instance that replaces this one on /za reload
+    private volatile WriteSpool spool;
+    // Query timeouts and the slow-query log for statements on the shared connection
+    private final QueryProfiler profiler;
 
     public DatabaseManager(ZyrenAuthConfig config) {
         this.config = config;
+        this.compactIds = config.isCompactUuidStorage();
+        this.breaker = createBreaker(config);
+        this.profiler = new QueryProfiler(this, new File(ZyrenAuthPlugin.getInstance().getDataFolder(), QueryProfiler.LOG_FILE));
         connect();
         createTables();
+        // Only now: startup migrations and index builds may legitimately take longer
+        applyNetworkTimeout(connection);
+    }
+
+    // For EmbeddedDatabaseManager, which opens its own connections and creates its own tables
+    DatabaseManager(ZyrenAuthConfig config, boolean compactIds) {
+        this.config = config;
+        this.compactIds = compactIds;
+        this.breaker = createBreaker(config);
+        this.profiler = null;
+    }
+
+    private CircuitBreaker createBreaker(ZyrenAuthConfig config) {
+        return new CircuitBreaker(config.getDatabaseBreakerFailureThreshold(),
+                config.getDatabaseBreakerWindowSeconds() * 1000L,
+                config.getDatabaseHalfOpenSeconds() * 1000L,
+                config.getDatabaseReconnectMaxBackoffSeconds() * 1000L,
+                this::scheduleReconnect);
+    }
+
+    public void applyConfig(ZyrenAuthConfig config) {
+        this.config = config;
+        breaker.configure(config.getDatabaseBreakerFailureThreshold(), config.getDatabaseBreakerWindowSeconds() * 1000L,
+                config.getDatabaseHalfOpenSeconds() * 1000L, config.getDatabaseReconnectMaxBackoffSeconds() * 1000L);
+        // The open connection keeps its network timeout until it is replaced; changing it here
+        // would wait for the connection's lock on the main thread
     }
 
     public void connect() {
@@ -24,9 +118,7 @@ public class DatabaseManager {
                 return;
             }
             Class.forName("com.mysql.cj.jdbc.Driver");
-            String url = "jdbc:mysql://" + config.getMysqlHost() + ":" + config.getMysqlPort() +
-                    "/" + config.getMysqlDatabase() + "?autoReconnect=true&useSSL=false";
-            connection = DriverManager.getConnection(url, config.getMysqlUser(), config.getMysqlPassword());
+            connection = DriverManager.getConnection(jdbcUrl(SHARED_CONNECTION_PARAMS), config.getMysqlUser(), config.getMysqlPassword());
             ZyrenAuthPlugin.getInstance().getLogger().info("Connected to MySQL database: " + config.getMysqlDatabase());
         } catch (SQLException | ClassNotFoundException e) {
             ZyrenAuthPlugin.getInstance().getLogger().severe("Failed to connect to MySQL database: " + e.getMessage());
@@ -34,9 +126,394 @@ public class DatabaseManager {
         }
     }
 
+    private String jdbcUrl(String extraParams) {
+        return "jdbc:mysql://" + config.getMysqlHost() + ":" + config.getMysqlPort() +
+                "/" + config.getMysqlDatabase() + "?useSSL=false&connectTimeout=" + callTimeoutMillis() + "&" + extraParams;
+    }
+
+    private int callTimeoutMillis() {
+        return Math.max(1, config.getDatabaseCallTimeoutSeconds()) * 1000;
+    }
+
+    // A server that stops answering mid-query fails the call after the timeout instead of
+    // leaving the caller blocked until the OS gives up on the socket
+    private void applyNetworkTimeout(Connection conn) {
+        if (conn == null) return;
+        try {
+            conn.setNetworkTimeout(Runnable::run, callTimeoutMillis());
+        } catch (SQLException e) {
+            ZyrenAuthPlugin.getInstance().getLogger().warning("Could not set the database network timeout: " + e.getMessage());
+        }
+    }
+
+    // Rows a background job may write in one transaction on its own connection
+    int backgroundBatchSize(int requested) {
+        return requested;
+    }
+
+    // Background write connections a job may keep busy at once
+    int backgroundWriters(int requested) {
+        return requested;
+    }
+
+    // Separate connection for long-running background jobs (archiving, exports) so a
+    // server-side cursor never holds up the connection used by login/registration.
+    // useCursorFetch makes setFetchSize() fetch rows from a server-side cursor in chunks.
+    Connection openBackgroundConnection() throws SQLException {
+        try {
+            Class.forName("com.mysql.cj.jdbc.Driver");
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("MySQL driver not found", e);
+        }
+        return DriverManager.getConnection(jdbcUrl("useCursorFetch=true"), config.getMysqlUser(), config.getMysqlPassword());
+    }
+
+    // Held for the duration of one public storage call. Not reentrant: public methods must
+    // not call other public methods while holding it.
+    static final class ConnectionPermit implements AutoCloseable {
+        private final Semaphore permits;
+
+        ConnectionPermit(Semaphore permits) {
+            this.permits = permits;
+        }
+
+        @Override
+        public void close() {
+            permits.release();
+        }
+    }
+
+    // Every statement of a storage call goes through here for its query timeout and timing.
+    // Schema setup and migrations at startup use the connection directly: they may take long.
+    PreparedStatement prepare(String sql) throws SQLException {
+        return prepare(connection, sql);
+    }
+
+    private PreparedStatement prepare(Connection conn, String sql) throws SQLException {
+        PreparedStatement ps = conn.prepareStatement(sql);
+        if (profiler == null) return ps;
+        try {
+            return profiler.wrap(ps, sql);
+        } catch (SQLException e) {
+            ps.close();
+            throw e;
+        }
+    }
+
+    // Null for the embedded database, which does not use the shared connection
+    public QueryProfiler getQueryProfiler() {
+        return profiler;
+    }
+
+    // Waits at most databaseCallTimeoutSeconds: a call stuck on a stalled server must not
+    // queue everyone else up behind it indefinitely
+    private ConnectionPermit acquireConnection() throws SQLException {
+        return acquire(connectionPermits);
+    }
+
+    private ConnectionPermit acquire(Semaphore permits) throws SQLException {
+        try {
+            if (!permits.tryAcquire(callTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SQLTimeoutException("Timed out waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        if (retired) {
+            permits.release();
+            throw new SQLException("Database connection was replaced by a reload");
+        }
+        if (!breaker.allowRequest()) {
+            permits.release();
+            throw new SQLException("Database circuit is open", "08000");
+        }
+        return new ConnectionPermit(permits);
+    }
+
+    // Same rules as acquireConnection, for the composite flows' connection
+    private ConnectionPermit acquireBatchConnection() throws SQLException {
+        ConnectionPermit permit = acquire(batchPermit);
+        try {
+            if (batchConnection == null || batchConnection.isClosed()) {
+                batchConnection = DriverManager.getConnection(jdbcUrl(BATCH_CONNECTION_PARAMS), config.getMysqlUser(), config.getMysqlPassword());
+                applyNetworkTimeout(batchConnection);
+            }
+            return permit;
+        } catch (SQLException e) {
+            permit.close();
+            throw e;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Circuit breaker and background reconnect
+    // ------------------------------------------------------------------------
+
+    // Connection errors and timeouts count towards opening the circuit; errors in a single
+    // statement (constraint violations, bad data) do not
+    void recordFailure(SQLException e) {
+        if (isConnectionFailure(e)) {
+            breaker.recordFailure();
+        }
+    }
+
+    private static boolean isConnectionFailure(SQLException e) {
+        String state = e.getSQLState();
+        return e instanceof SQLTimeoutException || e instanceof SQLTransientConnectionException
+                || e instanceof SQLNonTransientConnectionException || (state != null && state.startsWith("08"));
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return breaker.getState();
+    }
+
+    public long getCircuitOpenedTotal() {
+        return breaker.getOpenedTotal();
+    }
+
+    private synchronized void scheduleReconnect() {
+        if (retired || shutDown) return;
+        if (reconnector == null) {
+            reconnector = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "ZyrenAuth-db-reconnect");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        long delay = breaker.nextProbeDelayMillis();
+        ZyrenAuthPlugin.getInstance().getLogger().warning("Database unreachable, failing calls fast. Reconnecting in " + delay / 1000.0 + "s.");
+        reconnector.schedule(this::probe, delay, TimeUnit.MILLISECONDS);
+    }
+
+    // Checks the connection (reopening it if it is dead) while holding the permit, so no
+    // call is using it at the same time. Success half-opens the circuit.
+    private void probe() {
+        if (retired) return;
+        boolean healthy = false;
+        try {
+            if (connectionPermits.tryAcquire(callTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                try {
+                    healthy = connection != null && connection.isValid(Math.max(1, config.getDatabaseCallTimeoutSeconds()));
+                    if (!healthy) {
+                        Connection old = connection;
+                        if (old != null) {
+                            try {
+                                old.close();
+                            } catch (SQLException ignored) {
+                            }
+                        }
+                        connection = DriverManager.getConnection(jdbcUrl(SHARED_CONNECTION_PARAMS), config.getMysqlUser(), config.getMysqlPassword());
+                        applyNetworkTimeout(connection);
+                        healthy = true;
+                    }
+                } finally {
+                    connectionPermits.release();
+                }
+            }
+        } catch (SQLException e) {
+            ZyrenAuthPlugin.getInstance().getLogger().warning("Reconnect attempt failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (healthy) {
+            breaker.probeSucceeded();
+            ZyrenAuthPlugin.getInstance().getLogger().info("Database reachable again; letting calls through.");
+            WriteSpool pendingWrites = spool;
+            if (pendingWrites != null) pendingWrites.replay(this);
+            return;
+        }
+        breaker.probeFailed();
+        synchronized (this) {
+            if (retired || shutDown || reconnector == null) return;
+            reconnector.schedule(this::probe, breaker.nextProbeDelayMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Write spool (writes deferred during an outage)
+    // ------------------------------------------------------------------------
+
+    // Starts replaying leftover writes right away if the database is reachable
+    public void attachSpool(WriteSpool spool) {
+        this.spool = spool;
+        if (isConnected()) spool.replay(this);
+    }
+
+    public WriteSpool getWriteSpool() {
+        return spool;
+    }
+
+    // True if a write should go to the spool: the database cannot take it now, or older
+    // spooled writes are still waiting and this one has to reach the database after them
+    private boolean shouldSpool() {
+        WriteSpool pendingWrites = spool;
+        return pendingWrites != null && (pendingWrites.hasPending() || !isConnected());
+    }
+
+    // False if there is no spool or it cannot take the write; the caller reports it as lost
+    private boolean spool(WriteSpool.Op op, UUID playerUuid, String ipAddress, String value, String details) {
+        WriteSpool pendingWrites = spool;
+        if (pendingWrites == null || !pendingWrites.append(op, playerUuid, ipAddress, value, details, config.getWriteSpoolMaxEntries())) {
+            return false;
+        }
+        if (isConnected()) pendingWrites.replay(this);
+        return true;
+    }
+
+    // Applies one batch of spooled writes in a single transaction that also moves this
+    // backend's replay position, so no entry is applied twice. Entries at or below the stored
+    // position (a batch committed just before a crash) are skipped. Security events keep the
+    // time they happened. A spooled logout only removes a lease that has not been renewed
+    // since, so it cannot end a session the player started after the outage.
+    void applySpooled(String spoolId, List<WriteSpool.Entry> entries) throws SQLException {
+        try (ConnectionPermit permit = acquireConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                long applied = 0;
+                try (PreparedStatement ps = prepare(
+                        "SELECT spool_id, last_seq FROM write_spool_replay WHERE server_id = ? FOR UPDATE")) {
+                    ps.setString(1, config.getServerId());
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (rs.next() && spoolId.equals(rs.getString("spool_id"))) applied = rs.getLong("last_seq");
+                    }
+                }
+                long last = applied;
+                for (WriteSpool.Entry entry : entries) {
+                    if (entry.seq() <= applied) continue;
+                    applySpooledEntry(entry);
+                    last = entry.seq();
+                }
+                try (PreparedStatement ps = prepare(
+                        "INSERT INTO write_spool_replay (server_id, spool_id, last_seq) VALUES (?, ?, ?) " +
+                                "ON DUPLICATE KEY UPDATE spool_id = VALUES(spool_id), last_seq = VALUES(last_seq)")) {
+                    ps.setString(1, config.getServerId());
+                    ps.setString(2, spoolId);
+                    ps.setLong(3, last);
+                    ps.executeUpdate();
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                try {
+                    connection.rollback();
+                } catch (SQLException ignored) {
+                }
+                throw e;
+            } finally {
+                try {
+                    connection.setAutoCommit(true);
+                } catch (SQLException ignored) {
+                }
+            }
+        }
+    }
+
+    private void applySpooledEntry(WriteSpool.Entry entry) throws SQLException {
+        long createdSeconds = entry.createdAt() / 1000;
+        switch (entry.op()) {
+            case LOGOUT -> {
+                try (PreparedStatement ps = prepare(
+                        "DELETE FROM sessions WHERE player_uuid = ? AND server_id = ? AND lease_expires <= ?")) {
+                    bindUuid(ps, 1, entry.player());
+                    ps.setString(2, config.getServerId());
+                    ps.setLong(3, createdSeconds + config.getSessionLeaseSeconds());
+                    ps.executeUpdate();
+                }
+            }
+            case LAST_LOGIN_IP -> {
+                try (PreparedStatement ps = prepare("UPDATE players SET last_login_ip = ? WHERE uuid = ?")) {
+                    bindIp(ps, 1, entry.value());
+                    bindUuid(ps, 2, entry.player());
+                    ps.executeUpdate();
+                }
+            }
+            case PASSWORD -> {
+                try (PreparedStatement ps = prepare("UPDATE players SET password_hash = ? WHERE uuid = ?")) {
+                    ps.setString(1, entry.value());
+                    bindUuid(ps, 2, entry.player());
+                    if (ps.executeUpdate() > 0) recordAuthChange(entry.player(), AuthChangeType.PASSWORD);
+                }
+            }
+            case PASSWORD_IF_UNCHANGED -> {
+                try (PreparedStatement ps = prepare("UPDATE players SET password_hash = ? WHERE uuid = ? AND password_hash = ?")) {
+                    ps.setString(1, entry.value());
+                    bindUuid(ps, 2, entry.player());
+                    ps.setString(3, entry.details());
+                    if (ps.executeUpdate() > 0) {
+                        recordAuthChange(entry.player(), AuthChangeType.PASSWORD);
+                    } else {
+                        ZyrenAuthPlugin.getInstance().getLogger().warning("Dropped spooled password reset for player " + entry.player() + ": the password changed in the meantime.");
+                    }
+                }
+            }
+            case SECURITY_EVENT -> {
+                try (PreparedStatement ps = prepare("INSERT INTO security_logs " +
+                        "(timestamp, player_uuid, ip_address, event_type, details) VALUES (FROM_UNIXTIME(?), ?, ?, ?, ?)")) {
+                    ps.setLong(1, createdSeconds);
+                    bindUuid(ps, 2, entry.player());
+                    bindIp(ps, 3, entry.ip());
+                    ps.setString(4, entry.value());
+                    ps.setString(5, entry.details());
+                    ps.executeUpdate();
+                }
+            }
+        }
+    }
+
+    // Used by /za reload on the instance being replaced: waits until every call that already
+    // holds a permit has finished, then closes the connection. Session rows are left alone,
+    // the new instance keeps renewing them.
+    public void drainAndClose(long timeoutSeconds) {
+        retired = true;
+        boolean drained = false;
+        try {
+            drained = connectionPermits.tryAcquire(timeoutSeconds, TimeUnit.SECONDS);
+            if (drained && !batchPermit.tryAcquire(timeoutSeconds, TimeUnit.SECONDS)) {
+                connectionPermits.release();
+                drained = false;
+            }
+            if (!drained) {
+                ZyrenAuthPlugin.getInstance().getLogger().warning("Database calls were still running after " + timeoutSeconds + "s; closing the old connection anyway.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeConnection();
+        if (drained) {
+            // Wake callers still queued for a permit; they see retired and fail fast
+            connectionPermits.release();
+            batchPermit.release();
+        }
+    }
+
+    // True for the SQLite file database. Code that runs its own SQL on a background
+    // connection uses this to pick the dialect.
+    public boolean isEmbedded() {
+        return false;
+    }
+
+    // "INSERT IGNORE" in MySQL, "INSERT OR IGNORE" in SQLite
+    String insertIgnore() {
+        return "INSERT IGNORE";
+    }
+
+    // At most: the shared connection and the composite flows' connection
+    public int getConnectionCount() {
+        return 2;
+    }
+
+    // False while the circuit is open, so storage calls return at once without a round trip
     public boolean isConnected() {
         try {
-            return connection != null && !connection.isClosed();
+            Connection conn = connection;
+            if (conn == null) return false;
+            if (conn.isClosed()) {
+                // Dropped by the driver: open the circuit so the reconnect thread brings it back
+                if (!shutDown && !retired) breaker.trip();
+                return false;
+            }
+            return breaker.allowRequest();
         } catch (SQLException e) {
             ZyrenAuthPlugin.getInstance().getLogger().severe("Error checking database connection: " + e.getMessage());
             return false;
@@ -44,6 +521,19 @@ public class DatabaseManager {
     }
 
     public void closeConnection() {
+        shutDown = true;
+        if (profiler != null) profiler.shutdown();
+        synchronized (this) {
+            if (reconnector != null) {
+                reconnector.shutdownNow();
+                reconnector = null;
+            }
+        }
+        try {
+            Connection batch = batchConnection;
+            if (batch != null) batch.close();
+        } catch (SQLException ignored) {
+        }
         try {
             if (connection != null && !connection.isClosed()) {
                 connection.close();
@@ -59,81 +549,503 @@ public class DatabaseManager {
             ZyrenAuthPlugin.getInstance().getLogger().severe("Cannot create tables: Database not connected.");
             return;
         }
-        try (Statement statement = connection.createStatement()) {
+        // Migrate before creating anything new, otherwise tables added in later versions
+        // would be created with BINARY(16) keys pointing at the old VARCHAR(36) players table
+        if (compactIds && hasLegacyUuidLayout() && !migrateToCompactLayout()) {
+            ZyrenAuthPlugin.getInstance().getLogger().warning("Continuing with the VARCHAR(36) layout until the migration succeeds.");
+            compactIds = false;
+        }
 
-            statement.execute("CREATE TABLE IF NOT EXISTS `players` (" +
-                    "`uuid` VARCHAR(36) PRIMARY KEY NOT NULL," +
-                    "`username` VARCHAR(64) NOT NULL," +
-                    "`password_hash` VARCHAR(60) NOT NULL," +
-                    "`email` VARCHAR(255) DEFAULT NULL," +
-                    "`last_login_ip` VARCHAR(45) DEFAULT NULL," +
-                    "`is_logged_in` TINYINT(1) DEFAULT 0," +
-                    "`registered_at` DATETIME DEFAULT CURRENT_TIMESTAMP" +
+        try (Statement statement = connection.createStatement()) {
+            for (String ddl : tableDefinitions("")) {
+                statement.execute(ddl);
+            }
+            // Last replayed write spool entry per backend. Holds no player ids, so it is the
+            // same in both layouts and not part of the compact migration.
+            statement.execute("CREATE TABLE IF NOT EXISTS `write_spool_replay` (" +
+                    "`server_id` VARCHAR(64) PRIMARY KEY NOT NULL," +
+                    "`spool_id` CHAR(36) NOT NULL," +
+                    "`last_seq` BIGINT NOT NULL" +
                     ");");
+            for (String table : RETIRED_TABLES) {
+                statement.execute("DROP TABLE IF EXISTS `" + table + "`, `" + table + "_bin`, `" + table + "_legacy`");
+            }
+            ZyrenAuthPlugin.getInstance().getLogger().info("Database tables checked/created successfully.");
+        } catch (SQLException e) {
+            ZyrenAuthPlugin.getInstance().getLogger().severe("Failed to create database tables: " + e.getMessage());
+            return;
+        }
 
-            statement.execute("CREATE TABLE IF NOT EXISTS `email_confirmation_tokens` (" +
-                    "`token` VARCHAR(32) PRIMARY KEY NOT NULL," +
-                    "`player_uuid` VARCHAR(36) NOT NULL," +
-                    "`email` VARCHAR(255) NOT NULL," +
-                    "`expiry_time` BIGINT NOT NULL," +
-                    "FOREIGN KEY (`player_uuid`) REFERENCES `players`(`uuid`) ON DELETE CASCADE" +
-                    ");");
+        // Lets the retention job find expired rows without scanning the whole table
+        ensureIndex("security_logs", "idx_security_logs_timestamp", "`timestamp`");
+        // Keyset pagination for /za logs: each search is one index range scan from the cursor
+        ensureIndex("security_logs", "idx_security_logs_player", "`player_uuid`, `id`");
+        ensureIndex("security_logs", "idx_security_logs_ip", "`ip_address`, `id`");
+        ensureIndex("security_logs", "idx_security_logs_type", "`event_type`, `id`");
+        ensureIndex("players", "idx_players_username", "`username`");
+        ensurePasswordHashWidth();
+        ensureEmailConfirmationsColumn();
+    }
 
-            statement.execute("CREATE TABLE IF NOT EXISTS `password_reset_tokens` (" +
-                    "`player_uuid` VARCHAR(36) PRIMARY KEY NOT NULL," +
-                    "`token` VARCHAR(32) NOT NULL," +
-                    "`expiry_time` BIGINT NOT NULL," +
-                    "FOREIGN KEY (`player_uuid`) REFERENCES `players`(`uuid`) ON DELETE CASCADE" +
-                    ");");
+    // Counts confirmed emails so a confirmation token is spent on use (see SignedTokens).
+    // Tables created by older versions lack it.
+    private void ensureEmailConfirmationsColumn() {
+        String check = "SELECT 1 FROM information_schema.COLUMNS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'players' AND COLUMN_NAME = 'email_confirmations'";
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(check)) {
+            if (rs.next()) return;
+            try (Statement alter = connection.createStatement()) {
+                alter.execute("ALTER TABLE `players` ADD COLUMN `email_confirmations` INT NOT NULL DEFAULT 0");
+                ZyrenAuthPlugin.getInstance().getLogger().info("Added players.email_confirmations.");
+            }
+        } catch (SQLException e) {
+            ZyrenAuthPlugin.getInstance().getLogger().warning("Could not add players.email_confirmations: " + e.getMessage());
+        }
+    }
 
-            statement.execute("CREATE TABLE IF NOT EXISTS `ip_restrictions` (" +
-                    "`player_uuid` VARCHAR(36) NOT NULL," +
-                    "`ip_address` VARCHAR(45) NOT NULL," +
-                    "`is_trusted` TINYINT(1) DEFAULT 1," +
-                    "PRIMARY KEY (`player_uuid`, `ip_address`)," +
-                    "FOREIGN KEY (`player_uuid`) REFERENCES `players`(`uuid`) ON DELETE CASCADE" +
-                    ");");
+    // Imported hashes (e.g. AuthMe's $SHA$ format) are longer than BCrypt's 60 characters.
+    // Tables created by older versions still have VARCHAR(60), so widen them once.
+    private void ensurePasswordHashWidth() {
+        String check = "SELECT CHARACTER_MAXIMUM_LENGTH FROM information_schema.COLUMNS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'players' AND COLUMN_NAME = 'password_hash'";
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(check)) {
+            if (!rs.next() || rs.getLong(1) >= 255) return;
+            try (Statement alter = connection.createStatement()) {
+                alter.execute("ALTER TABLE `players` MODIFY `password_hash` VARCHAR(255) NOT NULL");
+                ZyrenAuthPlugin.getInstance().getLogger().info("Widened players.password_hash to VARCHAR(255).");
+            }
+        } catch (SQLException e) {
+            ZyrenAuthPlugin.getInstance().getLogger().warning("Could not widen players.password_hash: " + e.getMessage());
+        }
+    }
 
-            statement.execute("CREATE TABLE IF NOT EXISTS `security_logs` (" +
-                    "`id` INT AUTO_INCREMENT PRIMARY KEY," +
-                    "`timestamp` DATETIME DEFAULT CURRENT_TIMESTAMP," +
-                    "`player_uuid` VARCHAR(36)," +
-                    "`ip_address` VARCHAR(45)," +
-                    "`event_type` VARCHAR(100) NOT NULL," +
-                    "`details` TEXT" +
-                    ");");
+    // CREATE INDEX has no IF NOT EXISTS in MySQL, so check information_schema first.
+    // This also covers tables created by older versions that lack the index.
+    private void ensureIndex(String table, String indexName, String columns) {
+        String check = "SELECT 1 FROM information_schema.STATISTICS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND INDEX_NAME = ? LIMIT 1";
+        try (PreparedStatement ps = connection.prepareStatement(check)) {
+            ps.setString(1, table);
+            ps.setString(2, indexName);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) return;
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE INDEX `" + indexName + "` ON `" + table + "` (" + columns + ")");
+                ZyrenAuthPlugin.getInstance().getLogger().info("Created index " + indexName + " on " + table + ".");
+            }
+        } catch (SQLException e) {
+            ZyrenAuthPlugin.getInstance().getLogger().warning("Could not create index " + indexName + " on " + table + ": " + e.getMessage());
+        }
+    }
 
-            ZyrenAuthPlugin.getInstance().getLogger().info("Database tables checked/created successfully.");
+    // Table DDL for the active layout. The suffix lets the compact migration build
+    // shadow copies (e.g. players_bin) next to the live tables before swapping them in.
+    private String[] tableDefinitions(String suffix) {
+        String uuidType = compactIds ? "BINARY(16)" : "VARCHAR(36)";
+        String ipType = compactIds ? "VARBINARY(16)" : "VARCHAR(45)";
+        String players = "`players" + suffix + "`";
+
+        return new String[]{
+                "CREATE TABLE IF NOT EXISTS " + players + " (" +
+                        "`uuid` " + uuidType + " PRIMARY KEY NOT NULL," +
+                        "`username` VARCHAR(64) NOT NULL," +
+                        "`password_hash` VARCHAR(255) NOT NULL," +
+                        "`email` VARCHAR(255) DEFAULT NULL," +
+                        "`last_login_ip` " + ipType + " DEFAULT NULL," +
+                        // Unused since session leases; no longer written, kept for older versions
+                        "`is_logged_in` TINYINT(1) DEFAULT 0," +
+                        "`registered_at` DATETIME DEFAULT CURRENT_TIMESTAMP," +
+                        "`email_confirmations` INT NOT NULL DEFAULT 0" +
+                        ");",
+
+                "CREATE TABLE IF NOT EXISTS `ip_restrictions" + suffix + "` (" +
+                        "`player_uuid` " + uuidType + " NOT NULL," +
+                        "`ip_address` " + ipType + " NOT NULL," +
+                        "`is_trusted` TINYINT(1) DEFAULT 1," +
+                        "PRIMARY KEY (`player_uuid`, `ip_address`)," +
+                        "FOREIGN KEY (`player_uuid`) REFERENCES " + players + "(`uuid`) ON DELETE CASCADE" +
+                        ");",
+
+                "CREATE TABLE IF NOT EXISTS `security_logs" + suffix + "` (" +
+                        "`id` INT AUTO_INCREMENT PRIMARY KEY," +
+                        "`timestamp` DATETIME DEFAULT CURRENT_TIMESTAMP," +
+                        "`player_uuid` " + uuidType + "," +
+                        "`ip_address` " + ipType + "," +
+                        "`event_type` VARCHAR(100) NOT NULL," +
+                        "`details` TEXT" +
+                        ");",
+
+                "CREATE TABLE IF NOT EXISTS `sessions" + suffix + "` (" +
+                        "`player_uuid` " + uuidType + " PRIMARY KEY NOT NULL," +
+                        "`server_id` VARCHAR(64) NOT NULL," +
+                        "`lease_expires` BIGINT NOT NULL," +
+                        "INDEX `idx_sessions_server` (`server_id`)," +
+                        "FOREIGN KEY (`player_uuid`) REFERENCES " + players + "(`uuid`) ON DELETE CASCADE" +
+                        ");",
+
+                "CREATE TABLE IF NOT EXISTS `auth_changes" + suffix + "` (" +
+                        "`id` BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                        "`player_uuid` " + uuidType + " NOT NULL," +
+                        "`change_type` VARCHAR(32) NOT NULL," +
+                        "`server_id` VARCHAR(64) NOT NULL," +
+                        "`created_at` BIGINT NOT NULL," +
+                        "INDEX `idx_auth_changes_created` (`created_at`)" +
+                        ");"
+        };
+    }
+
+    // ------------------------------------------------------------------------
+    // Compact (BINARY(16)) id layout
+    // ------------------------------------------------------------------------
+
+    public boolean isCompactIds() {
+        return compactIds;
+    }
+
+    void bindUuid(PreparedStatement ps, int index, UUID uuid) throws SQLException {
+        if (uuid == null) {
+            ps.setNull(index, compactIds ? Types.BINARY : Types.VARCHAR);
+        } else if (compactIds) {
+            ps.setBytes(index, UuidCodec.toBytes(uuid));
+        } else {
+            ps.setString(index, uuid.toString());
+        }
+    }
+
+    void bindIp(PreparedStatement ps, int index, String ipAddress) throws SQLException {
+        if (!compactIds) {
+            ps.setString(index, ipAddress);
+            return;
+        }
+        byte[] raw = UuidCodec.ipToBytes(ipAddress);
+        if (raw == null) {
+            ps.setNull(index, Types.VARBINARY);
+        } else {
+            ps.setBytes(index, raw);
+        }
+    }
+
+    // For the NOT NULL ip_address of ip_restrictions: an address the layout cannot store
+    // fails the statement with a clear error instead of binding NULL
+    void bindRequiredIp(PreparedStatement ps, int index, String ipAddress) throws SQLException {
+        if (!isStorableIp(ipAddress)) {
+            throw new SQLDataException("Not an IP address: " + ipAddress);
+        }
+        bindIp(ps, index, ipAddress);
+    }
+
+    boolean isStorableIp(String ipAddress) {
+        return ipAddress != null && (!compactIds || UuidCodec.ipToBytes(ipAddress) != null);
+    }
+
+    UUID readUuid(ResultSet rs, String column) throws SQLException {
+        if (compactIds) {
+            return UuidCodec.fromBytes(rs.getBytes(column));
+        }
+        String raw = rs.getString(column);
+        return raw != null ? UUID.fromString(raw) : null;
+    }
+
+    String readIp(ResultSet rs, String column) throws SQLException {
+        return compactIds ? UuidCodec.ipFromBytes(rs.getBytes(column)) : rs.getString(column);
+    }
+
+    private boolean hasLegacyUuidLayout() {
+        String sql = "SELECT DATA_TYPE FROM information_schema.COLUMNS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'players' AND COLUMN_NAME = 'uuid'";
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            return rs.next() && "varchar".equalsIgnoreCase(rs.getString(1));
         } catch (SQLException e) {
-            ZyrenAuthPlugin.getInstance().getLogger().severe("Failed to create database tables: " + e.getMessage());
+            ZyrenAuthPlugin.getInstance().getLogger().severe("Could not inspect players table layout: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Copies the VARCHAR(36) tables into *_bin shadow tables in small keyset batches while
+    // other backends keep working, then freezes the old tables by renaming them to *_legacy
+    // (an atomic RENAME that waits for open transactions), applies everything written during
+    // the copy and swaps the *_bin tables in. Backends still writing during that last step
+    // get "table doesn't exist" errors instead of writes that silently miss the new tables.
+    // The *_legacy tables are kept so an admin can verify the result; the migration refuses
+    // to run while they exist. Re-running after an interrupted copy is safe: rows left in the
+    // *_bin tables are reconciled like any other change.
+    // Short-lived tables (TRANSIENT_TABLES) are not copied, they are recreated empty.
+    private boolean migrateToCompactLayout() {
+        Logger log = ZyrenAuthPlugin.getInstance().getLogger();
+        int batchSize = Math.max(100, config.getCompactMigrationBatchSize());
+
+        // Backends starting together take turns; the ones that waited find the work done
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT GET_LOCK('" + MIGRATION_LOCK + "', " + MIGRATION_LOCK_TIMEOUT_SECONDS + ")")) {
+            if (!rs.next() || rs.getInt(1) != 1) {
+                log.severe("Compact layout migration skipped: another server has been migrating for over " +
+                        MIGRATION_LOCK_TIMEOUT_SECONDS + "s.");
+                return false;
+            }
+        } catch (SQLException e) {
+            log.severe("Compact layout migration failed, could not take the migration lock: " + e.getMessage());
+            return false;
+        }
+        try {
+            if (!hasLegacyUuidLayout()) {
+                log.info("Tables were migrated to the compact layout by another server.");
+                return true;
+            }
+            List<String> leftovers = existingTables(MIGRATED_TABLES, "_legacy");
+            if (!leftovers.isEmpty()) {
+                log.severe("Compact layout migration refused: " + String.join(", ", leftovers) + " already exist from an " +
+                        "earlier migration. Drop or rename them, then restart to migrate.");
+                return false;
+            }
+            // The copy reads it from the old table, which may predate the column
+            ensureEmailConfirmationsColumn();
+            log.info("Migrating ZyrenAuth tables to the compact BINARY(16) layout (batch size " + batchSize + "). " +
+                    "Other servers sharing this database should be stopped or already run this version.");
+            return copyToCompactLayout(log, batchSize);
+        } finally {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DO RELEASE_LOCK('" + MIGRATION_LOCK + "')");
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+
+    private boolean copyToCompactLayout(Logger log, int batchSize) {
+        try (Statement statement = connection.createStatement()) {
+            for (String ddl : tableDefinitions("_bin")) {
+                statement.execute(ddl);
+            }
+            reportUnconvertibleIps(statement, log);
+
+            long players = 0;
+            String lastKey = "";
+            try (PreparedStatement keys = connection.prepareStatement("SELECT uuid FROM players WHERE uuid > ? ORDER BY uuid LIMIT ?")) {
+                while (true) {
+                    keys.setString(1, lastKey);
+                    keys.setInt(2, batchSize);
+                    String upperKey = null;
+                    int rows = 0;
+                    try (ResultSet rs = keys.executeQuery()) {
+                        while (rs.next()) {
+                            upperKey = rs.getString(1);
+                            rows++;
+                        }
+                    }
+                    if (upperKey == null) break;
+
+                    for (String copy : compactCopies("", true)) {
+                        try (PreparedStatement ps = connection.prepareStatement(copy)) {
+                            ps.setString(1, lastKey);
+                            ps.setString(2, upperKey);
+                            ps.executeUpdate();
+                        }
+                    }
+                    players += rows;
+                    lastKey = upperKey;
+                }
+            }
+
+            long maxId;
+            try (ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM security_logs")) {
+                maxId = rs.next() ? rs.getLong(1) : 0;
+            }
+            try (PreparedStatement ps = connection.prepareStatement(logsCopy("") + " WHERE id > ? AND id <= ?")) {
+                for (long low = 0; low < maxId; low += batchSize) {
+                    ps.setLong(1, low);
+                    ps.setLong(2, low + batchSize);
+                    ps.executeUpdate();
+                }
+            }
+
+            // Freeze: from here on nothing can write to the old tables
+            StringBuilder freeze = new StringBuilder("RENAME TABLE ");
+            StringBuilder thaw = new StringBuilder("RENAME TABLE ");
+            StringBuilder swap = new StringBuilder("RENAME TABLE ");
+            for (String table : MIGRATED_TABLES) {
+                if (freeze.length() > 13) {
+                    freeze.append(", ");
+                    thaw.append(", ");
+                    swap.append(", ");
+                }
+                freeze.append(table).append(" TO ").append(table).append("_legacy");
+                thaw.append(table).append("_legacy TO ").append(table);
+                swap.append(table).append("_bin TO ").append(table);
+            }
+            statement.execute(freeze.toString());
+            long changes;
+            try {
+                changes = reconcileCompactCopy(statement);
+            } catch (SQLException e) {
+                statement.execute(thaw.toString());
+                throw e;
+            }
+
+            for (String table : TRANSIENT_TABLES) {
+                statement.execute("DROP TABLE IF EXISTS `" + table + "`");
+                swap.append(", ").append(table).append("_bin TO ").append(table);
+            }
+            statement.execute(swap.toString());
+
+            long logs;
+            try (ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM security_logs")) {
+                logs = rs.next() ? rs.getLong(1) : 0;
+            }
+            log.info("Compact layout migration finished: " + players + " players and " + logs + " security log rows copied, " +
+                    changes + " rows written during the copy applied. Old tables were kept with a _legacy suffix.");
+            return true;
+        } catch (SQLException e) {
+            log.severe("Compact layout migration failed, the existing tables were left untouched: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // INSERT IGNORE ... SELECT from the VARCHAR(36) tables into their *_bin copies, players
+    // first. Ranged copies take the player key range (exclusive, inclusive) as parameters.
+    // Trust and ban rows whose IP MySQL cannot parse have no BINARY form and stay behind
+    // (see reportUnconvertibleIps).
+    static String[] compactCopies(String from, boolean ranged) {
+        String players = ranged ? " WHERE uuid > ? AND uuid <= ?" : "";
+        String related = ranged ? " WHERE player_uuid > ? AND player_uuid <= ?" : "";
+        return new String[]{
+                "INSERT IGNORE INTO players_bin (uuid, username, password_hash, email, last_login_ip, is_logged_in, registered_at, email_confirmations) " +
+                        "SELECT " + toBin("uuid") + ", username, password_hash, email, INET6_ATON(last_login_ip), is_logged_in, registered_at, email_confirmations " +
+                        "FROM players" + from + players,
+                "INSERT IGNORE INTO ip_restrictions_bin (player_uuid, ip_address, is_trusted) " +
+                        "SELECT " + toBin("player_uuid") + ", INET6_ATON(ip_address), is_trusted FROM ip_restrictions" + from +
+                        (ranged ? related + " AND" : " WHERE") + " INET6_ATON(ip_address) IS NOT NULL"
+        };
+    }
+
+    private static String logsCopy(String from) {
+        return "INSERT IGNORE INTO security_logs_bin (id, timestamp, player_uuid, ip_address, event_type, details) " +
+                "SELECT id, timestamp, " + toBin("player_uuid") + ", INET6_ATON(ip_address), event_type, details FROM security_logs" + from;
+    }
+
+    private static String toBin(String column) {
+        return "UNHEX(REPLACE(" + column + ", '-', ''))";
+    }
+
+    // The VARCHAR(36) form of a BINARY(16) column, so lookups into the old tables use their keys
+    private static String fromBin(String column) {
+        return "LOWER(CONCAT_WS('-', HEX(SUBSTR(" + column + ", 1, 4)), HEX(SUBSTR(" + column + ", 5, 2)), " +
+                "HEX(SUBSTR(" + column + ", 7, 2)), HEX(SUBSTR(" + column + ", 9, 2)), HEX(SUBSTR(" + column + ", 11, 6))))";
+    }
+
+    // Brings the *_bin tables in line with the frozen *_legacy tables: rows inserted, changed
+    // or deleted by other backends while the batches were copied. Returns the rows touched.
+    long reconcileCompactCopy(Statement statement) throws SQLException {
+        long touched = 0;
+        String[] copies = compactCopies("_legacy", false);
+        touched += statement.executeUpdate(copies[0]);
+        touched += statement.executeUpdate("UPDATE players_bin b JOIN players_legacy l ON b.uuid = " + toBin("l.uuid") + " " +
+                "SET b.username = l.username, b.password_hash = l.password_hash, b.email = l.email, " +
+                "b.last_login_ip = INET6_ATON(l.last_login_ip), b.is_logged_in = l.is_logged_in, b.email_confirmations = l.email_confirmations " +
+                "WHERE NOT (b.username <=> l.username AND b.password_hash <=> l.password_hash AND b.email <=> l.email " +
+                "AND b.last_login_ip <=> INET6_ATON(l.last_login_ip) AND b.is_logged_in <=> l.is_logged_in " +
+                "AND b.email_confirmations <=> l.email_confirmations)");
+        // Cascades to the player's rows in the other *_bin tables
+        touched += statement.executeUpdate("DELETE FROM players_bin WHERE NOT EXISTS " +
+                "(SELECT 1 FROM players_legacy l WHERE l.uuid = " + fromBin("players_bin.uuid") + ")");
+
+        touched += statement.executeUpdate(copies[1]);
+        touched += statement.executeUpdate("UPDATE ip_restrictions_bin b JOIN ip_restrictions_legacy l " +
+                "ON b.player_uuid = " + toBin("l.player_uuid") + " AND b.ip_address = INET6_ATON(l.ip_address) " +
+                "SET b.is_trusted = l.is_trusted WHERE NOT b.is_trusted <=> l.is_trusted");
+        touched += statement.executeUpdate("DELETE FROM ip_restrictions_bin WHERE NOT EXISTS " +
+                "(SELECT 1 FROM ip_restrictions_legacy l WHERE l.player_uuid = " + fromBin("ip_restrictions_bin.player_uuid") + " " +
+                "AND INET6_ATON(l.ip_address) = ip_restrictions_bin.ip_address)");
+
+        // Log rows are never changed, only added and removed by the retention job
+        touched += statement.executeUpdate(logsCopy("_legacy"));
+        touched += statement.executeUpdate("DELETE FROM security_logs_bin WHERE NOT EXISTS " +
+                "(SELECT 1 FROM security_logs_legacy l WHERE l.id = security_logs_bin.id)");
+        return touched;
+    }
+
+    // Values the compact layout cannot hold. Trust and ban rows are not migrated (they stay in
+    // ip_restrictions_legacy) and are listed one by one; unparsable last-login and log IPs
+    // become NULL and are only counted.
+    private void reportUnconvertibleIps(Statement statement, Logger log) throws SQLException {
+        long skipped = 0;
+        try (ResultSet rs = statement.executeQuery("SELECT player_uuid, ip_address, is_trusted FROM ip_restrictions " +
+                "WHERE INET6_ATON(ip_address) IS NULL")) {
+            while (rs.next()) {
+                if (skipped++ < MAX_REPORTED_IPS) {
+                    log.warning("Not migrating " + (rs.getBoolean(3) ? "trusted" : "banned") + " IP '" + rs.getString(2) +
+                            "' of player " + rs.getString(1) + ": not an IP address. It stays in ip_restrictions_legacy.");
+                }
+            }
+        }
+        if (skipped > MAX_REPORTED_IPS) {
+            log.warning("... and " + (skipped - MAX_REPORTED_IPS) + " more trusted or banned IPs that are not IP addresses.");
+        }
+        String[][] nullable = {{"players", "last_login_ip"}, {"security_logs", "ip_address"}};
+        for (String[] column : nullable) {
+            try (ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM " + column[0] + " WHERE " + column[1] +
+                    " IS NOT NULL AND INET6_ATON(" + column[1] + ") IS NULL")) {
+                long count = rs.next() ? rs.getLong(1) : 0;
+                if (count > 0) {
+                    log.warning(count + " " + column[0] + "." + column[1] + " values are not IP addresses and are migrated as NULL. " +
+                            "The originals stay in " + column[0] + "_legacy.");
+                }
+            }
+        }
+    }
+
+    private List<String> existingTables(String[] tables, String suffix) {
+        List<String> existing = new ArrayList<>();
+        String sql = "SELECT TABLE_NAME FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (String table : tables) {
+                ps.setString(1, table + suffix);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) existing.add(table + suffix);
+                }
+            }
+        } catch (SQLException e) {
+            ZyrenAuthPlugin.getInstance().getLogger().severe("Could not list existing tables: " + e.getMessage());
         }
+        return existing;
     }
 
     public boolean isPlayerRegistered(UUID uuid) {
-        if (!isConnected()) return false;
+        return Boolean.TRUE.equals(checkPlayerRegistered(uuid));
+    }
+
+    // Null if the database could not answer (unreachable, circuit open or query failed), so
+    // callers can tell "no account" apart from "cannot tell right now"
+    public Boolean checkPlayerRegistered(UUID uuid) {
+        if (!isConnected()) return null;
         String sql = "SELECT COUNT(*) FROM players WHERE uuid = ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, uuid.toString());
+        try (ConnectionPermit permit = acquireConnection();
+             PreparedStatement ps = prepare(sql)) {
+            bindUuid(ps, 1, uuid);
             ResultSet rs = ps.executeQuery();
             return rs.next() && rs.getInt(1) > 0;
         } catch (SQLException e) {
+            recordFailure(e);
             ZyrenAuthPlugin.getInstance().getLogger().severe("Error checking if player " + uuid + " is registered: " + e.getMessage());
-            return false;
+            return null;
         }
     }
 
     public boolean createPlayerAccount(UUID uuid, String username, String passwordHash, String ipAddress) {
         if (!isConnected()) return false;
-        String sql = "INSERT INTO players (uuid, username, password_hash, last_login_ip, is_logged_in) VALUES (?, ?, ?, ?, ?)";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, uuid.toString());
+        String sql = "INSERT INTO players (uuid, username, password_hash, last_login_ip) VALUES (?, ?, ?, ?)";
+        try (ConnectionPermit permit = acquireConnection();
+             PreparedStatement ps = prepare(sql)) {
+            bindUuid(ps, 1, uuid);
             ps.setString(2, username);
             ps.setString(3, passwordHash);
-            ps.setString(4, ipAddress);
-            ps.setBoolean(5, true);
+            bindIp(ps, 4, ipAddress);
             ps.executeUpdate();
             return true;
         } catch (SQLException e) {
+            recordFailure(e);
             ZyrenAuthPlugin.getInstance().getLogger().severe("Error creating player account for " + username + ": " + e.getMessage());
             return false;
         }
@@ -142,24 +1054,32 @@ public class DatabaseManager {
     public String getPlayerHashedPassword(UUID uuid) {
         if (!isConnected()) return null;
         String sql = "SELECT password_hash FROM players WHERE uuid = ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, uuid.toString());
+        try (ConnectionPermit permit = acquireConnection();
+             PreparedStatement ps = prepare(sql)) {
+            bindUuid(ps, 1, uuid);
             ResultSet rs = ps.executeQuery();
             return rs.next() ? rs.getString("password_hash") : null;
         } catch (SQLException e) {
+            recordFailure(e);
             ZyrenAuthPlugin.getInstance().getLogger().severe("Error getting password hash for player " + uuid + ": " + e.getMessage());
             return null;
         }
     }
 
     public boolean updatePlayerPassword(UUID uuid, String newPasswordHash) {
+        if (shouldSpool()) return spool(WriteSpool.Op.PASSWORD, uuid, null, newPasswordHash, null);
         if (!isConnected()) return false;
         String sql = "UPDATE players SET password_hash = ? WHERE uuid = ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (ConnectionPermit permit = acquireConnection();
+             PreparedStatement ps = prepare(sql)) {
             ps.setString(1, newPasswordHash);
-            ps.setString(2, uuid.toString());
-            return ps.executeUpdate() > 0;
+            bindUuid(ps, 2, uuid);
+            if (ps.executeUpdate() == 0) return false;
+            recordAuthChange(uuid, AuthChangeType.PASSWORD);
+            return true;
         } catch (SQLException e) {
+            recordFailure(e);
+            if (isConnectionFailure(e) && spool(WriteSpool.Op.PASSWORD, uuid, null, newPasswordHash, null)) return true;
             ZyrenAuthPlugin.getInstance().getLogger().severe("Error updating password for player " + uuid + ": " + e.getMessage());
             return false;
         }
@@ -168,24 +1088,46 @@ public class DatabaseManager {
     public String getPlayerEmail(UUID uuid) {
         if (!isConnected()) return null;
         String sql = "SELECT email FROM players WHERE uuid = ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, uuid.toString());
+        try (ConnectionPermit permit = acquireConnection();
+             PreparedStatement ps = prepare(sql)) {
+            bindUuid(ps, 1, uuid);
             ResultSet rs = ps.executeQuery();
             return rs.next() ? rs.getString("email") : null;
         } catch (SQLException e) {
+            recordFailure(e);
             ZyrenAuthPlugin.getInstance().getLogger().severe("Error getting email for player " + uuid + ": " + e.getMessage());
             return null;
         }
     }
 
+    // -1 if the database could not answer
+    public int getEmailConfirmations(UUID uuid) {
+        if (!isConnected()) return -1;
+        String sql = "SELECT email_confirmations FROM players WHERE uuid = ?";
+        try (ConnectionPermit permit = acquireConnection();
+             PreparedStatement ps = prepare(sql)) {
+            bindUuid(ps, 1, uuid);
+            ResultSet rs = ps.executeQuery();
+            return rs.next() ? rs.getInt(1) : -1;
+        } catch (SQLException e) {
+            recordFailure(e);
+            ZyrenAuthPlugin.getInstance().getLogger().severe("Error getting email confirmations for player " + uuid + ": " + e.getMessage());
+            return -1;
+        }
+    }
+
     public boolean setPlayerEmail(UUID uuid, String email) {
         if (!isConnected()) return false;
         String sql = "UPDATE players SET email = ? WHERE uuid = ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (ConnectionPermit permit = acquireConnection();
+             PreparedStatement ps = prepare(sql)) {
             ps.setString(1, email);
-            ps.setString(2, uuid.toString());
-            return ps.executeUpdate() > 0;
+            bindUuid(ps, 2, uuid);
+            if (ps.executeUpdate() == 0) return false;
+            recordAuthChange(uuid, AuthChangeType.EMAIL);
+            return true;
         } catch (SQLException e) {
+            recordFailure(e);
             ZyrenAuthPlugin.getInstance().getLogger().severe("Error setting email for player " + uuid + ": " + e.getMessage());
             return false;
         }
@@ -194,182 +1136,416 @@ public class DatabaseManager {
     public boolean isEmailRegistered(String email) {
         if (!isConnected()) return false;
         String sql = "SELECT COUNT(*) FROM players WHERE email = ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (ConnectionPermit permit = acquireConnection();
+             PreparedStatement ps = prepare(sql)) {
             ps.setString(1, email);
             ResultSet rs = ps.executeQuery();
             return rs.next() && rs.getInt(1) > 0;
         } catch (SQLException e) {
+            recordFailure(e);
             ZyrenAuthPlugin.getInstance().getLogger().severe("Error checking if email " + email + " is registered: " + e.getMessage());
             return false;
         }
     }
 
-    public boolean storeEmailConfirmationToken(UUID playerUuid, String email, String token, long expiryTime) {
-        if (!isConnected()) return false;
-
-        String deleteSql = "DELETE FROM email_confirmation_tokens WHERE player_uuid = ?";
-        try (PreparedStatement psDelete = connection.prepareStatement(deleteSql)) {
-            psDelete.setString(1, playerUuid.toString());
-            psDelete.executeUpdate();
-        } catch (SQLException e) {
-            ZyrenAuthPlugin.getInstance().getLogger().warning("Failed to delete old email confirmation token for player " + playerUuid + ": " + e.getMessage());
-        }
+    // ------------------------------------------------------------------------
+    // Session leases (replaces players.is_logged_in)
+    // ------------------------------------------------------------------------
+    // A row in `sessions` means "this account is logged in on server_id until lease_expires".
+    // Leases use the database clock (UNIX_TIMESTAMP()) so backends with skewed clocks agree,
+    // and a crashed backend's leases simply run out instead of locking accounts forever.
 
-        String insertSql = "INSERT INTO email_confirmation_tokens (token, player_uuid, email, expiry_time) VALUES (?, ?, ?, ?)";
-        try (PreparedStatement ps = connection.prepareStatement(insertSql)) {
-            ps.setString(1, token);
-            ps.setString(2, playerUuid.toString());
-            ps.setString(3, email);
-            ps.setLong(4, expiryTime);
-            ps.executeUpdate();
-            return true;
+    // True if another backend holds a live lease for this account
+    public boolean isAccountLoggedIn(UUID playerUuid) {
+        if (!isConnected()) return false;
+        String sql = "SELECT 1 FROM sessions WHERE player_uuid = ? AND server_id <> ? AND lease_expires >= UNIX_TIMESTAMP()";
+        try (ConnectionPermit permit = acquireConnection();
+             PreparedStatement ps = prepare(sql)) {
+            bindUuid(ps, 1, playerUuid);
+            ps.setString(2, config.getServerId());
+            ResultSet rs = ps.executeQuery();
+            return rs.next();
         } catch (SQLException e) {
-            ZyrenAuthPlugin.getInstance().getLogger().severe("Error storing email confirmation token for player " + playerUuid + ": " + e.getMessage());
+            recordFailure(e);
+            ZyrenAuthPlugin.getInstance().getLogger().severe("Error checking login status for player " + playerUuid + ": " + e.getMessage());
             return false;
         }
     }
 
-    public String getEmailByConfirmationToken(UUID playerUuid, String token) {
-        if (!isConnected()) return null;
-        String sql = "SELECT email, expiry_time FROM email_confirmation_tokens WHERE player_uuid = ? AND token = ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, playerUuid.toString());
-            ps.setString(2, token);
-            ResultSet rs = ps.executeQuery();
-            if (rs.next()) {
-                long expiry = rs.getLong("expiry_time");
-                if (System.currentTimeMillis() < expiry) {
-                    return rs.getString("email");
-                } else {
-                    ZyrenAuthPlugin.getInstance().getLogger().warning("Expired email confirmation token for player " + playerUuid);
-                    deleteEmailConfirmationToken(token);
-                }
+    // Acquires the lease for this backend. Fails if another backend holds a live lease.
+    public boolean markAccountLoggedIn(UUID playerUuid) {
+        return takeLease(playerUuid) == LoginRecordResult.OK;
+    }
+
+    private LoginRecordResult takeLease(UUID playerUuid) {
+        if (!isConnected()) return LoginRecordResult.ERROR;
+        try (ConnectionPermit permit = acquireConnection();
+             PreparedStatement insert = prepare(LEASE_INSERT_SQL)) {
+            bindUuid(insert, 1, playerUuid);
+            insert.setString(2, config.getServerId());
+            insert.setInt(3, config.getSessionLeaseSeconds());
+            if (insert.executeUpdate() > 0) return LoginRecordResult.OK;
+
+            // A row already exists: renew it if it is ours, or take it over if it has expired
+            try (PreparedStatement takeOver = prepare(LEASE_TAKEOVER_SQL)) {
+                takeOver.setString(1, config.getServerId());
+                takeOver.setInt(2, config.getSessionLeaseSeconds());
+                bindUuid(takeOver, 3, playerUuid);
+                takeOver.setString(4, config.getServerId());
+                return takeOver.executeUpdate() > 0 ? LoginRecordResult.OK : LoginRecordResult.LEASE_HELD;
             }
         } catch (SQLException e) {
-            ZyrenAuthPlugin.getInstance().getLogger().severe("Error getting email by confirmation token for player " + playerUuid + ": " + e.getMessage());
+            recordFailure(e);
+            ZyrenAuthPlugin.getInstance().getLogger().severe("Error marking player " + playerUuid + " as logged in: " + e.getMessage());
+            return LoginRecordResult.ERROR;
         }
-        return null;
     }
 
-    public boolean deleteEmailConfirmationToken(String token) {
+    // Only releases a lease owned by this backend, never another server's session
+    public boolean markAccountLoggedOut(UUID playerUuid) {
+        if (shouldSpool()) return spool(WriteSpool.Op.LOGOUT, playerUuid, null, null, null);
         if (!isConnected()) return false;
-        String sql = "DELETE FROM email_confirmation_tokens WHERE token = ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, token);
+        String sql = "DELETE FROM sessions WHERE player_uuid = ? AND server_id = ?";
+        try (ConnectionPermit permit = acquireConnection();
+             PreparedStatement ps = prepare(sql)) {
+            bindUuid(ps, 1, playerUuid);
+            ps.setString(2, config.getServerId());
             return ps.executeUpdate() > 0;
         } catch (SQLException e) {
-            ZyrenAuthPlugin.getInstance().getLogger().severe("Error deleting email confirmation token " + token + ": " + e.getMessage());
+            recordFailure(e);
+            if (isConnectionFailure(e) && spool(WriteSpool.Op.LOGOUT, playerUuid, null, null, null)) return true;
+            ZyrenAuthPlugin.getInstance().getLogger().severe("Error marking player " + playerUuid + " as logged out: " + e.getMessage());
             return false;
         }
     }
 
-    public boolean storePasswordResetToken(UUID playerUuid, String token, long expiryTime) {
-        if (!isConnected()) return false;
-        String upsertSql = "INSERT INTO password_reset_tokens (player_uuid, token, expiry_time) VALUES (?, ?, ?) " +
-                "ON DUPLICATE KEY UPDATE token = VALUES(token), expiry_time = VALUES(expiry_time)";
-        try (PreparedStatement ps = connection.prepareStatement(upsertSql)) {
-            ps.setString(1, playerUuid.toString());
-            ps.setString(2, token);
-            ps.setLong(3, expiryTime);
-            ps.executeUpdate();
-            return true;
+    // Heartbeat: extends every lease held by this backend for the given players in one
+    // UPDATE per chunk, then clears out leases that expired anywhere in the cluster.
+    public void renewSessionLeases(Collection<UUID> playerUuids) {
+        if (!isConnected()) return;
+        List<UUID> players = new ArrayList<>(playerUuids);
+        try (ConnectionPermit permit = acquireConnection()) {
+            for (int from = 0; from < players.size(); from += SESSION_RENEW_CHUNK) {
+                List<UUID> chunk = players.subList(from, Math.min(players.size(), from + SESSION_RENEW_CHUNK));
+                String sql = "UPDATE sessions SET lease_expires = UNIX_TIMESTAMP() + ? WHERE server_id = ? AND player_uuid IN (" +
+                        String.join(",", Collections.nCopies(chunk.size(), "?")) + ")";
+                try (PreparedStatement ps = prepare(sql)) {
+                    ps.setInt(1, config.getSessionLeaseSeconds());
+                    ps.setString(2, config.getServerId());
+                    int index = 3;
+                    for (UUID uuid : chunk) {
+                        bindUuid(ps, index++, uuid);
+                    }
+                    ps.executeUpdate();
+                }
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("DELETE FROM sessions WHERE lease_expires < UNIX_TIMESTAMP()");
+            }
         } catch (SQLException e) {
-            ZyrenAuthPlugin.getInstance().getLogger().severe("Error storing password reset token for player " + playerUuid + ": " + e.getMessage());
-            return false;
+            recordFailure(e);
+            ZyrenAuthPlugin.getInstance().getLogger().severe("Error renewing session leases: " + e.getMessage());
         }
     }
 
-    public String getPasswordResetToken(UUID playerUuid) {
-        if (!isConnected()) return null;
-        String sql = "SELECT token, expiry_time FROM password_reset_tokens WHERE player_uuid = ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, playerUuid.toString());
-            ResultSet rs = ps.executeQuery();
-            if (rs.next()) {
-                long expiry = rs.getLong("expiry_time");
-                if (System.currentTimeMillis() < expiry) {
-                    return rs.getString("token");
-                } else {
-                    ZyrenAuthPlugin.getInstance().getLogger().warning("Expired password reset token for player " + playerUuid);
-                    deletePasswordResetToken(playerUuid);
-                }
+    // Drops every lease this backend holds. Used at startup to reclaim sessions left
+    // behind by a crash, and on shutdown.
+    public void releaseAllSessions() {
+        if (!isConnected()) return;
+        String sql = "DELETE FROM sessions WHERE server_id = ?";
+        try (ConnectionPermit permit = acquireConnection();
+             PreparedStatement ps = prepare(sql)) {
+            ps.setString(1, config.getServerId());
+            int released = ps.executeUpdate();
+            if (released > 0) {
+                ZyrenAuthPlugin.getInstance().getLogger().info("Released " + released + " session lease(s) held by server '" + config.getServerId() + "'.");
             }
         } catch (SQLException e) {
-            ZyrenAuthPlugin.getInstance().getLogger().severe("Error getting password reset token for player " + playerUuid + ": " + e.getMessage());
+            recordFailure(e);
+            ZyrenAuthPlugin.getInstance().getLogger().severe("Error releasing session leases: " + e.getMessage());
         }
-        return null;
     }
 
-    public long getPasswordResetTokenExpiry(UUID playerUuid) {
-        if (!isConnected()) return 0;
-        String sql = "SELECT expiry_time FROM password_reset_tokens WHERE player_uuid = ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, playerUuid.toString());
-            ResultSet rs = ps.executeQuery();
-            return rs.next() ? rs.getLong("expiry_time") : 0;
+    // ------------------------------------------------------------------------
+    // Composite auth flows
+    // ------------------------------------------------------------------------
+    // Everything one step of an auth flow writes, sent as a single multi-statement
+    // transaction: one round trip instead of one per statement, and no half-registered
+    // account or half-applied login if the connection dies in between.
+
+    private interface Binder {
+        void bind(PreparedStatement ps) throws SQLException;
+    }
+
+    // Sends START TRANSACTION, the statements and COMMIT in one round trip on the batch
+    // connection and returns the statements' update counts in order. The server stops at the
+    // first failing statement with the transaction still open, so a failure costs a second
+    // round trip for the ROLLBACK. The caller holds the batch connection's permit.
+    private List<Integer> runAtomically(List<String> statements, Binder binder) throws SQLException {
+        String sql = "START TRANSACTION;\n" + String.join(";\n", statements) + ";\nCOMMIT";
+        try (PreparedStatement ps = prepare(batchConnection, sql)) {
+            binder.bind(ps);
+            List<Integer> counts = new ArrayList<>();
+            boolean rows = ps.execute();
+            while (true) {
+                int count = rows ? -1 : ps.getUpdateCount();
+                if (!rows && count == -1) break;
+                counts.add(count);
+                rows = ps.getMoreResults();
+            }
+            // Without the results of START TRANSACTION and COMMIT
+            return counts.subList(1, counts.size() - 1);
         } catch (SQLException e) {
-            ZyrenAuthPlugin.getInstance().getLogger().severe("Error getting password reset token expiry for player " + playerUuid + ": " + e.getMessage());
-            return 0;
+            if (isConnectionFailure(e)) {
+                // Reopened by the next call
+                try {
+                    batchConnection.close();
+                } catch (SQLException ignored) {
+                }
+                batchConnection = null;
+                throw e;
+            }
+            try (Statement rollback = batchConnection.createStatement()) {
+                rollback.execute("ROLLBACK");
+            } catch (SQLException ignored) {
+            }
+            throw e;
         }
     }
 
-    public boolean deletePasswordResetToken(UUID playerUuid) {
+    // Binds LEASE_INSERT_SQL followed by LEASE_TAKEOVER_SQL; returns the next index
+    private int bindLease(PreparedStatement ps, int index, UUID playerUuid) throws SQLException {
+        bindUuid(ps, index, playerUuid);
+        ps.setString(index + 1, config.getServerId());
+        ps.setInt(index + 2, config.getSessionLeaseSeconds());
+        ps.setString(index + 3, config.getServerId());
+        ps.setInt(index + 4, config.getSessionLeaseSeconds());
+        bindUuid(ps, index + 5, playerUuid);
+        ps.setString(index + 6, config.getServerId());
+        return index + 7;
+    }
+
+    // Binds AUTH_CHANGE_SQL or AUTH_CHANGE_IF_UPDATED_SQL; returns the next index
+    private int bindAuthChange(PreparedStatement ps, int index, UUID playerUuid, AuthChangeType type) throws SQLException {
+        bindUuid(ps, index, playerUuid);
+        ps.setString(index + 1, type.name());
+        ps.setString(index + 2, config.getServerId());
+        return index + 3;
+    }
+
+    // The new account, its session lease and the registration IP as a trusted IP
+    public boolean registerAndLogin(UUID uuid, String username, String passwordHash, String ipAddress) {
         if (!isConnected()) return false;
-        String sql = "DELETE FROM password_reset_tokens WHERE player_uuid = ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, playerUuid.toString());
-            return ps.executeUpdate() > 0;
+        List<String> statements = List.of(
+                "INSERT INTO players (uuid, username, password_hash, last_login_ip) VALUES (?, ?, ?, ?)",
+                LEASE_INSERT_SQL,
+                LEASE_TAKEOVER_SQL,
+                "INSERT INTO ip_restrictions (player_uuid, ip_address, is_trusted) VALUES (?, ?, TRUE) " +
+                        "ON DUPLICATE KEY UPDATE is_trusted = TRUE",
+                AUTH_CHANGE_SQL);
+        try (ConnectionPermit permit = acquireBatchConnection()) {
+            runAtomically(statements, ps -> {
+                bindUuid(ps, 1, uuid);
+                ps.setString(2, username);
+                ps.setString(3, passwordHash);
+                bindIp(ps, 4, ipAddress);
+                int index = bindLease(ps, 5, uuid);
+                bindUuid(ps, index, uuid);
+                bindRequiredIp(ps, index + 1, ipAddress);
+                bindAuthChange(ps, index + 2, uuid, AuthChangeType.IP_TRUSTED);
+            });
+            return true;
         } catch (SQLException e) {
-            ZyrenAuthPlugin.getInstance().getLogger().severe("Error deleting password reset token for player " + playerUuid + ": " + e.getMessage());
+            recordFailure(e);
+            ZyrenAuthPlugin.getInstance().getLogger().severe("Error registering player account for " + username + ": " + e.getMessage());
             return false;
         }
     }
 
-    public boolean isAccountLoggedIn(UUID playerUuid) {
-        if (!isConnected()) return false;
-        String sql = "SELECT is_logged_in FROM players WHERE uuid = ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, playerUuid.toString());
-            ResultSet rs = ps.executeQuery();
-            return rs.next() && rs.getBoolean("is_logged_in");
+    // The session lease, the login IP and, if the stored hash was upgraded, the new hash.
+    // With requireLease (anti-account-sharing) the IP and hash are only written if the lease
+    // was free, ours or expired. LEASE_HELD only if another server holds the lease while it is
+    // required; a database failure is ERROR, and writes the database could not take are spooled.
+    public LoginRecordResult recordSuccessfulLogin(UUID uuid, String ipAddress, String upgradedHash, boolean requireLease) {
+        if (shouldSpool()) {
+            // Older writes are still waiting: the IP and hash queue up behind them, the lease
+            // (never spooled) is taken directly if the database is reachable
+            LoginRecordResult lease = takeLease(uuid);
+            if (lease == LoginRecordResult.LEASE_HELD && requireLease) return lease;
+            boolean spooled = spool(WriteSpool.Op.LAST_LOGIN_IP, uuid, null, ipAddress, null);
+            if (upgradedHash != null) spooled &= spool(WriteSpool.Op.PASSWORD, uuid, null, upgradedHash, null);
+            return spooled ? LoginRecordResult.OK : LoginRecordResult.ERROR;
+        }
+        if (!isConnected()) return LoginRecordResult.ERROR;
+        List<String> statements = new ArrayList<>(List.of(
+                LEASE_INSERT_SQL,
+                LEASE_TAKEOVER_SQL,
+                "UPDATE players SET last_login_ip = ?" + (upgradedHash != null ? ", password_hash = ?" : "") + " WHERE uuid = ? " +
+                        "AND (? OR EXISTS (SELECT 1 FROM sessions WHERE player_uuid = ? AND server_id = ?))"));
+        if (upgradedHash != null) statements.add(AUTH_CHANGE_IF_UPDATED_SQL);
+        try (ConnectionPermit permit = acquireBatchConnection()) {
+            List<Integer> counts = runAtomically(statements, ps -> {
+                int index = bindLease(ps, 1, uuid);
+                bindIp(ps, index++, ipAddress);
+                if (upgradedHash != null) ps.setString(index++, upgradedHash);
+                bindUuid(ps, index++, uuid);
+                ps.setBoolean(index++, !requireLease);
+                bindUuid(ps, index++, uuid);
+                ps.setString(index++, config.getServerId());
+                if (upgradedHash != null) bindAuthChange(ps, index, uuid, AuthChangeType.PASSWORD);
+            });
+            // The account exists (its password was just checked), so with the lease not
+            // required a missed update can only mean the database lost it
+            if (counts.get(2) > 0) return LoginRecordResult.OK;
+            return requireLease ? LoginRecordResult.LEASE_HELD : LoginRecordResult.ERROR;
         } catch (SQLException e) {
-            ZyrenAuthPlugin.getInstance().getLogger().severe("Error checking login status for player " + playerUuid + ": " + e.getMessage());
-            return false;
+            recordFailure(e);
+            if (isConnectionFailure(e)) {
+                spool(WriteSpool.Op.LAST_LOGIN_IP, uuid, null, ipAddress, null);
+                if (upgradedHash != null) spool(WriteSpool.Op.PASSWORD, uuid, null, upgradedHash, null);
+            }
+            ZyrenAuthPlugin.getInstance().getLogger().severe("Error recording login for player " + uuid + ": " + e.getMessage());
+            return LoginRecordResult.ERROR;
         }
     }
 
-    public boolean markAccountLoggedIn(UUID playerUuid) {
+    // Sets the confirmed email and counts the confirmation, only if the account still has the
+    // email and confirmation count the token was issued against. False if either has changed
+    // since (the token was used, here or on another server) or the database failed.
+    public boolean confirmEmailAtomically(UUID uuid, String expectedEmail, int expectedConfirmations, String newEmail) {
         if (!isConnected()) return false;
-        String sql = "UPDATE players SET is_logged_in = TRUE WHERE uuid = ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, playerUuid.toString());
-            return ps.executeUpdate() > 0;
+        List<String> statements = List.of(
+                "UPDATE players SET email = ?, email_confirmations = email_confirmations + 1 " +
+                        "WHERE uuid = ? AND email <=> ? AND email_confirmations = ?",
+                AUTH_CHANGE_IF_UPDATED_SQL);
+        try (ConnectionPermit permit = acquireBatchConnection()) {
+            List<Integer> counts = runAtomically(statements, ps -> {
+                ps.setString(1, newEmail);
+                bindUuid(ps, 2, uuid);
+                ps.setString(3, expectedEmail);
+                ps.setInt(4, expectedConfirmations);
+                bindAuthChange(ps, 5, uuid, AuthChangeType.EMAIL);
+            });
+            return counts.get(0) > 0;
         } catch (SQLException e) {
-            ZyrenAuthPlugin.getInstance().getLogger().severe("Error marking player " + playerUuid + " as logged in: " + e.getMessage());
+            recordFailure(e);
+            ZyrenAuthPlugin.getInstance().getLogger().severe("Error confirming email for player " + uuid + ": " + e.getMessage());
             return false;
         }
     }
 
-    public boolean markAccountLoggedOut(UUID playerUuid) {
+    // Sets the new hash only if the account still has the hash the reset token was issued
+    // against. False if the password has changed since or the database failed. While the
+    // database is down the reset is spooled with the same check, applied against the hash the
+    // token was issued for.
+    public boolean resetPasswordAtomically(UUID uuid, String expectedHash, String newHash) {
+        if (shouldSpool()) return spool(WriteSpool.Op.PASSWORD_IF_UNCHANGED, uuid, null, newHash, expectedHash);
         if (!isConnected()) return false;
-        String sql = "UPDATE players SET is_logged_in = FALSE WHERE uuid = ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, playerUuid.toString());
-            return ps.executeUpdate() > 0;
+        List<String> statements = List.of(
+                "UPDATE players SET password_hash = ? WHERE uuid = ? AND password_hash = ?",
+                AUTH_CHANGE_IF_UPDATED_SQL);
+        try (ConnectionPermit permit = acquireBatchConnection()) {
+            List<Integer> counts = runAtomically(statements, ps -> {
+                ps.setString(1, newHash);
+                bindUuid(ps, 2, uuid);
+                ps.setString(3, expectedHash);
+                bindAuthChange(ps, 4, uuid, AuthChangeType.PASSWORD);
+            });
+            return counts.get(0) > 0;
         } catch (SQLException e) {
-            ZyrenAuthPlugin.getInstance().getLogger().severe("Error marking player " + playerUuid + " as logged out: " + e.getMessage());
+            recordFailure(e);
+            if (isConnectionFailure(e) && spool(WriteSpool.Op.PASSWORD_IF_UNCHANGED, uuid, null, newHash, expectedHash)) return true;
+            ZyrenAuthPlugin.getInstance().getLogger().severe("Error resetting password for player " + uuid + ": " + e.getMessage());
             return false;
         }
     }
 
+    // ------------------------------------------------------------------------
+    // Change feed (cross-server cache invalidation)
+    // ------------------------------------------------------------------------
+
+    // Appends a row to auth_changes so other backends sharing this database can drop
+    // whatever they cached for the player. Failure only delays invalidation until the
+    // other servers' caches expire, so it is logged and otherwise ignored.
+    private void recordAuthChange(UUID playerUuid, AuthChangeType type) {
+        try (PreparedStatement ps = prepare(AUTH_CHANGE_SQL)) {
+            bindUuid(ps, 1, playerUuid);
+            ps.setString(2, type.name());
+            ps.setString(3, config.getServerId());
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            recordFailure(e);
+            ZyrenAuthPlugin.getInstance().getLogger().warning("Could not record " + type + " change for player " + playerUuid + ": " + e.getMessage());
+        }
+    }
+
+    public long getLatestAuthChangeId() {
+        if (!isConnected()) return 0;
+        try (ConnectionPermit permit = acquireConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM auth_changes")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            recordFailure(e);
+            ZyrenAuthPlugin.getInstance().getLogger().severe("Error reading latest auth change id: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    // Reads up to `limit` changes after `afterId` in id order (primary key range scan).
+    // Returns null on error so the caller keeps its position and retries next poll.
+    public List<AuthChange> getAuthChangesSince(long afterId, int limit) {
+        if (!isConnected()) return null;
+        String sql = "SELECT id, player_uuid, change_type, server_id FROM auth_changes WHERE id > ? ORDER BY id LIMIT ?";
+        try (ConnectionPermit permit = acquireConnection();
+             PreparedStatement ps = prepare(sql)) {
+            ps.setLong(1, afterId);
+            ps.setInt(2, limit);
+            List<AuthChange> changes = new ArrayList<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    AuthChangeType type;
+                    try {
+                        type = AuthChangeType.valueOf(rs.getString("change_type"));
+                    } catch (IllegalArgumentException e) {
+                        type = null; // written by a newer plugin version
+                    }
+                    changes.add(new AuthChange(rs.getLong("id"), readUuid(rs, "player_uuid"), type, rs.getString("server_id")));
+                }
+            }
+            return changes;
+        } catch (SQLException e) {
+            recordFailure(e);
+            ZyrenAuthPlugin.getInstance().getLogger().severe("Error polling auth changes: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public void pruneAuthChanges(int maxAgeSeconds) {
+        if (!isConnected()) return;
+        String sql = "DELETE FROM auth_changes WHERE created_at < UNIX_TIMESTAMP() - ? LIMIT 5000";
+        try (ConnectionPermit permit = acquireConnection();
+             PreparedStatement ps = prepare(sql)) {
+            ps.setInt(1, maxAgeSeconds);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            recordFailure(e);
+            ZyrenAuthPlugin.getInstance().getLogger().warning("Error pruning auth changes: " + e.getMessage());
+        }
+    }
+
     public boolean updatePlayerLastLoginIp(UUID playerUuid, String ipAddress) {
+        if (shouldSpool()) return spool(WriteSpool.Op.LAST_LOGIN_IP, playerUuid, null, ipAddress, null);
         if (!isConnected()) return false;
         String sql = "UPDATE players SET last_login_ip = ? WHERE uuid = ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, ipAddress);
-            ps.setString(2, playerUuid.toString());
+        try (ConnectionPermit permit = acquireConnection();
+             PreparedStatement ps = prepare(sql)) {
+            bindIp(ps, 1, ipAddress);
+            bindUuid(ps, 2, playerUuid);
             return ps.executeUpdate() > 0;
         } catch (SQLException e) {
+            recordFailure(e);
+            if (isConnectionFailure(e) && spool(WriteSpool.Op.LAST_LOGIN_IP, playerUuid, null, ipAddress, null)) return true;
             ZyrenAuthPlugin.getInstance().getLogger().severe("Error updating last login IP for player " + playerUuid + ": " + e.getMessage());
             return false;
         }
@@ -378,12 +1554,14 @@ public class DatabaseManager {
     public boolean isIpRestricted(UUID playerUuid, String ipAddress) {
         if (!isConnected()) return false;
         String sql = "SELECT is_trusted FROM ip_restrictions WHERE player_uuid = ? AND ip_address = ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, playerUuid.toString());
-            ps.setString(2, ipAddress);
+        try (ConnectionPermit permit = acquireConnection();
+             PreparedStatement ps = prepare(sql)) {
+            bindUuid(ps, 1, playerUuid);
+            bindIp(ps, 2, ipAddress);
             ResultSet rs = ps.executeQuery();
             return rs.next() && !rs.getBoolean("is_trusted");
         } catch (SQLException e) {
+            recordFailure(e);
             ZyrenAuthPlugin.getInstance().getLogger().severe("Error checking IP restriction for player " + playerUuid + " with IP " + ipAddress + ": " + e.getMessage());
             return false;
         }
@@ -393,12 +1571,15 @@ public class DatabaseManager {
         if (!isConnected()) return false;
         String sql = "INSERT INTO ip_restrictions (player_uuid, ip_address, is_trusted) VALUES (?, ?, TRUE) " +
                 "ON DUPLICATE KEY UPDATE is_trusted = TRUE";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, playerUuid.toString());
-            ps.setString(2, ipAddress);
+        try (ConnectionPermit permit = acquireConnection();
+             PreparedStatement ps = prepare(sql)) {
+            bindUuid(ps, 1, playerUuid);
+            bindRequiredIp(ps, 2, ipAddress);
             ps.executeUpdate();
+            recordAuthChange(playerUuid, AuthChangeType.IP_TRUSTED);
             return true;
         } catch (SQLException e) {
+            recordFailure(e);
             ZyrenAuthPlugin.getInstance().getLogger().severe("Error adding trusted IP " + ipAddress + " for player " + playerUuid + ": " + e.getMessage());
             return false;
         }
@@ -408,30 +1589,140 @@ public class DatabaseManager {
         if (!isConnected()) return false;
         String sql = "INSERT INTO ip_restrictions (player_uuid, ip_address, is_trusted) VALUES (?, ?, FALSE) " +
                 "ON DUPLICATE KEY UPDATE is_trusted = FALSE";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, playerUuid.toString());
-            ps.setString(2, ipAddress);
+        try (ConnectionPermit permit = acquireConnection();
+             PreparedStatement ps = prepare(sql)) {
+            bindUuid(ps, 1, playerUuid);
+            bindRequiredIp(ps, 2, ipAddress);
             ps.executeUpdate();
+            recordAuthChange(playerUuid, AuthChangeType.IP_BANNED);
             return true;
         } catch (SQLException e) {
+            recordFailure(e);
             ZyrenAuthPlugin.getInstance().getLogger().severe("Error banning IP " + ipAddress + " for player " + playerUuid + ": " + e.getMessage());
             return false;
         }
     }
 
     public boolean logSecurityEvent(UUID playerUuid, String ipAddress, String eventType, String details) {
+        if (shouldSpool()) return spool(WriteSpool.Op.SECURITY_EVENT, playerUuid, ipAddress, eventType, details);
         if (!isConnected()) return false;
         String sql = "INSERT INTO security_logs (player_uuid, ip_address, event_type, details) VALUES (?, ?, ?, ?)";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, playerUuid != null ? playerUuid.toString() : null);
-            ps.setString(2, ipAddress);
+        try (ConnectionPermit permit = acquireConnection();
+             PreparedStatement ps = prepare(sql)) {
+            bindUuid(ps, 1, playerUuid);
+            bindIp(ps, 2, ipAddress);
             ps.setString(3, eventType);
             ps.setString(4, details);
             ps.executeUpdate();
             return true;
         } catch (SQLException e) {
+            recordFailure(e);
+            if (isConnectionFailure(e) && spool(WriteSpool.Op.SECURITY_EVENT, playerUuid, ipAddress, eventType, details)) return true;
             ZyrenAuthPlugin.getInstance().getLogger().severe("Error logging security event (Type: " + eventType + ", Player: " + playerUuid + "): " + e.getMessage());
             return false;
         }
     }
+
+    public UUID findPlayerUuid(String username) {
+        if (!isConnected()) return null;
+        String sql = "SELECT uuid FROM players WHERE username = ? LIMIT 1";
+        try (ConnectionPermit permit = acquireConnection();
+             PreparedStatement ps = prepare(sql)) {
+            ps.setString(1, username);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? readUuid(rs, "uuid") : null;
+            }
+        } catch (SQLException e) {
+            recordFailure(e);
+            ZyrenAuthPlugin.getInstance().getLogger().severe("Error looking up player " + username + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Newest first: up to `limit` entries matching the filter with id < beforeId. Walks the
+    // (column, id) index backwards from the cursor, so the cost does not depend on the table
+    // size or how deep the page is. Returns null on error.
+    public List<SecurityLogEntry> getSecurityLogs(SecurityLogFilter filter, String value, long beforeId, int limit) {
+        if (!isConnected()) return null;
+        String sql = "SELECT l.id, l.timestamp, l.player_uuid, l.ip_address, l.event_type, l.details, p.username " +
+                "FROM security_logs l LEFT JOIN players p ON p.uuid = l.player_uuid " +
+                "WHERE l." + filter.getColumn() + " = ? AND l.id < ? ORDER BY l.id DESC LIMIT ?";
+        try (ConnectionPermit permit = acquireConnection();
+             PreparedStatement ps = prepare(sql)) {
+            bindLogFilter(ps, filter, value);
+            ps.setLong(2, beforeId);
+            ps.setInt(3, limit);
+            List<SecurityLogEntry> entries = new ArrayList<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    entries.add(new SecurityLogEntry(rs.getLong("id"), rs.getTimestamp("timestamp"),
+                            readUuid(rs, "player_uuid"), rs.getString("username"), readIp(rs, "ip_address"),
+                            rs.getString("event_type"), rs.getString("details")));
+                }
+            }
+            return entries;
+        } catch (SQLException e) {
+            recordFailure(e);
+            ZyrenAuthPlugin.getInstance().getLogger().severe("Error reading security logs: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Id of the entry `skip` rows past the cursor, for jumping ahead several pages at once.
+    // Reads only the index, never the rows. -1 if there are not that many entries, null on error.
+    public Long findSecurityLogBoundary(SecurityLogFilter filter, String value, long beforeId, int skip) {
+        if (!isConnected()) return null;
+        String sql = "SELECT id FROM security_logs WHERE " + filter.getColumn() + " = ? AND id < ? " +
+                "ORDER BY id DESC LIMIT 1 OFFSET ?";
+        try (ConnectionPermit permit = acquireConnection();
+             PreparedStatement ps = prepare(sql)) {
+            bindLogFilter(ps, filter, value);
+            ps.setLong(2, beforeId);
+            ps.setInt(3, skip);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : -1L;
+            }
+        } catch (SQLException e) {
+            recordFailure(e);
+            ZyrenAuthPlugin.getInstance().getLogger().severe("Error reading security logs: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void bindLogFilter(PreparedStatement ps, SecurityLogFilter filter, String value) throws SQLException {
+        switch (filter) {
+            case PLAYER -> bindUuid(ps, 1, UUID.fromString(value));
+            case IP -> bindIp(ps, 1, value);
+            case TYPE -> ps.setString(1, value);
+        }
+    }
+
+    public interface AccountIpVisitor {
+        void visit(UUID playerUuid, String username, String ipAddress);
+    }
+
+    // Streams every account's last login IP and trusted IPs on a background connection, in
+    // chunks from a server-side cursor, so the whole table is never held in memory
+    public void streamAccountIps(AccountIpVisitor visitor) throws SQLException {
+        try (Connection conn = openBackgroundConnection()) {
+            String players = "SELECT uuid, username, last_login_ip FROM players";
+            try (PreparedStatement ps = conn.prepareStatement(players, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(1000);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        visitor.visit(readUuid(rs, "uuid"), rs.getString("username"), readIp(rs, "last_login_ip"));
+                    }
+                }
+            }
+            String trusted = "SELECT player_uuid, ip_address FROM ip_restrictions WHERE is_trusted = TRUE";
+            try (PreparedStatement ps = conn.prepareStatement(trusted, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(1000);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        visitor.visit(readUuid(rs, "player_uuid"), null, readIp(rs, "ip_address"));
+                    }
+                }
+            }
+        }
+    }
 }
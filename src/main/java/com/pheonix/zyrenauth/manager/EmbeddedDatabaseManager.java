@@ -0,0 +1,1022 @@
+// src/main/java/com/pheonix/zyrenauth/manager/EmbeddedDatabaseManager.java
+package com.pheonix.zyrenauth.manager;
+
+import com.pheonix.zyrenauth.ZyrenAuthPlugin;
+import com.pheonix.zyrenauth.util.ZyrenAuthConfig;
+
+import java.io.File;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * The same tables and features as {@link DatabaseManager}, in an SQLite file in the plugin
+ * folder (zyrenauth.db) instead of a MySQL server. Used when mysqlEnabled is false and
+ * sqliteEnabled is true.
+ * <p>
+ * The database runs in WAL mode, so reads never wait for writes. Reads use a small pool of
+ * read-only connections. Every write goes through one queue drained by a single writer
+ * thread, which runs everything queued since the last commit in one transaction (each write
+ * in its own savepoint, so one failure does not undo the others): under load, many logins
+ * share one commit instead of syncing the file once each. Callers block until their write
+ * is committed, except security log entries, which are only queued.
+ */
+public class EmbeddedDatabaseManager extends DatabaseManager {
+
+    public static final String FILE = "zyrenauth.db";
+
+    private static final int READ_CONNECTIONS = 4;
+    private static final int MAX_WRITES_PER_COMMIT = 256;
+    private static final int WRITE_TIMEOUT_SECONDS = 30;
+    private static final int BUSY_TIMEOUT_MILLIS = 10_000;
+    private static final int READ_POLL_MILLIS = 250;
+    // A background transaction this size commits in milliseconds, far inside busy_timeout
+    private static final int BACKGROUND_BATCH_ROWS = 500;
+    private static final int SESSION_RENEW_CHUNK = 500;
+    // Seconds since the epoch by the database clock, like UNIX_TIMESTAMP() in MySQL
+    private static final String NOW = "CAST(strftime('%s', 'now') AS INTEGER)";
+
+    private interface Work<T> {
+        T run(Connection conn) throws SQLException;
+    }
+
+    private static final class Write<T> {
+        final Work<T> work;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        // QUEUED until the writer takes it into a transaction, or the caller gives up on it
+        final AtomicInteger state = new AtomicInteger(QUEUED);
+        T value;
+        SQLException error;
+
+        Write(Work<T> work) {
+            this.work = work;
+        }
+
+        // Runs inside the open transaction; a failure only rolls back this write
+        void apply(Connection conn) throws SQLException {
+            Savepoint savepoint = conn.setSavepoint();
+            try {
+                value = work.run(conn);
+            } catch (SQLException e) {
+                error = e;
+                conn.rollback(savepoint);
+            }
+            conn.releaseSavepoint(savepoint);
+        }
+
+        void complete() {
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(value);
+            }
+        }
+    }
+
+    private static final int QUEUED = 0, CLAIMED = 1, CANCELLED = 2;
+    private static final Write<Void> STOP = new Write<>(conn -> null);
+
+    private final File file;
+    private final BlockingQueue<Write<?>> writes = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Connection> readers = new ArrayBlockingQueue<>(READ_CONNECTIONS);
+    private final List<Connection> readConnections = new ArrayList<>();
+    private Connection writer;
+    private Thread writerThread;
+    private volatile boolean open;
+
+    public EmbeddedDatabaseManager(ZyrenAuthConfig config, File file) {
+        super(config, config.isCompactUuidStorage());
+        this.file = file;
+        connect();
+    }
+
+    @Override
+    public boolean isEmbedded() {
+        return true;
+    }
+
+    @Override
+    String insertIgnore() {
+        return "INSERT OR IGNORE";
+    }
+
+    // ------------------------------------------------------------------------
+    // Connections
+    // ------------------------------------------------------------------------
+
+    @Override
+    public synchronized void connect() {
+        if (open) return;
+        Logger log = ZyrenAuthPlugin.getInstance().getLogger();
+        try {
+            writer = openConnection(false);
+            try (Statement statement = writer.createStatement()) {
+                // WAL is stored in the file, so this only has an effect the first time
+                statement.execute("PRAGMA journal_mode=WAL");
+            }
+            createTables();
+            writer.setAutoCommit(false);
+            for (int i = 0; i < READ_CONNECTIONS; i++) {
+                Connection reader = openConnection(true);
+                readConnections.add(reader);
+                readers.add(reader);
+            }
+        } catch (SQLException e) {
+            log.severe("Failed to open SQLite database " + file.getName() + ": " + e.getMessage());
+            closeQuietly();
+            return;
+        }
+        writes.clear();
+        writerThread = new Thread(this::writeLoop, "ZyrenAuth-sqlite-writer");
+        writerThread.setDaemon(true);
+        open = true;
+        writerThread.start();
+        log.info("Opened SQLite database: " + file.getName());
+    }
+
+    private Connection openConnection(boolean readOnly) throws SQLException {
+        try {
+            Class.forName("org.sqlite.JDBC");
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("SQLite driver not found", e);
+        }
+        Connection conn = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+        try (Statement statement = conn.createStatement()) {
+            // NORMAL only syncs at checkpoints in WAL mode: a power cut may lose the last
+            // commits, but never corrupts the file
+            statement.execute("PRAGMA synchronous=NORMAL");
+            statement.execute("PRAGMA busy_timeout=" + BUSY_TIMEOUT_MILLIS);
+            statement.execute("PRAGMA foreign_keys=ON");
+            if (readOnly) statement.execute("PRAGMA query_only=ON");
+        }
+        return conn;
+    }
+
+    // Exports, archiving, migrations and imports run on their own connection, outside the
+    // writer thread. SQLite has one write lock, so their transactions and the writer's take
+    // turns through busy_timeout. That wait stays bounded because:
+    // - every background transaction starts with its write, so it waits for the lock
+    //   instead of failing on an upgrade from a stale read snapshot
+    // - backgroundBatchSize caps each transaction, so the lock is held for milliseconds
+    // - backgroundWriters keeps a job to one write connection
+    // Deferred transactions also hold no lock between batches, unlike IMMEDIATE ones, which
+    // the driver begins again right after each commit.
+    @Override
+    Connection openBackgroundConnection() throws SQLException {
+        return openConnection(false);
+    }
+
+    @Override
+    int backgroundBatchSize(int requested) {
+        return Math.min(requested, BACKGROUND_BATCH_ROWS);
+    }
+
+    @Override
+    int backgroundWriters(int requested) {
+        return 1;
+    }
+
+    @Override
+    public boolean isConnected() {
+        return open;
+    }
+
+    @Override
+    public int getConnectionCount() {
+        return READ_CONNECTIONS + 1;
+    }
+
+    // Commits everything still queued before closing the file
+    @Override
+    public synchronized void closeConnection() {
+        if (!open) return;
+        open = false;
+        writes.add(STOP);
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(WRITE_TIMEOUT_SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeQuietly();
+        ZyrenAuthPlugin.getInstance().getLogger().info("Closed SQLite database.");
+    }
+
+    // The embedded database is never swapped by /za reload, but close it cleanly if asked
+    @Override
+    public void drainAndClose(long timeoutSeconds) {
+        closeConnection();
+    }
+
+    private void closeQuietly() {
+        readers.clear();
+        for (Connection conn : readConnections) {
+            try {
+                conn.close();
+            } catch (SQLException ignored) {
+            }
+        }
+        readConnections.clear();
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (SQLException ignored) {
+            }
+            writer = null;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Schema
+    // ------------------------------------------------------------------------
+
+    private void createTables() throws SQLException {
+        // The id layout of an existing file wins; converting it is not supported
+        String existing = uuidColumnType();
+        if (existing != null) {
+            boolean fileCompact = existing.equalsIgnoreCase("BLOB");
+            if (fileCompact != compactIds) {
+                ZyrenAuthPlugin.getInstance().getLogger().warning("compactUuidStorage only applies to new SQLite databases; " +
+                        "keeping the " + (fileCompact ? "compact" : "text") + " id layout of " + file.getName() + ".");
+                compactIds = fileCompact;
+            }
+        }
+
+        String uuidType = compactIds ? "BLOB" : "TEXT";
+        String ipType = compactIds ? "BLOB" : "TEXT";
+        // Epoch milliseconds, which is how the SQLite driver binds and reads java.sql.Timestamp
+        String nowMillis = "(" + NOW + " * 1000)";
+        String[] ddl = {
+                // NOCASE matches the case-insensitive comparisons MySQL's default collation makes
+                "CREATE TABLE IF NOT EXISTS players (" +
+                        "uuid " + uuidType + " PRIMARY KEY NOT NULL," +
+                        "username TEXT NOT NULL COLLATE NOCASE," +
+                        "password_hash TEXT NOT NULL," +
+                        "email TEXT DEFAULT NULL COLLATE NOCASE," +
+                        "last_login_ip " + ipType + " DEFAULT NULL," +
+                        // Unused since session leases; no longer written, kept for older versions
+                        "is_logged_in INTEGER DEFAULT 0," +
+                        "registered_at INTEGER DEFAULT " + nowMillis + "," +
+                        "email_confirmations INTEGER NOT NULL DEFAULT 0" +
+                        ")",
+
+                "CREATE TABLE IF NOT EXISTS ip_restrictions (" +
+                        "player_uuid " + uuidType + " NOT NULL REFERENCES players(uuid) ON DELETE CASCADE," +
+                        "ip_address " + ipType + " NOT NULL," +
+                        "is_trusted INTEGER DEFAULT 1," +
+                        "PRIMARY KEY (player_uuid, ip_address)" +
+                        ")",
+
+                // AUTOINCREMENT: ids are never reused after the newest rows are deleted, which
+                // the archiver and the change feed rely on
+                "CREATE TABLE IF NOT EXISTS security_logs (" +
+                        "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                        "timestamp INTEGER DEFAULT " + nowMillis + "," +
+                        "player_uuid " + uuidType + "," +
+                        "ip_address " + ipType + "," +
+                        "event_type TEXT NOT NULL COLLATE NOCASE," +
+                        "details TEXT" +
+                        ")",
+
+                "CREATE TABLE IF NOT EXISTS sessions (" +
+                        "player_uuid " + uuidType + " PRIMARY KEY NOT NULL REFERENCES players(uuid) ON DELETE CASCADE," +
+                        "server_id TEXT NOT NULL," +
+                        "lease_expires INTEGER NOT NULL" +
+                        ")",
+
+                "CREATE TABLE IF NOT EXISTS auth_changes (" +
+                        "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                        "player_uuid " + uuidType + " NOT NULL," +
+                        "change_type TEXT NOT NULL," +
+                        "server_id TEXT NOT NULL," +
+                        "created_at INTEGER NOT NULL" +
+                        ")",
+
+                // Last replayed write spool entry per backend (see WriteSpool)
+                "CREATE TABLE IF NOT EXISTS write_spool_replay (" +
+                        "server_id TEXT PRIMARY KEY NOT NULL," +
+                        "spool_id TEXT NOT NULL," +
+                        "last_seq INTEGER NOT NULL" +
+                        ")",
+
+                "CREATE INDEX IF NOT EXISTS idx_sessions_server ON sessions (server_id)",
+                "CREATE INDEX IF NOT EXISTS idx_auth_changes_created ON auth_changes (created_at)",
+                "CREATE INDEX IF NOT EXISTS idx_security_logs_timestamp ON security_logs (timestamp)",
+                "CREATE INDEX IF NOT EXISTS idx_security_logs_player ON security_logs (player_uuid, id)",
+                "CREATE INDEX IF NOT EXISTS idx_security_logs_ip ON security_logs (ip_address, id)",
+                "CREATE INDEX IF NOT EXISTS idx_security_logs_type ON security_logs (event_type, id)",
+                "CREATE INDEX IF NOT EXISTS idx_players_username ON players (username)",
+                "CREATE INDEX IF NOT EXISTS idx_players_email ON players (email)",
+
+                // Stored tokens from before they were signed
+                "DROP TABLE IF EXISTS email_confirmation_tokens",
+                "DROP TABLE IF EXISTS password_reset_tokens"
+        };
+        try (Statement statement = writer.createStatement()) {
+            for (String sql : ddl) {
+                statement.execute(sql);
+            }
+            // Databases created by older versions
+            if (!hasColumn("players", "email_confirmations")) {
+                statement.execute("ALTER TABLE players ADD COLUMN email_confirmations INTEGER NOT NULL DEFAULT 0");
+            }
+        }
+        ZyrenAuthPlugin.getInstance().getLogger().info("Database tables checked/created successfully.");
+    }
+
+    private boolean hasColumn(String table, String column) throws SQLException {
+        try (Statement statement = writer.createStatement();
+             ResultSet rs = statement.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (rs.next()) {
+                if (column.equalsIgnoreCase(rs.getString("name"))) return true;
+            }
+        }
+        return false;
+    }
+
+    // Declared type of players.uuid, or null for a new database
+    private String uuidColumnType() throws SQLException {
+        try (Statement statement = writer.createStatement();
+             ResultSet rs = statement.executeQuery("PRAGMA table_info(players)")) {
+            while (rs.next()) {
+                if ("uuid".equalsIgnoreCase(rs.getString("name"))) return rs.getString("type");
+            }
+        }
+        return null;
+    }
+
+    // ------------------------------------------------------------------------
+    // Reads (pooled connections) and writes (single writer thread)
+    // ------------------------------------------------------------------------
+
+    private <T> T read(String action, T fallback, Work<T> work) {
+        // close() empties the pool, so never wait on it without checking
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(WRITE_TIMEOUT_SECONDS);
+        Connection conn = null;
+        try {
+            while (conn == null) {
+                if (!open) return fallback;
+                if (System.nanoTime() - deadline >= 0) {
+                    ZyrenAuthPlugin.getInstance().getLogger().severe("Error " + action + ": no read connection became free");
+                    return fallback;
+                }
+                conn = readers.poll(READ_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return fallback;
+        }
+        try {
+            return work.run(conn);
+        } catch (SQLException e) {
+            ZyrenAuthPlugin.getInstance().getLogger().severe("Error " + action + ": " + e.getMessage());
+            return fallback;
+        } finally {
+            if (open) readers.offer(conn);
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(Work<T> work) {
+        return submit(new Write<>(work));
+    }
+
+    private <T> CompletableFuture<T> submit(Write<T> write) {
+        if (!open) {
+            write.result.completeExceptionally(new SQLException("SQLite database is closed"));
+        } else {
+            writes.add(write);
+        }
+        return write.result;
+    }
+
+    // Queues the write and waits until the transaction it ran in has been committed
+    private <T> T write(String action, T fallback, Work<T> work) {
+        if (!open) return fallback;
+        Write<T> write = new Write<>(work);
+        try {
+            return submit(write).get(WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            ZyrenAuthPlugin.getInstance().getLogger().severe("Error " + action + ": " + e.getCause().getMessage());
+        } catch (TimeoutException e) {
+            if (write.state.compareAndSet(QUEUED, CANCELLED)) {
+                ZyrenAuthPlugin.getInstance().getLogger().severe("Error " + action + ": not started after " + WRITE_TIMEOUT_SECONDS + "s, cancelled");
+                return fallback;
+            }
+            // Already in a transaction, so it may still commit; report what actually happened
+            try {
+                return write.result.get();
+            } catch (ExecutionException failed) {
+                ZyrenAuthPlugin.getInstance().getLogger().severe("Error " + action + ": " + failed.getCause().getMessage());
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return fallback;
+    }
+
+    private void writeLoop() {
+        List<Write<?>> batch = new ArrayList<>(MAX_WRITES_PER_COMMIT);
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                batch.add(writes.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            // Everything that queued up during the previous commit goes into this one
+            writes.drainTo(batch, MAX_WRITES_PER_COMMIT - 1);
+            stopping = batch.remove(STOP);
+            if (!batch.isEmpty()) commit(batch);
+            batch.clear();
+        }
+        // Anything queued after STOP was rejected by the closed check or arrived too late
+        Write<?> late;
+        while ((late = writes.poll()) != null) {
+            late.result.completeExceptionally(new SQLException("SQLite database is closed"));
+        }
+    }
+
+    private void commit(List<Write<?>> batch) {
+        // Callers that timed out have already reported failure; those writes must not run
+        batch.removeIf(write -> !write.state.compareAndSet(QUEUED, CLAIMED));
+        if (batch.isEmpty()) return;
+        try {
+            for (Write<?> write : batch) {
+                write.apply(writer);
+            }
+            writer.commit();
+            for (Write<?> write : batch) {
+                write.complete();
+            }
+        } catch (SQLException e) {
+            try {
+                writer.rollback();
+            } catch (SQLException ignored) {
+            }
+            for (Write<?> write : batch) {
+                write.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Accounts
+    // ------------------------------------------------------------------------
+
+    @Override
+    public Boolean checkPlayerRegistered(UUID uuid) {
+        return read("checking if player " + uuid + " is registered", null, conn -> {
+            try (PreparedStatement ps = conn.prepareStatement("SELECT 1 FROM players WHERE uuid = ?")) {
+                bindUuid(ps, 1, uuid);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next();
+                }
+            }
+        });
+    }
+
+    @Override
+    public boolean createPlayerAccount(UUID uuid, String username, String passwordHash, String ipAddress) {
+        return write("creating player account for " + username, false, conn -> {
+            insertPlayer(conn, uuid, username, passwordHash, ipAddress);
+            return true;
+        });
+    }
+
+    private void insertPlayer(Connection conn, UUID uuid, String username, String passwordHash, String ipAddress) throws SQLException {
+        String sql = "INSERT INTO players (uuid, username, password_hash, last_login_ip) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            bindUuid(ps, 1, uuid);
+            ps.setString(2, username);
+            ps.setString(3, passwordHash);
+            bindIp(ps, 4, ipAddress);
+            ps.executeUpdate();
+        }
+    }
+
+    @Override
+    public String getPlayerHashedPassword(UUID uuid) {
+        return read("getting password hash for player " + uuid, null, conn -> queryString(conn,
+                "SELECT password_hash FROM players WHERE uuid = ?", uuid));
+    }
+
+    @Override
+    public boolean updatePlayerPassword(UUID uuid, String newPasswordHash) {
+        return write("updating password for player " + uuid, false, conn -> {
+            try (PreparedStatement ps = conn.prepareStatement("UPDATE players SET password_hash = ? WHERE uuid = ?")) {
+                ps.setString(1, newPasswordHash);
+                bindUuid(ps, 2, uuid);
+                if (ps.executeUpdate() == 0) return false;
+            }
+            recordAuthChange(conn, uuid, AuthChangeType.PASSWORD);
+            return true;
+        });
+    }
+
+    @Override
+    public String getPlayerEmail(UUID uuid) {
+        return read("getting email for player " + uuid, null, conn -> queryString(conn,
+                "SELECT email FROM players WHERE uuid = ?", uuid));
+    }
+
+    @Override
+    public int getEmailConfirmations(UUID uuid) {
+        return read("getting email confirmations for player " + uuid, -1, conn -> {
+            try (PreparedStatement ps = conn.prepareStatement("SELECT email_confirmations FROM players WHERE uuid = ?")) {
+                bindUuid(ps, 1, uuid);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? rs.getInt(1) : -1;
+                }
+            }
+        });
+    }
+
+    @Override
+    public boolean setPlayerEmail(UUID uuid, String email) {
+        return write("setting email for player " + uuid, false, conn -> {
+            try (PreparedStatement ps = conn.prepareStatement("UPDATE players SET email = ? WHERE uuid = ?")) {
+                ps.setString(1, email);
+                bindUuid(ps, 2, uuid);
+                if (ps.executeUpdate() == 0) return false;
+            }
+            recordAuthChange(conn, uuid, AuthChangeType.EMAIL);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean isEmailRegistered(String email) {
+        return read("checking if email " + email + " is registered", false, conn -> {
+            try (PreparedStatement ps = conn.prepareStatement("SELECT 1 FROM players WHERE email = ? LIMIT 1")) {
+                ps.setString(1, email);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next();
+                }
+            }
+        });
+    }
+
+    @Override
+    public UUID findPlayerUuid(String username) {
+        return read("looking up player " + username, null, conn -> {
+            try (PreparedStatement ps = conn.prepareStatement("SELECT uuid FROM players WHERE username = ? LIMIT 1")) {
+                ps.setString(1, username);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? readUuid(rs, "uuid") : null;
+                }
+            }
+        });
+    }
+
+    private String queryString(Connection conn, String sql, UUID uuid) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            bindUuid(ps, 1, uuid);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Session leases
+    // ------------------------------------------------------------------------
+
+    @Override
+    public boolean isAccountLoggedIn(UUID playerUuid) {
+        return read("checking login status for player " + playerUuid, false, conn -> {
+            String sql = "SELECT 1 FROM sessions WHERE player_uuid = ? AND server_id <> ? AND lease_expires >= " + NOW;
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                bindUuid(ps, 1, playerUuid);
+                ps.setString(2, config.getServerId());
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next();
+                }
+            }
+        });
+    }
+
+    @Override
+    public boolean markAccountLoggedIn(UUID playerUuid) {
+        return write("marking player " + playerUuid + " as logged in", false, conn -> takeLease(conn, playerUuid));
+    }
+
+    private boolean takeLease(Connection conn, UUID playerUuid) throws SQLException {
+        String insertSql = "INSERT OR IGNORE INTO sessions (player_uuid, server_id, lease_expires) VALUES (?, ?, " + NOW + " + ?)";
+        try (PreparedStatement insert = conn.prepareStatement(insertSql)) {
+            bindUuid(insert, 1, playerUuid);
+            insert.setString(2, config.getServerId());
+            insert.setInt(3, config.getSessionLeaseSeconds());
+            if (insert.executeUpdate() > 0) return true;
+        }
+        String takeOverSql = "UPDATE sessions SET server_id = ?, lease_expires = " + NOW + " + ? " +
+                "WHERE player_uuid = ? AND (server_id = ? OR lease_expires < " + NOW + ")";
+        try (PreparedStatement takeOver = conn.prepareStatement(takeOverSql)) {
+            takeOver.setString(1, config.getServerId());
+            takeOver.setInt(2, config.getSessionLeaseSeconds());
+            bindUuid(takeOver, 3, playerUuid);
+            takeOver.setString(4, config.getServerId());
+            return takeOver.executeUpdate() > 0;
+        }
+    }
+
+    @Override
+    public boolean markAccountLoggedOut(UUID playerUuid) {
+        return write("marking player " + playerUuid + " as logged out", false, conn -> {
+            try (PreparedStatement ps = conn.prepareStatement("DELETE FROM sessions WHERE player_uuid = ? AND server_id = ?")) {
+                bindUuid(ps, 1, playerUuid);
+                ps.setString(2, config.getServerId());
+                return ps.executeUpdate() > 0;
+            }
+        });
+    }
+
+    @Override
+    public void renewSessionLeases(Collection<UUID> playerUuids) {
+        List<UUID> players = new ArrayList<>(playerUuids);
+        write("renewing session leases", null, conn -> {
+            for (int from = 0; from < players.size(); from += SESSION_RENEW_CHUNK) {
+                List<UUID> chunk = players.subList(from, Math.min(players.size(), from + SESSION_RENEW_CHUNK));
+                String sql = "UPDATE sessions SET lease_expires = " + NOW + " + ? WHERE server_id = ? AND player_uuid IN (" +
+                        String.join(",", Collections.nCopies(chunk.size(), "?")) + ")";
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    ps.setInt(1, config.getSessionLeaseSeconds());
+                    ps.setString(2, config.getServerId());
+                    int index = 3;
+                    for (UUID uuid : chunk) {
+                        bindUuid(ps, index++, uuid);
+                    }
+                    ps.executeUpdate();
+                }
+            }
+            try (Statement statement = conn.createStatement()) {
+                statement.executeUpdate("DELETE FROM sessions WHERE lease_expires < " + NOW);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void releaseAllSessions() {
+        Integer released = write("releasing session leases", null, conn -> {
+            try (PreparedStatement ps = conn.prepareStatement("DELETE FROM sessions WHERE server_id = ?")) {
+                ps.setString(1, config.getServerId());
+                return ps.executeUpdate();
+            }
+        });
+        if (released != null && released > 0) {
+            ZyrenAuthPlugin.getInstance().getLogger().info("Released " + released + " session lease(s) held by server '" + config.getServerId() + "'.");
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Write spool
+    // ------------------------------------------------------------------------
+
+    // Reached when /za reload switches from MySQL to SQLite with spooled writes left over.
+    // The batch and the new replay position are one write, so they commit together.
+    @Override
+    void applySpooled(String spoolId, List<WriteSpool.Entry> entries) throws SQLException {
+        try {
+            submit(conn -> {
+                long applied = 0;
+                try (PreparedStatement ps = conn.prepareStatement("SELECT spool_id, last_seq FROM write_spool_replay WHERE server_id = ?")) {
+                    ps.setString(1, config.getServerId());
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (rs.next() && spoolId.equals(rs.getString("spool_id"))) applied = rs.getLong("last_seq");
+                    }
+                }
+                long last = applied;
+                for (WriteSpool.Entry entry : entries) {
+                    if (entry.seq() <= applied) continue;
+                    applySpooledEntry(conn, entry);
+                    last = entry.seq();
+                }
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "INSERT INTO write_spool_replay (server_id, spool_id, last_seq) VALUES (?, ?, ?) " +
+                                "ON CONFLICT (server_id) DO UPDATE SET spool_id = excluded.spool_id, last_seq = excluded.last_seq")) {
+                    ps.setString(1, config.getServerId());
+                    ps.setString(2, spoolId);
+                    ps.setLong(3, last);
+                    ps.executeUpdate();
+                }
+                return null;
+            }).get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof SQLException sql ? sql : new SQLException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while replaying the write spool", e);
+        }
+    }
+
+    private void applySpooledEntry(Connection conn, WriteSpool.Entry entry) throws SQLException {
+        long createdSeconds = entry.createdAt() / 1000;
+        switch (entry.op()) {
+            case LOGOUT -> {
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "DELETE FROM sessions WHERE player_uuid = ? AND server_id = ? AND lease_expires <= ?")) {
+                    bindUuid(ps, 1, entry.player());
+                    ps.setString(2, config.getServerId());
+                    ps.setLong(3, createdSeconds + config.getSessionLeaseSeconds());
+                    ps.executeUpdate();
+                }
+            }
+            case LAST_LOGIN_IP -> {
+                try (PreparedStatement ps = conn.prepareStatement("UPDATE players SET last_login_ip = ? WHERE uuid = ?")) {
+                    bindIp(ps, 1, entry.value());
+                    bindUuid(ps, 2, entry.player());
+                    ps.executeUpdate();
+                }
+            }
+            case PASSWORD -> {
+                try (PreparedStatement ps = conn.prepareStatement("UPDATE players SET password_hash = ? WHERE uuid = ?")) {
+                    ps.setString(1, entry.value());
+                    bindUuid(ps, 2, entry.player());
+                    if (ps.executeUpdate() > 0) recordAuthChange(conn, entry.player(), AuthChangeType.PASSWORD);
+                }
+            }
+            case PASSWORD_IF_UNCHANGED -> {
+                try (PreparedStatement ps = conn.prepareStatement("UPDATE players SET password_hash = ? WHERE uuid = ? AND password_hash = ?")) {
+                    ps.setString(1, entry.value());
+                    bindUuid(ps, 2, entry.player());
+                    ps.setString(3, entry.details());
+                    if (ps.executeUpdate() > 0) {
+                        recordAuthChange(conn, entry.player(), AuthChangeType.PASSWORD);
+                    } else {
+                        ZyrenAuthPlugin.getInstance().getLogger().warning("Dropped spooled password reset for player " + entry.player() + ": the password changed in the meantime.");
+                    }
+                }
+            }
+            case SECURITY_EVENT -> {
+                try (PreparedStatement ps = conn.prepareStatement("INSERT INTO security_logs " +
+                        "(timestamp, player_uuid, ip_address, event_type, details) VALUES (?, ?, ?, ?, ?)")) {
+                    ps.setLong(1, entry.createdAt());
+                    bindUuid(ps, 2, entry.player());
+                    bindIp(ps, 3, entry.ip());
+                    ps.setString(4, entry.value());
+                    ps.setString(5, entry.details());
+                    ps.executeUpdate();
+                }
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Change feed
+    // ------------------------------------------------------------------------
+
+    // Runs inside the caller's write, so the change commits together with what it describes
+    private void recordAuthChange(Connection conn, UUID playerUuid, AuthChangeType type) throws SQLException {
+        String sql = "INSERT INTO auth_changes (player_uuid, change_type, server_id, created_at) VALUES (?, ?, ?, " + NOW + ")";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            bindUuid(ps, 1, playerUuid);
+            ps.setString(2, type.name());
+            ps.setString(3, config.getServerId());
+            ps.executeUpdate();
+        }
+    }
+
+    @Override
+    public long getLatestAuthChangeId() {
+        return read("reading latest auth change id", 0L, conn -> {
+            try (Statement statement = conn.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM auth_changes")) {
+                return rs.next() ? rs.getLong(1) : 0L;
+            }
+        });
+    }
+
+    @Override
+    public List<AuthChange> getAuthChangesSince(long afterId, int limit) {
+        return read("polling auth changes", null, conn -> {
+            String sql = "SELECT id, player_uuid, change_type, server_id FROM auth_changes WHERE id > ? ORDER BY id LIMIT ?";
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setLong(1, afterId);
+                ps.setInt(2, limit);
+                List<AuthChange> changes = new ArrayList<>();
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        AuthChangeType type;
+                        try {
+                            type = AuthChangeType.valueOf(rs.getString("change_type"));
+                        } catch (IllegalArgumentException e) {
+                            type = null; // written by a newer plugin version
+                        }
+                        changes.add(new AuthChange(rs.getLong("id"), readUuid(rs, "player_uuid"), type, rs.getString("server_id")));
+                    }
+                }
+                return changes;
+            }
+        });
+    }
+
+    @Override
+    public void pruneAuthChanges(int maxAgeSeconds) {
+        write("pruning auth changes", null, conn -> {
+            String sql = "DELETE FROM auth_changes WHERE id IN " +
+                    "(SELECT id FROM auth_changes WHERE created_at < " + NOW + " - ? LIMIT 5000)";
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setInt(1, maxAgeSeconds);
+                ps.executeUpdate();
+            }
+            return null;
+        });
+    }
+
+    // ------------------------------------------------------------------------
+    // IP restrictions
+    // ------------------------------------------------------------------------
+
+    @Override
+    public boolean updatePlayerLastLoginIp(UUID playerUuid, String ipAddress) {
+        return write("updating last login IP for player " + playerUuid, false, conn -> {
+            try (PreparedStatement ps = conn.prepareStatement("UPDATE players SET last_login_ip = ? WHERE uuid = ?")) {
+                bindIp(ps, 1, ipAddress);
+                bindUuid(ps, 2, playerUuid);
+                return ps.executeUpdate() > 0;
+            }
+        });
+    }
+
+    @Override
+    public boolean isIpRestricted(UUID playerUuid, String ipAddress) {
+        return read("checking IP restriction for player " + playerUuid + " with IP " + ipAddress, false, conn -> {
+            try (PreparedStatement ps = conn.prepareStatement("SELECT is_trusted FROM ip_restrictions WHERE player_uuid = ? AND ip_address = ?")) {
+                bindUuid(ps, 1, playerUuid);
+                bindIp(ps, 2, ipAddress);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() && !rs.getBoolean("is_trusted");
+                }
+            }
+        });
+    }
+
+    @Override
+    public boolean addTrustedIp(UUID playerUuid, String ipAddress) {
+        return setIpTrust(playerUuid, ipAddress, true, "adding trusted IP " + ipAddress + " for player " + playerUuid);
+    }
+
+    @Override
+    public boolean banIp(UUID playerUuid, String ipAddress) {
+        return setIpTrust(playerUuid, ipAddress, false, "banning IP " + ipAddress + " for player " + playerUuid);
+    }
+
+    private boolean setIpTrust(UUID playerUuid, String ipAddress, boolean trusted, String action) {
+        return write(action, false, conn -> {
+            storeIpTrust(conn, playerUuid, ipAddress, trusted);
+            return true;
+        });
+    }
+
+    private void storeIpTrust(Connection conn, UUID playerUuid, String ipAddress, boolean trusted) throws SQLException {
+        String sql = "INSERT INTO ip_restrictions (player_uuid, ip_address, is_trusted) VALUES (?, ?, ?) " +
+                "ON CONFLICT (player_uuid, ip_address) DO UPDATE SET is_trusted = excluded.is_trusted";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            bindUuid(ps, 1, playerUuid);
+            bindRequiredIp(ps, 2, ipAddress);
+            ps.setBoolean(3, trusted);
+            ps.executeUpdate();
+        }
+        recordAuthChange(conn, playerUuid, trusted ? AuthChangeType.IP_TRUSTED : AuthChangeType.IP_BANNED);
+    }
+
+    // ------------------------------------------------------------------------
+    // Composite auth flows
+    // ------------------------------------------------------------------------
+    // Each is a single write, so it commits or rolls back as a whole (its own savepoint)
+
+    @Override
+    public boolean registerAndLogin(UUID uuid, String username, String passwordHash, String ipAddress) {
+        return write("registering player account for " + username, false, conn -> {
+            insertPlayer(conn, uuid, username, passwordHash, ipAddress);
+            takeLease(conn, uuid);
+            storeIpTrust(conn, uuid, ipAddress, true);
+            return true;
+        });
+    }
+
+    @Override
+    public LoginRecordResult recordSuccessfulLogin(UUID uuid, String ipAddress, String upgradedHash, boolean requireLease) {
+        return write("recording login for player " + uuid, LoginRecordResult.ERROR, conn -> {
+            if (!takeLease(conn, uuid) && requireLease) return LoginRecordResult.LEASE_HELD;
+            String sql = "UPDATE players SET last_login_ip = ?" + (upgradedHash != null ? ", password_hash = ?" : "") + " WHERE uuid = ?";
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                int index = 1;
+                bindIp(ps, index++, ipAddress);
+                if (upgradedHash != null) ps.setString(index++, upgradedHash);
+                bindUuid(ps, index, uuid);
+                if (ps.executeUpdate() == 0) return LoginRecordResult.ERROR;
+            }
+            if (upgradedHash != null) recordAuthChange(conn, uuid, AuthChangeType.PASSWORD);
+            return LoginRecordResult.OK;
+        });
+    }
+
+    @Override
+    public boolean confirmEmailAtomically(UUID uuid, String expectedEmail, int expectedConfirmations, String newEmail) {
+        return write("confirming email for player " + uuid, false, conn -> {
+            try (PreparedStatement ps = conn.prepareStatement("UPDATE players SET email = ?, email_confirmations = email_confirmations + 1 " +
+                    "WHERE uuid = ? AND email IS ? AND email_confirmations = ?")) {
+                ps.setString(1, newEmail);
+                bindUuid(ps, 2, uuid);
+                ps.setString(3, expectedEmail);
+                ps.setInt(4, expectedConfirmations);
+                if (ps.executeUpdate() == 0) return false;
+            }
+            recordAuthChange(conn, uuid, AuthChangeType.EMAIL);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean resetPasswordAtomically(UUID uuid, String expectedHash, String newHash) {
+        return write("resetting password for player " + uuid, false, conn -> {
+            try (PreparedStatement ps = conn.prepareStatement("UPDATE players SET password_hash = ? WHERE uuid = ? AND password_hash = ?")) {
+                ps.setString(1, newHash);
+                bindUuid(ps, 2, uuid);
+                ps.setString(3, expectedHash);
+                if (ps.executeUpdate() == 0) return false;
+            }
+            recordAuthChange(conn, uuid, AuthChangeType.PASSWORD);
+            return true;
+        });
+    }
+
+    // ------------------------------------------------------------------------
+    // Security logs
+    // ------------------------------------------------------------------------
+
+    // Only queued: the entry is committed with the next batch, and a failure is logged there
+    @Override
+    public boolean logSecurityEvent(UUID playerUuid, String ipAddress, String eventType, String details) {
+        if (!open) return false;
+        submit(conn -> {
+            String sql = "INSERT INTO security_logs (player_uuid, ip_address, event_type, details) VALUES (?, ?, ?, ?)";
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                bindUuid(ps, 1, playerUuid);
+                bindIp(ps, 2, ipAddress);
+                ps.setString(3, eventType);
+                ps.setString(4, details);
+                return ps.executeUpdate();
+            }
+        }).exceptionally(e -> {
+            ZyrenAuthPlugin.getInstance().getLogger().severe("Error logging security event (Type: " + eventType + ", Player: " + playerUuid + "): " + e.getMessage());
+            return null;
+        });
+        return true;
+    }
+
+    @Override
+    public List<SecurityLogEntry> getSecurityLogs(SecurityLogFilter filter, String value, long beforeId, int limit) {
+        return read("reading security logs", null, conn -> {
+            String sql = "SELECT l.id, l.timestamp, l.player_uuid, l.ip_address, l.event_type, l.details, p.username " +
+                    "FROM security_logs l LEFT JOIN players p ON p.uuid = l.player_uuid " +
+                    "WHERE l." + filter.getColumn() + " = ? AND l.id < ? ORDER BY l.id DESC LIMIT ?";
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                bindFilter(ps, filter, value);
+                ps.setLong(2, beforeId);
+                ps.setInt(3, limit);
+                List<SecurityLogEntry> entries = new ArrayList<>();
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        entries.add(new SecurityLogEntry(rs.getLong("id"), rs.getTimestamp("timestamp"),
+                                readUuid(rs, "player_uuid"), rs.getString("username"), readIp(rs, "ip_address"),
+                                rs.getString("event_type"), rs.getString("details")));
+                    }
+                }
+                return entries;
+            }
+        });
+    }
+
+    @Override
+    public Long findSecurityLogBoundary(SecurityLogFilter filter, String value, long beforeId, int skip) {
+        return read("reading security logs", null, conn -> {
+            String sql = "SELECT id FROM security_logs WHERE " + filter.getColumn() + " = ? AND id < ? " +
+                    "ORDER BY id DESC LIMIT 1 OFFSET ?";
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                bindFilter(ps, filter, value);
+                ps.setLong(2, beforeId);
+                ps.setInt(3, skip);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? rs.getLong(1) : -1L;
+                }
+            }
+        });
+    }
+
+    private void bindFilter(PreparedStatement ps, SecurityLogFilter filter, String value) throws SQLException {
+        switch (filter) {
+            case PLAYER -> bindUuid(ps, 1, UUID.fromString(value));
+            case IP -> bindIp(ps, 1, value);
+            case TYPE -> ps.setString(1, value);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+// src/main/java/com/pheonix/zyrenauth/manager/FreezeState.java
+package com.pheonix.zyrenauth.manager;
+
+import com.pheonix.zyrenauth.util.ZyrenAuthConfig;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps players who are waiting to log in as cheap as possible: smallest view and
+ * simulation distance, hidden from everyone else both ways (which also drops them from the
+ * tab list), no item pickup, no collisions and no mob spawning around them. Mob targeting
+ * is cancelled by PlayerRestrictionListener. The previous values are saved on enter() and
+ * all put back in a single leave() call.
+ * <p>
+ * Also counts the chunks sent to each waiting player for /za status. Main thread only.
+ */
+public class FreezeState {
+
+    private record Saved(int viewDistance, int sendViewDistance, int simulationDistance,
+                         boolean canPickupItems, boolean collidable, boolean affectsSpawning) {}
+
+    private final Plugin plugin;
+    private volatile ZyrenAuthConfig config;
+    private final Map<UUID, Saved> saved = new HashMap<>();
+    private final Map<UUID, Integer> chunksSent = new HashMap<>();
+    private long finishedWaits;
+    private long finishedWaitChunks;
+
+    public FreezeState(Plugin plugin, ZyrenAuthConfig config) {
+        this.plugin = plugin;
+        this.config = config;
+    }
+
+    public void applyReload(ZyrenAuthConfig config) {
+        this.config = config;
+    }
+
+    public void enter(Player player) {
+        UUID uuid = player.getUniqueId();
+        if (saved.containsKey(uuid)) return;
+        saved.put(uuid, new Saved(player.getViewDistance(), player.getSendViewDistance(), player.getSimulationDistance(),
+                player.getCanPickupItems(), player.isCollidable(), player.isAffectsSpawning()));
+        chunksSent.put(uuid, 0);
+
+        int distance = Math.max(2, config.getFrozenViewDistance());
+        player.setViewDistance(distance);
+        player.setSendViewDistance(distance);
+        player.setSimulationDistance(distance);
+        player.setCanPickupItems(false);
+        player.setCollidable(false);
+        player.setAffectsSpawning(false);
+
+        for (Player other : Bukkit.getOnlinePlayers()) {
+            if (other == player) continue;
+            other.hidePlayer(plugin, player);
+            player.hidePlayer(plugin, other);
+        }
+    }
+
+    public void leave(Player player) {
+        UUID uuid = player.getUniqueId();
+        Saved previous = saved.remove(uuid);
+        if (previous == null) return;
+        recordWait(uuid);
+
+        player.setViewDistance(previous.viewDistance());
+        player.setSendViewDistance(previous.sendViewDistance());
+        player.setSimulationDistance(previous.simulationDistance());
+        player.setCanPickupItems(previous.canPickupItems());
+        player.setCollidable(previous.collidable());
+        player.setAffectsSpawning(previous.affectsSpawning());
+
+        // Players still waiting stay hidden from this one and the other way round
+        for (Player other : Bukkit.getOnlinePlayers()) {
+            if (other == player || saved.containsKey(other.getUniqueId())) continue;
+            other.showPlayer(plugin, player);
+            player.showPlayer(plugin, other);
+        }
+    }
+
+    // Quit while waiting. Hidden entries are kept per viewer, so reveal the player to everyone
+    // still online or they would stay invisible to them after rejoining.
+    public void forget(Player player) {
+        UUID uuid = player.getUniqueId();
+        if (saved.remove(uuid) == null) return;
+        recordWait(uuid);
+        for (Player other : Bukkit.getOnlinePlayers()) {
+            if (other != player) other.showPlayer(plugin, player);
+        }
+    }
+
+    public void onChunkSent(Player player) {
+        chunksSent.computeIfPresent(player.getUniqueId(), (uuid, count) -> count + 1);
+    }
+
+    public int getWaitingCount() {
+        return saved.size();
+    }
+
+    // Average number of chunks a player received between joining and logging in or leaving
+    public double getAverageChunksPerWait() {
+        return finishedWaits == 0 ? 0 : (double) finishedWaitChunks / finishedWaits;
+    }
+
+    private void recordWait(UUID uuid) {
+        Integer chunks = chunksSent.remove(uuid);
+        finishedWaits++;
+        finishedWaitChunks += chunks != null ? chunks : 0;
+    }
+}
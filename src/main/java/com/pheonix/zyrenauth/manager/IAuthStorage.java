@@ -19,17 +19,9 @@ public interface IAuthStorage {
 
     // Email Management (can be no-op or in-memory if DB is off)
     String getPlayerEmail(UUID uuid);
+    int getEmailConfirmations(UUID uuid);
     boolean setPlayerEmail(UUID uuid, String email);
     boolean isEmailRegistered(String email);
-    boolean storeEmailConfirmationToken(UUID playerUuid, String email, String token, long expiryTime);
-    String getEmailByConfirmationToken(UUID playerUuid, String token);
-    boolean deleteEmailConfirmationToken(String token);
-
-    // Password Reset (can be no-op or in-memory if DB is off)
-    boolean storePasswordResetToken(UUID playerUuid, String token, long expiryTime);
-    String getPasswordResetToken(UUID playerUuid);
-    long getPasswordResetTokenExpiry(UUID playerUuid);
-    boolean deletePasswordResetToken(UUID playerUuid);
 
     // IP Restrictions (can be no-op or in-memory if DB is off)
     boolean isIpRestricted(UUID playerUuid, String ipAddress);
@@ -39,6 +31,12 @@ public interface IAuthStorage {
     // Security Logging (can be no-op if DB is off)
     boolean logSecurityEvent(UUID playerUuid, String ipAddress, String eventType, String details);
 
+    // Composite auth flows, each written as one transaction
+    boolean registerAndLogin(UUID uuid, String username, String passwordHash, String ipAddress);
+    LoginRecordResult recordSuccessfulLogin(UUID playerUuid, String ipAddress, String upgradedHash, boolean requireLease);
+    boolean confirmEmailAtomically(UUID uuid, String expectedEmail, int expectedConfirmations, String newEmail);
+    boolean resetPasswordAtomically(UUID uuid, String expectedHash, String newHash);
+
     // For file-based storage, to explicitly save/load
     default void save() {}
     default void load() {}
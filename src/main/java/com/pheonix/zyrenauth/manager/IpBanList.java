@@ -0,0 +1,246 @@
+// src/main/java/com/pheonix/zyrenauth/manager/IpBanList.java
+package com.pheonix.zyrenauth.manager;
+
+import com.pheonix.zyrenauth.util.CidrTrie;
+import org.bukkit.plugin.Plugin;
+
+import java.io.*;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Global list of banned IPv4/IPv6 CIDR ranges, persisted to banned-ranges.txt (one range per
+ * line, '#' starts a comment). Checked in AsyncPlayerPreLoginEvent before any database work:
+ * a lookup is a longest-prefix match in a {@link CidrTrie}, at most 32 or 128 steps.
+ * Lookups share a read lock; /za ban-range changes and imports take the write lock.
+ */
+public class IpBanList {
+
+    public static final String FILE = "banned-ranges.txt";
+
+    // Literal IPv4 only, so parsing never triggers a DNS lookup
+    private static final Pattern IPV4 = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+    private static final Pattern IPV6 = Pattern.compile("[0-9a-fA-F:.]+");
+
+    public record Range(byte[] address, int prefix) {
+        public static Range parse(String text) {
+            String trimmed = text.trim();
+            int slash = trimmed.indexOf('/');
+            String host = slash < 0 ? trimmed : trimmed.substring(0, slash);
+            boolean v6 = host.indexOf(':') >= 0;
+            if (!(v6 ? IPV6 : IPV4).matcher(host).matches()) return null;
+            InetAddress address;
+            try {
+                address = InetAddress.getByName(host);
+            } catch (UnknownHostException e) {
+                return null;
+            }
+            int bits = address.getAddress().length * 8;
+            int prefix = bits;
+            if (slash >= 0) {
+                try {
+                    prefix = Integer.parseInt(trimmed.substring(slash + 1));
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+                // ::ffff:a.b.c.d/n comes back as an IPv4 address
+                if (v6 && address instanceof Inet4Address) prefix -= 96;
+            }
+            if (prefix < 0 || prefix > bits) return null;
+            return new Range(mask(address.getAddress(), prefix), prefix);
+        }
+
+        @Override
+        public String toString() {
+            try {
+                return InetAddress.getByAddress(address).getHostAddress() + "/" + prefix;
+            } catch (UnknownHostException e) {
+                return "?/" + prefix;
+            }
+        }
+    }
+
+    public record ImportResult(int added, int invalid) {}
+
+    private final Plugin plugin;
+    private final File file;
+    private final CidrTrie v4 = new CidrTrie(32);
+    private final CidrTrie v6 = new CidrTrie(128);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object saveLock = new Object();
+    private final AtomicLong blocked = new AtomicLong();
+
+    public IpBanList(Plugin plugin) {
+        this.plugin = plugin;
+        this.file = new File(plugin.getDataFolder(), FILE);
+    }
+
+    // Reads banned-ranges.txt into fresh tries; a missing file means an empty list
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            v4.clear();
+            v6.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (!file.isFile()) return;
+        try {
+            ImportResult result = importFile(file);
+            plugin.getLogger().info("[ZyrenAuth] Loaded " + result.added() + " banned IP ranges.");
+            if (result.invalid() > 0) {
+                plugin.getLogger().warning("[ZyrenAuth] Skipped " + result.invalid() + " invalid lines in " + FILE + ".");
+            }
+        } catch (IOException e) {
+            plugin.getLogger().severe("[ZyrenAuth] Could not read " + FILE + ": " + e.getMessage());
+        }
+    }
+
+    // The most specific banned range containing the address, or null. Counts every hit.
+    public Range match(InetAddress address) {
+        byte[] bytes = address.getAddress();
+        int prefix;
+        lock.readLock().lock();
+        try {
+            prefix = trieFor(bytes).longestMatch(bytes);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (prefix < 0) return null;
+        blocked.incrementAndGet();
+        return new Range(mask(bytes, prefix), prefix);
+    }
+
+    public boolean add(Range range) {
+        lock.writeLock().lock();
+        try {
+            return trieFor(range.address()).add(range.address(), range.prefix());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(Range range) {
+        lock.writeLock().lock();
+        try {
+            return trieFor(range.address()).remove(range.address(), range.prefix());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Adds every range listed in the file. Lines are parsed outside the lock and inserted in
+    // chunks, so pre-login lookups are never blocked for the whole import.
+    public ImportResult importFile(File source) throws IOException {
+        int added = 0;
+        int invalid = 0;
+        Range[] batch = new Range[4096];
+        int pending = 0;
+        try (BufferedReader reader = Files.newBufferedReader(source.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int comment = line.indexOf('#');
+                if (comment >= 0) line = line.substring(0, comment);
+                line = line.trim();
+                if (line.isEmpty()) continue;
+                // Tolerate lists with extra columns after the range
+                int space = indexOfWhitespace(line);
+                Range range = Range.parse(space < 0 ? line : line.substring(0, space));
+                if (range == null) {
+                    invalid++;
+                    continue;
+                }
+                batch[pending++] = range;
+                if (pending == batch.length) {
+                    added += insert(batch, pending);
+                    pending = 0;
+                }
+            }
+        }
+        added += insert(batch, pending);
+        return new ImportResult(added, invalid);
+    }
+
+    // Rewrites banned-ranges.txt from the tries (atomically, through a temp file). Blocking.
+    public void save() throws IOException {
+        synchronized (saveLock) {
+            File temp = new File(file.getPath() + ".tmp");
+            IOException[] failure = new IOException[1];
+            try (BufferedWriter writer = Files.newBufferedWriter(temp.toPath(), StandardCharsets.UTF_8)) {
+                writer.write("# Banned IP ranges, one CIDR per line. Managed with /za ban-range.");
+                writer.newLine();
+                lock.readLock().lock();
+                try {
+                    CidrTrie.RangeVisitor visitor = (address, prefix) -> {
+                        if (failure[0] != null) return;
+                        try {
+                            writer.write(new Range(address, prefix).toString());
+                            writer.newLine();
+                        } catch (IOException e) {
+                            failure[0] = e;
+                        }
+                    };
+                    v4.forEach(visitor);
+                    v6.forEach(visitor);
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+            if (failure[0] != null) throw failure[0];
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return v4.size() + v6.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getBlockedCount() {
+        return blocked.get();
+    }
+
+    private int insert(Range[] batch, int count) {
+        int added = 0;
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < count; i++) {
+                if (trieFor(batch[i].address()).add(batch[i].address(), batch[i].prefix())) added++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return added;
+    }
+
+    private CidrTrie trieFor(byte[] address) {
+        return address.length == 4 ? v4 : v6;
+    }
+
+    private static int indexOfWhitespace(String line) {
+        for (int i = 0; i < line.length(); i++) {
+            if (Character.isWhitespace(line.charAt(i))) return i;
+        }
+        return -1;
+    }
+
+    private static byte[] mask(byte[] address, int prefix) {
+        byte[] masked = address.clone();
+        for (int i = prefix; i < masked.length * 8; i++) {
+            masked[i >>> 3] &= (byte) ~(1 << (7 - (i & 7)));
+        }
+        return masked;
+    }
+}
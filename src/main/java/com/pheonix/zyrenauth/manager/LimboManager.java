@@ -0,0 +1,151 @@
+// src/main/java/com/pheonix/zyrenauth/manager/LimboManager.java
+package com.pheonix.zyrenauth.manager;
+
+import com.pheonix.zyrenauth.ZyrenAuthPlugin;
+import com.pheonix.zyrenauth.util.ZyrenAuthConfig;
+import net.kyori.adventure.util.TriState;
+import org.bukkit.*;
+import org.bukkit.entity.Player;
+import org.bukkit.generator.ChunkGenerator;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides where unauthenticated players wait. With limboWorldEnabled that is a void world
+ * holding a single force-loaded chunk with a barrier platform, so a join never loads or
+ * generates chunks around the auth spot in the real worlds. Otherwise it is the configured
+ * auth location in the configured world (or the world the player joined in).
+ * Locations are built once and reused; callers must not modify them.
+ */
+public class LimboManager {
+
+    // Generates nothing: every chunk of the limbo world is empty air
+    private static final class VoidGenerator extends ChunkGenerator {
+        @Override public boolean shouldGenerateNoise() { return false; }
+        @Override public boolean shouldGenerateSurface() { return false; }
+        @Override public boolean shouldGenerateCaves() { return false; }
+        @Override public boolean shouldGenerateDecorations() { return false; }
+        @Override public boolean shouldGenerateMobs() { return false; }
+        @Override public boolean shouldGenerateStructures() { return false; }
+
+        @Override
+        public Location getFixedSpawnLocation(World world, Random random) {
+            return new Location(world, 0.5, 64, 0.5);
+        }
+    }
+
+    private final ZyrenAuthPlugin plugin;
+    // Null when limbo is disabled or the world could not be created
+    private final World limboWorld;
+    private volatile ZyrenAuthConfig config;
+    private volatile Location limboLocation;
+    private int forcedChunkX;
+    private int forcedChunkZ;
+    private boolean chunkForced;
+    // Auth location per world when no limbo world is used; cleared on reload
+    private final Map<UUID, Location> worldLocations = new ConcurrentHashMap<>();
+
+    // Must be called on the main thread
+    public LimboManager(ZyrenAuthPlugin plugin, ZyrenAuthConfig config) {
+        this.plugin = plugin;
+        this.config = config;
+        this.limboWorld = config.isLimboWorldEnabled() ? createLimboWorld(config.getLimboWorldName()) : null;
+        if (limboWorld != null) {
+            prepareLimboSpot(config);
+        }
+    }
+
+    // Called by /za reload on the main thread. The limbo world itself is restart-only,
+    // but the auth location inside it moves (with its platform) right away.
+    public void applyReload(ZyrenAuthConfig config) {
+        this.config = config;
+        worldLocations.clear();
+        if (limboWorld != null) {
+            prepareLimboSpot(config);
+        }
+    }
+
+    public Location getAuthLocation(Player player) {
+        Location limbo = limboLocation;
+        if (limbo != null) return limbo;
+
+        ZyrenAuthConfig cfg = config;
+        World world = player.getWorld();
+        if (!cfg.getAuthLocationWorld().isEmpty()) {
+            World configured = Bukkit.getWorld(cfg.getAuthLocationWorld());
+            if (configured != null) world = configured;
+        }
+        World target = world;
+        return worldLocations.computeIfAbsent(target.getUID(), id ->
+                new Location(target, cfg.getAuthLocationX(), cfg.getAuthLocationY(), cfg.getAuthLocationZ()));
+    }
+
+    public boolean isLimboWorld(World world) {
+        return limboWorld != null && limboWorld.equals(world);
+    }
+
+    // Where to send a player whose real location is unknown. Never the limbo world.
+    public Location getFallbackLocation(Player player) {
+        World world = player.getWorld();
+        if (isLimboWorld(world)) {
+            world = Bukkit.getWorlds().get(0);
+        }
+        return world.getSpawnLocation();
+    }
+
+    private World createLimboWorld(String name) {
+        World world = Bukkit.getWorld(name);
+        if (world == null) {
+            world = new WorldCreator(name)
+                    .generator(new VoidGenerator())
+                    .environment(World.Environment.NORMAL)
+                    .generateStructures(false)
+                    .keepSpawnLoaded(TriState.FALSE)
+                    .createWorld();
+        }
+        if (world == null) {
+            plugin.getLogger().severe("[ZyrenAuth] Could not create limbo world '" + name + "'. Using authLocation in the player's world instead.");
+            return null;
+        }
+        // Nothing in limbo needs to tick or be saved; the platform is rebuilt on every start
+        world.setGameRule(GameRule.DO_DAYLIGHT_CYCLE, false);
+        world.setGameRule(GameRule.DO_WEATHER_CYCLE, false);
+        world.setGameRule(GameRule.DO_MOB_SPAWNING, false);
+        world.setGameRule(GameRule.DO_FIRE_TICK, false);
+        world.setGameRule(GameRule.ANNOUNCE_ADVANCEMENTS, false);
+        world.setGameRule(GameRule.RANDOM_TICK_SPEED, 0);
+        world.setAutoSave(false);
+        plugin.getLogger().info("[ZyrenAuth] Unauthenticated players wait in limbo world '" + name + "'.");
+        return world;
+    }
+
+    private void prepareLimboSpot(ZyrenAuthConfig cfg) {
+        Location spot = new Location(limboWorld, cfg.getAuthLocationX(), cfg.getAuthLocationY(), cfg.getAuthLocationZ());
+        int chunkX = spot.getBlockX() >> 4;
+        int chunkZ = spot.getBlockZ() >> 4;
+        if (chunkForced && (chunkX != forcedChunkX || chunkZ != forcedChunkZ)) {
+            limboWorld.setChunkForceLoaded(forcedChunkX, forcedChunkZ, false);
+        }
+        // Loads the (empty) chunk once and keeps it loaded for good
+        limboWorld.setChunkForceLoaded(chunkX, chunkZ, true);
+        forcedChunkX = chunkX;
+        forcedChunkZ = chunkZ;
+        chunkForced = true;
+
+        // 3x3 barrier platform under the spot, kept inside the forced chunk
+        int floorY = spot.getBlockY() - 1;
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                int x = spot.getBlockX() + dx;
+                int z = spot.getBlockZ() + dz;
+                if ((x >> 4) != chunkX || (z >> 4) != chunkZ) continue;
+                limboWorld.getBlockAt(x, floorY, z).setType(Material.BARRIER, false);
+            }
+        }
+        limboWorld.setSpawnLocation(spot);
+        limboLocation = spot;
+    }
+}
@@ -0,0 +1,10 @@
+// src/main/java/com/pheonix/zyrenauth/manager/LoginRecordResult.java
+package com.pheonix.zyrenauth.manager;
+
+// Outcome of IAuthStorage.recordSuccessfulLogin. Only LEASE_HELD means another server has
+// the account; ERROR is a database failure and says nothing about the session.
+public enum LoginRecordResult {
+    OK,
+    LEASE_HELD,
+    ERROR
+}
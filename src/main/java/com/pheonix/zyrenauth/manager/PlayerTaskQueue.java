@@ -0,0 +1,116 @@
+// src/main/java/com/pheonix/zyrenauth/manager/PlayerTaskQueue.java
+package com.pheonix.zyrenauth.manager;
+
+import com.pheonix.zyrenauth.ZyrenAuthPlugin;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Runs auth work off the main thread on virtual threads, one mailbox per player.
+ * Tasks for the same player run strictly one after another, in submission order.
+ * Tasks for different players run in parallel, and a player's tasks keep their order across
+ * a quit and rejoin. A task submitted with a key is rejected while another task with the same
+ * key is still queued or running for the same session (the Player object of one join), so
+ * spamming /login five times in a tick costs one BCrypt check, not five, while a login left
+ * running by a previous session does not block the next one.
+ */
+public class PlayerTaskQueue {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ConcurrentHashMap<UUID, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    private static final class Mailbox {
+        final ArrayDeque<Task> queue = new ArrayDeque<>();
+        final Set<PendingKey> pendingKeys = new HashSet<>();
+        boolean draining;
+        // Set once the mailbox has been removed from the map; submitters must fetch a new one
+        boolean retired;
+    }
+
+    private record Task(PendingKey key, Runnable body) {}
+
+    // Compares sessions by identity: the Player objects of two joins are different sessions
+    private record PendingKey(Object session, String key) {
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof PendingKey pending && pending.session == session && pending.key.equals(key);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(session) * 31 + key.hashCode();
+        }
+    }
+
+    /**
+     * Queues work for a player's session. Returns false if a task with the same key is
+     * already pending for that session (key may be null to never coalesce).
+     */
+    public boolean submit(UUID playerUuid, Object session, String key, Runnable body) {
+        PendingKey pending = key != null ? new PendingKey(session, key) : null;
+        while (true) {
+            Mailbox box = mailboxes.computeIfAbsent(playerUuid, k -> new Mailbox());
+            boolean startDrain;
+            synchronized (box) {
+                if (box.retired) continue;
+                if (pending != null && !box.pendingKeys.add(pending)) return false;
+                box.queue.add(new Task(pending, body));
+                startDrain = !box.draining;
+                box.draining = true;
+            }
+            if (startDrain) {
+                executor.execute(() -> drain(playerUuid, box));
+            }
+            return true;
+        }
+    }
+
+    private void drain(UUID playerUuid, Mailbox box) {
+        while (true) {
+            Task task;
+            synchronized (box) {
+                task = box.queue.poll();
+                if (task == null) {
+                    box.draining = false;
+                    box.retired = true;
+                    mailboxes.remove(playerUuid, box);
+                    return;
+                }
+            }
+            try {
+                task.body().run();
+            } catch (Throwable t) {
+                ZyrenAuthPlugin.getInstance().getLogger().log(Level.SEVERE,
+                        "Auth task" + (task.key() != null ? " '" + task.key().key() + "'" : "") + " failed for player " + playerUuid, t);
+            } finally {
+                if (task.key() != null) {
+                    synchronized (box) {
+                        box.pendingKeys.remove(task.key());
+                    }
+                }
+            }
+        }
+    }
+
+    // Lets queued work finish (e.g. a login whose password was already checked) before the plugin unloads
+    public void shutdown(long timeoutSeconds) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeoutSeconds, TimeUnit.SECONDS)) {
+                ZyrenAuthPlugin.getInstance().getLogger().warning("Some auth tasks were still running at shutdown.");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,222 @@
+// src/main/java/com/pheonix/zyrenauth/manager/QueryProfiler.java
+package com.pheonix.zyrenauth.manager;
+
+import com.pheonix.zyrenauth.ZyrenAuthPlugin;
+import com.pheonix.zyrenauth.util.ZyrenAuthConfig;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.regex.Pattern;
+
+/**
+ * Times every statement DatabaseManager runs on its shared connection and gives each one a
+ * query timeout by statement type. Executions slower than slowQueryThresholdMillis are
+ * counted per statement (for /za slowlog) and written to slow-queries.log together with the
+ * shape of their bind parameters (types and lengths, never values) and, at most once per
+ * statement every few minutes, the EXPLAIN plan. Log writes and EXPLAINs run on a background
+ * thread with their own connection, so a slow query never gets slower by being recorded.
+ * The log is rotated at slowQueryLogMaxKilobytes, keeping LOG_FILES files.
+ */
+public class QueryProfiler {
+
+    public static final String LOG_FILE = "slow-queries.log";
+
+    private static final int LOG_FILES = 3;
+    private static final long EXPLAIN_INTERVAL_MILLIS = 10 * 60_000L;
+    // Chunked IN lists (?, ?, ...) of any length count as one statement
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    public record Offender(String sql, long executions, long slow, double averageMillis, long maxMillis) {}
+
+    private static final class Stats {
+        long executions;
+        long slow;
+        long slowNanos;
+        long maxNanos;
+        long lastExplainAt;
+    }
+
+    private final DatabaseManager db;
+    private final File logFile;
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private final ExecutorService recorder = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "ZyrenAuth-slowlog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    QueryProfiler(DatabaseManager db, File logFile) {
+        this.db = db;
+        this.logFile = logFile;
+    }
+
+    // Applies the timeout for the statement's type and, with the slow log on, wraps it so
+    // every execution is timed and its parameters are known if it turns out to be slow
+    PreparedStatement wrap(PreparedStatement ps, String sql) throws SQLException {
+        ZyrenAuthConfig config = db.config;
+        int timeout = isRead(sql) ? config.getQueryTimeoutReadSeconds() : config.getQueryTimeoutWriteSeconds();
+        if (timeout > 0) ps.setQueryTimeout(timeout);
+        if (config.getSlowQueryThresholdMillis() <= 0) return ps;
+
+        Map<Integer, Object> params = new TreeMap<>();
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                        params.put(index, name.equals("setNull") ? null : args[1]);
+                    } else if (name.equals("clearParameters")) {
+                        params.clear();
+                    }
+                    if (!EXECUTE_METHODS.contains(name) || (args != null && args.length > 0)) {
+                        return invoke(ps, method, args);
+                    }
+                    long started = System.nanoTime();
+                    try {
+                        return invoke(ps, method, args);
+                    } finally {
+                        record(sql, params, System.nanoTime() - started);
+                    }
+                });
+    }
+
+    private static Object invoke(PreparedStatement ps, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(ps, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static boolean isRead(String sql) {
+        return sql.stripLeading().regionMatches(true, 0, "SELECT", 0, 6);
+    }
+
+    private void record(String sql, Map<Integer, Object> params, long nanos) {
+        String key = PLACEHOLDER_LIST.matcher(sql).replaceAll("?...");
+        Stats entry = stats.computeIfAbsent(key, k -> new Stats());
+        boolean slow = nanos >= db.config.getSlowQueryThresholdMillis() * 1_000_000L;
+        boolean explain = false;
+        synchronized (entry) {
+            entry.executions++;
+            if (!slow) return;
+            entry.slow++;
+            entry.slowNanos += nanos;
+            entry.maxNanos = Math.max(entry.maxNanos, nanos);
+            long now = System.currentTimeMillis();
+            if (now - entry.lastExplainAt >= EXPLAIN_INTERVAL_MILLIS) {
+                entry.lastExplainAt = now;
+                explain = true;
+            }
+        }
+        // Values are only kept for the EXPLAIN and never written out
+        List<Object> values = new ArrayList<>(params.values());
+        String shape = shape(params);
+        boolean withPlan = explain;
+        try {
+            recorder.execute(() -> writeEntry(sql, shape, nanos, withPlan ? explain(sql, values) : null));
+        } catch (RejectedExecutionException ignored) {
+            // Shutting down
+        }
+    }
+
+    // "?1 String(36), ?2 Long": enough to tell a UUID from a name lookup without the data
+    private static String shape(Map<Integer, Object> params) {
+        StringJoiner joiner = new StringJoiner(", ");
+        for (Map.Entry<Integer, Object> param : params.entrySet()) {
+            Object value = param.getValue();
+            String type;
+            if (value == null) {
+                type = "null";
+            } else if (value instanceof String text) {
+                type = "String(" + text.length() + ")";
+            } else if (value instanceof byte[] bytes) {
+                type = "bytes(" + bytes.length + ")";
+            } else {
+                type = value.getClass().getSimpleName();
+            }
+            joiner.add("?" + param.getKey() + " " + type);
+        }
+        return joiner.length() > 0 ? joiner.toString() : "none";
+    }
+
+    private String explain(String sql, List<Object> values) {
+        try (Connection conn = db.openBackgroundConnection();
+             PreparedStatement ps = conn.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < values.size(); i++) {
+                ps.setObject(i + 1, values.get(i));
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = ps.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                while (rs.next()) {
+                    plan.append("\n  plan:");
+                    for (int column = 1; column <= meta.getColumnCount(); column++) {
+                        Object value = rs.getObject(column);
+                        if (value != null) plan.append(' ').append(meta.getColumnLabel(column)).append('=').append(value);
+                    }
+                }
+            }
+            return plan.toString();
+        } catch (SQLException e) {
+            return "\n  plan: unavailable (" + e.getMessage() + ")";
+        }
+    }
+
+    private void writeEntry(String sql, String shape, long nanos, String plan) {
+        try {
+            rotateIfFull();
+            try (Writer writer = new FileWriter(logFile, StandardCharsets.UTF_8, true)) {
+                writer.write(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new java.util.Date()) + " " +
+                        nanos / 1_000_000 + " ms " + sql + " | params: " + shape + (plan != null ? plan : "") + "\n");
+            }
+        } catch (IOException e) {
+            ZyrenAuthPlugin.getInstance().getLogger().warning("Could not write " + LOG_FILE + ": " + e.getMessage());
+        }
+    }
+
+    // slow-queries.log -> .1 -> .2; the oldest is dropped
+    private void rotateIfFull() {
+        long max = Math.max(1, db.config.getSlowQueryLogMaxKilobytes()) * 1024L;
+        if (logFile.length() < max) return;
+        File parent = logFile.getParentFile();
+        new File(parent, LOG_FILE + "." + (LOG_FILES - 1)).delete();
+        for (int i = LOG_FILES - 2; i >= 0; i--) {
+            File from = i == 0 ? logFile : new File(parent, LOG_FILE + "." + i);
+            if (from.exists()) from.renameTo(new File(parent, LOG_FILE + "." + (i + 1)));
+        }
+    }
+
+    // Statements with slow executions, most total slow time first
+    public List<Offender> getTopOffenders(int limit) {
+        List<Offender> offenders = new ArrayList<>();
+        for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+            Stats s = entry.getValue();
+            synchronized (s) {
+                if (s.slow == 0) continue;
+                offenders.add(new Offender(entry.getKey(), s.executions, s.slow,
+                        s.slowNanos / 1_000_000.0 / s.slow, s.maxNanos / 1_000_000));
+            }
+        }
+        offenders.sort(Comparator.comparingDouble((Offender o) -> o.averageMillis() * o.slow()).reversed());
+        return offenders.size() > limit ? offenders.subList(0, limit) : offenders;
+    }
+
+    void shutdown() {
+        recorder.shutdown();
+    }
+}
@@ -0,0 +1,109 @@
+// src/main/java/com/pheonix/zyrenauth/manager/ReturnChunkPrefetcher.java
+package com.pheonix.zyrenauth.manager;
+
+import com.pheonix.zyrenauth.util.ZyrenAuthConfig;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.*;
+
+/**
+ * Loads the chunks around a player's return location asynchronously while they are typing
+ * their password, and pins them with plugin chunk tickets until login, quit or timeout, so
+ * the teleport back after login never waits for chunk loading or generation.
+ * <p>
+ * Main thread only: Paper completes getChunkAtAsync futures on the main thread as well.
+ * Tickets are per plugin, not per player, so they are reference-counted per chunk.
+ */
+public class ReturnChunkPrefetcher {
+
+    private record ChunkRef(World world, int x, int z) {}
+
+    private static final class Prefetch {
+        final List<ChunkRef> ticketed = new ArrayList<>();
+        final long expiresAt;
+
+        Prefetch(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final long SWEEP_TICKS = 100;
+
+    private final Plugin plugin;
+    private volatile ZyrenAuthConfig config;
+    private final Map<UUID, Prefetch> prefetches = new HashMap<>();
+    private final Map<ChunkRef, Integer> ticketCounts = new HashMap<>();
+    private final BukkitTask sweeper;
+
+    public ReturnChunkPrefetcher(Plugin plugin, ZyrenAuthConfig config) {
+        this.plugin = plugin;
+        this.config = config;
+        // One shared timer drops tickets of players that have been waiting too long
+        this.sweeper = Bukkit.getScheduler().runTaskTimer(plugin, this::releaseExpired, SWEEP_TICKS, SWEEP_TICKS);
+    }
+
+    public void applyReload(ZyrenAuthConfig config) {
+        this.config = config;
+    }
+
+    public void prefetch(UUID uuid, Location destination) {
+        release(uuid);
+        ZyrenAuthConfig cfg = config;
+        int radius = cfg.getReturnChunkPrefetchRadius();
+        World world = destination.getWorld();
+        if (radius < 0 || world == null) return;
+
+        Prefetch prefetch = new Prefetch(System.currentTimeMillis() + cfg.getReturnChunkTicketSeconds() * 1000L);
+        prefetches.put(uuid, prefetch);
+        int centerX = destination.getBlockX() >> 4;
+        int centerZ = destination.getBlockZ() >> 4;
+        for (int x = centerX - radius; x <= centerX + radius; x++) {
+            for (int z = centerZ - radius; z <= centerZ + radius; z++) {
+                ChunkRef ref = new ChunkRef(world, x, z);
+                world.getChunkAtAsync(x, z).thenAccept(chunk -> {
+                    // The player may have logged in, left or rejoined in the meantime
+                    if (prefetches.get(uuid) != prefetch) return;
+                    if (ticketCounts.merge(ref, 1, Integer::sum) == 1) {
+                        world.addPluginChunkTicket(ref.x(), ref.z(), plugin);
+                    }
+                    prefetch.ticketed.add(ref);
+                });
+            }
+        }
+    }
+
+    public void release(UUID uuid) {
+        Prefetch prefetch = prefetches.remove(uuid);
+        if (prefetch == null) return;
+        for (ChunkRef ref : prefetch.ticketed) {
+            Integer left = ticketCounts.merge(ref, -1, Integer::sum);
+            if (left != null && left <= 0) {
+                ticketCounts.remove(ref);
+                ref.world().removePluginChunkTicket(ref.x(), ref.z(), plugin);
+            }
+        }
+    }
+
+    public void shutdown() {
+        sweeper.cancel();
+        for (UUID uuid : new ArrayList<>(prefetches.keySet())) {
+            release(uuid);
+        }
+    }
+
+    private void releaseExpired() {
+        if (prefetches.isEmpty()) return;
+        long now = System.currentTimeMillis();
+        List<UUID> expired = new ArrayList<>();
+        for (Map.Entry<UUID, Prefetch> entry : prefetches.entrySet()) {
+            if (entry.getValue().expiresAt <= now) expired.add(entry.getKey());
+        }
+        for (UUID uuid : expired) {
+            release(uuid);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+// src/main/java/com/pheonix/zyrenauth/manager/SecurityLogArchiver.java
+package com.pheonix.zyrenauth.manager;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.pheonix.zyrenauth.ZyrenAuthPlugin;
+import com.pheonix.zyrenauth.util.ZyrenAuthConfig;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Background job that enforces security_logs retention. Expired rows are first streamed
+ * into a gzip-compressed NDJSON file under plugins/ZyrenAuth/archive and only then
+ * deleted in small chunks, so the table never needs a long-running lock.
+ */
+public class SecurityLogArchiver implements Runnable {
+
+    private static final int FETCH_SIZE = 500;
+    private static final long PAUSE_BETWEEN_CHUNKS_MS = 50;
+
+    private final DatabaseManager databaseManager;
+    private final ZyrenAuthConfig config;
+    private final File archiveFolder;
+    private final Gson gson = new Gson();
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public SecurityLogArchiver(DatabaseManager databaseManager, ZyrenAuthConfig config, File dataFolder) {
+        this.databaseManager = databaseManager;
+        this.config = config;
+        this.archiveFolder = new File(dataFolder, "archive");
+    }
+
+    @Override
+    public void run() {
+        // The timer can fire again while a large first run is still going
+        if (!running.compareAndSet(false, true)) return;
+        try {
+            archiveAndPurge();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void archiveAndPurge() {
+        Logger log = ZyrenAuthPlugin.getInstance().getLogger();
+        Timestamp cutoff = new Timestamp(System.currentTimeMillis() - config.getSecurityLogRetentionDays() * 86_400_000L);
+
+        try (Connection conn = databaseManager.openBackgroundConnection()) {
+            // Fix the upper bound first so rows inserted while we work are never touched
+            long maxId;
+            try (PreparedStatement ps = conn.prepareStatement("SELECT MAX(id) FROM security_logs WHERE timestamp < ?")) {
+                ps.setTimestamp(1, cutoff);
+                try (ResultSet rs = ps.executeQuery()) {
+                    maxId = rs.next() ? rs.getLong(1) : 0;
+                }
+            }
+            if (maxId <= 0) return;
+
+            long archived = 0;
+            File archiveFile = null;
+            if (config.isSecurityLogArchiveEnabled()) {
+                archiveFile = new File(archiveFolder, "security_logs-" +
+                        new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".ndjson.gz");
+                archived = exportRows(conn, maxId, cutoff, archiveFile);
+            }
+
+            long deleted = purgeRows(conn, maxId, cutoff);
+
+            if (archiveFile != null) {
+                log.info("Security log retention: archived " + archived + " rows to " + archiveFile.getName() +
+                        " and removed " + deleted + " rows older than " + config.getSecurityLogRetentionDays() + " days.");
+            } else {
+                log.info("Security log retention: removed " + deleted + " rows older than " +
+                        config.getSecurityLogRetentionDays() + " days.");
+            }
+        } catch (SQLException | IOException e) {
+            // Nothing is deleted unless the archive was written completely
+            log.severe("Security log retention run failed: " + e.getMessage());
+        }
+    }
+
+    private long exportRows(Connection conn, long maxId, Timestamp cutoff, File archiveFile) throws SQLException, IOException {
+        if (!archiveFolder.exists()) {
+            archiveFolder.mkdirs();
+        }
+        File partFile = new File(archiveFolder, archiveFile.getName() + ".part");
+
+        String sql = "SELECT id, timestamp, player_uuid, ip_address, event_type, details FROM security_logs " +
+                "WHERE id <= ? AND timestamp < ? ORDER BY id";
+        long rows = 0;
+        try (PreparedStatement ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+             Writer writer = new BufferedWriter(new OutputStreamWriter(
+                     new GZIPOutputStream(new FileOutputStream(partFile)), StandardCharsets.UTF_8))) {
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setLong(1, maxId);
+            ps.setTimestamp(2, cutoff);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    JsonObject row = new JsonObject();
+                    row.addProperty("id", rs.getLong("id"));
+                    Timestamp ts = rs.getTimestamp("timestamp");
+                    row.addProperty("timestamp", ts != null ? ts.toInstant().toString() : null);
+                    UUID playerUuid = databaseManager.readUuid(rs, "player_uuid");
+                    row.addProperty("player_uuid", playerUuid != null ? playerUuid.toString() : null);
+                    row.addProperty("ip_address", databaseManager.readIp(rs, "ip_address"));
+                    row.addProperty("event_type", rs.getString("event_type"));
+                    row.addProperty("details", rs.getString("details"));
+                    writer.write(gson.toJson(row));
+                    writer.write('\n');
+                    rows++;
+                }
+            }
+        }
+
+        if (!partFile.renameTo(archiveFile)) {
+            throw new IOException("Could not move " + partFile.getName() + " to " + archiveFile.getName());
+        }
+        return rows;
+    }
+
+    private long purgeRows(Connection conn, long maxId, Timestamp cutoff) throws SQLException {
+        int batchSize = databaseManager.backgroundBatchSize(Math.max(100, config.getSecurityLogPurgeBatchSize()));
+        // SQLite has no ORDER BY/LIMIT on DELETE, so pick the chunk by primary key instead
+        String sql = databaseManager.isEmbedded()
+                ? "DELETE FROM security_logs WHERE id IN (SELECT id FROM security_logs WHERE id <= ? AND timestamp < ? ORDER BY id LIMIT ?)"
+                : "DELETE FROM security_logs WHERE id <= ? AND timestamp < ? ORDER BY id LIMIT ?";
+        long total = 0;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, maxId);
+            ps.setTimestamp(2, cutoff);
+            ps.setInt(3, batchSize);
+            int deleted;
+            do {
+                deleted = ps.executeUpdate();
+                total += deleted;
+                try {
+                    Thread.sleep(PAUSE_BETWEEN_CHUNKS_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            } while (deleted >= batchSize);
+        }
+        return total;
+    }
+}
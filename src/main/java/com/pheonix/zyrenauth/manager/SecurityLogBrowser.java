@@ -0,0 +1,106 @@
+// src/main/java/com/pheonix/zyrenauth/manager/SecurityLogBrowser.java
+package com.pheonix.zyrenauth.manager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Pages through security_logs for /za logs with keyset pagination: every page continues
+ * from the last id of the page before it instead of using OFFSET, so stepping to the next
+ * page costs the same on page 1000 as on page 1. The last id of every page an admin has seen
+ * is remembered per admin, so paging forwards and back never rescans. Jumping ahead past the
+ * last page seen walks the index entries in between (an OFFSET over ids only, not rows), so
+ * a jump costs in proportion to its distance. Blocking; call off the main thread.
+ */
+public class SecurityLogBrowser {
+
+    public static final int PAGE_SIZE = 10;
+
+    private static final Pattern IPV4 = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+    private static final Pattern IPV6 = Pattern.compile("[0-9a-fA-F.]*:[0-9a-fA-F:.]*");
+    private static final Pattern PLAYER_NAME = Pattern.compile("[A-Za-z0-9_]{3,16}");
+
+    // The resolved filter of a search. value is a UUID string for PLAYER.
+    public record Query(SecurityLogFilter filter, String value) {}
+
+    public record Page(Query query, int number, List<SecurityLogEntry> entries, boolean hasNext) {}
+
+    private static final class Cursor {
+        final String search;
+        final Query query;
+        // Page number -> id of its last (oldest) entry
+        final TreeMap<Integer, Long> pageEnds = new TreeMap<>();
+
+        Cursor(String search, Query query) {
+            this.search = search;
+            this.query = query;
+        }
+    }
+
+    // One active search per admin; a new search replaces it
+    private final Map<String, Cursor> cursors = new ConcurrentHashMap<>();
+
+    // Null if the database is not available or a query failed
+    public Page getPage(DatabaseManager db, String viewer, String search, int page) {
+        Cursor cursor = cursors.get(viewer);
+        if (cursor == null || !cursor.search.equalsIgnoreCase(search)) {
+            Query query = resolve(db, search);
+            if (query == null) return null;
+            cursor = new Cursor(search, query);
+            cursors.put(viewer, cursor);
+        }
+        synchronized (cursor) {
+            return readPage(db, cursor, page);
+        }
+    }
+
+    public void forget(String viewer) {
+        cursors.remove(viewer);
+    }
+
+    private static Page readPage(DatabaseManager db, Cursor cursor, int page) {
+        Query query = cursor.query;
+        long before = Long.MAX_VALUE;
+        if (page > 1) {
+            // Continue from the nearest page already seen; jump the rest through the index
+            Map.Entry<Integer, Long> known = cursor.pageEnds.floorEntry(page - 1);
+            int knownPage = known != null ? known.getKey() : 0;
+            before = known != null ? known.getValue() : Long.MAX_VALUE;
+            if (knownPage < page - 1) {
+                Long boundary = db.findSecurityLogBoundary(query.filter(), query.value(), before,
+                        (page - 1 - knownPage) * PAGE_SIZE - 1);
+                if (boundary == null) return null;
+                if (boundary < 0) return new Page(query, page, List.of(), false);
+                before = boundary;
+                cursor.pageEnds.put(page - 1, boundary);
+            }
+        }
+
+        // One extra row tells whether there is a next page
+        List<SecurityLogEntry> rows = db.getSecurityLogs(query.filter(), query.value(), before, PAGE_SIZE + 1);
+        if (rows == null) return null;
+        boolean hasNext = rows.size() > PAGE_SIZE;
+        List<SecurityLogEntry> entries = hasNext ? rows.subList(0, PAGE_SIZE) : rows;
+        if (!entries.isEmpty()) {
+            cursor.pageEnds.put(page, entries.get(entries.size() - 1).id());
+        }
+        return new Page(query, page, entries, hasNext);
+    }
+
+    // An IP literal searches by address, a registered player name by player, anything else by event type
+    private static Query resolve(DatabaseManager db, String search) {
+        if (IPV6.matcher(search).matches() || IPV4.matcher(search).matches()) {
+            return new Query(SecurityLogFilter.IP, search);
+        }
+        if (PLAYER_NAME.matcher(search).matches()) {
+            if (!db.isConnected()) return null;
+            UUID uuid = db.findPlayerUuid(search);
+            if (uuid != null) return new Query(SecurityLogFilter.PLAYER, uuid.toString());
+        }
+        return new Query(SecurityLogFilter.TYPE, search);
+    }
+}
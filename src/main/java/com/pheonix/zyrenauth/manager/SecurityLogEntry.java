@@ -0,0 +1,10 @@
+// src/main/java/com/pheonix/zyrenauth/manager/SecurityLogEntry.java
+package com.pheonix.zyrenauth.manager;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+// One row of security_logs as shown by /za logs. username is null if the player has no account.
+public record SecurityLogEntry(long id, Timestamp timestamp, UUID playerUuid, String username,
+                               String ipAddress, String eventType, String details) {
+}
@@ -0,0 +1,19 @@
+// src/main/java/com/pheonix/zyrenauth/manager/SecurityLogFilter.java
+package com.pheonix.zyrenauth.manager;
+
+// Columns /za logs can search by. Each has a (column, id) index for keyset pagination.
+public enum SecurityLogFilter {
+    PLAYER("player_uuid"),
+    IP("ip_address"),
+    TYPE("event_type");
+
+    private final String column;
+
+    SecurityLogFilter(String column) {
+        this.column = column;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+}
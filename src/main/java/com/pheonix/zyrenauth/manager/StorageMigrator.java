@@ -0,0 +1,600 @@
+// src/main/java/com/pheonix/zyrenauth/manager/StorageMigrator.java
+package com.pheonix.zyrenauth.manager;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.pheonix.zyrenauth.ZyrenAuthPlugin;
+import com.pheonix.zyrenauth.util.PasswordHashes;
+import com.pheonix.zyrenauth.util.ZyrenAuthConfig;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * Copies accounts between storage backends (accounts.json, the players table, or an
+ * AuthMe table in the same database) for /za migrate. One reader streams accounts into a
+ * bounded queue in batches; several writers drain it with multi-row inserts on their own
+ * connections. Progress is checkpointed after every contiguous run of written batches, so an
+ * interrupted migration into MySQL resumes where it stopped instead of starting over.
+ */
+public class StorageMigrator {
+
+    public enum Backend {
+        FILE, MYSQL, AUTHME;
+
+        public static Backend parse(String name) {
+            for (Backend backend : values()) {
+                if (backend.name().equalsIgnoreCase(name)) return backend;
+            }
+            return null;
+        }
+    }
+
+    private static final long PROGRESS_INTERVAL_MS = 5000;
+    // AuthMe fills the email column with this placeholder for players without one
+    private static final String AUTHME_EMAIL_PLACEHOLDER = "your@email.com";
+
+    private final ZyrenAuthPlugin plugin;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public StorageMigrator(ZyrenAuthPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Validates the request and starts the migration on a background thread.
+     * Returns an error message for the sender, or null if the migration was started.
+     */
+    public String start(CommandSender sender, Backend from, Backend to) {
+        if (from == to) return "Source and target must be different.";
+        if (to == Backend.AUTHME) return "AuthMe can only be used as a source.";
+        if (to == Backend.FILE && plugin.getDatabaseManager() == null) {
+            // The running AuthManager owns accounts.json and would overwrite our output
+            return "accounts.json is the active storage. Enable MySQL before migrating into it.";
+        }
+        if (!running.compareAndSet(false, true)) return "A migration is already running.";
+
+        Thread thread = new Thread(() -> {
+            try {
+                migrate(sender, from, to);
+            } finally {
+                running.set(false);
+            }
+        }, "ZyrenAuth-migrate");
+        thread.setDaemon(true);
+        thread.start();
+        return null;
+    }
+
+    // ------------------------------------------------------------------------
+    // Pipeline
+    // ------------------------------------------------------------------------
+
+    private void migrate(CommandSender sender, Backend from, Backend to) {
+        Logger log = plugin.getLogger();
+        ZyrenAuthConfig config = plugin.getZyrenConfig();
+        int batchSize = Math.max(50, config.getMigrationBatchSize());
+        // accounts.json is written by one streaming writer
+        int writers = to == Backend.FILE ? 1 : Math.max(1, config.getMigrationWriterThreads());
+
+        // In file mode there is no live connection; open one just for the migration
+        DatabaseManager db = plugin.getDatabaseManager();
+        boolean ownDatabase = false;
+        if (db == null) {
+            db = new DatabaseManager(config);
+            ownDatabase = true;
+            if (!db.isConnected()) {
+                notify(sender, ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "Migration aborted: could not connect to MySQL with the configured settings.");
+                return;
+            }
+        }
+        batchSize = db.backgroundBatchSize(batchSize);
+        if (to != Backend.FILE) writers = db.backgroundWriters(writers);
+
+        Checkpoint checkpoint = new Checkpoint(new File(plugin.getDataFolder(),
+                "migration-" + from.name().toLowerCase(Locale.ROOT) + "-" + to.name().toLowerCase(Locale.ROOT) + ".checkpoint"));
+        // Only MySQL targets are resumable; accounts.json is rewritten from scratch
+        String resumeFrom = to == Backend.MYSQL ? checkpoint.load() : null;
+        if (resumeFrom != null) {
+            notify(sender, ChatColor.YELLOW + "§l⚠ " + ChatColor.GOLD + "Resuming previous " + from + " → " + to + " migration from checkpoint.");
+        }
+
+        long read = 0;
+        long foreignHashes = 0;
+        long unknownHashes = 0;
+        long started = System.currentTimeMillis();
+
+        DatabaseManager sinkDb = db;
+        BatchWriterPool writerPool = new BatchWriterPool("ZyrenAuth-migrate-writer", writers,
+                () -> openSink(to, sinkDb),
+                (seq, position) -> {
+                    if (to == Backend.MYSQL) checkpoint.complete(seq, position);
+                });
+
+        try (AccountSource source = openSource(from, db, resumeFrom)) {
+            notify(sender, ChatColor.GREEN + "§l✔ " + ChatColor.GRAY + "Migrating accounts from " + from + " to " + to +
+                    " (" + writers + " writer" + (writers == 1 ? "" : "s") + ", batches of " + batchSize + ")...");
+            long lastReport = started;
+            List<AccountRecord> accounts = new ArrayList<>(batchSize);
+            AccountRecord account;
+            while (writerPool.failure() == null && (account = source.next()) != null) {
+                PasswordHashes.Format format = PasswordHashes.detect(account.passwordHash());
+                if (format == PasswordHashes.Format.UNKNOWN) unknownHashes++;
+                else if (format != PasswordHashes.Format.BCRYPT) foreignHashes++;
+
+                accounts.add(account);
+                read++;
+                if (accounts.size() >= batchSize) {
+                    // Blocks while the writers are behind, which keeps memory bounded
+                    writerPool.submit(accounts, source.position());
+                    accounts = new ArrayList<>(batchSize);
+                }
+                long now = System.currentTimeMillis();
+                if (now - lastReport >= PROGRESS_INTERVAL_MS) {
+                    lastReport = now;
+                    notify(sender, ChatColor.GRAY + "Migration progress: " + ChatColor.WHITE + read + ChatColor.GRAY +
+                            " read, " + ChatColor.WHITE + writerPool.written() + ChatColor.GRAY + " written.");
+                }
+            }
+            if (!accounts.isEmpty() && writerPool.failure() == null) {
+                writerPool.submit(accounts, source.position());
+            }
+        } catch (Exception e) {
+            writerPool.fail(e);
+        } finally {
+            writerPool.finish();
+            if (ownDatabase) {
+                db.closeConnection();
+            }
+        }
+
+        long written = writerPool.written();
+        long seconds = Math.max(1, (System.currentTimeMillis() - started) / 1000);
+        Exception error = writerPool.failure();
+        if (error != null) {
+            log.severe("Migration " + from + " -> " + to + " failed after " + written + " accounts: " + error.getMessage());
+            notify(sender, ChatColor.RED + "§l✖ " + ChatColor.DARK_RED + "Migration failed: " + error.getMessage() +
+                    (to == Backend.MYSQL ? ". Run the same command again to resume." : ""));
+            return;
+        }
+
+        checkpoint.delete();
+        log.info("Migration " + from + " -> " + to + " finished: " + read + " read, " + written +
+                " written in " + seconds + "s (" + (read / seconds) + " accounts/s).");
+        notify(sender, ChatColor.GREEN + "§l✔ " + ChatColor.GRAY + "Migration finished: " + ChatColor.WHITE + read +
+                ChatColor.GRAY + " accounts read, " + ChatColor.WHITE + written + ChatColor.GRAY + " written in " + seconds + "s.");
+        if (read > written && to == Backend.MYSQL) {
+            notify(sender, ChatColor.GRAY + "Accounts that already existed in the target were left unchanged.");
+        }
+        if (foreignHashes > 0) {
+            notify(sender, ChatColor.GRAY + "" + foreignHashes + " imported passwords use a foreign hash format and will be upgraded to BCrypt on their next login.");
+        }
+        if (unknownHashes > 0) {
+            notify(sender, ChatColor.YELLOW + "§l⚠ " + ChatColor.GOLD + unknownHashes +
+                    " accounts have an unrecognized password hash; those players must use /resetpassword.");
+        }
+    }
+
+    private AccountSource openSource(Backend backend, DatabaseManager db, String resumeFrom) throws Exception {
+        switch (backend) {
+            case FILE:
+                List<AccountRecord> accounts = plugin.getDatabaseManager() == null
+                        ? plugin.getAuthManager().snapshotFileAccounts()
+                        : FileAccountSource.read(new File(plugin.getDataFolder(), "accounts.json"));
+                return new FileAccountSource(accounts, resumeFrom);
+            case MYSQL:
+                return new MySqlAccountSource(db, plugin.getZyrenConfig().getMigrationBatchSize(), resumeFrom);
+            case AUTHME:
+                return new AuthMeAccountSource(db, plugin.getZyrenConfig().getAuthMeTable(),
+                        plugin.getZyrenConfig().getMigrationBatchSize(), resumeFrom);
+            default:
+                throw new IllegalArgumentException("Unsupported source " + backend);
+        }
+    }
+
+    private AccountSink openSink(Backend backend, DatabaseManager db) throws Exception {
+        switch (backend) {
+            case FILE:
+                return new FileAccountSink(new File(plugin.getDataFolder(), "accounts.json"));
+            case MYSQL:
+                return new MySqlAccountSink(db);
+            default:
+                throw new IllegalArgumentException("Unsupported target " + backend);
+        }
+    }
+
+    // CommandSender is not thread-safe; deliver progress on the main thread
+    private void notify(CommandSender sender, String message) {
+        Bukkit.getScheduler().runTask(plugin, () -> sender.sendMessage(message));
+    }
+
+    // ------------------------------------------------------------------------
+    // Checkpoints
+    // ------------------------------------------------------------------------
+
+    // Batches finish out of order with several writers. The stored position only moves past
+    // a batch once every earlier batch has been written too, so resuming never skips rows.
+    private static final class Checkpoint {
+        private final File file;
+        private final TreeMap<Long, String> finished = new TreeMap<>();
+        private long nextSeq = 0;
+
+        Checkpoint(File file) {
+            this.file = file;
+        }
+
+        String load() {
+            if (!file.exists()) return null;
+            try {
+                String position = Files.readString(file.toPath(), StandardCharsets.UTF_8).trim();
+                return position.isEmpty() ? null : position;
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        synchronized void complete(long seq, String position) throws IOException {
+            finished.put(seq, position);
+            String last = null;
+            while (finished.containsKey(nextSeq)) {
+                last = finished.remove(nextSeq++);
+            }
+            if (last == null) return;
+            File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+            Files.writeString(tmp.toPath(), last, StandardCharsets.UTF_8);
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        void delete() {
+            file.delete();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Sources
+    // ------------------------------------------------------------------------
+
+    // Serves accounts.json in UUID order, as the players table pages, so the position is the
+    // last UUID handed out and stays valid if the file is rewritten between runs. Uses the
+    // live accounts while the file is the active storage, since those may be ahead of it.
+    static final class FileAccountSource implements AccountSource {
+        private final Iterator<AccountRecord> accounts;
+        private UUID lastReturned;
+
+        FileAccountSource(List<AccountRecord> accounts, String resumeFrom) {
+            String after = null;
+            if (resumeFrom != null) {
+                try {
+                    lastReturned = UUID.fromString(resumeFrom);
+                    after = lastReturned.toString();
+                } catch (IllegalArgumentException e) {
+                    // An entry count from an older version; start over, existing rows are skipped
+                }
+            }
+            List<AccountRecord> remaining = new ArrayList<>(accounts.size());
+            for (AccountRecord account : accounts) {
+                if (after == null || account.uuid().toString().compareTo(after) > 0) remaining.add(account);
+            }
+            remaining.sort(Comparator.comparing(account -> account.uuid().toString()));
+            this.accounts = remaining.iterator();
+        }
+
+        static List<AccountRecord> read(File file) throws IOException {
+            if (!file.exists()) throw new FileNotFoundException(file.getName() + " does not exist");
+            List<AccountRecord> accounts = new ArrayList<>();
+            try (JsonReader reader = new JsonReader(new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)))) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    UUID uuid = UUID.fromString(reader.nextName());
+                    String username = null, passwordHash = null, email = null, lastLoginIp = null;
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String field = reader.nextName();
+                        if (reader.peek() == JsonToken.NULL) {
+                            reader.nextNull();
+                            continue;
+                        }
+                        switch (field) {
+                            case "username": username = reader.nextString(); break;
+                            case "passwordHash": passwordHash = reader.nextString(); break;
+                            case "email": email = reader.nextString(); break;
+                            case "lastLoginIp": lastLoginIp = reader.nextString(); break;
+                            default: reader.skipValue(); break;
+                        }
+                    }
+                    reader.endObject();
+                    accounts.add(new AccountRecord(uuid, username, passwordHash, email, lastLoginIp, 0));
+                }
+                reader.endObject();
+            }
+            return accounts;
+        }
+
+        @Override
+        public AccountRecord next() {
+            if (!accounts.hasNext()) return null;
+            AccountRecord account = accounts.next();
+            lastReturned = account.uuid();
+            return account;
+        }
+
+        @Override
+        public String position() {
+            return lastReturned != null ? lastReturned.toString() : null;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    // Pages through the players table by primary key on a dedicated connection
+    static final class MySqlAccountSource implements AccountSource {
+        private final DatabaseManager db;
+        private final Connection conn;
+        private final int pageSize;
+        private final ArrayDeque<AccountRecord> page = new ArrayDeque<>();
+        private UUID lastUuid;
+        private UUID lastReturned;
+        private boolean exhausted;
+
+        MySqlAccountSource(DatabaseManager db, int pageSize, String resumeFrom) throws SQLException {
+            this.db = db;
+            this.conn = db.openBackgroundConnection();
+            this.pageSize = Math.max(50, pageSize);
+            this.lastUuid = resumeFrom != null ? UUID.fromString(resumeFrom) : null;
+            this.lastReturned = lastUuid;
+        }
+
+        @Override
+        public AccountRecord next() throws SQLException {
+            if (page.isEmpty() && !exhausted) fetchPage();
+            AccountRecord account = page.poll();
+            if (account != null) lastReturned = account.uuid();
+            return account;
+        }
+
+        private void fetchPage() throws SQLException {
+            String sql = "SELECT uuid, username, password_hash, email, last_login_ip, email_confirmations FROM players " +
+                    (lastUuid != null ? "WHERE uuid > ? " : "") + "ORDER BY uuid LIMIT ?";
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                int index = 1;
+                if (lastUuid != null) db.bindUuid(ps, index++, lastUuid);
+                ps.setInt(index, pageSize);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        UUID uuid = db.readUuid(rs, "uuid");
+                        page.add(new AccountRecord(uuid, rs.getString("username"), rs.getString("password_hash"),
+                                rs.getString("email"), db.readIp(rs, "last_login_ip"), rs.getInt("email_confirmations")));
+                        lastUuid = uuid;
+                    }
+                }
+            }
+            exhausted = page.size() < pageSize;
+        }
+
+        @Override
+        public String position() {
+            return lastReturned != null ? lastReturned.toString() : null;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            conn.close();
+        }
+    }
+
+    // Reads AuthMe's table from the same database. AuthMe keys accounts by name, so the UUID is
+    // derived the way an offline-mode server does; online-mode UUIDs cannot be recovered here.
+    static final class AuthMeAccountSource implements AccountSource {
+        private final Connection conn;
+        private final String table;
+        private final int pageSize;
+        private final ArrayDeque<AccountRecord> page = new ArrayDeque<>();
+        private final ArrayDeque<Long> pageIds = new ArrayDeque<>();
+        private String ipColumn;
+        private long lastId;
+        private long lastReturnedId;
+        private boolean exhausted;
+
+        AuthMeAccountSource(DatabaseManager db, String table, int pageSize, String resumeFrom) throws SQLException {
+            if (!table.matches("[A-Za-z0-9_]+")) throw new SQLException("Invalid AuthMe table name: " + table);
+            this.conn = db.openBackgroundConnection();
+            this.table = table;
+            this.pageSize = Math.max(50, pageSize);
+            this.lastId = resumeFrom != null ? Long.parseLong(resumeFrom) : 0;
+            this.lastReturnedId = lastId;
+        }
+
+        @Override
+        public AccountRecord next() throws SQLException {
+            if (page.isEmpty() && !exhausted) fetchPage();
+            AccountRecord account = page.poll();
+            if (account != null) lastReturnedId = pageIds.poll();
+            return account;
+        }
+
+        private void fetchPage() throws SQLException {
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT * FROM `" + table + "` WHERE id > ? ORDER BY id LIMIT ?")) {
+                ps.setLong(1, lastId);
+                ps.setInt(2, pageSize);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (ipColumn == null) ipColumn = findIpColumn(rs.getMetaData());
+                    int rows = 0;
+                    while (rs.next()) {
+                        rows++;
+                        lastId = rs.getLong("id");
+                        String realName = rs.getString("realname");
+                        String name = realName != null && !realName.isEmpty() ? realName : rs.getString("username");
+                        String email = rs.getString("email");
+                        if (email != null && (email.isEmpty() || email.equalsIgnoreCase(AUTHME_EMAIL_PLACEHOLDER))) email = null;
+                        UUID uuid = UUID.nameUUIDFromBytes(("OfflinePlayer:" + name).getBytes(StandardCharsets.UTF_8));
+                        page.add(new AccountRecord(uuid, name, rs.getString("password"), email,
+                                ipColumn.isEmpty() ? null : rs.getString(ipColumn), 0));
+                        pageIds.add(lastId);
+                    }
+                    exhausted = rows < pageSize;
+                }
+            }
+        }
+
+        // The column was renamed between AuthMe versions
+        private static String findIpColumn(ResultSetMetaData meta) throws SQLException {
+            for (int i = 1; i <= meta.getColumnCount(); i++) {
+                String column = meta.getColumnLabel(i);
+                if (column.equalsIgnoreCase("ip") || column.equalsIgnoreCase("last_ip")) return column;
+            }
+            return "";
+        }
+
+        @Override
+        public String position() {
+            return Long.toString(lastReturnedId);
+        }
+
+        @Override
+        public void close() throws SQLException {
+            conn.close();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Sinks
+    // ------------------------------------------------------------------------
+
+    // Multi-row INSERTs on a dedicated connection, one transaction per batch. Existing
+    // accounts are left untouched, which also makes replaying a batch after a resume harmless.
+    static final class MySqlAccountSink implements AccountSink {
+        private final DatabaseManager db;
+        private final Connection conn;
+        private PreparedStatement fullBatch;
+        private int fullBatchSize;
+
+        MySqlAccountSink(DatabaseManager db) throws SQLException {
+            this.db = db;
+            this.conn = db.openBackgroundConnection();
+            this.conn.setAutoCommit(false);
+        }
+
+        private String insertSql(int rows) {
+            StringBuilder sql = new StringBuilder(db.isEmbedded() ? "INSERT OR IGNORE" : "INSERT")
+                    .append(" INTO players (uuid, username, password_hash, email, last_login_ip, email_confirmations) VALUES ");
+            for (int i = 0; i < rows; i++) {
+                sql.append(i == 0 ? "(?, ?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?, ?)");
+            }
+            return db.isEmbedded() ? sql.toString() : sql.append(" ON DUPLICATE KEY UPDATE uuid = uuid").toString();
+        }
+
+        @Override
+        public int write(List<AccountRecord> batch) throws SQLException {
+            List<AccountRecord> valid = new ArrayList<>(batch.size());
+            for (AccountRecord account : batch) {
+                if (account.username() != null && account.passwordHash() != null) valid.add(account);
+            }
+            if (valid.isEmpty()) return 0;
+
+            // Every full batch has the same size, so its statement is prepared once and reused
+            PreparedStatement ps;
+            boolean reusable = fullBatch == null || fullBatchSize == valid.size();
+            if (reusable && fullBatch == null) {
+                fullBatch = conn.prepareStatement(insertSql(valid.size()));
+                fullBatchSize = valid.size();
+            }
+            ps = reusable ? fullBatch : conn.prepareStatement(insertSql(valid.size()));
+            try {
+                int index = 1;
+                for (AccountRecord account : valid) {
+                    db.bindUuid(ps, index++, account.uuid());
+                    ps.setString(index++, account.username());
+                    ps.setString(index++, account.passwordHash());
+                    ps.setString(index++, account.email());
+                    db.bindIp(ps, index++, account.lastLoginIp());
+                    ps.setInt(index++, account.emailConfirmations());
+                }
+                int inserted = ps.executeUpdate();
+                conn.commit();
+                return inserted;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                if (ps != fullBatch) ps.close();
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (fullBatch != null) fullBatch.close();
+            conn.close();
+        }
+    }
+
+    // Streams accounts into a fresh accounts.json. The old file is kept as accounts.json.bak
+    // and replaced only after every account has been written.
+    static final class FileAccountSink implements AccountSink {
+        private final File target;
+        private final File partFile;
+        private final JsonWriter writer;
+        private boolean finished;
+
+        FileAccountSink(File target) throws IOException {
+            this.target = target;
+            this.partFile = new File(target.getParentFile(), target.getName() + ".part");
+            this.writer = new JsonWriter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(partFile), StandardCharsets.UTF_8)));
+            writer.setIndent("  ");
+            writer.beginObject();
+        }
+
+        @Override
+        public int write(List<AccountRecord> batch) throws IOException {
+            int written = 0;
+            for (AccountRecord account : batch) {
+                if (account.username() == null || account.passwordHash() == null) continue;
+                writer.name(account.uuid().toString()).beginObject();
+                writer.name("username").value(account.username());
+                writer.name("passwordHash").value(account.passwordHash());
+                if (account.email() != null) writer.name("email").value(account.email());
+                if (account.lastLoginIp() != null) writer.name("lastLoginIp").value(account.lastLoginIp());
+                writer.name("loggedIn").value(false);
+                writer.endObject();
+                written++;
+            }
+            return written;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.endObject();
+            writer.close();
+            finished = true;
+            if (target.exists()) {
+                Files.copy(target.toPath(), new File(target.getParentFile(), target.getName() + ".bak").toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.move(partFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!finished) {
+                writer.close();
+                partFile.delete();
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+// src/main/java/com/pheonix/zyrenauth/manager/TrafficMonitor.java
+package com.pheonix.zyrenauth.manager;
+
+import com.pheonix.zyrenauth.ZyrenAuthPlugin;
+import com.pheonix.zyrenauth.util.SlidingDistinctCounter;
+import com.pheonix.zyrenauth.util.SlidingWindowCounter;
+import com.pheonix.zyrenauth.util.ZyrenAuthConfig;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Watches join and auth traffic in sliding one-second and one-minute windows and switches
+ * the server into strict mode while a bot wave is running: registrations are paused or
+ * rate-limited, and an IP that has never logged in must reconnect after
+ * strictNewIpDelaySeconds. Strict mode ends once no threshold has been crossed for
+ * antiBotCalmSeconds. Both transitions are logged to security_logs.
+ * <p>
+ * Counters are lock-free and fed from any thread; thresholds are evaluated once a second
+ * on the main thread.
+ */
+public class TrafficMonitor {
+
+    private static final long CHECK_TICKS = 20;
+    private static final long KNOWN_IP_TTL_MILLIS = 24 * 60 * 60 * 1000L;
+    private static final long PENDING_IP_TTL_MILLIS = 5 * 60 * 1000L;
+
+    private final ZyrenAuthPlugin plugin;
+    private volatile ZyrenAuthConfig config;
+
+    private final SlidingWindowCounter joins = new SlidingWindowCounter();
+    private final SlidingWindowCounter failedLogins = new SlidingWindowCounter();
+    private final SlidingWindowCounter registrations = new SlidingWindowCounter();
+    private final SlidingDistinctCounter ips = new SlidingDistinctCounter();
+    private final SlidingDistinctCounter subnets = new SlidingDistinctCounter();
+
+    // IPs that logged in or registered recently; never delayed in strict mode
+    private final Map<String, Long> knownIps = new ConcurrentHashMap<>();
+    // New IPs turned away in strict mode, with the time of their first attempt
+    private final Map<String, Long> pendingIps = new ConcurrentHashMap<>();
+
+    private volatile boolean strict;
+    private long strictSince;
+    private long calmSince;
+    private long lastPrune;
+    private final BukkitTask task;
+
+    public TrafficMonitor(ZyrenAuthPlugin plugin, ZyrenAuthConfig config) {
+        this.plugin = plugin;
+        this.config = config;
+        this.task = Bukkit.getScheduler().runTaskTimer(plugin, this::evaluate, CHECK_TICKS, CHECK_TICKS);
+    }
+
+    public void applyReload(ZyrenAuthConfig config) {
+        this.config = config;
+    }
+
+    public void shutdown() {
+        task.cancel();
+    }
+
+    // ------------------------------------------------------------------------
+    // Feeds
+    // ------------------------------------------------------------------------
+
+    // Every connection attempt that passed the ban list, counted at pre-login so attempts
+    // turned away by strict mode still keep it on
+    public void recordJoin(InetAddress address) {
+        long now = epochSecond();
+        byte[] bytes = address.getAddress();
+        joins.increment(now);
+        ips.add(Arrays.hashCode(bytes), now);
+        // /24 for IPv4, /48 for IPv6
+        subnets.add(Arrays.hashCode(Arrays.copyOf(bytes, bytes.length == 4 ? 3 : 6)), now);
+    }
+
+    public void recordFailedLogin() {
+        failedLogins.increment(epochSecond());
+    }
+
+    public void recordRegistration() {
+        registrations.increment(epochSecond());
+    }
+
+    public void recordAuthenticated(String ip) {
+        knownIps.put(ip, System.currentTimeMillis());
+        pendingIps.remove(ip);
+    }
+
+    // ------------------------------------------------------------------------
+    // Strict mode checks
+    // ------------------------------------------------------------------------
+
+    // Seconds the IP still has to wait before reconnecting, or 0 if it may join now
+    public int getNewIpDelay(InetAddress address) {
+        int delay = config.getStrictNewIpDelaySeconds();
+        if (!strict || delay <= 0) return 0;
+        String ip = address.getHostAddress();
+        if (knownIps.containsKey(ip)) return 0;
+        long now = System.currentTimeMillis();
+        Long firstAttempt = pendingIps.putIfAbsent(ip, now);
+        if (firstAttempt == null) return delay;
+        long remaining = firstAttempt + delay * 1000L - now;
+        return remaining <= 0 ? 0 : (int) ((remaining + 999) / 1000);
+    }
+
+    // Null if a registration may go ahead, otherwise the message key explaining why not
+    public String checkRegistration() {
+        if (!strict) return null;
+        int limit = config.getStrictRegistrationsPerMinute();
+        if (limit <= 0) return "register.paused";
+        return registrations.perMinute(epochSecond()) < limit ? null : "register.rate-limited";
+    }
+
+    public boolean isStrict() {
+        return strict;
+    }
+
+    public int getJoinsPerSecond() {
+        return joins.perSecond(epochSecond());
+    }
+
+    public int getJoinsPerMinute() {
+        return joins.perMinute(epochSecond());
+    }
+
+    public int getIpsPerMinute() {
+        return ips.perMinute(epochSecond());
+    }
+
+    // ------------------------------------------------------------------------
+    // Evaluation (main thread)
+    // ------------------------------------------------------------------------
+
+    private void evaluate() {
+        ZyrenAuthConfig cfg = config;
+        long nowMillis = System.currentTimeMillis();
+        long now = nowMillis / 1000;
+        if (nowMillis - lastPrune >= 60_000) {
+            lastPrune = nowMillis;
+            knownIps.values().removeIf(time -> nowMillis - time > KNOWN_IP_TTL_MILLIS);
+            pendingIps.values().removeIf(time -> nowMillis - time > PENDING_IP_TTL_MILLIS);
+        }
+        if (!cfg.isAntiBotEnabled()) {
+            if (strict) leaveStrictMode(nowMillis, "anti-bot protection was disabled");
+            return;
+        }
+
+        String reason = exceeded("joins/s", joins.perSecond(now), cfg.getAntiBotJoinsPerSecond());
+        if (reason == null) reason = exceeded("joins/min", joins.perMinute(now), cfg.getAntiBotJoinsPerMinute());
+        if (reason == null) reason = exceeded("subnets/min", subnets.perMinute(now), cfg.getAntiBotSubnetsPerMinute());
+        if (reason == null) reason = exceeded("failed logins/min", failedLogins.perMinute(now), cfg.getAntiBotFailedLoginsPerMinute());
+        if (reason == null) reason = exceeded("registrations/min", registrations.perMinute(now), cfg.getAntiBotRegistrationsPerMinute());
+
+        if (reason != null) {
+            calmSince = 0;
+            if (!strict) enterStrictMode(nowMillis, reason);
+        } else if (strict) {
+            if (calmSince == 0) {
+                calmSince = nowMillis;
+            } else if (nowMillis - calmSince >= cfg.getAntiBotCalmSeconds() * 1000L) {
+                leaveStrictMode(nowMillis, "traffic back to normal");
+            }
+        }
+    }
+
+    private static String exceeded(String name, int value, int threshold) {
+        return threshold > 0 && value >= threshold ? name + " " + value + " >= " + threshold : null;
+    }
+
+    private void enterStrictMode(long nowMillis, String reason) {
+        strict = true;
+        strictSince = nowMillis;
+        plugin.getLogger().warning("[ZyrenAuth] Strict mode enabled: " + reason + ".");
+        logEvent("Strict Mode Enabled", reason);
+    }
+
+    private void leaveStrictMode(long nowMillis, String reason) {
+        strict = false;
+        calmSince = 0;
+        pendingIps.clear();
+        String details = reason + " after " + (nowMillis - strictSince) / 1000 + "s";
+        plugin.getLogger().info("[ZyrenAuth] Strict mode disabled: " + details + ".");
+        logEvent("Strict Mode Disabled", details);
+    }
+
+    private void logEvent(String type, String details) {
+        DatabaseManager db = plugin.getDatabaseManager();
+        if (db == null) return;
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> db.logSecurityEvent(null, null, type, details));
+    }
+
+    private static long epochSecond() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
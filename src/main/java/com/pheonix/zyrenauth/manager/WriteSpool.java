@@ -0,0 +1,269 @@
+// src/main/java/com/pheonix/zyrenauth/manager/WriteSpool.java
+package com.pheonix.zyrenauth.manager;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.pheonix.zyrenauth.ZyrenAuthPlugin;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Append-only local file for storage writes MySQL could not take (outage, open circuit).
+ * Every entry gets the next sequence number and is forced to disk before the write counts
+ * as done. Once the database is back, entries are replayed in order, in batches, each batch
+ * in one transaction together with the last applied sequence number (write_spool_replay),
+ * so an entry is applied exactly once even if the server dies mid-replay or restarts with
+ * a half-replayed spool. The file is emptied once everything has been replayed.
+ * <p>
+ * The first line holds the spool id and the next sequence number. A new id is made when the
+ * file is created, so a deleted spool never has its entries mistaken for replayed ones.
+ */
+public class WriteSpool {
+
+    public static final String FILE = "write-spool.ndjson";
+
+    public enum Op { LOGOUT, LAST_LOGIN_IP, PASSWORD, PASSWORD_IF_UNCHANGED, SECURITY_EVENT }
+
+    // value is the IP for LAST_LOGIN_IP, the hash for PASSWORD and the event type for SECURITY_EVENT.
+    // PASSWORD_IF_UNCHANGED (a password reset) carries the new hash in value and the hash the
+    // reset was checked against in details; it only applies if the account still has that hash.
+    public record Entry(long seq, Op op, UUID player, String ip, String value, String details, long createdAt) {}
+
+    private final File file;
+    private final Gson gson = new Gson();
+    private final ArrayDeque<Entry> pending = new ArrayDeque<>();
+    private final AtomicBoolean replaying = new AtomicBoolean(false);
+    private final ExecutorService replayer = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "ZyrenAuth-write-spool");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private FileChannel channel;
+    private String spoolId;
+    private long nextSeq = 1;
+    private long sizeBytes;
+
+    public WriteSpool(File file) {
+        this.file = file;
+    }
+
+    // Reads entries left over from the last run. A torn last line (crash mid-append) is dropped.
+    public synchronized void load() throws IOException {
+        if (file.exists()) {
+            try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) continue;
+                    try {
+                        readLine(gson.fromJson(line, JsonObject.class));
+                    } catch (JsonParseException | IllegalArgumentException | NullPointerException e) {
+                        ZyrenAuthPlugin.getInstance().getLogger().warning("Skipping unreadable write spool line: " + e.getMessage());
+                    }
+                }
+            }
+        }
+        if (spoolId == null) {
+            rewrite(UUID.randomUUID().toString(), 1);
+        } else {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            // Cut a torn last line off, or the next append would be glued onto it and lost too
+            long complete = completeLength();
+            if (complete < channel.size()) channel.truncate(complete);
+            sizeBytes = channel.size();
+        }
+        if (!pending.isEmpty()) {
+            ZyrenAuthPlugin.getInstance().getLogger().info("Write spool holds " + pending.size() + " writes from an earlier database outage.");
+        }
+    }
+
+    // Length up to and including the last newline
+    private long completeLength() throws IOException {
+        byte[] content = Files.readAllBytes(file.toPath());
+        int end = content.length;
+        while (end > 0 && content[end - 1] != '\n') end--;
+        return end;
+    }
+
+    private void readLine(JsonObject json) {
+        if (json.has("spool")) {
+            spoolId = json.get("spool").getAsString();
+            nextSeq = Math.max(nextSeq, json.get("next").getAsLong());
+            return;
+        }
+        Entry entry = new Entry(json.get("seq").getAsLong(), Op.valueOf(json.get("op").getAsString()),
+                player(string(json, "player")), string(json, "ip"), string(json, "value"),
+                string(json, "details"), json.get("at").getAsLong());
+        pending.add(entry);
+        nextSeq = Math.max(nextSeq, entry.seq() + 1);
+    }
+
+    // Some security events (e.g. strict mode changes) belong to no player
+    private static UUID player(String raw) {
+        return raw != null ? UUID.fromString(raw) : null;
+    }
+
+    private static String string(JsonObject json, String key) {
+        return json.has(key) && !json.get(key).isJsonNull() ? json.get(key).getAsString() : null;
+    }
+
+    // False if the spool is full or the file could not be written; the write is lost then
+    public synchronized boolean append(Op op, UUID player, String ip, String value, String details, int maxEntries) {
+        if (channel == null || pending.size() >= maxEntries) return false;
+        Entry entry = new Entry(nextSeq, op, player, ip, value, details, System.currentTimeMillis());
+        JsonObject json = new JsonObject();
+        json.addProperty("seq", entry.seq());
+        json.addProperty("op", op.name());
+        json.addProperty("player", player != null ? player.toString() : null);
+        json.addProperty("ip", ip);
+        json.addProperty("value", value);
+        json.addProperty("details", details);
+        json.addProperty("at", entry.createdAt());
+        try {
+            ByteBuffer line = ByteBuffer.wrap((gson.toJson(json) + "\n").getBytes(StandardCharsets.UTF_8));
+            sizeBytes += line.remaining();
+            while (line.hasRemaining()) {
+                channel.write(line);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            ZyrenAuthPlugin.getInstance().getLogger().severe("Could not append to the write spool: " + e.getMessage());
+            return false;
+        }
+        nextSeq++;
+        pending.add(entry);
+        return true;
+    }
+
+    public synchronized boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    public synchronized long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    // How long the oldest write not yet replayed has been waiting, 0 if none
+    public synchronized long getLagMillis() {
+        Entry oldest = pending.peek();
+        return oldest != null ? System.currentTimeMillis() - oldest.createdAt() : 0;
+    }
+
+    synchronized String getSpoolId() {
+        return spoolId;
+    }
+
+    synchronized List<Entry> getPendingEntries() {
+        return new ArrayList<>(pending);
+    }
+
+    // Starts replaying into the database in the background unless a replay is already running
+    public void replay(DatabaseManager db) {
+        if (!hasPending() || !replaying.compareAndSet(false, true)) return;
+        try {
+            replayer.execute(() -> {
+                boolean drained = false;
+                try {
+                    drained = drain(db);
+                } finally {
+                    replaying.set(false);
+                }
+                // A write appended just as the last batch finished found the replay still running
+                if (drained && hasPending()) replay(db);
+            });
+        } catch (RuntimeException e) {
+            // Rejected after close()
+            replaying.set(false);
+        }
+    }
+
+    // True if the spool was emptied, false if the database failed on the way
+    private boolean drain(DatabaseManager db) {
+        long replayed = 0;
+        while (true) {
+            List<Entry> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) break;
+                int size = Math.max(1, db.config.getWriteSpoolReplayBatchSize());
+                batch = new ArrayList<>(Math.min(size, pending.size()));
+                for (Entry entry : pending) {
+                    if (batch.size() == size) break;
+                    batch.add(entry);
+                }
+            }
+            try {
+                db.applySpooled(getSpoolId(), batch);
+            } catch (SQLException e) {
+                db.recordFailure(e);
+                ZyrenAuthPlugin.getInstance().getLogger().warning("Write spool replay stopped with " + getPendingCount() +
+                        " writes left: " + e.getMessage());
+                return false;
+            }
+            synchronized (this) {
+                for (int i = 0; i < batch.size(); i++) {
+                    pending.poll();
+                }
+                if (pending.isEmpty()) compact();
+            }
+            replayed += batch.size();
+        }
+        if (replayed > 0) {
+            ZyrenAuthPlugin.getInstance().getLogger().info("Write spool replayed " + replayed + " writes.");
+        }
+        return true;
+    }
+
+    // Everything is in the database: start an empty file that carries the sequence on
+    private void compact() {
+        try {
+            rewrite(spoolId, nextSeq);
+        } catch (IOException e) {
+            // The old file stays; its entries are skipped on replay by their sequence numbers
+            ZyrenAuthPlugin.getInstance().getLogger().warning("Could not empty the write spool: " + e.getMessage());
+        }
+    }
+
+    private void rewrite(String id, long next) throws IOException {
+        JsonObject header = new JsonObject();
+        header.addProperty("spool", id);
+        header.addProperty("next", next);
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        Files.writeString(tmp.toPath(), gson.toJson(header) + "\n", StandardCharsets.UTF_8);
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (channel != null) channel.close();
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        channel.force(true);
+        sizeBytes = channel.size();
+        spoolId = id;
+        nextSeq = next;
+    }
+
+    public synchronized void close() {
+        replayer.shutdownNow();
+        try {
+            if (channel != null) channel.close();
+        } catch (IOException ignored) {
+        }
+        channel = null;
+    }
+}
@@ -0,0 +1,186 @@
+// src/main/java/com/pheonix/zyrenauth/util/BreachedPasswordFilter.java
+package com.pheonix.zyrenauth.util;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Bloom filter of breached passwords, memory-mapped from a file built by /za breachfilter.
+ * Lookups touch only k bytes of the mapping and never allocate, so the filter can hold
+ * hundreds of millions of entries without using heap. A hit means "probably breached"
+ * (false positives at the configured rate); a miss is definite.
+ * <p>
+ * Passwords are hashed char by char with {@link #step1}/{@link #step2} so PasswordPolicy
+ * can compute both hashes in the same scan that checks the character classes.
+ */
+public final class BreachedPasswordFilter {
+
+    private static final int MAGIC = 0x5A414246; // "ZABF"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    // MappedByteBuffer is int-indexed, so large filters are split into 1 GiB segments
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    public static final long SEED1 = 0xcbf29ce484222325L;
+    public static final long SEED2 = 0x9E3779B97F4A7C15L;
+
+    private final MappedByteBuffer[] segments;
+    private final long bits;
+    private final int hashes;
+    private final long entries;
+
+    private BreachedPasswordFilter(MappedByteBuffer[] segments, long bits, int hashes, long entries) {
+        this.segments = segments;
+        this.bits = bits;
+        this.hashes = hashes;
+        this.entries = entries;
+    }
+
+    public long getEntries() {
+        return entries;
+    }
+
+    public long getSizeBytes() {
+        return (bits + 7) >>> 3;
+    }
+
+    // ------------------------------------------------------------------------
+    // Hashing (shared by lookups and the builder)
+    // ------------------------------------------------------------------------
+
+    public static long step1(long h, char c) {
+        return (h ^ c) * 0x100000001b3L;
+    }
+
+    public static long step2(long h, char c) {
+        return (h ^ c) * 0xff51afd7ed558ccdL + 0x2545F4914F6CDD1DL;
+    }
+
+    public static long finish(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    // h1 and h2 must already be passed through finish()
+    public boolean mightContain(long h1, long h2) {
+        h2 |= 1; // odd stride so the k probes never collapse onto one bit
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            long byteIndex = HEADER_BYTES + (bit >>> 3);
+            MappedByteBuffer segment = segments[(int) (byteIndex >>> SEGMENT_SHIFT)];
+            if ((segment.get((int) (byteIndex & SEGMENT_MASK)) & (1 << (bit & 7))) == 0) return false;
+        }
+        return true;
+    }
+
+    // ------------------------------------------------------------------------
+    // Loading and building
+    // ------------------------------------------------------------------------
+
+    // Returns null if the file does not exist
+    public static BreachedPasswordFilter load(File file) throws IOException {
+        if (!file.isFile()) return null;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.BIG_ENDIAN);
+            channel.read(header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException(file.getName() + " is not a ZyrenAuth breached-password filter");
+            }
+            int hashes = header.getInt();
+            long bits = header.getLong();
+            long entries = header.getLong();
+            if (channel.size() < HEADER_BYTES + ((bits + 7) >>> 3)) {
+                throw new IOException(file.getName() + " is truncated");
+            }
+            // The mapping stays valid after the channel is closed
+            return new BreachedPasswordFilter(map(channel, FileChannel.MapMode.READ_ONLY), bits, hashes, entries);
+        }
+    }
+
+    /**
+     * Builds a filter from a text file with one password per line and atomically replaces
+     * the target. Two passes: the first counts lines to size the filter for the requested
+     * false-positive rate, the second sets the bits directly in a memory-mapped file.
+     * Returns the number of entries added.
+     */
+    public static long build(File source, File target, double falsePositiveRate) throws IOException {
+        long lines = 0;
+        try (BufferedReader reader = openText(source)) {
+            while (reader.readLine() != null) lines++;
+        }
+        long entries = Math.max(1, lines);
+        double p = Math.min(0.5, Math.max(1e-9, falsePositiveRate));
+        long bits = Math.max(64, (long) Math.ceil(-entries * Math.log(p) / (Math.log(2) * Math.log(2))));
+        int hashes = Math.max(1, (int) Math.round((double) bits / entries * Math.log(2)));
+
+        File partFile = new File(target.getParentFile(), target.getName() + ".part");
+        try (FileChannel channel = FileChannel.open(partFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.BIG_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(hashes).putLong(bits).putLong(lines);
+            header.flip();
+            channel.write(header, 0);
+            // Extends the file to its full size; the new region reads as zeros
+            channel.write(ByteBuffer.wrap(new byte[1]), HEADER_BYTES + ((bits + 7) >>> 3) - 1);
+
+            MappedByteBuffer[] segments = map(channel, FileChannel.MapMode.READ_WRITE);
+            try (BufferedReader reader = openText(source)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    long h1 = SEED1;
+                    long h2 = SEED2;
+                    for (int i = 0; i < line.length(); i++) {
+                        char c = line.charAt(i);
+                        h1 = step1(h1, c);
+                        h2 = step2(h2, c);
+                    }
+                    setBits(segments, bits, hashes, finish(h1), finish(h2));
+                }
+            }
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+        }
+        Files.move(partFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return lines;
+    }
+
+    private static void setBits(MappedByteBuffer[] segments, long bits, int hashes, long h1, long h2) {
+        h2 |= 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            long byteIndex = HEADER_BYTES + (bit >>> 3);
+            MappedByteBuffer segment = segments[(int) (byteIndex >>> SEGMENT_SHIFT)];
+            int offset = (int) (byteIndex & SEGMENT_MASK);
+            segment.put(offset, (byte) (segment.get(offset) | (1 << (bit & 7))));
+        }
+    }
+
+    private static MappedByteBuffer[] map(FileChannel channel, FileChannel.MapMode mode) throws IOException {
+        long size = channel.size();
+        int count = (int) ((size + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+        MappedByteBuffer[] segments = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long start = (long) i << SEGMENT_SHIFT;
+            segments[i] = channel.map(mode, start, Math.min(1L << SEGMENT_SHIFT, size - start));
+        }
+        return segments;
+    }
+
+    private static BufferedReader openText(File file) throws IOException {
+        return new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8), 1 << 16);
+    }
+}
@@ -0,0 +1,129 @@
+// src/main/java/com/pheonix/zyrenauth/util/CidrTrie.java
+package com.pheonix.zyrenauth.util;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Binary prefix trie over fixed-width addresses (32 bits for IPv4, 128 for IPv6). Each node
+ * is two ints in one flat array, so millions of ranges cost no objects per entry. A lookup
+ * walks at most one node per address bit and returns the longest stored prefix that
+ * contains the address.
+ * <p>
+ * Not thread-safe; callers guard it with a lock.
+ */
+public final class CidrTrie {
+
+    public interface RangeVisitor {
+        void visit(byte[] address, int prefix);
+    }
+
+    private final int bits;
+    // children[2n] / children[2n + 1] are the 0 and 1 child of node n; 0 means none,
+    // which works because the root (node 0) is never anyone's child
+    private int[] children = new int[256];
+    private final BitSet terminal = new BitSet();
+    private int nodes = 1;
+    private int size;
+
+    public CidrTrie(int bits) {
+        this.bits = bits;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Returns false if the range was already present
+    public boolean add(byte[] address, int prefix) {
+        int node = 0;
+        for (int i = 0; i < prefix; i++) {
+            int slot = 2 * node + bit(address, i);
+            if (children[slot] == 0) {
+                if (2 * nodes + 2 > children.length) {
+                    children = Arrays.copyOf(children, children.length * 2);
+                }
+                children[slot] = nodes++;
+            }
+            node = children[slot];
+        }
+        if (terminal.get(node)) return false;
+        terminal.set(node);
+        size++;
+        return true;
+    }
+
+    // Unmarks the range. Its nodes stay allocated; clear() and a reload compact the trie.
+    public boolean remove(byte[] address, int prefix) {
+        int node = find(address, prefix);
+        if (node < 0 || !terminal.get(node)) return false;
+        terminal.clear(node);
+        size--;
+        return true;
+    }
+
+    public boolean contains(byte[] address, int prefix) {
+        int node = find(address, prefix);
+        return node >= 0 && terminal.get(node);
+    }
+
+    // Longest stored prefix length covering the address, or -1 if none does
+    public int longestMatch(byte[] address) {
+        int node = 0;
+        int best = terminal.get(0) ? 0 : -1;
+        for (int i = 0; i < bits; i++) {
+            node = children[2 * node + bit(address, i)];
+            if (node == 0) break;
+            if (terminal.get(node)) best = i + 1;
+        }
+        return best;
+    }
+
+    // Visits every stored range with its host bits zeroed, shortest prefixes first along each path
+    public void forEach(RangeVisitor visitor) {
+        visit(0, 0, new byte[bits / 8], visitor);
+    }
+
+    public void clear() {
+        children = new int[256];
+        terminal.clear();
+        nodes = 1;
+        size = 0;
+    }
+
+    private void visit(int node, int depth, byte[] path, RangeVisitor visitor) {
+        if (terminal.get(node)) {
+            visitor.visit(path.clone(), depth);
+        }
+        if (depth == bits) return;
+        for (int b = 0; b <= 1; b++) {
+            int child = children[2 * node + b];
+            if (child == 0) continue;
+            setBit(path, depth, b);
+            visit(child, depth + 1, path, visitor);
+            setBit(path, depth, 0);
+        }
+    }
+
+    private int find(byte[] address, int prefix) {
+        int node = 0;
+        for (int i = 0; i < prefix; i++) {
+            node = children[2 * node + bit(address, i)];
+            if (node == 0) return -1;
+        }
+        return node;
+    }
+
+    private static int bit(byte[] address, int index) {
+        return (address[index >>> 3] >>> (7 - (index & 7))) & 1;
+    }
+
+    private static void setBit(byte[] address, int index, int value) {
+        int mask = 1 << (7 - (index & 7));
+        if (value == 1) {
+            address[index >>> 3] |= (byte) mask;
+        } else {
+            address[index >>> 3] &= (byte) ~mask;
+        }
+    }
+}
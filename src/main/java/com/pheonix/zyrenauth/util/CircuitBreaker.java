@@ -0,0 +1,112 @@
+// src/main/java/com/pheonix/zyrenauth/util/CircuitBreaker.java
+package com.pheonix.zyrenauth.util;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Circuit breaker for calls to an external service. CLOSED lets every call through and
+ * opens once failureThreshold failures fall within the failure window. OPEN rejects every
+ * call immediately; the owner probes the service in the background, waiting
+ * {@link #nextProbeDelayMillis()} between attempts (exponential backoff with jitter). A
+ * successful probe moves to HALF_OPEN, which lets calls through again: one failure reopens
+ * the circuit, and a quiet half-open period closes it and resets the backoff.
+ * All methods are synchronized; the listener is called outside the lock.
+ */
+public final class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final long BASE_BACKOFF_MILLIS = 1000;
+
+    private final Runnable onOpen;
+    private long windowMillis;
+    private long halfOpenMillis;
+    private long maxBackoffMillis;
+
+    // Times of the most recent failureThreshold failures, oldest overwritten first
+    private long[] failures;
+    private int failureIndex;
+
+    private State state = State.CLOSED;
+    private long halfOpenSince;
+    private int failedProbes;
+    private long openedTotal;
+
+    public CircuitBreaker(int failureThreshold, long windowMillis, long halfOpenMillis, long maxBackoffMillis, Runnable onOpen) {
+        this.onOpen = onOpen;
+        configure(failureThreshold, windowMillis, halfOpenMillis, maxBackoffMillis);
+    }
+
+    // Applies new limits (e.g. after /za reload) without changing the current state
+    public synchronized void configure(int failureThreshold, long windowMillis, long halfOpenMillis, long maxBackoffMillis) {
+        this.windowMillis = windowMillis;
+        this.halfOpenMillis = halfOpenMillis;
+        this.maxBackoffMillis = Math.max(BASE_BACKOFF_MILLIS, maxBackoffMillis);
+        if (failures == null || failures.length != Math.max(1, failureThreshold)) {
+            failures = new long[Math.max(1, failureThreshold)];
+            failureIndex = 0;
+        }
+    }
+
+    public synchronized boolean allowRequest() {
+        if (state == State.HALF_OPEN && System.currentTimeMillis() - halfOpenSince >= halfOpenMillis) {
+            state = State.CLOSED;
+            failedProbes = 0;
+        }
+        return state != State.OPEN;
+    }
+
+    public void recordFailure() {
+        open(false);
+    }
+
+    // Opens at once, e.g. when the connection is known to be gone
+    public void trip() {
+        open(true);
+    }
+
+    private void open(boolean immediately) {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            if (state == State.OPEN) return;
+            if (state == State.CLOSED && !immediately) {
+                failures[failureIndex] = now;
+                failureIndex = (failureIndex + 1) % failures.length;
+                // The slot about to be overwritten holds the oldest of the last N failures
+                long oldest = failures[failureIndex];
+                if (oldest == 0 || now - oldest > windowMillis) return;
+            }
+            state = State.OPEN;
+            openedTotal++;
+            Arrays.fill(failures, 0);
+        }
+        onOpen.run();
+    }
+
+    public synchronized void probeSucceeded() {
+        if (state != State.OPEN) return;
+        state = State.HALF_OPEN;
+        halfOpenSince = System.currentTimeMillis();
+    }
+
+    public synchronized void probeFailed() {
+        failedProbes++;
+    }
+
+    // 1s, 2s, 4s, ... up to maxBackoffMillis, +-20% so several servers do not probe in step
+    public synchronized long nextProbeDelayMillis() {
+        long delay = BASE_BACKOFF_MILLIS << Math.min(failedProbes, 20);
+        delay = Math.min(delay, maxBackoffMillis);
+        return (long) (delay * (0.8 + 0.4 * ThreadLocalRandom.current().nextDouble()));
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    // How often the circuit has opened since startup
+    public synchronized long getOpenedTotal() {
+        return openedTotal;
+    }
+}
@@ -0,0 +1,205 @@
+// src/main/java/com/pheonix/zyrenauth/util/Messages.java
+package com.pheonix.zyrenauth.util;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.ComponentLike;
+import net.kyori.adventure.text.TextReplacementConfig;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Player-facing text, read from messages/&lt;locale&gt;.json in the plugin folder. Entries are
+ * MiniMessage strings, parsed once per (re)load and cached as components; sending only fills
+ * in {placeholder} slots. An entry given as a list of lines becomes a single multi-line
+ * component, so a banner reaches the client as one chat packet.
+ * <p>
+ * Players get the file matching their client locale (de_de.json, then de.json), falling back
+ * to defaultLanguage and finally to the English texts bundled in the jar, key by key.
+ */
+public final class Messages {
+
+    private static final String BUNDLED_FALLBACK = "en";
+    private static final String[] BUNDLED_LOCALES = {"en", "de"};
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{([a-z_]+)}");
+
+    // component is the parsed entry; slots matches its placeholders, or is null if it has none
+    private record Template(Component component, Pattern slots) {}
+
+    /** A fully parsed set of message files. Built off the main thread, then swapped in by apply(). */
+    public static final class Catalog {
+        private final Map<String, Map<String, Template>> locales;
+        private final Map<String, Template> fallback;
+        private final boolean useClientLocale;
+        // Merged entries per client locale, built on first use
+        private final Map<Locale, Map<String, Template>> resolved = new ConcurrentHashMap<>();
+
+        private Catalog(Map<String, Map<String, Template>> locales, Map<String, Template> fallback, boolean useClientLocale) {
+            this.locales = locales;
+            this.fallback = fallback;
+            this.useClientLocale = useClientLocale;
+        }
+
+        private Map<String, Template> forLocale(Locale locale) {
+            if (locale == null) return fallback;
+            return resolved.computeIfAbsent(locale, l -> {
+                Map<String, Template> language = locales.get(l.getLanguage().toLowerCase(Locale.ROOT));
+                Map<String, Template> exact = locales.get(l.toString().toLowerCase(Locale.ROOT));
+                if (language == null && exact == null) return fallback;
+                Map<String, Template> merged = new HashMap<>(fallback);
+                if (language != null) merged.putAll(language);
+                if (exact != null) merged.putAll(exact);
+                return merged;
+            });
+        }
+    }
+
+    private final JavaPlugin plugin;
+    private final File folder;
+    private final MiniMessage miniMessage = MiniMessage.miniMessage();
+    private final Map<String, Template> bundled;
+    private volatile Catalog catalog;
+
+    public Messages(JavaPlugin plugin) {
+        this.plugin = plugin;
+        this.folder = new File(plugin.getDataFolder(), "messages");
+        Map<String, Template> builtIn;
+        try (InputStream in = plugin.getResource("messages/" + BUNDLED_FALLBACK + ".json")) {
+            builtIn = in != null ? parse(new InputStreamReader(in, StandardCharsets.UTF_8)) : Map.of();
+        } catch (IOException | JsonParseException e) {
+            plugin.getLogger().severe("[ZyrenAuth] Bundled messages could not be read: " + e.getMessage());
+            builtIn = Map.of();
+        }
+        this.bundled = builtIn;
+        this.catalog = new Catalog(Map.of(), builtIn, false);
+    }
+
+    /**
+     * Reads every .json file in the messages folder, first copying over any bundled locale
+     * that is missing. Does not touch the active catalog; pass the result to apply().
+     */
+    public Catalog load(ZyrenAuthConfig config) throws IOException {
+        if (!folder.exists()) {
+            folder.mkdirs();
+        }
+        for (String locale : BUNDLED_LOCALES) {
+            if (!new File(folder, locale + ".json").exists()) {
+                plugin.saveResource("messages/" + locale + ".json", false);
+            }
+        }
+
+        Map<String, Map<String, Template>> locales = new HashMap<>();
+        File[] files = folder.listFiles((dir, name) -> name.endsWith(".json"));
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+                    locales.put(name.substring(0, name.length() - 5).toLowerCase(Locale.ROOT), parse(reader));
+                } catch (JsonParseException e) {
+                    throw new IOException("messages/" + name + ": " + e.getMessage(), e);
+                }
+            }
+        }
+
+        Map<String, Template> fallback = new HashMap<>(bundled);
+        Map<String, Template> english = locales.get(BUNDLED_FALLBACK);
+        if (english != null) fallback.putAll(english);
+        Map<String, Template> preferred = locales.get(config.getDefaultLanguage().toLowerCase(Locale.ROOT));
+        if (preferred != null) fallback.putAll(preferred);
+        return new Catalog(locales, fallback, config.isUseClientLocale());
+    }
+
+    public void apply(Catalog catalog) {
+        this.catalog = catalog;
+    }
+
+    // ------------------------------------------------------------------------
+    // Lookup
+    // ------------------------------------------------------------------------
+
+    // Placeholders are name/value pairs. Values are inserted as plain text in the slot's
+    // style, so player input can never inject formatting; a ComponentLike is inserted as is.
+    public void send(CommandSender sender, String key, Object... placeholders) {
+        sender.sendMessage(get(sender, key, placeholders));
+    }
+
+    public Component get(CommandSender sender, String key, Object... placeholders) {
+        Catalog current = catalog;
+        Locale locale = current.useClientLocale && sender instanceof Player player ? player.locale() : null;
+        return render(current.forLocale(locale), key, placeholders);
+    }
+
+    // In the default language, for places that have no player yet (pre-login kicks)
+    public Component getDefault(String key, Object... placeholders) {
+        return render(catalog.fallback, key, placeholders);
+    }
+
+    private static Component render(Map<String, Template> entries, String key, Object... placeholders) {
+        Template template = entries.get(key);
+        if (template == null) return Component.text(key);
+        if (template.slots() == null || placeholders.length == 0) return template.component();
+        return template.component().replaceText(TextReplacementConfig.builder()
+                .match(template.slots())
+                .replacement((match, builder) -> {
+                    Object value = lookup(placeholders, match.group(1));
+                    if (value instanceof ComponentLike component) return component;
+                    return builder.content(value != null ? String.valueOf(value) : match.group());
+                })
+                .build());
+    }
+
+    private static Object lookup(Object[] placeholders, String name) {
+        for (int i = 0; i + 1 < placeholders.length; i += 2) {
+            if (name.equals(placeholders[i])) return placeholders[i + 1];
+        }
+        return null;
+    }
+
+    // ------------------------------------------------------------------------
+    // Parsing
+    // ------------------------------------------------------------------------
+
+    private Map<String, Template> parse(Reader reader) {
+        JsonElement root = JsonParser.parseReader(reader);
+        if (!root.isJsonObject()) throw new JsonParseException("expected a JSON object of message keys");
+        Map<String, Template> entries = new HashMap<>();
+        for (Map.Entry<String, JsonElement> entry : root.getAsJsonObject().entrySet()) {
+            entries.put(entry.getKey(), compile(text(entry.getValue())));
+        }
+        return entries;
+    }
+
+    private static String text(JsonElement value) {
+        if (!value.isJsonArray()) return value.getAsString();
+        JsonArray lines = value.getAsJsonArray();
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < lines.size(); i++) {
+            if (i > 0) joined.append('\n');
+            joined.append(lines.get(i).getAsString());
+        }
+        return joined.toString();
+    }
+
+    private Template compile(String text) {
+        Set<String> names = new LinkedHashSet<>();
+        Matcher matcher = PLACEHOLDER.matcher(text);
+        while (matcher.find()) {
+            names.add(matcher.group(1));
+        }
+        Pattern slots = names.isEmpty() ? null
+                : Pattern.compile("\\{(" + String.join("|", names) + ")}");
+        return new Template(miniMessage.deserialize(text), slots);
+    }
+}
@@ -0,0 +1,68 @@
+// src/main/java/com/pheonix/zyrenauth/util/PasswordHashes.java
+package com.pheonix.zyrenauth.util;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Recognizes and verifies the password hash formats ZyrenAuth can import.
+ * Imported hashes are stored as-is and replaced with a native BCrypt hash the next
+ * time the player logs in successfully.
+ */
+public final class PasswordHashes {
+
+    public enum Format {
+        // $2a$ / $2b$ / $2y$ – native format
+        BCRYPT,
+        // AuthMe SHA256: $SHA$<salt>$<sha256(sha256(password) + salt)>
+        AUTHME_SHA256,
+        UNKNOWN
+    }
+
+    private PasswordHashes() {}
+
+    public static Format detect(String hash) {
+        if (hash == null) return Format.UNKNOWN;
+        if (hash.startsWith("$2a$") || hash.startsWith("$2b$") || hash.startsWith("$2y$")) return Format.BCRYPT;
+        if (hash.startsWith("$SHA$") && hash.indexOf('$', 5) > 5) return Format.AUTHME_SHA256;
+        return Format.UNKNOWN;
+    }
+
+    public static boolean needsRehash(String hash) {
+        return detect(hash) != Format.BCRYPT;
+    }
+
+    public static boolean verify(String plainPassword, String hash) {
+        switch (detect(hash)) {
+            case BCRYPT:
+                // jBCrypt only knows the $2a$ prefix; $2b$ and $2y$ hashes verify identically
+                return BCrypt.checkpw(plainPassword, "$2a$" + hash.substring(4));
+            case AUTHME_SHA256: {
+                int split = hash.indexOf('$', 5);
+                String salt = hash.substring(5, split);
+                String expected = hash.substring(split + 1);
+                String actual = sha256Hex(sha256Hex(plainPassword) + salt);
+                return MessageDigest.isEqual(actual.getBytes(StandardCharsets.US_ASCII),
+                        expected.toLowerCase().getBytes(StandardCharsets.US_ASCII));
+            }
+            default:
+                return false;
+        }
+    }
+
+    private static String sha256Hex(String input) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(input.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+// src/main/java/com/pheonix/zyrenauth/util/PasswordPolicy.java
+package com.pheonix.zyrenauth.util;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.command.CommandSender;
+
+/**
+ * Password rules compiled once from the config. check() walks the password a single time,
+ * collecting its character classes and the breached-filter hashes in the same loop, and
+ * returns a constant, so validating allocates nothing.
+ */
+public final class PasswordPolicy {
+
+    public enum Result {
+        OK,
+        TOO_SHORT,
+        // BCrypt ignores everything after 72 bytes; counted in chars, which is exact for ASCII
+        TOO_LONG,
+        MISSING_CLASS,
+        BREACHED
+    }
+
+    private static final int DIGIT = 1;
+    private static final int LOWER = 1 << 1;
+    private static final int UPPER = 1 << 2;
+    private static final int SPECIAL = 1 << 3;
+    private static final int MAX_LENGTH = 72;
+
+    private final int minLength;
+    private final int requiredClasses;
+    private final BreachedPasswordFilter breachedFilter;
+    // Message keys of the required character classes, listed under the length requirement
+    private final String[] classRequirementKeys;
+
+    public PasswordPolicy(ZyrenAuthConfig config, BreachedPasswordFilter breachedFilter) {
+        this.minLength = Math.max(1, config.getMinPasswordLength());
+        int classes = 0;
+        if (config.isRequireDigit()) classes |= DIGIT;
+        if (config.isRequireLowercase()) classes |= LOWER;
+        if (config.isRequireUppercase()) classes |= UPPER;
+        if (config.isRequireSpecialChar()) classes |= SPECIAL;
+        this.requiredClasses = classes;
+        this.breachedFilter = breachedFilter;
+        this.classRequirementKeys = buildClassRequirementKeys();
+    }
+
+    public Result check(String password) {
+        if (password == null) return Result.TOO_SHORT;
+        int length = password.length();
+        if (length < minLength) return Result.TOO_SHORT;
+        if (length > MAX_LENGTH) return Result.TOO_LONG;
+
+        int seen = 0;
+        long h1 = BreachedPasswordFilter.SEED1;
+        long h2 = BreachedPasswordFilter.SEED2;
+        for (int i = 0; i < length; i++) {
+            char c = password.charAt(i);
+            if (c >= '0' && c <= '9') seen |= DIGIT;
+            else if (c >= 'a' && c <= 'z') seen |= LOWER;
+            else if (c >= 'A' && c <= 'Z') seen |= UPPER;
+            else if (Character.isLowerCase(c)) seen |= LOWER;
+            else if (Character.isUpperCase(c)) seen |= UPPER;
+            else seen |= SPECIAL;
+            h1 = BreachedPasswordFilter.step1(h1, c);
+            h2 = BreachedPasswordFilter.step2(h2, c);
+        }
+        if ((seen & requiredClasses) != requiredClasses) return Result.MISSING_CLASS;
+        if (breachedFilter != null
+                && breachedFilter.mightContain(BreachedPasswordFilter.finish(h1), BreachedPasswordFilter.finish(h2))) {
+            return Result.BREACHED;
+        }
+        return Result.OK;
+    }
+
+    public Component describe(Result result, Messages messages, CommandSender sender) {
+        switch (result) {
+            case TOO_LONG:
+                return messages.get(sender, "password.too-long", "max", MAX_LENGTH);
+            case BREACHED:
+                return messages.get(sender, "password.breached");
+            default:
+                Component requirements = messages.get(sender, "password.requirements", "min", minLength);
+                for (String key : classRequirementKeys) {
+                    requirements = requirements.append(Component.newline()).append(messages.get(sender, key));
+                }
+                return requirements;
+        }
+    }
+
+    public boolean hasBreachedFilter() {
+        return breachedFilter != null;
+    }
+
+    private String[] buildClassRequirementKeys() {
+        String[] keys = {"password.requires-digit", "password.requires-lowercase",
+                "password.requires-uppercase", "password.requires-special"};
+        int[] flags = {DIGIT, LOWER, UPPER, SPECIAL};
+        String[] required = new String[Integer.bitCount(requiredClasses)];
+        int n = 0;
+        for (int i = 0; i < flags.length; i++) {
+            if ((requiredClasses & flags[i]) != 0) required[n++] = keys[i];
+        }
+        return required;
+    }
+}
@@ -0,0 +1,124 @@
+// src/main/java/com/pheonix/zyrenauth/util/SignedTokens.java
+package com.pheonix.zyrenauth.util;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Self-contained email confirmation and password reset tokens, so neither needs a table row
+ * or a lookup to check. A token is base64url(version, purpose, expiry, nonce, [email], mac).
+ * The MAC is HMAC-SHA256 over those fields plus the player's UUID and a binding string the
+ * caller derives from the account's current state (the password hash for a reset, the
+ * current email and the number of confirmations so far for a confirmation). Using a token
+ * changes that state in the database, so a token only works for the player it was issued
+ * to and only once, on every server that shares the key and across restarts.
+ * <p>
+ * The key is tokenSecret from the config if set (required when several servers share one
+ * database), otherwise random bytes kept in token.key in the plugin folder.
+ */
+public final class SignedTokens {
+
+    public static final String KEY_FILE = "token.key";
+
+    public enum Purpose { EMAIL_CONFIRMATION, PASSWORD_RESET }
+
+    public record Token(Purpose purpose, long expiresAt, String email) {}
+
+    private static final byte VERSION = 2;
+    private static final int KEY_BYTES = 32;
+    // Keeps two tokens issued for the same state from ever being identical
+    private static final int NONCE_BYTES = 16;
+    private static final int MAC_BYTES = 16;
+    private static final int HEADER_BYTES = 2 + 4 + NONCE_BYTES;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final SecretKeySpec key;
+
+    private SignedTokens(byte[] key) {
+        this.key = new SecretKeySpec(key, "HmacSHA256");
+    }
+
+    public static SignedTokens load(File dataFolder, String secret) throws IOException {
+        if (secret != null && !secret.isEmpty()) {
+            try {
+                return new SignedTokens(MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8)));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IOException(e);
+            }
+        }
+        File file = new File(dataFolder, KEY_FILE);
+        if (file.exists()) {
+            byte[] key;
+            try {
+                key = Base64.getDecoder().decode(Files.readString(file.toPath(), StandardCharsets.UTF_8).trim());
+            } catch (IllegalArgumentException e) {
+                throw new IOException(KEY_FILE + " is not valid base64", e);
+            }
+            if (key.length < KEY_BYTES) throw new IOException(KEY_FILE + " holds fewer than " + KEY_BYTES + " bytes");
+            return new SignedTokens(key);
+        }
+        byte[] key = new byte[KEY_BYTES];
+        RANDOM.nextBytes(key);
+        Files.writeString(file.toPath(), Base64.getEncoder().encodeToString(key), StandardCharsets.UTF_8);
+        return new SignedTokens(key);
+    }
+
+    public String issue(Purpose purpose, UUID player, String binding, String email, long expiresAt) {
+        byte[] emailBytes = email != null ? email.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        byte[] nonce = new byte[NONCE_BYTES];
+        RANDOM.nextBytes(nonce);
+        ByteBuffer payload = ByteBuffer.allocate(HEADER_BYTES + emailBytes.length);
+        payload.put(VERSION).put((byte) purpose.ordinal()).putInt((int) (expiresAt / 1000)).put(nonce).put(emailBytes);
+        byte[] body = payload.array();
+        byte[] token = Arrays.copyOf(body, body.length + MAC_BYTES);
+        System.arraycopy(mac(body, player, binding), 0, token, body.length, MAC_BYTES);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+    }
+
+    // Null unless the token is well-formed, signed with this key for this player, purpose and
+    // binding and unexpired. Only hashing, no I/O.
+    public Token verify(String text, Purpose purpose, UUID player, String binding) {
+        byte[] token;
+        try {
+            token = Base64.getUrlDecoder().decode(text);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (token.length < HEADER_BYTES + MAC_BYTES || token[0] != VERSION || token[1] != purpose.ordinal()) return null;
+        byte[] body = Arrays.copyOf(token, token.length - MAC_BYTES);
+        byte[] expected = Arrays.copyOf(mac(body, player, binding), MAC_BYTES);
+        if (!MessageDigest.isEqual(expected, Arrays.copyOfRange(token, body.length, token.length))) return null;
+
+        long expiresAt = Integer.toUnsignedLong(ByteBuffer.wrap(body, 2, 4).getInt()) * 1000L;
+        if (System.currentTimeMillis() >= expiresAt) return null;
+        String email = body.length > HEADER_BYTES
+                ? new String(body, HEADER_BYTES, body.length - HEADER_BYTES, StandardCharsets.UTF_8) : null;
+        return new Token(purpose, expiresAt, email);
+    }
+
+    private byte[] mac(byte[] body, UUID player, String binding) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            mac.update(body);
+            mac.update(ByteBuffer.allocate(16).putLong(player.getMostSignificantBits()).putLong(player.getLeastSignificantBits()).array());
+            mac.update(binding != null ? binding.getBytes(StandardCharsets.UTF_8) : new byte[0]);
+            return mac.doFinal();
+        } catch (GeneralSecurityException e) {
+            // HmacSHA256 is mandatory on every Java platform
+            throw new IllegalStateException(e);
+        }
+    }
+}
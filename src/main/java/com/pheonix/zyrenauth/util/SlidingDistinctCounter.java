@@ -0,0 +1,73 @@
+// src/main/java/com/pheonix/zyrenauth/util/SlidingDistinctCounter.java
+package com.pheonix.zyrenauth.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Approximate number of distinct values (IPs, subnets) seen in the last second and the last
+ * minute, without locks or per-value memory. Each second of the minute has a 4096-bit
+ * bitmap; a value sets one bit chosen by its hash, and the distinct count of a window is
+ * estimated from the share of bits still clear in the OR of its bitmaps (linear counting).
+ * Accurate to a few percent up to several thousand distinct values per minute, which is
+ * all a threshold needs.
+ */
+public final class SlidingDistinctCounter {
+
+    private static final int SLOTS = 60;
+    private static final int WORDS = 64;
+    private static final int BITS = WORDS * 64;
+
+    private final AtomicLongArray stamps = new AtomicLongArray(SLOTS);
+    private final AtomicLongArray bitmaps = new AtomicLongArray(SLOTS * WORDS);
+
+    public void add(long hash, long epochSecond) {
+        int slot = (int) (epochSecond % SLOTS);
+        long stamp = stamps.get(slot);
+        // First writer of a new second recycles the slot. A value added by another thread
+        // between the CAS and the clear can be lost, which only makes the estimate a bit low.
+        if (stamp != epochSecond && stamps.compareAndSet(slot, stamp, epochSecond)) {
+            for (int i = 0; i < WORDS; i++) {
+                bitmaps.set(slot * WORDS + i, 0);
+            }
+        }
+        int bit = (int) (mix(hash) & (BITS - 1));
+        int index = slot * WORDS + (bit >>> 6);
+        long mask = 1L << (bit & 63);
+        long current;
+        while (((current = bitmaps.get(index)) & mask) == 0) {
+            if (bitmaps.compareAndSet(index, current, current | mask)) return;
+        }
+    }
+
+    public int perSecond(long epochSecond) {
+        return estimate(epochSecond - 1, epochSecond - 1);
+    }
+
+    public int perMinute(long epochSecond) {
+        return estimate(epochSecond - SLOTS + 1, epochSecond);
+    }
+
+    private int estimate(long fromSecond, long toSecond) {
+        int set = 0;
+        for (int word = 0; word < WORDS; word++) {
+            long merged = 0;
+            for (long second = fromSecond; second <= toSecond; second++) {
+                int slot = (int) (second % SLOTS);
+                if (stamps.get(slot) == second) merged |= bitmaps.get(slot * WORDS + word);
+            }
+            set += Long.bitCount(merged);
+        }
+        if (set == 0) return 0;
+        int clear = Math.max(1, BITS - set);
+        return (int) Math.round(-BITS * Math.log((double) clear / BITS));
+    }
+
+    // Spreads weak hashes (e.g. String.hashCode of similar IPs) over all bits
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+}
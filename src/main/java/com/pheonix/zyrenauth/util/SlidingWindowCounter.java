@@ -0,0 +1,46 @@
+// src/main/java/com/pheonix/zyrenauth/util/SlidingWindowCounter.java
+package com.pheonix.zyrenauth.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free event counter over the last second and the last minute. One slot per second of
+ * the minute; each slot packs the epoch second it belongs to (high 32 bits) with its count
+ * (low 32 bits), so a single CAS both bumps the count and recycles a slot from an older
+ * minute. Reads never block writers.
+ */
+public final class SlidingWindowCounter {
+
+    private static final int SLOTS = 60;
+
+    private final AtomicLongArray slots = new AtomicLongArray(SLOTS);
+
+    public void increment(long epochSecond) {
+        int index = (int) (epochSecond % SLOTS);
+        long stamp = epochSecond << 32;
+        while (true) {
+            long current = slots.get(index);
+            long next = (current & ~0xFFFFFFFFL) == stamp ? current + 1 : stamp | 1;
+            if (slots.compareAndSet(index, current, next)) return;
+        }
+    }
+
+    // Events in the last complete second, so the rate does not dip at the start of each second
+    public int perSecond(long epochSecond) {
+        return count(epochSecond - 1);
+    }
+
+    // Events in the last 60 seconds, including the current one
+    public int perMinute(long epochSecond) {
+        int total = 0;
+        for (long second = epochSecond - SLOTS + 1; second <= epochSecond; second++) {
+            total += count(second);
+        }
+        return total;
+    }
+
+    private int count(long epochSecond) {
+        long value = slots.get((int) (epochSecond % SLOTS));
+        return (value >>> 32) == epochSecond ? (int) value : 0;
+    }
+}
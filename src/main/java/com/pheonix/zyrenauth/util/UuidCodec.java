@@ -0,0 +1,69 @@
+// src/main/java/com/pheonix/zyrenauth/util/UuidCodec.java
+package com.pheonix.zyrenauth.util;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.UUID;
+
+/**
+ * Converts UUIDs and IP addresses to and from the compact binary forms used by
+ * the BINARY(16) / VARBINARY(16) schema layout.
+ */
+public final class UuidCodec {
+
+    private UuidCodec() {}
+
+    // A new array every call: drivers keep a bound byte[] by reference until the statement
+    // executes, so a shared buffer would turn every UUID bound in one statement or batch
+    // into the last one
+    public static byte[] toBytes(UUID uuid) {
+        return toBytes(uuid, new byte[16]);
+    }
+
+    public static byte[] toBytes(UUID uuid, byte[] target) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        for (int i = 0; i < 8; i++) {
+            target[i] = (byte) (msb >>> (56 - (i << 3)));
+            target[i + 8] = (byte) (lsb >>> (56 - (i << 3)));
+        }
+        return target;
+    }
+
+    public static UUID fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length != 16) return null;
+        long msb = 0;
+        long lsb = 0;
+        for (int i = 0; i < 8; i++) {
+            msb = (msb << 8) | (bytes[i] & 0xFF);
+            lsb = (lsb << 8) | (bytes[i + 8] & 0xFF);
+        }
+        return new UUID(msb, lsb);
+    }
+
+    /**
+     * Returns the 4- or 16-byte network form of a literal IP address, or null if the
+     * string is not an IP literal. Hostnames are rejected so no DNS lookup can happen.
+     */
+    public static byte[] ipToBytes(String ip) {
+        if (ip == null || ip.isEmpty()) return null;
+        for (int i = 0; i < ip.length(); i++) {
+            char c = ip.charAt(i);
+            if (c != '.' && c != ':' && Character.digit(c, 16) < 0) return null;
+        }
+        try {
+            return InetAddress.getByName(ip).getAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    public static String ipFromBytes(byte[] bytes) {
+        if (bytes == null) return null;
+        try {
+            return InetAddress.getByAddress(bytes).getHostAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+}
@@ -1,13 +1,54 @@
 package com.pheonix.zyrenauth.util;
 
+import com.google.gson.Gson;
+import org.bukkit.Bukkit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Settings loaded from config.json. Instances are never modified after loading;
+ * /za reload builds a new one and swaps it in as a whole.
+ */
 public class ZyrenAuthConfig {
 
+    private static final Gson GSON = new Gson();
+
     // MySQL Database Settings
     private String mysqlHost = "localhost";
     private String mysqlPort = "3306";
     private String mysqlDatabase = "zyrenauth";
     private String mysqlUser = "root";
     private String mysqlPassword = "your_mysql_password";
+    // Opt-in: store UUIDs as BINARY(16) and IPs as VARBINARY(16). Existing tables are migrated on startup.
+    private boolean compactUuidStorage = false;
+    private int compactMigrationBatchSize = 1000;
+    // /za migrate: accounts per multi-row INSERT, parallel writer connections, AuthMe source table
+    private int migrationBatchSize = 1000;
+    private int migrationWriterThreads = 4;
+    private String authMeTable = "authme";
+    // Outage handling: the longest a single database call may block, how many connection
+    // failures within the window open the circuit, the longest wait between reconnect
+    // attempts, and how long calls must succeed after reconnecting before it counts as closed
+    private int databaseCallTimeoutSeconds = 5;
+    private int databaseBreakerFailureThreshold = 3;
+    private int databaseBreakerWindowSeconds = 10;
+    private int databaseReconnectMaxBackoffSeconds = 60;
+    private int databaseHalfOpenSeconds = 10;
+    // How long a verified password hash is kept after logout, so the player can still log in
+    // while the database is unreachable (0 = refuse logins during an outage)
+    private int degradedLoginCacheMinutes = 30;
+    // Writes kept in write-spool.ndjson while MySQL is unreachable (0 = drop them)
+    private int writeSpoolMaxEntries = 50000;
+    private int writeSpoolReplayBatchSize = 200;
+    // Per-statement query timeouts (0 = none) and the slow-query log (0 ms = off)
+    private int queryTimeoutReadSeconds = 2;
+    private int queryTimeoutWriteSeconds = 4;
+    private int slowQueryThresholdMillis = 200;
+    private int slowQueryLogMaxKilobytes = 1024;
+    // /za export and /za import: rows per second (0 = unlimited)
+    private int snapshotRowsPerSecond = 20000;
 
     // Email (SMTP) Settings
     private String smtpHost = "smtp.example.com";
@@ -20,15 +61,59 @@ public class ZyrenAuthConfig {
 
     // Feature toggles
     private boolean mysqlEnabled = true;
+    // With mysqlEnabled=false: keep everything in an embedded SQLite file (zyrenauth.db)
+    // instead of accounts.json, with the same features as MySQL
+    private boolean sqliteEnabled = false;
     private boolean emailFeaturesEnabled = true;
 
-    // Password Policy (now mostly unused, but kept for compatibility)
+    // Password Policy, compiled into a PasswordPolicy on startup and on /za reload
     private int minPasswordLength = 8;
     private boolean requireDigit = true;
     private boolean requireLowercase = true;
     private boolean requireUppercase = true;
     private boolean requireSpecialChar = true;
     private int bcryptStrength = 12;
+    // Reject passwords found in breached-passwords.bloom (built with /za breachfilter)
+    private boolean breachedPasswordCheckEnabled = true;
+    private double breachedPasswordFalsePositiveRate = 0.001;
+
+    // Player-facing text from messages/<locale>.json, picked by the client's language when enabled
+    private String defaultLanguage = "en";
+    private boolean useClientLocale = true;
+
+    // Where unauthenticated players wait: a void limbo world with one force-loaded chunk, or
+    // authLocation in authLocationWorld (empty = the world the player joined in)
+    private boolean limboWorldEnabled = false;
+    private String limboWorldName = "zyrenauth_limbo";
+    private String authLocationWorld = "";
+    private double authLocationX = 0.5;
+    private double authLocationY = 64;
+    private double authLocationZ = 0.5;
+    // Chunks around the return location loaded during the auth wait (radius, -1 = off), and how
+    // long their tickets are held if the player never logs in
+    private int returnChunkPrefetchRadius = 1;
+    private int returnChunkTicketSeconds = 300;
+    // View, send and simulation distance while waiting to log in (2 is the lowest the client accepts)
+    private int frozenViewDistance = 2;
+    // Kick players who have not logged in or registered after this long (0 = never), at most
+    // authTimeoutKickBatchSize per second
+    private int authTimeoutSeconds = 90;
+    private int authTimeoutKickBatchSize = 50;
+    // Strict mode starts when any threshold is reached (0 = ignore that signal) and ends after
+    // antiBotCalmSeconds below all of them
+    private boolean antiBotEnabled = true;
+    private int antiBotJoinsPerSecond = 10;
+    private int antiBotJoinsPerMinute = 180;
+    private int antiBotSubnetsPerMinute = 60;
+    private int antiBotFailedLoginsPerMinute = 60;
+    private int antiBotRegistrationsPerMinute = 30;
+    private int antiBotCalmSeconds = 120;
+    // In strict mode: registrations allowed per minute (0 = paused), and how long an IP that
+    // never logged in must wait before reconnecting (0 = no delay)
+    private int strictRegistrationsPerMinute = 0;
+    private int strictNewIpDelaySeconds = 10;
+    // Registrations refused from an IP already used by this many accounts (0 = unlimited)
+    private int maxAccountsPerIp = 0;
 
     // Brute-Force Protection
     private int maxLoginAttempts = 5;
@@ -36,6 +121,13 @@ public class ZyrenAuthConfig {
 
     // Anti-Account Sharing
     private boolean antiAccountSharingEnabled = true;
+    // Identifies this backend in the shared sessions table. Must be unique per server on a network;
+    // left empty it defaults to "port-<server port>".
+    private String serverId = "";
+    private int sessionLeaseSeconds = 60;
+    private int sessionHeartbeatSeconds = 20;
+    // How often (in ticks) to poll auth_changes for password/email/IP changes made on other servers
+    private int changeFeedPollTicks = 20;
 
     // IP & Device Locking
     private boolean ipDeviceLockingEnabled = true;
@@ -43,14 +135,40 @@ public class ZyrenAuthConfig {
     // Email Confirmation & Password Reset
     private int emailConfirmationExpiryMinutes = 30;
     private int passwordResetExpiryMinutes = 60;
+    // HMAC key for those tokens; empty = random key in token.key (one server only)
+    private String tokenSecret = "";
     private String webServerUrl = "http://localhost:8080/zyrenauth";
 
+    // Security log retention (MySQL only, 0 = keep forever)
+    private int securityLogRetentionDays = 0;
+    private boolean securityLogArchiveEnabled = true;
+    private int securityLogPurgeBatchSize = 5000;
+    private int securityLogRetentionCheckMinutes = 60;
+
     // --- Getters ---
     public String getMysqlHost() { return mysqlHost; }
     public String getMysqlPort() { return mysqlPort; }
     public String getMysqlDatabase() { return mysqlDatabase; }
     public String getMysqlUser() { return mysqlUser; }
     public String getMysqlPassword() { return mysqlPassword; }
+    public boolean isCompactUuidStorage() { return compactUuidStorage; }
+    public int getCompactMigrationBatchSize() { return compactMigrationBatchSize; }
+    public int getMigrationBatchSize() { return migrationBatchSize; }
+    public int getMigrationWriterThreads() { return migrationWriterThreads; }
+    public String getAuthMeTable() { return authMeTable; }
+    public int getDatabaseCallTimeoutSeconds() { return databaseCallTimeoutSeconds; }
+    public int getDatabaseBreakerFailureThreshold() { return databaseBreakerFailureThreshold; }
+    public int getDatabaseBreakerWindowSeconds() { return databaseBreakerWindowSeconds; }
+    public int getDatabaseReconnectMaxBackoffSeconds() { return databaseReconnectMaxBackoffSeconds; }
+    public int getDatabaseHalfOpenSeconds() { return databaseHalfOpenSeconds; }
+    public int getDegradedLoginCacheMinutes() { return degradedLoginCacheMinutes; }
+    public int getWriteSpoolMaxEntries() { return writeSpoolMaxEntries; }
+    public int getWriteSpoolReplayBatchSize() { return writeSpoolReplayBatchSize; }
+    public int getQueryTimeoutReadSeconds() { return queryTimeoutReadSeconds; }
+    public int getQueryTimeoutWriteSeconds() { return queryTimeoutWriteSeconds; }
+    public int getSlowQueryThresholdMillis() { return slowQueryThresholdMillis; }
+    public int getSlowQueryLogMaxKilobytes() { return slowQueryLogMaxKilobytes; }
+    public int getSnapshotRowsPerSecond() { return snapshotRowsPerSecond; }
 
     public String getSmtpHost() { return smtpHost; }
     public String getSmtpPort() { return smtpPort; }
@@ -61,6 +179,7 @@ public class ZyrenAuthConfig {
     public String getEmailSenderAddress() { return emailSenderAddress; }
 
     public boolean isMysqlEnabled() { return mysqlEnabled; }
+    public boolean isSqliteEnabled() { return sqliteEnabled; }
     public boolean isEmailFeaturesEnabled() { return emailFeaturesEnabled; }
 
     public int getMinPasswordLength() { return minPasswordLength; }
@@ -69,54 +188,94 @@ public class ZyrenAuthConfig {
     public boolean isRequireUppercase() { return requireUppercase; }
     public boolean isRequireSpecialChar() { return requireSpecialChar; }
     public int getBcryptStrength() { return bcryptStrength; }
+    public boolean isBreachedPasswordCheckEnabled() { return breachedPasswordCheckEnabled; }
+    public double getBreachedPasswordFalsePositiveRate() { return breachedPasswordFalsePositiveRate; }
+
+    public String getDefaultLanguage() { return defaultLanguage != null ? defaultLanguage : "en"; }
+    public boolean isUseClientLocale() { return useClientLocale; }
+
+    public boolean isLimboWorldEnabled() { return limboWorldEnabled; }
+    public String getLimboWorldName() { return limboWorldName; }
+    public String getAuthLocationWorld() { return authLocationWorld != null ? authLocationWorld : ""; }
+    public double getAuthLocationX() { return authLocationX; }
+    public double getAuthLocationY() { return authLocationY; }
+    public double getAuthLocationZ() { return authLocationZ; }
+    public int getReturnChunkPrefetchRadius() { return returnChunkPrefetchRadius; }
+    public int getReturnChunkTicketSeconds() { return returnChunkTicketSeconds; }
+    public int getFrozenViewDistance() { return frozenViewDistance; }
+    public int getAuthTimeoutSeconds() { return authTimeoutSeconds; }
+    public int getAuthTimeoutKickBatchSize() { return authTimeoutKickBatchSize; }
+    public boolean isAntiBotEnabled() { return antiBotEnabled; }
+    public int getAntiBotJoinsPerSecond() { return antiBotJoinsPerSecond; }
+    public int getAntiBotJoinsPerMinute() { return antiBotJoinsPerMinute; }
+    public int getAntiBotSubnetsPerMinute() { return antiBotSubnetsPerMinute; }
+    public int getAntiBotFailedLoginsPerMinute() { return antiBotFailedLoginsPerMinute; }
+    public int getAntiBotRegistrationsPerMinute() { return antiBotRegistrationsPerMinute; }
+    public int getAntiBotCalmSeconds() { return antiBotCalmSeconds; }
+    public int getStrictRegistrationsPerMinute() { return strictRegistrationsPerMinute; }
+    public int getStrictNewIpDelaySeconds() { return strictNewIpDelaySeconds; }
+    public int getMaxAccountsPerIp() { return maxAccountsPerIp; }
 
     public int getMaxLoginAttempts() { return maxLoginAttempts; }
     public long getLockoutDurationSeconds() { return lockoutDurationSeconds; }
 
     public boolean isAntiAccountSharingEnabled() { return antiAccountSharingEnabled; }
+    public String getServerId() { return serverId == null || serverId.isBlank() ? "port-" + Bukkit.getPort() : serverId; }
+    public int getSessionLeaseSeconds() { return sessionLeaseSeconds; }
+    public int getSessionHeartbeatSeconds() { return sessionHeartbeatSeconds; }
+    public int getChangeFeedPollTicks() { return changeFeedPollTicks; }
     public boolean isIpDeviceLockingEnabled() { return ipDeviceLockingEnabled; }
 
     public int getEmailConfirmationExpiryMinutes() { return emailConfirmationExpiryMinutes; }
     public int getPasswordResetExpiryMinutes() { return passwordResetExpiryMinutes; }
+    public String getTokenSecret() { return tokenSecret; }
     public String getWebServerUrl() { return webServerUrl; }
 
-    // Friendly password requirements text used in messages
-    public String getPasswordRequirementsMessage() {
-        return "Your password must be at least 3 characters long.";
+    public int getSecurityLogRetentionDays() { return securityLogRetentionDays; }
+    public boolean isSecurityLogArchiveEnabled() { return securityLogArchiveEnabled; }
+    public int getSecurityLogPurgeBatchSize() { return securityLogPurgeBatchSize; }
+    public int getSecurityLogRetentionCheckMinutes() { return securityLogRetentionCheckMinutes; }
+
+    // ------------------------------------------------------------------------
+    // Reload support
+    // ------------------------------------------------------------------------
+
+    // Settings that only take effect on restart: switching storage mode, the id layout, or the
+    // server id under which this backend's session leases are held.
+    public List<String> restartOnlyChanges(ZyrenAuthConfig running) {
+        List<String> changed = new ArrayList<>();
+        if (mysqlEnabled != running.mysqlEnabled) changed.add("mysqlEnabled");
+        if (sqliteEnabled != running.sqliteEnabled) changed.add("sqliteEnabled");
+        if (compactUuidStorage != running.compactUuidStorage) changed.add("compactUuidStorage");
+        if (!Objects.equals(serverId, running.serverId)) changed.add("serverId");
+        if (limboWorldEnabled != running.limboWorldEnabled) changed.add("limboWorldEnabled");
+        if (!Objects.equals(limboWorldName, running.limboWorldName)) changed.add("limboWorldName");
+        return changed;
+    }
+
+    // Copy of this config with the restart-only settings taken from the running config
+    public ZyrenAuthConfig withRestartOnlySettingsFrom(ZyrenAuthConfig running) {
+        ZyrenAuthConfig copy = GSON.fromJson(GSON.toJsonTree(this), ZyrenAuthConfig.class);
+        copy.mysqlEnabled = running.mysqlEnabled;
+        copy.sqliteEnabled = running.sqliteEnabled;
+        copy.compactUuidStorage = running.compactUuidStorage;
+        copy.serverId = running.serverId;
+        copy.limboWorldEnabled = running.limboWorldEnabled;
+        copy.limboWorldName = running.limboWorldName;
+        return copy;
     }
 
-    // --- Setters ---
-    public void setMysqlHost(String mysqlHost) { this.mysqlHost = mysqlHost; }
-    public void setMysqlPort(String mysqlPort) { this.mysqlPort = mysqlPort; }
-    public void setMysqlDatabase(String mysqlDatabase) { this.mysqlDatabase = mysqlDatabase; }
-    public void setMysqlUser(String mysqlUser) { this.mysqlUser = mysqlUser; }
-    public void setMysqlPassword(String mysqlPassword) { this.mysqlPassword = mysqlPassword; }
-
-    public void setSmtpHost(String smtpHost) { this.smtpHost = smtpHost; }
-    public void setSmtpPort(String smtpPort) { this.smtpPort = smtpPort; }
-    public void setSmtpUsername(String smtpUsername) { this.smtpUsername = smtpUsername; }
-    public void setSmtpPassword(String smtpPassword) { this.smtpPassword = smtpPassword; }
-    public void setSmtpAuth(boolean smtpAuth) { this.smtpAuth = smtpAuth; }
-    public void setSmtpStarttlsEnable(boolean smtpStarttlsEnable) { this.smtpStarttlsEnable = smtpStarttlsEnable; }
-    public void setEmailSenderAddress(String emailSenderAddress) { this.emailSenderAddress = emailSenderAddress; }
-
-    public void setMysqlEnabled(boolean mysqlEnabled) { this.mysqlEnabled = mysqlEnabled; }
-    public void setEmailFeaturesEnabled(boolean emailFeaturesEnabled) { this.emailFeaturesEnabled = emailFeaturesEnabled; }
-
-    public void setMinPasswordLength(int minPasswordLength) { this.minPasswordLength = minPasswordLength; }
-    public void setRequireDigit(boolean requireDigit) { this.requireDigit = requireDigit; }
-    public void setRequireLowercase(boolean requireLowercase) { this.requireLowercase = requireLowercase; }
-    public void setRequireUppercase(boolean requireUppercase) { this.requireUppercase = requireUppercase; }
-    public void setRequireSpecialChar(boolean requireSpecialChar) { this.requireSpecialChar = requireSpecialChar; }
-    public void setBcryptStrength(int bcryptStrength) { this.bcryptStrength = bcryptStrength; }
-
-    public void setMaxLoginAttempts(int maxLoginAttempts) { this.maxLoginAttempts = maxLoginAttempts; }
-    public void setLockoutDurationSeconds(long lockoutDurationSeconds) { this.lockoutDurationSeconds = lockoutDurationSeconds; }
-
-    public void setAntiAccountSharingEnabled(boolean antiAccountSharingEnabled) { this.antiAccountSharingEnabled = antiAccountSharingEnabled; }
-    public void setIpDeviceLockingEnabled(boolean ipDeviceLockingEnabled) { this.ipDeviceLockingEnabled = ipDeviceLockingEnabled; }
-
-    public void setEmailConfirmationExpiryMinutes(int emailConfirmationExpiryMinutes) { this.emailConfirmationExpiryMinutes = emailConfirmationExpiryMinutes; }
-    public void setPasswordResetExpiryMinutes(int passwordResetExpiryMinutes) { this.passwordResetExpiryMinutes = passwordResetExpiryMinutes; }
-    public void setWebServerUrl(String webServerUrl) { this.webServerUrl = webServerUrl; }
+    public boolean sameDatabaseConnection(ZyrenAuthConfig other) {
+        return Objects.equals(mysqlHost, other.mysqlHost) && Objects.equals(mysqlPort, other.mysqlPort)
+                && Objects.equals(mysqlDatabase, other.mysqlDatabase) && Objects.equals(mysqlUser, other.mysqlUser)
+                && Objects.equals(mysqlPassword, other.mysqlPassword);
+    }
+
+    public boolean sameSmtpSession(ZyrenAuthConfig other) {
+        return emailFeaturesEnabled == other.emailFeaturesEnabled
+                && Objects.equals(smtpHost, other.smtpHost) && Objects.equals(smtpPort, other.smtpPort)
+                && Objects.equals(smtpUsername, other.smtpUsername) && Objects.equals(smtpPassword, other.smtpPassword)
+                && smtpAuth == other.smtpAuth && smtpStarttlsEnable == other.smtpStarttlsEnable
+                && Objects.equals(emailSenderAddress, other.emailSenderAddress);
+    }
 }
@@ -0,0 +1,83 @@
+// src/test/java/com/pheonix/zyrenauth/manager/AccountSnapshotTest.java
+package com.pheonix.zyrenauth.manager;
+
+import com.pheonix.zyrenauth.ZyrenAuthPlugin;
+import com.pheonix.zyrenauth.util.ZyrenAuthConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockbukkit.mockbukkit.MockBukkit;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountSnapshotTest {
+
+    @TempDir
+    File dir;
+
+    private ZyrenAuthPlugin plugin;
+    private DatabaseManager source;
+    private DatabaseManager target;
+
+    @BeforeEach
+    void setUp() {
+        MockBukkit.mock();
+        plugin = MockBukkit.load(ZyrenAuthPlugin.class);
+        ZyrenAuthConfig config = new ZyrenAuthConfig();
+        source = new EmbeddedDatabaseManager(config, new File(dir, "source.db"));
+        target = new EmbeddedDatabaseManager(config, new File(dir, "target.db"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        source.closeConnection();
+        target.closeConnection();
+        MockBukkit.unmock();
+    }
+
+    @Test
+    void exportsAndImportsBetweenSqliteDatabases() throws Exception {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        assertTrue(source.createPlayerAccount(alice, "alice", "hash-a", "10.0.0.1"));
+        assertTrue(source.createPlayerAccount(bob, "bob", "hash-b", "10.0.0.2"));
+        assertTrue(source.addTrustedIp(alice, "10.0.0.1"));
+        assertTrue(source.banIp(bob, "10.0.0.9"));
+        assertTrue(source.confirmEmailAtomically(alice, null, 0, "alice@example.com"));
+
+        AccountSnapshot snapshot = new AccountSnapshot(plugin);
+        File file = new File(dir, "snapshot.ndjson.gz");
+        long exported;
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(new FileOutputStream(file)), StandardCharsets.UTF_8))) {
+            snapshot.writeHeader(writer, source);
+            exported = snapshot.exportDatabase(source, writer, 0);
+        }
+        assertEquals(4, exported);
+
+        BatchWriterPool writerPool = new BatchWriterPool("test-import-writer", 1,
+                () -> new StorageMigrator.MySqlAccountSink(target), (seq, position) -> {});
+        assertEquals(2, snapshot.importAccounts(writerPool, file, 50, 0));
+        assertNull(writerPool.failure());
+        assertEquals(2, snapshot.importRelatedRows(target, file, 50, 0));
+
+        assertEquals("hash-a", target.getPlayerHashedPassword(alice));
+        assertEquals("hash-b", target.getPlayerHashedPassword(bob));
+        assertFalse(target.isIpRestricted(alice, "10.0.0.1"));
+        assertTrue(target.isIpRestricted(bob, "10.0.0.9"));
+        // A confirmation token spent before the export stays spent after the import
+        assertEquals("alice@example.com", target.getPlayerEmail(alice));
+        assertEquals(1, target.getEmailConfirmations(alice));
+        assertEquals(0, target.getEmailConfirmations(bob));
+    }
+}
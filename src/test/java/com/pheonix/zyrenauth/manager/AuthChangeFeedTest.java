@@ -0,0 +1,99 @@
+// src/test/java/com/pheonix/zyrenauth/manager/AuthChangeFeedTest.java
+package com.pheonix.zyrenauth.manager;
+
+import com.google.gson.Gson;
+import com.pheonix.zyrenauth.ZyrenAuthPlugin;
+import com.pheonix.zyrenauth.util.ZyrenAuthConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockbukkit.mockbukkit.MockBukkit;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Two backends sharing one database, each with its own feed
+class AuthChangeFeedTest {
+
+    @TempDir
+    File dir;
+
+    private File file;
+    private DatabaseManager serverA;
+    private DatabaseManager serverB;
+    private final List<String> seenByB = new ArrayList<>();
+    private AuthChangeFeed feedB;
+
+    private static ZyrenAuthConfig config(String serverId) {
+        return new Gson().fromJson("{\"serverId\": \"" + serverId + "\"}", ZyrenAuthConfig.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        MockBukkit.mock();
+        MockBukkit.load(ZyrenAuthPlugin.class);
+        file = new File(dir, "shared.db");
+        serverA = new EmbeddedDatabaseManager(config("a"), file);
+        serverB = new EmbeddedDatabaseManager(config("b"), file);
+        feedB = new AuthChangeFeed(serverB, config("b"));
+        feedB.addListener((player, type) -> seenByB.add(player + " " + type));
+    }
+
+    @AfterEach
+    void tearDown() {
+        serverA.closeConnection();
+        serverB.closeConnection();
+        MockBukkit.unmock();
+    }
+
+    @Test
+    void deliversChangesFromTheOtherServerOnly() {
+        UUID alice = UUID.randomUUID();
+        assertTrue(serverA.createPlayerAccount(alice, "alice", "hash-1", "10.0.0.1"));
+        assertTrue(serverA.updatePlayerPassword(alice, "hash-2"));
+        assertTrue(serverB.setPlayerEmail(alice, "alice@example.com"));
+
+        feedB.run();
+        assertEquals(List.of(alice + " PASSWORD"), seenByB);
+
+        feedB.run();
+        assertEquals(1, seenByB.size(), "a change is delivered once");
+    }
+
+    // Id 2 commits after id 3 was already read: it must still be delivered, exactly once
+    @Test
+    void deliversARowThatCommitsBelowTheHead() throws Exception {
+        UUID first = UUID.randomUUID();
+        UUID late = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath())) {
+            insertChange(conn, serverA, 1, first);
+            insertChange(conn, serverA, 3, third);
+            feedB.run();
+            assertEquals(List.of(first + " PASSWORD", third + " PASSWORD"), seenByB);
+
+            insertChange(conn, serverA, 2, late);
+            feedB.run();
+            feedB.run();
+        }
+        assertEquals(List.of(first + " PASSWORD", third + " PASSWORD", late + " PASSWORD"), seenByB);
+        assertEquals(3, feedB.getLastSeenId());
+    }
+
+    private static void insertChange(Connection conn, DatabaseManager db, long id, UUID player) throws Exception {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO auth_changes (id, player_uuid, change_type, server_id, created_at) VALUES (?, ?, 'PASSWORD', 'a', 0)")) {
+            ps.setLong(1, id);
+            db.bindUuid(ps, 2, player);
+            ps.executeUpdate();
+        }
+    }
+}
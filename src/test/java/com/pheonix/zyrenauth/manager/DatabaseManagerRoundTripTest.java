@@ -0,0 +1,246 @@
+// src/test/java/com/pheonix/zyrenauth/manager/DatabaseManagerRoundTripTest.java
+package com.pheonix.zyrenauth.manager;
+
+import com.google.gson.Gson;
+import com.pheonix.zyrenauth.ZyrenAuthPlugin;
+import com.pheonix.zyrenauth.util.ZyrenAuthConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockbukkit.mockbukkit.MockBukkit;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Counts what the composite auth flows send to MySQL. A fake driver stands in for the server:
+// every statement execution, commit and rollback is one round trip, and a multi-statement
+// request reports one updated row per statement.
+class DatabaseManagerRoundTripTest {
+
+    @TempDir
+    File dir;
+
+    private static final AtomicInteger roundTrips = new AtomicInteger();
+    private static final List<String> urls = Collections.synchronizedList(new ArrayList<>());
+    private static volatile boolean failing;
+
+    private final List<Driver> replaced = new ArrayList<>();
+    private FakeDriver fake;
+    private DatabaseManager db;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockBukkit.mock();
+        MockBukkit.load(ZyrenAuthPlugin.class);
+        Class.forName("com.mysql.cj.jdbc.Driver");
+        for (Driver driver : Collections.list(DriverManager.getDrivers())) {
+            if (driver.acceptsURL("jdbc:mysql://localhost/test")) {
+                DriverManager.deregisterDriver(driver);
+                replaced.add(driver);
+            }
+        }
+        fake = new FakeDriver();
+        DriverManager.registerDriver(fake);
+        failing = false;
+        urls.clear();
+        db = new DatabaseManager(new Gson().fromJson("{\"serverId\": \"a\"}", ZyrenAuthConfig.class));
+        roundTrips.set(0);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        db.closeConnection();
+        DriverManager.deregisterDriver(fake);
+        for (Driver driver : replaced) DriverManager.registerDriver(driver);
+        MockBukkit.unmock();
+    }
+
+    @Test
+    void registrationIsOneRoundTrip() {
+        assertTrue(db.registerAndLogin(UUID.randomUUID(), "alice", "hash", "10.0.0.1"));
+        assertEquals(1, roundTrips.get());
+    }
+
+    @Test
+    void loginIsOneRoundTripWithOrWithoutAnUpgradedHash() {
+        UUID uuid = UUID.randomUUID();
+        assertEquals(LoginRecordResult.OK, db.recordSuccessfulLogin(uuid, "10.0.0.1", null, true));
+        assertEquals(1, roundTrips.get());
+        assertEquals(LoginRecordResult.OK, db.recordSuccessfulLogin(uuid, "10.0.0.1", "upgraded", true));
+        assertEquals(2, roundTrips.get());
+    }
+
+    @Test
+    void aFailedLoginWriteIsAnErrorNotAHeldLease() {
+        failing = true;
+        assertEquals(LoginRecordResult.ERROR, db.recordSuccessfulLogin(UUID.randomUUID(), "10.0.0.1", null, true));
+    }
+
+    @Test
+    void emailConfirmationAndPasswordResetAreOneRoundTripEach() {
+        UUID uuid = UUID.randomUUID();
+        assertTrue(db.confirmEmailAtomically(uuid, null, 0, "a@example.com"));
+        assertEquals(1, roundTrips.get());
+        assertTrue(db.resetPasswordAtomically(uuid, "old", "new"));
+        assertEquals(2, roundTrips.get());
+    }
+
+    @Test
+    void onlyTheCompositeConnectionAllowsMultipleStatements() {
+        assertEquals(1, urls.size());
+        assertFalse(urls.get(0).contains("allowMultiQueries"));
+        db.registerAndLogin(UUID.randomUUID(), "alice", "hash", "10.0.0.1");
+        db.registerAndLogin(UUID.randomUUID(), "bob", "hash", "10.0.0.2");
+        assertEquals(2, urls.size());
+        assertTrue(urls.get(1).contains("allowMultiQueries=true"));
+    }
+
+    @Test
+    void aSpooledResetKeepsItsCheckOnTheOldHash() throws Exception {
+        File spoolFile = new File(dir, WriteSpool.FILE);
+        WriteSpool spool = new WriteSpool(spoolFile);
+        spool.load();
+        db.attachSpool(spool);
+        failing = true;
+        try {
+            assertTrue(db.resetPasswordAtomically(UUID.randomUUID(), "old-hash", "new-hash"));
+            String line = Files.readString(spoolFile.toPath());
+            assertTrue(line.contains("\"op\":\"PASSWORD_IF_UNCHANGED\""), line);
+            assertTrue(line.contains("\"value\":\"new-hash\""), line);
+            assertTrue(line.contains("\"details\":\"old-hash\""), line);
+        } finally {
+            spool.close();
+        }
+    }
+
+    // Confirmation tokens are bound to the count, so losing it in the migration would revive them
+    @Test
+    void theCompactMigrationCopiesAndReconcilesEmailConfirmations() throws SQLException {
+        String copy = DatabaseManager.compactCopies("", true)[0];
+        assertTrue(copy.startsWith("INSERT IGNORE INTO players_bin") && copy.contains("email_confirmations"), copy);
+
+        List<String> sent = new ArrayList<>();
+        Statement recorder = proxy(Statement.class, (proxy, method, args) -> {
+            if (method.getName().equals("executeUpdate")) sent.add((String) args[0]);
+            return defaultValue(method.getReturnType());
+        });
+        db.reconcileCompactCopy(recorder);
+        assertTrue(sent.get(0).contains("email_confirmations"), sent.get(0));
+        String update = sent.stream().filter(sql -> sql.startsWith("UPDATE players_bin")).findFirst().orElseThrow();
+        assertTrue(update.contains("b.email_confirmations = l.email_confirmations"), update);
+        assertTrue(update.contains("b.email_confirmations <=> l.email_confirmations"), update);
+    }
+
+    private static final class FakeDriver implements Driver {
+        @Override
+        public Connection connect(String url, Properties info) {
+            if (!acceptsURL(url)) return null;
+            urls.add(url);
+            return proxy(Connection.class, (proxy, method, args) -> switch (method.getName()) {
+                case "createStatement", "prepareStatement" -> statement(args != null && args.length > 0 && args[0] instanceof String sql ? sql : null);
+                case "commit", "rollback" -> {
+                    roundTrips.incrementAndGet();
+                    yield null;
+                }
+                case "isValid" -> true;
+                default -> defaultValue(method.getReturnType());
+            });
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url.startsWith("jdbc:mysql:");
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() {
+            return Logger.getGlobal();
+        }
+    }
+
+    private static Statement statement(String prepared) {
+        int[] remaining = {0};
+        return proxy(java.sql.PreparedStatement.class, (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                roundTrips.incrementAndGet();
+                if (failing) throw new SQLException("Communications link failure", "08S01");
+                String sql = prepared != null ? prepared : (String) args[0];
+                remaining[0] = sql.split(";").length;
+                return switch (name) {
+                    case "executeQuery" -> emptyResultSet();
+                    case "executeUpdate", "executeLargeUpdate" -> 1;
+                    case "executeBatch" -> new int[0];
+                    default -> false;
+                };
+            }
+            return switch (name) {
+                case "getUpdateCount" -> remaining[0] > 0 ? 1 : -1;
+                case "getMoreResults" -> {
+                    remaining[0]--;
+                    yield false;
+                }
+                case "getResultSet", "getGeneratedKeys" -> emptyResultSet();
+                default -> defaultValue(method.getReturnType());
+            };
+        });
+    }
+
+    private static ResultSet emptyResultSet() {
+        return proxy(ResultSet.class, (proxy, method, args) -> defaultValue(method.getReturnType()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, java.lang.reflect.InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == double.class) return 0d;
+        if (type == float.class) return 0f;
+        if (type == short.class) return (short) 0;
+        if (type == byte.class) return (byte) 0;
+        return null;
+    }
+}
@@ -0,0 +1,108 @@
+// src/test/java/com/pheonix/zyrenauth/manager/EmbeddedDatabaseManagerTest.java
+package com.pheonix.zyrenauth.manager;
+
+import com.google.gson.Gson;
+import com.pheonix.zyrenauth.ZyrenAuthPlugin;
+import com.pheonix.zyrenauth.util.ZyrenAuthConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockbukkit.mockbukkit.MockBukkit;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmbeddedDatabaseManagerTest {
+
+    @TempDir
+    File dir;
+
+    private DatabaseManager db;
+
+    @BeforeEach
+    void setUp() {
+        MockBukkit.mock();
+        MockBukkit.load(ZyrenAuthPlugin.class);
+        ZyrenAuthConfig config = new Gson().fromJson("{\"serverId\": \"a\", \"compactUuidStorage\": true}", ZyrenAuthConfig.class);
+        db = new EmbeddedDatabaseManager(config, new File(dir, "auth.db"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.closeConnection();
+        MockBukkit.unmock();
+    }
+
+    @Test
+    void anAddressTheCompactLayoutCannotStoreIsRejected() {
+        UUID uuid = UUID.randomUUID();
+        assertTrue(db.createPlayerAccount(uuid, "alice", "hash", "10.0.0.1"));
+        assertFalse(db.addTrustedIp(uuid, "not-an-ip"));
+        assertFalse(db.banIp(uuid, "not-an-ip"));
+        assertTrue(db.banIp(uuid, "10.0.0.2"));
+        assertTrue(db.isIpRestricted(uuid, "10.0.0.2"));
+    }
+
+    @Test
+    void anEmailConfirmationOnlyAppliesOnce() {
+        UUID uuid = UUID.randomUUID();
+        assertTrue(db.createPlayerAccount(uuid, "alice", "hash", "10.0.0.1"));
+        assertTrue(db.setPlayerEmail(uuid, "a@example.com"));
+        assertEquals(0, db.getEmailConfirmations(uuid));
+        // Confirming the address the account already has leaves the email as it was
+        assertTrue(db.confirmEmailAtomically(uuid, "a@example.com", 0, "a@example.com"));
+        assertEquals(1, db.getEmailConfirmations(uuid));
+        assertFalse(db.confirmEmailAtomically(uuid, "a@example.com", 0, "a@example.com"));
+    }
+
+    @Test
+    void readersWaitingOnThePoolGiveUpWhenTheDatabaseCloses() throws InterruptedException {
+        UUID uuid = UUID.randomUUID();
+        assertTrue(db.createPlayerAccount(uuid, "alice", "hash", "10.0.0.1"));
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            Thread reader = new Thread(() -> {
+                while (db.isConnected()) db.isIpRestricted(uuid, "10.0.0.2");
+                db.isIpRestricted(uuid, "10.0.0.2");
+            });
+            reader.start();
+            readers.add(reader);
+        }
+        Thread.sleep(100);
+        db.closeConnection();
+        for (Thread reader : readers) {
+            reader.join(5_000);
+            assertFalse(reader.isAlive());
+        }
+    }
+
+    @Test
+    void aBackgroundTransactionOnlyDelaysTheWriter() throws Exception {
+        try (Connection conn = db.openBackgroundConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement("DELETE FROM security_logs")) {
+                ps.executeUpdate();
+            }
+            Thread committer = new Thread(() -> {
+                try {
+                    Thread.sleep(200);
+                    conn.commit();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            committer.start();
+            assertTrue(db.createPlayerAccount(UUID.randomUUID(), "alice", "hash", "10.0.0.1"));
+            committer.join();
+        }
+        assertEquals(500, db.backgroundBatchSize(10_000));
+        assertEquals(1, db.backgroundWriters(4));
+    }
+}
@@ -0,0 +1,70 @@
+// src/test/java/com/pheonix/zyrenauth/manager/FileAccountSourceTest.java
+package com.pheonix.zyrenauth.manager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileAccountSourceTest {
+
+    private static final UUID A = UUID.fromString("10000000-0000-0000-0000-000000000000");
+    private static final UUID B = UUID.fromString("20000000-0000-0000-0000-000000000000");
+    private static final UUID C = UUID.fromString("f0000000-0000-0000-0000-000000000000");
+
+    @Test
+    void servesAccountsInUuidOrderAndResumesAfterTheLastOne() throws Exception {
+        List<AccountRecord> accounts = List.of(account(C), account(A), account(B));
+
+        StorageMigrator.FileAccountSource source = new StorageMigrator.FileAccountSource(accounts, null);
+        assertNull(source.position());
+        assertEquals(A, source.next().uuid());
+        assertEquals(A.toString(), source.position());
+
+        // The file was rewritten in another order and gained an account before the resume point
+        UUID early = UUID.fromString("00000000-0000-0000-0000-000000000001");
+        List<AccountRecord> rewritten = List.of(account(B), account(early), account(C), account(A));
+        StorageMigrator.FileAccountSource resumed = new StorageMigrator.FileAccountSource(rewritten, source.position());
+        assertEquals(List.of(B, C), drain(resumed));
+        assertEquals(C.toString(), resumed.position());
+    }
+
+    @Test
+    void anOldEntryCountPositionStartsOver() throws Exception {
+        StorageMigrator.FileAccountSource source = new StorageMigrator.FileAccountSource(List.of(account(B), account(A)), "1");
+        assertEquals(List.of(A, B), drain(source));
+    }
+
+    @Test
+    void readsAccountsJson(@TempDir File dir) throws Exception {
+        File file = new File(dir, "accounts.json");
+        Files.writeString(file.toPath(), "{\"" + B + "\": {\"username\": \"bob\", \"passwordHash\": \"h\", \"email\": null, \"loggedIn\": true}}",
+                StandardCharsets.UTF_8);
+
+        List<AccountRecord> accounts = StorageMigrator.FileAccountSource.read(file);
+        assertEquals(1, accounts.size());
+        assertEquals(B, accounts.get(0).uuid());
+        assertEquals("bob", accounts.get(0).username());
+        assertNull(accounts.get(0).email());
+    }
+
+    private static AccountRecord account(UUID uuid) {
+        return new AccountRecord(uuid, "p" + uuid.toString().charAt(0), "hash", null, null, 0);
+    }
+
+    private static List<UUID> drain(StorageMigrator.FileAccountSource source) {
+        List<UUID> uuids = new ArrayList<>();
+        AccountRecord account;
+        while ((account = source.next()) != null) {
+            uuids.add(account.uuid());
+        }
+        return uuids;
+    }
+}
@@ -0,0 +1,39 @@
+// src/test/java/com/pheonix/zyrenauth/manager/IpBanListTest.java
+package com.pheonix.zyrenauth.manager;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IpBanListTest {
+
+    @Test
+    void parsesRangesAndZeroesTheHostBits() {
+        assertEquals("10.1.0.0/16", IpBanList.Range.parse("10.1.2.3/16").toString());
+        assertEquals("10.1.2.3/32", IpBanList.Range.parse(" 10.1.2.3 ").toString());
+        assertEquals("10.1.2.0/23", IpBanList.Range.parse("10.1.3.255/23").toString());
+        assertEquals("0.0.0.0/0", IpBanList.Range.parse("10.1.2.3/0").toString());
+        assertEquals("2001:db8:0:0:0:0:0:0/32", IpBanList.Range.parse("2001:db8:ffff::1/32").toString());
+        assertEquals("2001:db8:0:0:0:0:0:1/128", IpBanList.Range.parse("2001:db8::1").toString());
+    }
+
+    @Test
+    void anIpv4MappedRangeIsShiftedToAnIpv4Prefix() {
+        IpBanList.Range range = IpBanList.Range.parse("::ffff:192.168.5.9/120");
+        assertEquals(4, range.address().length);
+        assertEquals("192.168.5.0/24", range.toString());
+        assertEquals("192.168.5.9/32", IpBanList.Range.parse("::ffff:192.168.5.9").toString());
+        // Shorter than the mapped prefix itself has no IPv4 equivalent
+        assertNull(IpBanList.Range.parse("::ffff:192.168.5.9/64"));
+    }
+
+    @Test
+    void rejectsMalformedRanges() {
+        assertNull(IpBanList.Range.parse("10.1.2.3/33"));
+        assertNull(IpBanList.Range.parse("10.1.2.3/-1"));
+        assertNull(IpBanList.Range.parse("10.1.2.3/x"));
+        assertNull(IpBanList.Range.parse("2001:db8::/129"));
+        assertNull(IpBanList.Range.parse("example.com/24"));
+        assertNull(IpBanList.Range.parse("10.1.2/24"));
+    }
+}
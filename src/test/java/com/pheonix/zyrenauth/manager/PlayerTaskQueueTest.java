@@ -0,0 +1,61 @@
+// src/test/java/com/pheonix/zyrenauth/manager/PlayerTaskQueueTest.java
+package com.pheonix.zyrenauth.manager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerTaskQueueTest {
+
+    private final PlayerTaskQueue queue = new PlayerTaskQueue();
+
+    @AfterEach
+    void tearDown() {
+        queue.shutdown(5);
+    }
+
+    @Test
+    void coalescesPerSessionAndKeepsOrderAcrossSessions() throws InterruptedException {
+        UUID player = UUID.randomUUID();
+        Object firstJoin = new Object();
+        Object secondJoin = new Object();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(3);
+        List<String> ran = new CopyOnWriteArrayList<>();
+
+        assertTrue(queue.submit(player, firstJoin, "login", () -> {
+            await(release);
+            ran.add("first login");
+            done.countDown();
+        }));
+        assertFalse(queue.submit(player, firstJoin, "login", () -> ran.add("spam")));
+        assertTrue(queue.submit(player, firstJoin, null, () -> {
+            ran.add("first cleanup");
+            done.countDown();
+        }));
+        // The rejoined session's login is not held up by the old one's pending key
+        assertTrue(queue.submit(player, secondJoin, "login", () -> {
+            ran.add("second login");
+            done.countDown();
+        }));
+        release.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("first login", "first cleanup", "second login"), ran);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
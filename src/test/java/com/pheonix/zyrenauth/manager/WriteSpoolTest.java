@@ -0,0 +1,185 @@
+// src/test/java/com/pheonix/zyrenauth/manager/WriteSpoolTest.java
+package com.pheonix.zyrenauth.manager;
+
+import com.google.gson.Gson;
+import com.pheonix.zyrenauth.ZyrenAuthPlugin;
+import com.pheonix.zyrenauth.util.ZyrenAuthConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockbukkit.mockbukkit.MockBukkit;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteSpoolTest {
+
+    private static final int MAX_ENTRIES = 1000;
+
+    @TempDir
+    File dir;
+
+    private DatabaseManager db;
+    private File spoolFile;
+    private final List<WriteSpool> spools = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockBukkit.mock();
+        MockBukkit.load(ZyrenAuthPlugin.class);
+        ZyrenAuthConfig config = new Gson().fromJson("{\"serverId\": \"a\", \"writeSpoolReplayBatchSize\": 2}", ZyrenAuthConfig.class);
+        db = new EmbeddedDatabaseManager(config, new File(dir, "auth.db"));
+        spoolFile = new File(dir, WriteSpool.FILE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        spools.forEach(WriteSpool::close);
+        db.closeConnection();
+        MockBukkit.unmock();
+    }
+
+    @Test
+    void entriesAtOrBelowTheStoredSequenceAreNotAppliedAgain() throws Exception {
+        WriteSpool spool = open();
+        spool.append(WriteSpool.Op.SECURITY_EVENT, null, "10.0.0.1", "Spooled", "1", MAX_ENTRIES);
+        spool.append(WriteSpool.Op.SECURITY_EVENT, null, "10.0.0.1", "Spooled", "2", MAX_ENTRIES);
+        spool.append(WriteSpool.Op.SECURITY_EVENT, null, "10.0.0.1", "Spooled", "3", MAX_ENTRIES);
+        List<WriteSpool.Entry> entries = spool.getPendingEntries();
+
+        db.applySpooled(spool.getSpoolId(), entries.subList(0, 2));
+        assertEquals(2, replayedSeq(spool.getSpoolId()));
+        // The same batch again, plus the next entry, as after a crash before the file was emptied
+        db.applySpooled(spool.getSpoolId(), entries);
+        assertEquals(3, replayedSeq(spool.getSpoolId()));
+        assertEquals(List.of("1", "2", "3"), spooledEvents());
+    }
+
+    @Test
+    void aReplayCutShortIsFinishedAfterARestart() throws Exception {
+        WriteSpool spool = open();
+        for (int i = 1; i <= 5; i++) {
+            spool.append(WriteSpool.Op.SECURITY_EVENT, null, null, "Spooled", Integer.toString(i), MAX_ENTRIES);
+        }
+        // The first batch committed, then the server died before the spool file was touched
+        db.applySpooled(spool.getSpoolId(), spool.getPendingEntries().subList(0, 2));
+        spool.close();
+
+        WriteSpool restarted = open();
+        assertEquals(5, restarted.getPendingCount());
+        replayAndWait(restarted);
+        assertEquals(List.of("1", "2", "3", "4", "5"), spooledEvents());
+        assertEquals(5, replayedSeq(restarted.getSpoolId()));
+
+        // Emptied, but the sequence carries on
+        WriteSpool reopened = open();
+        assertFalse(reopened.hasPending());
+        reopened.append(WriteSpool.Op.SECURITY_EVENT, null, null, "Spooled", "6", MAX_ENTRIES);
+        assertEquals(6, reopened.getPendingEntries().get(0).seq());
+    }
+
+    @Test
+    void aTornLastLineIsDroppedAndTheNextAppendSurvives() throws Exception {
+        WriteSpool spool = open();
+        spool.append(WriteSpool.Op.SECURITY_EVENT, null, null, "Spooled", "1", MAX_ENTRIES);
+        spool.close();
+        Files.writeString(spoolFile.toPath(), "{\"seq\":2,\"op\":\"SECU", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        WriteSpool reloaded = open();
+        assertEquals(1, reloaded.getPendingCount());
+        assertTrue(reloaded.append(WriteSpool.Op.SECURITY_EVENT, null, null, "Spooled", "2", MAX_ENTRIES));
+        reloaded.close();
+
+        WriteSpool again = open();
+        assertEquals(List.of(1L, 2L), again.getPendingEntries().stream().map(WriteSpool.Entry::seq).toList());
+        replayAndWait(again);
+        assertEquals(List.of("1", "2"), spooledEvents());
+    }
+
+    @Test
+    void aDeletedSpoolStartsANewIdWhoseEntriesAreNotSkipped() throws Exception {
+        WriteSpool spool = open();
+        spool.append(WriteSpool.Op.SECURITY_EVENT, null, null, "Spooled", "1", MAX_ENTRIES);
+        spool.append(WriteSpool.Op.SECURITY_EVENT, null, null, "Spooled", "2", MAX_ENTRIES);
+        replayAndWait(spool);
+        String oldId = spool.getSpoolId();
+        spool.close();
+        assertTrue(spoolFile.delete());
+
+        WriteSpool fresh = open();
+        assertNotEquals(oldId, fresh.getSpoolId());
+        fresh.append(WriteSpool.Op.SECURITY_EVENT, null, null, "Spooled", "3", MAX_ENTRIES);
+        assertEquals(1, fresh.getPendingEntries().get(0).seq());
+        replayAndWait(fresh);
+        assertEquals(List.of("1", "2", "3"), spooledEvents());
+        assertEquals(1, replayedSeq(fresh.getSpoolId()));
+    }
+
+    @Test
+    void aSpooledResetOnlyAppliesToTheHashItWasCheckedAgainst() throws Exception {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        assertTrue(db.createPlayerAccount(alice, "alice", "old", "10.0.0.1"));
+        assertTrue(db.createPlayerAccount(bob, "bob", "changed", "10.0.0.2"));
+        WriteSpool spool = open();
+        spool.append(WriteSpool.Op.PASSWORD_IF_UNCHANGED, alice, null, "new", "old", MAX_ENTRIES);
+        spool.append(WriteSpool.Op.PASSWORD_IF_UNCHANGED, bob, null, "new", "old", MAX_ENTRIES);
+
+        replayAndWait(spool);
+        assertEquals("new", db.getPlayerHashedPassword(alice));
+        assertEquals("changed", db.getPlayerHashedPassword(bob));
+        // Only the applied reset tells other servers to drop the cached hash
+        assertEquals(1, db.getAuthChangesSince(0, 10).size());
+    }
+
+    private WriteSpool open() throws Exception {
+        WriteSpool spool = new WriteSpool(spoolFile);
+        spool.load();
+        spools.add(spool);
+        return spool;
+    }
+
+    private void replayAndWait(WriteSpool spool) throws InterruptedException {
+        spool.replay(db);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (spool.hasPending()) {
+            assertTrue(System.currentTimeMillis() < deadline, "replay did not finish");
+            Thread.sleep(10);
+        }
+    }
+
+    private long replayedSeq(String spoolId) throws SQLException {
+        try (Connection conn = db.openBackgroundConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT spool_id, last_seq FROM write_spool_replay WHERE server_id = 'a'");
+             ResultSet rs = ps.executeQuery()) {
+            assertTrue(rs.next());
+            assertEquals(spoolId, rs.getString("spool_id"));
+            return rs.getLong("last_seq");
+        }
+    }
+
+    private List<String> spooledEvents() throws SQLException {
+        List<String> details = new ArrayList<>();
+        try (Connection conn = db.openBackgroundConnection();
+             Statement statement = conn.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT details FROM security_logs WHERE event_type = 'Spooled' ORDER BY id")) {
+            while (rs.next()) {
+                details.add(rs.getString(1));
+            }
+        }
+        return details;
+    }
+}
@@ -0,0 +1,72 @@
+// src/test/java/com/pheonix/zyrenauth/util/BreachedPasswordFilterTest.java
+package com.pheonix.zyrenauth.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BreachedPasswordFilterTest {
+
+    @TempDir
+    File dir;
+
+    @Test
+    void containsEveryBuiltEntryAndFewOthers() throws IOException {
+        File source = new File(dir, "breached.txt");
+        try (PrintWriter writer = new PrintWriter(source, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < 10_000; i++) {
+                writer.println("password" + i);
+            }
+        }
+        File target = new File(dir, "breached.bloom");
+        assertEquals(10_000, BreachedPasswordFilter.build(source, target, 0.01));
+        assertFalse(new File(dir, "breached.bloom.part").exists());
+
+        BreachedPasswordFilter filter = BreachedPasswordFilter.load(target);
+        assertEquals(10_000, filter.getEntries());
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(mightContain(filter, "password" + i));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (mightContain(filter, "other" + i)) falsePositives++;
+        }
+        assertTrue(falsePositives < 300, falsePositives + " false positives");
+    }
+
+    @Test
+    void loadRejectsForeignAndTruncatedFiles() throws IOException {
+        assertNull(BreachedPasswordFilter.load(new File(dir, "missing.bloom")));
+
+        File foreign = new File(dir, "foreign.bloom");
+        Files.write(foreign.toPath(), new byte[64]);
+        assertThrows(IOException.class, () -> BreachedPasswordFilter.load(foreign));
+
+        File source = new File(dir, "breached.txt");
+        Files.writeString(source.toPath(), "hunter2\n", StandardCharsets.UTF_8);
+        File target = new File(dir, "breached.bloom");
+        BreachedPasswordFilter.build(source, target, 0.01);
+        byte[] full = Files.readAllBytes(target.toPath());
+        File truncated = new File(dir, "truncated.bloom");
+        Files.write(truncated.toPath(), Arrays.copyOf(full, full.length - 1));
+        assertThrows(IOException.class, () -> BreachedPasswordFilter.load(truncated));
+    }
+
+    private static boolean mightContain(BreachedPasswordFilter filter, String password) {
+        long h1 = BreachedPasswordFilter.SEED1;
+        long h2 = BreachedPasswordFilter.SEED2;
+        for (int i = 0; i < password.length(); i++) {
+            h1 = BreachedPasswordFilter.step1(h1, password.charAt(i));
+            h2 = BreachedPasswordFilter.step2(h2, password.charAt(i));
+        }
+        return filter.mightContain(BreachedPasswordFilter.finish(h1), BreachedPasswordFilter.finish(h2));
+    }
+}
@@ -0,0 +1,91 @@
+// src/test/java/com/pheonix/zyrenauth/util/CidrTrieTest.java
+package com.pheonix.zyrenauth.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CidrTrieTest {
+
+    @Test
+    void findsTheLongestStoredPrefix() throws UnknownHostException {
+        CidrTrie trie = new CidrTrie(32);
+        assertTrue(trie.add(ip("10.0.0.0"), 8));
+        assertTrue(trie.add(ip("10.1.0.0"), 16));
+        assertTrue(trie.add(ip("10.1.2.3"), 32));
+        assertFalse(trie.add(ip("10.1.0.0"), 16));
+        assertEquals(3, trie.size());
+
+        assertEquals(32, trie.longestMatch(ip("10.1.2.3")));
+        assertEquals(16, trie.longestMatch(ip("10.1.2.4")));
+        assertEquals(8, trie.longestMatch(ip("10.200.0.1")));
+        assertEquals(-1, trie.longestMatch(ip("11.0.0.1")));
+
+        trie.add(ip("0.0.0.0"), 0);
+        assertEquals(0, trie.longestMatch(ip("11.0.0.1")));
+    }
+
+    @Test
+    void removeOnlyUnmarksTheExactRange() throws UnknownHostException {
+        CidrTrie trie = new CidrTrie(32);
+        trie.add(ip("10.0.0.0"), 8);
+        trie.add(ip("10.1.0.0"), 16);
+
+        assertFalse(trie.remove(ip("10.1.0.0"), 24));
+        assertFalse(trie.remove(ip("192.168.0.0"), 16));
+        assertTrue(trie.remove(ip("10.1.0.0"), 16));
+        assertFalse(trie.remove(ip("10.1.0.0"), 16));
+        assertFalse(trie.contains(ip("10.1.0.0"), 16));
+        assertEquals(1, trie.size());
+        // The covering range still matches through the nodes the removed one left behind
+        assertEquals(8, trie.longestMatch(ip("10.1.2.3")));
+    }
+
+    @Test
+    void forEachVisitsEveryRangeSoTheyCanBeAddedBack() throws UnknownHostException {
+        CidrTrie trie = new CidrTrie(128);
+        trie.add(ip("2001:db8::"), 32);
+        trie.add(ip("2001:db8:1::"), 48);
+        trie.add(ip("fe80::1"), 128);
+        trie.remove(ip("fe80::1"), 128);
+
+        List<String> visited = new ArrayList<>();
+        CidrTrie copy = new CidrTrie(128);
+        trie.forEach((address, prefix) -> {
+            visited.add(text(address) + "/" + prefix);
+            copy.add(address, prefix);
+        });
+        assertEquals(List.of("2001:db8:0:0:0:0:0:0/32", "2001:db8:1:0:0:0:0:0/48"), visited);
+        assertEquals(2, copy.size());
+        assertEquals(48, copy.longestMatch(ip("2001:db8:1::5")));
+        assertEquals(32, copy.longestMatch(ip("2001:db8:2::5")));
+        assertEquals(-1, copy.longestMatch(ip("fe80::1")));
+    }
+
+    @Test
+    void clearEmptiesTheTrie() throws UnknownHostException {
+        CidrTrie trie = new CidrTrie(32);
+        trie.add(ip("10.0.0.0"), 8);
+        trie.clear();
+        assertEquals(0, trie.size());
+        assertEquals(-1, trie.longestMatch(ip("10.0.0.1")));
+        assertTrue(trie.add(ip("10.0.0.0"), 8));
+    }
+
+    private static byte[] ip(String literal) throws UnknownHostException {
+        return InetAddress.getByName(literal).getAddress();
+    }
+
+    private static String text(byte[] address) {
+        try {
+            return InetAddress.getByAddress(address).getHostAddress();
+        } catch (UnknownHostException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+// src/test/java/com/pheonix/zyrenauth/util/CircuitBreakerTest.java
+package com.pheonix.zyrenauth.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private final AtomicInteger opened = new AtomicInteger();
+
+    @Test
+    void opensOnceTheThresholdIsReachedWithinTheWindow() {
+        CircuitBreaker breaker = new CircuitBreaker(3, 60_000, 60_000, 30_000, opened::incrementAndGet);
+        breaker.recordFailure();
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+        // Further failures while open do not count as new openings
+        breaker.recordFailure();
+        assertEquals(1, opened.get());
+        assertEquals(1, breaker.getOpenedTotal());
+    }
+
+    @Test
+    void failuresOutsideTheWindowDoNotOpen() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker(2, 50, 60_000, 30_000, opened::incrementAndGet);
+        breaker.recordFailure();
+        Thread.sleep(100);
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void tripOpensAtOnce() {
+        CircuitBreaker breaker = new CircuitBreaker(5, 60_000, 60_000, 30_000, opened::incrementAndGet);
+        breaker.trip();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(1, opened.get());
+    }
+
+    @Test
+    void aSuccessfulProbeHalfOpensAndAQuietPeriodCloses() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker(1, 60_000, 50, 30_000, opened::incrementAndGet);
+        breaker.probeSucceeded();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.recordFailure();
+        breaker.probeSucceeded();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.allowRequest());
+        Thread.sleep(100);
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void oneFailureWhileHalfOpenReopens() {
+        CircuitBreaker breaker = new CircuitBreaker(3, 60_000, 60_000, 30_000, opened::incrementAndGet);
+        breaker.trip();
+        breaker.probeSucceeded();
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(2, opened.get());
+    }
+
+    @Test
+    void probeBackoffDoublesUpToTheMaximumAndResetsOnClose() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker(1, 60_000, 50, 10_000, opened::incrementAndGet);
+        breaker.trip();
+        assertDelayAround(1000, breaker.nextProbeDelayMillis());
+        breaker.probeFailed();
+        assertDelayAround(2000, breaker.nextProbeDelayMillis());
+        for (int i = 0; i < 10; i++) breaker.probeFailed();
+        assertDelayAround(10_000, breaker.nextProbeDelayMillis());
+
+        breaker.probeSucceeded();
+        Thread.sleep(100);
+        breaker.allowRequest();
+        assertDelayAround(1000, breaker.nextProbeDelayMillis());
+    }
+
+    private static void assertDelayAround(long expected, long actual) {
+        assertTrue(actual >= expected * 0.8 && actual <= expected * 1.2, actual + " not within 20% of " + expected);
+    }
+}
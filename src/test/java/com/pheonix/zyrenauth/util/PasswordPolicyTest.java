@@ -0,0 +1,61 @@
+// src/test/java/com/pheonix/zyrenauth/util/PasswordPolicyTest.java
+package com.pheonix.zyrenauth.util;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordPolicyTest {
+
+    @TempDir
+    File dir;
+
+    @Test
+    void checksLengthAndEveryRequiredClass() {
+        PasswordPolicy policy = new PasswordPolicy(config("{}"), null);
+        assertEquals(PasswordPolicy.Result.OK, policy.check("Secret#42"));
+        assertEquals(PasswordPolicy.Result.TOO_SHORT, policy.check("Se#4"));
+        assertEquals(PasswordPolicy.Result.TOO_SHORT, policy.check(null));
+        assertEquals(PasswordPolicy.Result.TOO_LONG, policy.check("Aa1#" + "x".repeat(69)));
+        assertEquals(PasswordPolicy.Result.MISSING_CLASS, policy.check("secret#42"));
+        assertEquals(PasswordPolicy.Result.MISSING_CLASS, policy.check("SECRET#42"));
+        assertEquals(PasswordPolicy.Result.MISSING_CLASS, policy.check("Secret#xy"));
+        assertEquals(PasswordPolicy.Result.MISSING_CLASS, policy.check("Secret442"));
+        // Letters outside ASCII count by their case
+        assertEquals(PasswordPolicy.Result.OK, policy.check("Ärger#42x"));
+    }
+
+    @Test
+    void onlyConfiguredClassesAreRequired() {
+        PasswordPolicy policy = new PasswordPolicy(config("{\"minPasswordLength\": 4, \"requireUppercase\": false, " +
+                "\"requireSpecialChar\": false}"), null);
+        assertEquals(PasswordPolicy.Result.OK, policy.check("abc1"));
+        assertEquals(PasswordPolicy.Result.MISSING_CLASS, policy.check("abcd"));
+    }
+
+    @Test
+    void rejectsPasswordsInTheBreachedFilter() throws IOException {
+        File source = new File(dir, "breached.txt");
+        Files.writeString(source.toPath(), "Password#1\nQwerty#123\n", StandardCharsets.UTF_8);
+        File filterFile = new File(dir, "breached.bloom");
+        BreachedPasswordFilter.build(source, filterFile, 0.0001);
+        PasswordPolicy policy = new PasswordPolicy(config("{}"), BreachedPasswordFilter.load(filterFile));
+
+        assertTrue(policy.hasBreachedFilter());
+        assertEquals(PasswordPolicy.Result.BREACHED, policy.check("Password#1"));
+        assertEquals(PasswordPolicy.Result.OK, policy.check("Password#2"));
+        // Class rules are reported before the filter is consulted
+        assertEquals(PasswordPolicy.Result.MISSING_CLASS, policy.check("qwerty#123"));
+    }
+
+    private static ZyrenAuthConfig config(String json) {
+        return new Gson().fromJson(json, ZyrenAuthConfig.class);
+    }
+}
@@ -0,0 +1,50 @@
+// src/test/java/com/pheonix/zyrenauth/util/SignedTokensTest.java
+package com.pheonix.zyrenauth.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SignedTokensTest {
+
+    @TempDir
+    File dir;
+
+    private static final SignedTokens.Purpose CONFIRM = SignedTokens.Purpose.EMAIL_CONFIRMATION;
+
+    @Test
+    void verifiesOnlyForThePlayerAndBindingItWasIssuedFor() throws IOException {
+        SignedTokens tokens = SignedTokens.load(dir, "secret");
+        UUID player = UUID.randomUUID();
+        long expiry = System.currentTimeMillis() + 60_000;
+        String token = tokens.issue(CONFIRM, player, "old@example.com\n0", "new@example.com", expiry);
+
+        SignedTokens.Token verified = tokens.verify(token, CONFIRM, player, "old@example.com\n0");
+        assertNotNull(verified);
+        assertEquals("new@example.com", verified.email());
+        assertNull(tokens.verify(token, CONFIRM, player, "old@example.com\n1"));
+        assertNull(tokens.verify(token, CONFIRM, UUID.randomUUID(), "old@example.com\n0"));
+        assertNull(tokens.verify(token, SignedTokens.Purpose.PASSWORD_RESET, player, "old@example.com\n0"));
+    }
+
+    @Test
+    void serversSharingTheSecretAcceptEachOthersTokens() throws IOException {
+        UUID player = UUID.randomUUID();
+        String token = SignedTokens.load(dir, "secret").issue(CONFIRM, player, "b", "x@example.com", System.currentTimeMillis() + 60_000);
+        assertNotNull(SignedTokens.load(dir, "secret").verify(token, CONFIRM, player, "b"));
+        assertNull(SignedTokens.load(dir, "other").verify(token, CONFIRM, player, "b"));
+    }
+
+    @Test
+    void rejectsExpiredTokens() throws IOException {
+        SignedTokens tokens = SignedTokens.load(dir, "secret");
+        UUID player = UUID.randomUUID();
+        String token = tokens.issue(CONFIRM, player, "b", "x@example.com", System.currentTimeMillis() - 1_000);
+        assertNull(tokens.verify(token, CONFIRM, player, "b"));
+    }
+}
@@ -0,0 +1,50 @@
+// src/test/java/com/pheonix/zyrenauth/util/SlidingDistinctCounterTest.java
+package com.pheonix.zyrenauth.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingDistinctCounterTest {
+
+    private static final long T = 1_700_000_000L;
+
+    @Test
+    void repeatedValuesCountOnce() {
+        SlidingDistinctCounter counter = new SlidingDistinctCounter();
+        for (int i = 0; i < 1000; i++) {
+            counter.add("10.0.0.1".hashCode(), T);
+            counter.add("10.0.0.2".hashCode(), T);
+        }
+        assertEquals(2, counter.perSecond(T + 1));
+        assertEquals(0, counter.perSecond(T));
+    }
+
+    @Test
+    void estimatesManyDistinctValuesWithinAFewPercent() {
+        SlidingDistinctCounter counter = new SlidingDistinctCounter();
+        // 3000 similar addresses spread over the minute, each seen a few times
+        for (int i = 0; i < 3000; i++) {
+            String ip = "10." + (i / 256) + "." + (i % 256) + ".1";
+            for (int seen = 0; seen < 3; seen++) {
+                counter.add(ip.hashCode(), T + (i + seen) % 60);
+            }
+        }
+        int estimate = counter.perMinute(T + 59);
+        assertTrue(Math.abs(estimate - 3000) < 150, "estimate " + estimate);
+    }
+
+    @Test
+    void aSlotIsClearedWhenItsSecondComesRoundAgain() {
+        SlidingDistinctCounter counter = new SlidingDistinctCounter();
+        for (int i = 0; i < 100; i++) {
+            counter.add(i, T);
+        }
+        assertTrue(counter.perMinute(T + 59) > 90);
+        assertEquals(0, counter.perMinute(T + 60));
+
+        counter.add(1, T + 60);
+        assertEquals(1, counter.perSecond(T + 61));
+        assertEquals(1, counter.perMinute(T + 60));
+    }
+}
@@ -0,0 +1,58 @@
+// src/test/java/com/pheonix/zyrenauth/util/SlidingWindowCounterTest.java
+package com.pheonix.zyrenauth.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowCounterTest {
+
+    private static final long T = 1_700_000_000L;
+
+    @Test
+    void perSecondIsTheLastCompleteSecond() {
+        SlidingWindowCounter counter = new SlidingWindowCounter();
+        counter.increment(T);
+        counter.increment(T);
+        counter.increment(T + 1);
+
+        assertEquals(0, counter.perSecond(T));
+        assertEquals(2, counter.perSecond(T + 1));
+        assertEquals(1, counter.perSecond(T + 2));
+        assertEquals(0, counter.perSecond(T + 3));
+    }
+
+    @Test
+    void perMinuteCoversTheLastSixtySecondsAndRecyclesOlderSlots() {
+        SlidingWindowCounter counter = new SlidingWindowCounter();
+        for (long second = T; second < T + 60; second++) {
+            counter.increment(second);
+        }
+        assertEquals(60, counter.perMinute(T + 59));
+        assertEquals(59, counter.perMinute(T + 60));
+
+        // Same slot as T, a minute later: the old count is dropped, not added to
+        counter.increment(T + 60);
+        assertEquals(1, counter.perSecond(T + 61));
+        assertEquals(60, counter.perMinute(T + 60));
+        assertEquals(0, counter.perMinute(T + 200));
+    }
+
+    @Test
+    void concurrentIncrementsAreNotLost() throws InterruptedException {
+        SlidingWindowCounter counter = new SlidingWindowCounter();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) counter.increment(T);
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) thread.join();
+        assertEquals(80_000, counter.perSecond(T + 1));
+    }
+}
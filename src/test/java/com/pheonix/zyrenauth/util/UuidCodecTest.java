@@ -0,0 +1,55 @@
+// src/test/java/com/pheonix/zyrenauth/util/UuidCodecTest.java
+package com.pheonix.zyrenauth.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidCodecTest {
+
+    @Test
+    void roundTrips() {
+        UUID uuid = UUID.randomUUID();
+        assertEquals(uuid, UuidCodec.fromBytes(UuidCodec.toBytes(uuid)));
+    }
+
+    @Test
+    void everyCallReturnsItsOwnArray() {
+        UUID uuid = UUID.randomUUID();
+        assertNotSame(UuidCodec.toBytes(uuid), UuidCodec.toBytes(uuid));
+    }
+
+    // Drivers hold bound arrays until execute: two UUIDs in one statement must stay two UUIDs
+    @Test
+    void twoUuidsBoundInOneStatementStayDistinct() throws Exception {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            try (Statement statement = conn.createStatement()) {
+                statement.execute("CREATE TABLE ids (id BLOB NOT NULL)");
+            }
+            try (PreparedStatement ps = conn.prepareStatement("INSERT INTO ids (id) VALUES (?), (?)")) {
+                ps.setBytes(1, UuidCodec.toBytes(first));
+                ps.setBytes(2, UuidCodec.toBytes(second));
+                ps.executeUpdate();
+            }
+            Set<UUID> stored = new HashSet<>();
+            try (Statement statement = conn.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT id FROM ids")) {
+                while (rs.next()) {
+                    stored.add(UuidCodec.fromBytes(rs.getBytes(1)));
+                }
+            }
+            assertEquals(Set.of(first, second), stored);
+        }
+    }
+}